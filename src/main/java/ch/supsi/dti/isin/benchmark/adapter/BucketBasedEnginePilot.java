@@ -18,6 +18,12 @@ public abstract class BucketBasedEnginePilot implements ConsistentHashEnginePilo
     /** The bucket-based engine to pilot. */
     private final BucketBasedEngine engine;
 
+    /** Reusable buffer for batch lookups. */
+    private int[] buckets = new int[0];
+
+    /** Reusable buffer for replica lookups. */
+    private int[] replicated = new int[0];
+
 
     /**
      * Constructor with parameters.
@@ -50,6 +56,47 @@ public abstract class BucketBasedEnginePilot implements ConsistentHashEnginePilo
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer getNode( long keyHash )
+    {
+
+        return engine.getBucket( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getNodes( long[] keyHashes )
+    {
+
+        if( buckets.length < keyHashes.length )
+            buckets = new int[keyHashes.length];
+
+        engine.getBuckets( keyHashes, buckets );
+        return buckets;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( replicated.length != replicas )
+            replicated = new int[replicas];
+
+        engine.getReplicas( keyHash, replicated );
+        return replicated;
+
+    }
+
     /**
      * {@inheritDoc}
      */
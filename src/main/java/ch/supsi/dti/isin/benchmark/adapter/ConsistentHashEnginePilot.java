@@ -35,6 +35,41 @@ public interface ConsistentHashEnginePilot<N>
      */
     Object getNode( String key );
 
+    /**
+     * Performs a lookup and returns the node associated with the key having the specified hash.
+     *
+     * <p>This method allows to benchmark the lookup operation without the cost of hashing a {@link String}.
+     * The returned value is not used but can avoid dead code elimination from the JVM.
+     *
+     * @param keyHash hash of the key of the node that will be returned
+     * @return a Node associated with the specified key hash
+     */
+    Object getNode( long keyHash );
+
+    /**
+     * Performs a lookup for each of the given key hashes.
+     *
+     * <p>The returned value is an array containing the node associated with each key hash.
+     * Implementations may reuse the same array across invocations to avoid allocations,
+     * therefore the returned array may be longer than the given one.
+     *
+     * @param keyHashes hashes of the keys to lookup
+     * @return the nodes associated with the specified key hashes
+     */
+    Object getNodes( long[] keyHashes );
+
+    /**
+     * Performs a lookup of the given number of distinct replicas of the key having the specified hash.
+     *
+     * <p>The returned value is an array containing the replicas sorted by priority.
+     * Implementations may reuse the same array across invocations to avoid allocations.
+     *
+     * @param keyHash  hash of the key to lookup
+     * @param replicas number of distinct replicas to lookup
+     * @return the replicas associated with the specified key hash
+     */
+    Object getReplicas( long keyHash, int replicas );
+
     /**
      * Adds a random node to the CH algorithm and returns its identification.
      *
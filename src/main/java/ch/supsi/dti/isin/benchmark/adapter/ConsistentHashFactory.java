@@ -6,10 +6,13 @@ import java.util.function.Supplier;
 import org.nerd4j.utils.lang.Require;
 
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
 import ch.supsi.dti.isin.benchmark.config.InvalidConfigException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.benchmark.executor.InitTime;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 /**
@@ -23,6 +26,9 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 public abstract class ConsistentHashFactory
 {
 
+    /** Tells if the engine should be wrapped into a memento overlay if not defined in the configuration. */
+    private static final boolean DEFAULT_MEMENTO = false;
+
 
     /** The configuration to use to create consistent hash algorithms. */
     protected final AlgorithmConfig config;
@@ -118,4 +124,35 @@ public abstract class ConsistentHashFactory
      */
     protected abstract AlgorithmConfig validate( AlgorithmConfig config );
 
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Tells if the engine should be wrapped into a {@link MementoOverlay}.
+     * <p>
+     * If so, the nodes can be removed in any order.
+     * The factories of the algorithms supporting only
+     * LIFO removals read the {@code memento} argument
+     * through this method.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the memento overlay should be used
+     * @throws InvalidConfigException if the argument is not a boolean
+     */
+    protected static boolean isMemento( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_MEMENTO;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "memento" );
+        final Object value = config.getArgs().get( "memento" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_MEMENTO;
+
+    }
+
 }
@@ -14,6 +14,10 @@ import ch.supsi.dti.isin.consistenthash.anchor.AnchorEngine;
 public class AnchorEnginePilot extends BucketBasedEnginePilot
 {
 
+    /** The engine to pilot. */
+    private final AnchorEngine engine;
+
+
     /**
      * Constructor with parameters.
      *
@@ -24,6 +28,30 @@ public class AnchorEnginePilot extends BucketBasedEnginePilot
 
         super( engine );
 
+        this.engine = engine;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the engine is full the capacity is doubled.
+     */
+    @Override
+    public Integer addNode()
+    {
+
+        if( engine.size() == engine.capacity() )
+            engine.grow( engine.capacity() << 1 );
+
+        return super.addNode();
+
     }
 
 }
@@ -14,6 +14,7 @@ import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.anchor.AnchorEngine;
 import ch.supsi.dti.isin.consistenthash.anchor.AnchorHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -31,6 +32,9 @@ public class AnchorFactory extends ConsistentHashFactory
     /** The default capacity multiplier to apply if not defined in the configuration. */
     private static final int DEFAULT_CAPACITY = 10;
 
+    /** Tells if the weights of the nodes should be used if not defined in the configuration. */
+    private static final boolean DEFAULT_WEIGHTED = false;
+
 
     /**
      * Constructor with parameters.
@@ -54,14 +58,17 @@ public class AnchorFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public AnchorHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        final int capacity = getCapacity( nodes.size(), config );
-        return new AnchorHash( nodes, capacity, hash );
+        if( ! isWeighted(config) )
+            return new AnchorHash( nodes, getCapacity(nodes.size(), config), hash );
+
+        final int capacity = getCapacity( totalWeight(nodes), config );
+        return new WeightedBucketHash( nodes, capacity, size -> new AnchorEngine(size, capacity, hash) );
 
     }
 
@@ -75,9 +82,9 @@ public class AnchorFactory extends ConsistentHashFactory
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-
-        final int capacity = getCapacity( nodes.size(), config );
-        return () -> new AnchorEngine( nodes.size(), capacity, hash );
+        final int size = isWeighted( config ) ? totalWeight( nodes ) : nodes.size();
+        final int capacity = getCapacity( size, config );
+        return () -> new AnchorEngine( size, capacity, hash );
 
     }
 
@@ -113,6 +120,7 @@ public class AnchorFactory extends ConsistentHashFactory
     {
 
         getCapacity( 10, config );
+        isWeighted( config );
         return config;
         
     }
@@ -148,4 +156,38 @@ public class AnchorFactory extends ConsistentHashFactory
 
     }
 
+    /**
+     * Tells if the weights of the nodes should be used.
+     * <p>
+     * If so, each node owns as many buckets as its weight.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the weights of the nodes should be used
+     */
+    private boolean isWeighted( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_WEIGHTED;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "weighted" );
+        final Object value = config.getArgs().get( "weighted" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_WEIGHTED;
+
+    }
+
+    /**
+     * Returns the sum of the weights of the given nodes.
+     * 
+     * @param nodes the nodes to check
+     * @return the total weight
+     */
+    private int totalWeight( Collection<? extends Node> nodes )
+    {
+
+        return nodes.stream().mapToInt( Node::weight ).sum();
+
+    }
+
 }
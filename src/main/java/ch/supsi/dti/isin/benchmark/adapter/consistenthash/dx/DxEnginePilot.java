@@ -13,6 +13,10 @@ import ch.supsi.dti.isin.consistenthash.dx.DxEngine;
 public class DxEnginePilot extends BucketBasedEnginePilot
 {
 
+    /** The engine to pilot. */
+    private final DxEngine engine;
+
+
     /**
      * Constructor with parameters.
      *
@@ -23,6 +27,30 @@ public class DxEnginePilot extends BucketBasedEnginePilot
 
         super( engine );
 
+        this.engine = engine;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the engine is full the capacity is doubled.
+     */
+    @Override
+    public Integer addNode()
+    {
+
+        if( engine.size() == engine.capacity() )
+            engine.grow( engine.capacity() << 1 );
+
+        return super.addNode();
+
     }
 
 }
@@ -13,6 +13,7 @@ import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.dx.DxEngine;
 import ch.supsi.dti.isin.consistenthash.dx.DxHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -31,6 +32,12 @@ public class DxFactory extends ConsistentHashFactory
     /** The default capacity multiplier to apply if not defined in the configuration. */
     private static final int DEFAULT_CAPACITY = 10;
 
+    /** Tells if the weights of the nodes should be used if not defined in the configuration. */
+    private static final boolean DEFAULT_WEIGHTED = false;
+
+    /** Tells if the original placements should be reproduced if not defined in the configuration. */
+    private static final boolean DEFAULT_COMPATIBILITY = true;
+
 
     /**
      * Constructor with parameters.
@@ -54,14 +61,18 @@ public class DxFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public DxHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        final int capacity = getCapacity( nodes.size(), config );
-        return new DxHash( nodes, capacity, hash );
+        final boolean compatibility = isCompatibility( config );
+        if( ! isWeighted(config) )
+            return new DxHash( nodes, getCapacity(nodes.size(), config), hash, compatibility );
+
+        final int capacity = getCapacity( totalWeight(nodes), config );
+        return new WeightedBucketHash( nodes, capacity, size -> new DxEngine(size, capacity, hash, compatibility) );
 
     }
 
@@ -75,9 +86,10 @@ public class DxFactory extends ConsistentHashFactory
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-
-        final int capacity = getCapacity( nodes.size(), config );
-        return () -> new DxEngine( nodes.size(), capacity, hash );
+        final int size = isWeighted( config ) ? totalWeight( nodes ) : nodes.size();
+        final int capacity = getCapacity( size, config );
+        final boolean compatibility = isCompatibility( config );
+        return () -> new DxEngine( size, capacity, hash, compatibility );
 
     }
 
@@ -113,6 +125,8 @@ public class DxFactory extends ConsistentHashFactory
     {
 
         getCapacity( 10, config );
+        isWeighted( config );
+        isCompatibility( config );
         return config;
         
     }
@@ -148,4 +162,58 @@ public class DxFactory extends ConsistentHashFactory
 
     }
 
+    /**
+     * Tells if the weights of the nodes should be used.
+     * <p>
+     * If so, each node owns as many buckets as its weight.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the weights of the nodes should be used
+     */
+    private boolean isWeighted( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_WEIGHTED;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "weighted" );
+        final Object value = config.getArgs().get( "weighted" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_WEIGHTED;
+
+    }
+
+    /**
+     * Tells if the placements of the original implementation
+     * based on {@link java.util.Random} should be reproduced.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the compatibility mode is enabled
+     */
+    private boolean isCompatibility( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_COMPATIBILITY;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "compatibility" );
+        final Object value = config.getArgs().get( "compatibility" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_COMPATIBILITY;
+
+    }
+
+    /**
+     * Returns the sum of the weights of the given nodes.
+     * 
+     * @param nodes the nodes to check
+     * @return the total weight
+     */
+    private int totalWeight( Collection<? extends Node> nodes )
+    {
+
+        return nodes.stream().mapToInt( Node::weight ).sum();
+
+    }
+
 }
@@ -6,13 +6,17 @@ import java.util.function.Supplier;
 
 import org.nerd4j.utils.lang.Require;
 
+import ch.supsi.dti.isin.benchmark.adapter.BucketBasedEnginePilot;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
+import ch.supsi.dti.isin.benchmark.adapter.consistenthash.memento.MementoOverlayEnginePilot;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.consistenthash.flip.FlipEngine;
 import ch.supsi.dti.isin.consistenthash.flip.FlipHash;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlayHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -47,13 +51,16 @@ public class FlipFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public FlipHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        return new FlipHash( nodes, hash );
+        if( ! isMemento(config) )
+            return new FlipHash( nodes, hash );
+
+        return new MementoOverlayHash( nodes, size -> new FlipEngine(size, hash), hash );
 
     }
 
@@ -76,13 +83,16 @@ public class FlipFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public FlipEnginePilot createEnginePilot( ConsistentHash consistentHash )
+    public BucketBasedEnginePilot createEnginePilot( ConsistentHash consistentHash )
     {
 
         final Object engine = Require.nonNull(
             consistentHash, "The consistent hash to pilot is mandatory"
         ).engine();
         
+        if( engine instanceof MementoOverlay )
+            return new MementoOverlayEnginePilot( (MementoOverlay) engine );
+
         if( engine instanceof FlipEngine )
             return new FlipEnginePilot( (FlipEngine) engine );
 
@@ -103,6 +113,7 @@ public class FlipFactory extends ConsistentHashFactory
     protected AlgorithmConfig validate( AlgorithmConfig config )
     {
 
+        isMemento( config );
         return config;
         
     }
@@ -1,13 +1,17 @@
 package ch.supsi.dti.isin.benchmark.adapter.consistenthash.jumpback;
 
 
+import ch.supsi.dti.isin.benchmark.adapter.BucketBasedEnginePilot;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
+import ch.supsi.dti.isin.benchmark.adapter.consistenthash.memento.MementoOverlayEnginePilot;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.consistenthash.jumpback.JumpBackEngine;
 import ch.supsi.dti.isin.consistenthash.jumpback.JumpBackHash;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlayHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 import org.nerd4j.utils.lang.Require;
 
@@ -44,13 +48,16 @@ public class JumpBackFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public JumpBackHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        return new JumpBackHash( nodes, hash );
+        if( ! isMemento(config) )
+            return new JumpBackHash( nodes, hash );
+
+        return new MementoOverlayHash( nodes, size -> new JumpBackEngine(size, hash), hash );
 
     }
 
@@ -73,13 +80,16 @@ public class JumpBackFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public JumpBackEnginePilot createEnginePilot(ConsistentHash consistentHash )
+    public BucketBasedEnginePilot createEnginePilot( ConsistentHash consistentHash )
     {
 
         final Object engine = Require.nonNull(
             consistentHash, "The consistent hash to pilot is mandatory"
         ).engine();
         
+        if( engine instanceof MementoOverlay )
+            return new MementoOverlayEnginePilot( (MementoOverlay) engine );
+
         if( engine instanceof JumpBackEngine )
             return new JumpBackEnginePilot( (JumpBackEngine) engine );
 
@@ -100,6 +110,7 @@ public class JumpBackFactory extends ConsistentHashFactory
     protected AlgorithmConfig validate( AlgorithmConfig config )
     {
 
+        isMemento( config );
         return config;
         
     }
@@ -22,6 +22,12 @@ public class MaglevEnginePilot extends NameBasedEnginePilot
     /** The engine to pilot. */
     private final MaglevEngine engine;
 
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private int[] slots = new int[0];
+
 
     /**
      * Constructor with parameters.
@@ -54,6 +60,47 @@ public class MaglevEnginePilot extends NameBasedEnginePilot
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getBackend( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getBackends( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( slots.length != replicas )
+            slots = new int[replicas];
+
+        engine.getReplicas( keyHash, slots );
+        return slots;
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -36,6 +36,9 @@ public class MaglevFactory extends ConsistentHashFactory
     /** The default number of permutations to apply if not defined in the configuration. */
     private static final int DEFAULT_PERMUTATIONS = 128;
 
+    /** Tells if the lookup table should be updated incrementally if not defined in the configuration. */
+    private static final boolean DEFAULT_INCREMENTAL = false;
+
     /**
      * Constructor with parameters.
      * 
@@ -65,7 +68,7 @@ public class MaglevFactory extends ConsistentHashFactory
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
         final int lookupSize = getLookupSize( nodes.size(), config );
-        return new MaglevHash( nodes, lookupSize, hash );
+        return new MaglevHash( nodes, lookupSize, isIncremental(config), hash );
 
     }
 
@@ -80,11 +83,12 @@ public class MaglevFactory extends ConsistentHashFactory
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
         final int lookupSize = getLookupSize( nodes.size(), config );
+        final boolean incremental = isIncremental( config );
         final List<String> backends = nodes.stream().map( String::valueOf ).collect( Collectors.toList() );
         
         return () -> {
             
-            final MaglevEngine engine = new MaglevEngine( lookupSize, hash );
+            final MaglevEngine engine = new MaglevEngine( lookupSize, incremental, hash );
             engine.addBackends( backends );
 
             return engine;
@@ -125,6 +129,7 @@ public class MaglevFactory extends ConsistentHashFactory
     {
 
         getPermutations( config );
+        isIncremental( config );
         return config;
         
     }
@@ -176,4 +181,23 @@ public class MaglevFactory extends ConsistentHashFactory
 
     }
 
+    /**
+     * Tells if the lookup table should be updated incrementally.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the lookup table should be updated incrementally
+     */
+    private boolean isIncremental( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_INCREMENTAL;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "incremental" );
+        final Object value = config.getArgs().get( "incremental" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_INCREMENTAL;
+
+    }
+
 }
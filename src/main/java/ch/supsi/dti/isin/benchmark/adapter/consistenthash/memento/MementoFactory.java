@@ -9,8 +9,11 @@ import org.nerd4j.utils.lang.Require;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.memento.MementoEngine;
 import ch.supsi.dti.isin.consistenthash.memento.MementoHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -24,6 +27,9 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 public class MementoFactory extends ConsistentHashFactory
 {
 
+    /** Tells if the weights of the nodes should be used if not defined in the configuration. */
+    private static final boolean DEFAULT_WEIGHTED = false;
+
 
     /**
      * Constructor with parameters.
@@ -47,13 +53,16 @@ public class MementoFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public MementoHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        return new MementoHash( nodes, hash );
+        if( ! isWeighted(config) )
+            return new MementoHash( nodes, hash );
+
+        return new WeightedBucketHash( nodes, Integer.MAX_VALUE, size -> new MementoEngine(size, hash) );
 
     }
 
@@ -67,7 +76,8 @@ public class MementoFactory extends ConsistentHashFactory
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        return () -> new MementoEngine( nodes.size(), hash );
+        final int size = isWeighted( config ) ? totalWeight( nodes ) : nodes.size();
+        return () -> new MementoEngine( size, hash );
 
     }
 
@@ -102,8 +112,49 @@ public class MementoFactory extends ConsistentHashFactory
     protected AlgorithmConfig validate( AlgorithmConfig config )
     {
 
+        isWeighted( config );
         return config;
         
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Tells if the weights of the nodes should be used.
+     * <p>
+     * If so, each node owns as many buckets as its weight.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the weights of the nodes should be used
+     */
+    private boolean isWeighted( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_WEIGHTED;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "weighted" );
+        final Object value = config.getArgs().get( "weighted" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_WEIGHTED;
+
+    }
+
+    /**
+     * Returns the sum of the weights of the given nodes.
+     * 
+     * @param nodes the nodes to check
+     * @return the total weight
+     */
+    private int totalWeight( Collection<? extends Node> nodes )
+    {
+
+        return nodes.stream().mapToInt( Node::weight ).sum();
+
+    }
+
 }
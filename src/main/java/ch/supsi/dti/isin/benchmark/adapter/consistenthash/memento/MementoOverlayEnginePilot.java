@@ -0,0 +1,30 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.memento;
+
+
+import ch.supsi.dti.isin.benchmark.adapter.BucketBasedEnginePilot;
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashEnginePilot;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
+
+/**
+ * Implementation of the {@link ConsistentHashEnginePilot} interface for the
+ * engines supporting only LIFO removals wrapped into a {@link MementoOverlay}.
+ *
+ * 
+ * @author Massimo Coluzzi
+ */
+public class MementoOverlayEnginePilot extends BucketBasedEnginePilot
+{
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the bucket-based engine to pilot
+     */
+    public MementoOverlayEnginePilot( MementoOverlay engine )
+    {
+
+        super( engine );
+
+    }
+
+}
@@ -21,6 +21,12 @@ public class MultiProbeEnginePilot extends NameBasedEnginePilot
     /** The engine to pilot. */
     private final MultiProbeEngine engine;
 
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private int[] slots = new int[0];
+
     
     /**
      * Constructor with parameters.
@@ -53,6 +59,47 @@ public class MultiProbeEnginePilot extends NameBasedEnginePilot
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getResource( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getResources( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( slots.length != replicas )
+            slots = new int[replicas];
+
+        engine.getReplicas( keyHash, slots );
+        return slots;
+
+    }
+
     /**
      * {@inheritDoc}
      */
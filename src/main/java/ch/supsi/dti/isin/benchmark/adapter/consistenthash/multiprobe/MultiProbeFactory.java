@@ -2,7 +2,9 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.multiprobe;
 
 
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.nerd4j.utils.lang.Require;
 
@@ -73,10 +75,12 @@ public class MultiProbeFactory extends ConsistentHashFactory
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
         final int probes = getProbes( config );
+        final List<String> resources = nodes.stream().map( Node::name ).collect( Collectors.toList() );
+
         return () -> {
             
             final MultiProbeEngine engine = new MultiProbeEngine( probes, hash );
-            nodes.forEach( node -> engine.addResource(node.name()) );
+            engine.addResources( resources );
 
             return engine;
             
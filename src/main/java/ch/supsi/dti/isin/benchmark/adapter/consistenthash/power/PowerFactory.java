@@ -6,11 +6,17 @@ import java.util.function.Supplier;
 
 import org.nerd4j.utils.lang.Require;
 
+import ch.supsi.dti.isin.benchmark.adapter.BucketBasedEnginePilot;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
+import ch.supsi.dti.isin.benchmark.adapter.consistenthash.memento.MementoOverlayEnginePilot;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlayHash;
 import ch.supsi.dti.isin.consistenthash.power.PowerEngine;
 import ch.supsi.dti.isin.consistenthash.power.PowerHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -25,6 +31,10 @@ public class PowerFactory extends ConsistentHashFactory
 {
 
 
+    /** Tells if the original placements should be reproduced if not defined in the configuration. */
+    private static final boolean DEFAULT_COMPATIBILITY = true;
+
+
     /**
      * Constructor with parameters.
      * 
@@ -47,13 +57,17 @@ public class PowerFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public PowerHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
-        return new PowerHash( nodes, hash );
+        final boolean compatibility = isCompatibility( config );
+        if( ! isMemento(config) )
+            return new PowerHash( nodes, hash, compatibility );
+
+        return new MementoOverlayHash( nodes, size -> new PowerEngine(size, hash, compatibility), hash );
 
     }
 
@@ -66,9 +80,8 @@ public class PowerFactory extends ConsistentHashFactory
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
-
-
-        return () -> new PowerEngine( nodes.size(), hash );
+        final boolean compatibility = isCompatibility( config );
+        return () -> new PowerEngine( nodes.size(), hash, compatibility );
 
     }
 
@@ -76,13 +89,16 @@ public class PowerFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public PowerEnginePilot createEnginePilot( ConsistentHash consistentHash )
+    public BucketBasedEnginePilot createEnginePilot( ConsistentHash consistentHash )
     {
 
         final Object engine = Require.nonNull(
             consistentHash, "The consistent hash to pilot is mandatory"
         ).engine();
         
+        if( engine instanceof MementoOverlay )
+            return new MementoOverlayEnginePilot( (MementoOverlay) engine );
+
         if( engine instanceof PowerEngine )
             return new PowerEnginePilot( (PowerEngine) engine );
 
@@ -103,8 +119,36 @@ public class PowerFactory extends ConsistentHashFactory
     protected AlgorithmConfig validate( AlgorithmConfig config )
     {
 
+        isCompatibility( config );
+        isMemento( config );
         return config;
         
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Tells if the placements of the original implementation
+     * based on the hash function should be reproduced.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the compatibility mode is enabled
+     */
+    private boolean isCompatibility( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_COMPATIBILITY;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "compatibility" );
+        final Object value = config.getArgs().get( "compatibility" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_COMPATIBILITY;
+
+    }
+
 }
@@ -20,6 +20,12 @@ public class RendezvousEnginePilot extends NameBasedEnginePilot
     /** The engine to pilot. */
     private final RendezvousEngine engine;
 
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private String[] replicated = new String[0];
+
 
     /**
      * Constructor with parameters.
@@ -52,6 +58,47 @@ public class RendezvousEnginePilot extends NameBasedEnginePilot
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getResource( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getResources( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( replicated.length != replicas )
+            replicated = new String[replicas];
+
+        engine.getReplicas( keyHash, replicated );
+        return replicated;
+
+    }
+
     /**
      * {@inheritDoc}
      */
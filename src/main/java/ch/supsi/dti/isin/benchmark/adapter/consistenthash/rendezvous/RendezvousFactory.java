@@ -2,17 +2,24 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.rendezvous;
 
 
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.nerd4j.utils.lang.Require;
 
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashEnginePilot;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.consistenthash.rendezvous.RendezvousEngine;
 import ch.supsi.dti.isin.consistenthash.rendezvous.RendezvousHash;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousEngine;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -25,6 +32,10 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 public class RendezvousFactory extends ConsistentHashFactory
 {
 
+    /** Tells if the seeded engine should be used if not defined in the configuration. */
+    private static final boolean DEFAULT_SEEDED = false;
+
+
 
     /**
      * Constructor with parameters.
@@ -48,12 +59,15 @@ public class RendezvousFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public RendezvousHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
+        if( isSeeded(config) )
+            return new SeededRendezvousHash( nodes, hash );
+
         return new RendezvousHash( nodes, hash );
 
     }
@@ -62,12 +76,27 @@ public class RendezvousFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public Supplier<RendezvousEngine> createEngineInitializer( HashFunction hash, Collection<? extends Node> nodes )
+    public Supplier<?> createEngineInitializer( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
+        if( isSeeded(config) )
+        {
+
+            final List<String> resources = nodes.stream().map( Node::name ).collect( Collectors.toList() );
+            return () -> {
+
+                final SeededRendezvousEngine engine = new SeededRendezvousEngine( hash );
+                engine.addResources( resources );
+
+                return engine;
+
+            };
+
+        }
+
         return () -> {
             
             final RendezvousEngine engine = new RendezvousEngine( hash );
@@ -83,7 +112,7 @@ public class RendezvousFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public RendezvousEnginePilot createEnginePilot( ConsistentHash consistentHash )
+    public ConsistentHashEnginePilot<?> createEnginePilot( ConsistentHash consistentHash )
     {
 
         final Object engine = Require.nonNull(
@@ -93,6 +122,9 @@ public class RendezvousFactory extends ConsistentHashFactory
         if( engine instanceof RendezvousEngine )
             return new RendezvousEnginePilot( (RendezvousEngine) engine );
 
+        if( engine instanceof SeededRendezvousEngine )
+            return new SeededRendezvousEnginePilot( (SeededRendezvousEngine) engine );
+
         throw ResourceLoadingException.incompatibleType( RendezvousEngine.class, engine.getClass() );
 
     }
@@ -110,8 +142,34 @@ public class RendezvousFactory extends ConsistentHashFactory
     protected AlgorithmConfig validate( AlgorithmConfig config )
     {
 
+        isSeeded( config );
         return config;
         
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Tells if the engine with precomputed seeds should be used.
+     * 
+     * @param config configuration to parse
+     * @return {@code true} if the seeded engine should be used
+     */
+    private boolean isSeeded( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_SEEDED;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "seeded" );
+        final Object value = config.getArgs().get( "seeded" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_SEEDED;
+
+    }
+
 }
@@ -0,0 +1,128 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.rendezvous;
+
+import java.util.Collections;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashEnginePilot;
+import ch.supsi.dti.isin.benchmark.adapter.NameBasedEnginePilot;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousEngine;
+
+
+/**
+ * Implementation of the {@link ConsistentHashEnginePilot} interface
+ * for the {@code Rendezvous} algorithm with precomputed seeds.
+ *
+ * @author Massimo Coluzzi
+ */
+public class SeededRendezvousEnginePilot extends NameBasedEnginePilot
+{
+
+    /** The engine to pilot. */
+    private final SeededRendezvousEngine engine;
+
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private int[] slots = new int[0];
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the consistent hash engine to pilot
+     */
+    public SeededRendezvousEnginePilot( SeededRendezvousEngine engine )
+    {
+        
+        super( "resource" );
+        
+        this.engine = Require.nonNull( engine, "The engine to pilot is mandatory" );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( String key )
+    {
+
+        return engine.getResource( key );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getResource( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getResources( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( slots.length != replicas )
+            slots = new int[replicas];
+
+        engine.getReplicas( keyHash, slots );
+        return slots;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String addNode()
+    {
+
+        final String resource = getName();
+        engine.addResources( Collections.singleton(resource) );
+        
+        return resource;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNode( String resource )
+    {
+
+        engine.removeResources( Collections.singleton(resource) );
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.ring;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashEnginePilot;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingEngine;
+
+/**
+ * Implementation of the {@link ConsistentHashEnginePilot} interface for the {@code Ring} algorithm
+ * backed by the {@link FlatRingEngine}.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FlatRingEnginePilot implements ConsistentHashEnginePilot<Integer>
+{
+    
+
+    /** Prefix to add to node names. */
+    private static final String PREFIX = "node_";
+
+
+    /** The engine to pilot. */
+    private final FlatRingEngine engine;
+
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private String[] replicated = new String[0];
+    
+    /** Index to append to node names. */
+    private long id = 0;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the consistent hash engine to pilot
+     */
+    public FlatRingEnginePilot( FlatRingEngine engine )
+    {
+
+        super();
+
+        this.engine = Require.nonNull( engine, "The engine to pilot is mandatory" );
+        this.id = 0;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( String key )
+    {
+
+        return engine.getNode( key );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getNode( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getNodes( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( replicated.length != replicas )
+            replicated = new String[replicas];
+
+        engine.getReplicas( keyHash, replicated );
+        return replicated;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer addNode()
+    {
+
+        final String node = PREFIX + id++;
+        return engine.addNode( node );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNode( Integer node )
+    {
+
+        engine.removeNode( node );
+
+    }
+
+}
@@ -24,6 +24,12 @@ public class RingEnginePilot implements ConsistentHashEnginePilot<Collection<Vir
 
     /** The engine to pilot. */
     private final RingEngine engine;
+
+    /** Reusable buffer for batch lookups. */
+    private String[] names = new String[0];
+
+    /** Reusable buffer for replica lookups. */
+    private String[] replicated = new String[0];
     
     /** Index to append to node names. */
     private long id = 0;
@@ -61,6 +67,47 @@ public class RingEnginePilot implements ConsistentHashEnginePilot<Collection<Vir
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNode( long keyHash )
+    {
+
+        return engine.getNode( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getNodes( long[] keyHashes )
+    {
+
+        if( names.length < keyHashes.length )
+            names = new String[keyHashes.length];
+
+        engine.getNodes( keyHashes, names );
+        return names;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getReplicas( long keyHash, int replicas )
+    {
+
+        if( replicated.length != replicas )
+            replicated = new String[replicas];
+
+        engine.getReplicas( keyHash, replicated );
+        return replicated;
+
+    }
+
     /**
      * {@inheritDoc}
      */
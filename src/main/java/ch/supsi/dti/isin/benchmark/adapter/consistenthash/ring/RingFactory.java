@@ -2,11 +2,14 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.ring;
 
 
 
+import static java.util.stream.Collectors.toList;
+
 import java.util.Collection;
 import java.util.function.Supplier;
 
 import org.nerd4j.utils.lang.Require;
 
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashEnginePilot;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
@@ -15,6 +18,8 @@ import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingEngine;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingHash;
 import ch.supsi.dti.isin.consistenthash.ring.RingEngine;
 import ch.supsi.dti.isin.consistenthash.ring.RingHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -22,6 +27,11 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 /**
  * Implementation of {@link ConsistentHashFactory} for the {@code Ring} algorithm.
+ * <p>
+ * If the {@code flat} argument is set, the ring is backed by the {@link FlatRingEngine}
+ * instead of the {@link RingEngine}. This allows the benchmarks to compare the two layouts.
+ * The {@code index-bits} argument enables the prefix index of the {@link FlatRingEngine},
+ * therefore it implies the flat layout.
  * 
  * @author Samuel De Babo Martins
  * @author Massimo Coluzzi
@@ -33,6 +43,12 @@ public class RingFactory extends ConsistentHashFactory
     /** The default number of virtual nodes to apply if not defined in the configuration. */
     private static final int DEFAULT_VIRTUAL_NODES = 1000;
 
+    /** Tells whether to use the flat layout if not defined in the configuration. */
+    private static final boolean DEFAULT_FLAT = false;
+
+    /** The default number of bits of the prefix index, {@code 0} means no index. */
+    private static final int DEFAULT_INDEX_BITS = 0;
+
 
     /**
      * Constructor with parameters.
@@ -57,13 +73,17 @@ public class RingFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public RingHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    public ConsistentHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
         final int virtualNodes = getVirtualNodes( config );
+        final int indexBits = getIndexBits( config );
+        if( isFlat(config) || indexBits > 0 )
+            return new FlatRingHash( nodes, virtualNodes, indexBits, hash );
+        
         return new RingHash( nodes, virtualNodes, hash );
 
     }
@@ -72,13 +92,24 @@ public class RingFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public Supplier<RingEngine> createEngineInitializer( HashFunction hash, Collection<? extends Node> nodes )
+    public Supplier<?> createEngineInitializer( HashFunction hash, Collection<? extends Node> nodes )
     {
 
         Require.nonNull( hash, "The hash function to use is mandatory" );
         Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
 
         final int virtualNodes = getVirtualNodes( config );
+        final int indexBits = getIndexBits( config );
+        if( isFlat(config) || indexBits > 0 )
+            return () -> {
+
+                final FlatRingEngine engine = new FlatRingEngine( virtualNodes, indexBits, hash );
+                engine.addNodes( nodes.stream().map(Node::name).collect(toList()) );
+
+                return engine;
+
+            };
+
         return () -> {
             
             final RingEngine engine = new RingEngine( virtualNodes, hash );
@@ -94,7 +125,7 @@ public class RingFactory extends ConsistentHashFactory
      * {@inheritDoc}
      */
     @Override
-    public RingEnginePilot createEnginePilot( ConsistentHash consistentHash )
+    public ConsistentHashEnginePilot<?> createEnginePilot( ConsistentHash consistentHash )
     {
 
         final Object engine = Require.nonNull(
@@ -104,6 +135,9 @@ public class RingFactory extends ConsistentHashFactory
         if( engine instanceof RingEngine )
             return new RingEnginePilot( (RingEngine) engine );
 
+        if( engine instanceof FlatRingEngine )
+            return new FlatRingEnginePilot( (FlatRingEngine) engine );
+
         throw ResourceLoadingException.incompatibleType( RingEngine.class, engine.getClass() );
 
     }
@@ -122,6 +156,9 @@ public class RingFactory extends ConsistentHashFactory
     {
 
         getVirtualNodes( config );
+        isFlat( config );
+        getIndexBits( config );
+        
         return config;
         
     }
@@ -156,4 +193,49 @@ public class RingFactory extends ConsistentHashFactory
 
     }
 
+    /**
+     * Tells whether the {@code Ring} algorithm should use the {@link FlatRingEngine}.
+     *
+     * @param config custom configurations for the {@code Ring} algorithm
+     * @return {@code true} if the flat layout should be used
+     */
+    private boolean isFlat( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_FLAT;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "flat" );
+        final Object value = config.getArgs().get( "flat" );
+
+        return value != null ? ConfigUtils.toBoolean( path, value ) : DEFAULT_FLAT;
+
+    }
+
+    /**
+     * Returns the number of bits of the prefix index used by the {@link FlatRingEngine}.
+     *
+     * @param config custom configurations for the {@code Ring} algorithm
+     * @return number of bits of the prefix index, {@code 0} if not used
+     */
+    private int getIndexBits( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return DEFAULT_INDEX_BITS;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "index-bits" );
+        final Object value = config.getArgs().get( "indexbits" );
+
+        final int indexBits = value != null ? ConfigUtils.toInt( path, value ) : DEFAULT_INDEX_BITS;
+        if( indexBits < 0 )
+            throw InconsistentValueException.lessThan( path, 0, indexBits );
+
+        if( indexBits > FlatRingEngine.MAX_INDEX_BITS )
+            throw InconsistentValueException.greaterThan( path, FlatRingEngine.MAX_INDEX_BITS, indexBits );
+
+        return indexBits;
+
+    }
+
 }
@@ -0,0 +1,158 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.skeleton;
+
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
+import ch.supsi.dti.isin.benchmark.adapter.ResourceLoadingException;
+import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.skeleton.SkeletonEngine;
+import ch.supsi.dti.isin.consistenthash.skeleton.SkeletonHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Implementation of {@link ConsistentHashFactory} for the skeleton-based {@code Rendezvous} algorithm.
+ *
+ * @author Massimo Coluzzi
+ */
+public class SkeletonFactory extends ConsistentHashFactory
+{
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config the configuration to use
+     */
+    public SkeletonFactory( AlgorithmConfig config )
+    {
+
+        super( config );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SkeletonHash createConsistentHash( HashFunction hash, Collection<? extends Node> nodes )
+    {
+
+        Require.nonNull( hash, "The hash function to use is mandatory" );
+        Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
+
+        final int fanout = getFanout( config );
+        return new SkeletonHash( nodes, fanout, hash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Supplier<SkeletonEngine> createEngineInitializer( HashFunction hash, Collection<? extends Node> nodes )
+    {
+
+        Require.nonNull( hash, "The hash function to use is mandatory" );
+        Require.nonEmpty( nodes, "The initial cluster nodes are mandatory" );
+
+        final int fanout = getFanout( config );
+        final List<String> resources = nodes.stream().map( Node::name ).collect( Collectors.toList() );
+
+        return () -> {
+
+            final SkeletonEngine engine = new SkeletonEngine( fanout, hash );
+            engine.addResources( resources );
+
+            return engine;
+
+        };
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SkeletonEnginePilot createEnginePilot( ConsistentHash consistentHash )
+    {
+
+        final Object engine = Require.nonNull(
+            consistentHash, "The consistent hash to pilot is mandatory"
+        ).engine();
+
+        if( engine instanceof SkeletonEngine )
+            return new SkeletonEnginePilot( (SkeletonEngine) engine );
+
+        throw ResourceLoadingException.incompatibleType( SkeletonEngine.class, engine.getClass() );
+
+    }
+
+
+    /* ***************** */
+    /*  EXTENSION HOOKS  */
+    /* ***************** */
+
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    protected AlgorithmConfig validate( AlgorithmConfig config )
+    {
+
+        getFanout( config );
+        return config;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the number of children of each inner node of the skeleton.
+     *
+     * @param config custom configurations for the algorithm
+     * @return the fan-out of the skeleton
+     */
+    private int getFanout( AlgorithmConfig config )
+    {
+
+        if( config == null )
+            return SkeletonHash.DEFAULT_FANOUT;
+
+        final ValuePath path = config.getPath().append( "args" ).append( "fanout" );
+        final Object value = config.getArgs().get( "fanout" );
+
+        final int fanout = value != null
+        ? ConfigUtils.toInt( path, value )
+        : SkeletonHash.DEFAULT_FANOUT;
+
+        if( fanout < 2 )
+            throw InconsistentValueException.lessThan( path, 2, fanout );
+
+        return fanout;
+
+    }
+
+}
@@ -25,6 +25,9 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
     /** Name of the algorithm. */
     private String name;
 
+    /** Label used to identify the algorithm in the benchmark results. */
+    private String label;
+
     /** Arguments used to initialize the algorithm. */
     private Map<String,Object> args;
 
@@ -42,6 +45,7 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
         this.path = Require.nonNull( path, "The path to the algorithm property in the configuration file is mandatory" );
         
         this.name = null;
+        this.label = null;
         this.args = new HashMap<>();
 
     }
@@ -86,6 +90,19 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
         return name;
     }
 
+    /**
+     * Returns the label used to identify the algorithm in the benchmark results.
+     * <p>
+     * If no label is configured, the algorithm's name is returned.
+     * Labels allow to benchmark the same algorithm with different arguments.
+     * 
+     * @return the algorithm's label.
+     */
+    public String getLabel()
+    {
+        return label != null ? label : name;
+    }
+
     /**
      * Returns the path of the related property.
      * 
@@ -126,6 +143,10 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
                 this.name = ConfigUtils.toNormalizedString( path, required(path,value) );
                 break;
 
+            case "label":
+                this.label = ConfigUtils.toString( path, value );
+                break;
+
             case "args":
                 this.args = ConfigUtils.toArgs( path, value );
                 break;
@@ -166,7 +187,7 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
     public int hashCode()
     {
         
-        return Hashcode.of( name, args );
+        return Hashcode.of( name, label, args );
 
     }
 
@@ -180,6 +201,7 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
         return Equals.ifSameClass(
             this, other,
             o -> o.name,
+            o -> o.label,
             o -> o.args
         );
 
@@ -195,6 +217,7 @@ public class AlgorithmConfig extends AbstractConfig<AlgorithmConfig>
         return ToString.of( this )
             .withNoClassName()
             .print( "name", name )
+            .print( "label", label )
             .print( "args", args )
             .using( "{", ":", ",", "}" );
 
@@ -74,6 +74,31 @@ public class InconsistentValueException extends InvalidConfigException
 
     }
 
+    /**
+     * Creates a new {@link InconsistentValueException} for the case
+     * when the value is expected to be less or equal to a given number.
+     * 
+     * @param path  the path of the property
+     * @param limit the value not to overcome
+     * @param value the inconsistent value
+     * @return a new exception
+     */
+    public static InconsistentValueException greaterThan( ValuePath path, int limit, int value )
+    {
+
+        return new InconsistentValueException(
+            new StringBuilder()
+                .append( "Expected property " )
+                .append( path )
+                .append( " to be less or equal to " )
+                .append( limit )
+                .append( " but was " )
+                .append( value )
+                .toString()
+        );
+
+    }
+
     /**
      * Creates a new {@link InconsistentValueException} for the case
      * when the value is expected to be a percentage less than {@code 100%}.
@@ -13,6 +13,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.config.BenchmarkConfig;
 import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
 import ch.supsi.dti.isin.cluster.Node;
 import ch.supsi.dti.isin.cluster.SimpleNode;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
@@ -23,6 +25,14 @@ import ch.supsi.dti.isin.key.KeyGenerator;
 
 /**
  * Benchmark tool to measure the distribution of keys among nodes in a consistent hashing algorithm.
+ * <p>
+ * The nodes can have a weight. In such case, each node is expected to get
+ * a share of the keys proportional to its weight and the deviations
+ * are measured with respect to such a share.
+ * <p>
+ * If the keys are replicated, each key is counted on all its replicas
+ * as returned by {@link ConsistentHash#getNodes(String, int)},
+ * therefore the balance of the replicas is measured.
  *
  * @author Massimo Coluzzi
  */
@@ -40,6 +50,20 @@ public class Balance extends BenchmarkExecutor
      */
     private final int keyMultiplier;
 
+    /**
+     * The weights to assign to the nodes of the cluster.
+     * The weights are assigned cyclically, the node with index {@code i}
+     * gets the weight {@code weights[i % weights.length]}.
+     * By default every node has weight {@code 1}.
+     */
+    private final int[] weights;
+
+    /**
+     * The number of distinct nodes where each key is stored.
+     * By default each key is stored in one node.
+     */
+    private final int replicas;
+
 
     /**
      * Constructor with parameters.
@@ -52,6 +76,8 @@ public class Balance extends BenchmarkExecutor
         super( config );
 
         this.keyMultiplier = getKeyMultiplier();
+        this.weights = getWeights();
+        this.replicas = getReplicas();
         
     }
 
@@ -93,6 +119,58 @@ public class Balance extends BenchmarkExecutor
 
     }
 
+    /**
+     * Returns the weights to assign to the nodes of the cluster.
+     * 
+     * @return the weights to assign to the nodes of the cluster
+     */
+    private int[] getWeights()
+    {
+
+        final Object argument = config.getArgs().get( "weights" );
+        if( argument == null )
+            return new int[] { 1 };
+
+        final ValuePath path = config.getPath().append( "weights" );
+        final List<Integer> values = ConfigUtils.toList( path, Integer.class, argument );
+        if( values.isEmpty() )
+            throw InconsistentValueException.lessThan( path, 1, 0 );
+
+        final int[] weights = new int[values.size()];
+        for( int i = 0; i < weights.length; ++i )
+        {
+
+            weights[i] = values.get( i );
+            if( weights[i] < 1 )
+                throw InconsistentValueException.lessThan( path.append(i), 1, weights[i] );
+
+        }
+
+        return weights;
+
+    }
+
+    /**
+     * Returns the number of distinct nodes where each key is stored.
+     * 
+     * @return the number of replicas of each key
+     */
+    private int getReplicas()
+    {
+
+        final Object argument = config.getArgs().get( "replicas" );
+        if( argument == null )
+            return 1;
+
+        final ValuePath path = config.getPath().append( "replicas" );
+        final int replicas = ConfigUtils.toInt( path, argument );
+        if( replicas < 1 )
+            throw InconsistentValueException.lessThan( path, 1, replicas );
+
+        return replicas;
+
+    }
+
     /**
      * Runs the benchmark and writes the results.
      *
@@ -142,20 +220,26 @@ public class Balance extends BenchmarkExecutor
     private void printHeader( BufferedWriter writer ) throws IOException
     {
 
-        writer.write( "HashFunction,Algorithm,Keys,Distribution,Nodes,Iterations,Min,Max,Expected,Min%,Max%,Var" );
+        writer.write( "HashFunction,Algorithm,Keys,Replicas,Distribution,Nodes,Iterations,Min,Max,Expected,Min%,Max%,MaxDeviation%,Var" );
         writer.newLine();
 
     }
 
     /**
      * Prints the collected metrics in a CSV format.
+     * <p>
+     * The columns {@code Min%} and {@code Max%} contain the lowest and the
+     * highest ratio between the load of a node and its expected share.
+     * The column {@code MaxDeviation%} contains the highest relative
+     * deviation of the load of a node from its expected share.
+     * If the keys are replicated, the loads count all the replicas.
      *
      * @param metrics metrics to print.
      */
     private void printMetrics( Metrics metrics, BufferedWriter writer ) throws IOException
     {
 
-        final int keys = metrics.getKeysCount();
+        final int placements = metrics.getKeysCount();
         final int nodes = metrics.getNodesCount();
 
         final double min = metrics.getMinCount();
@@ -165,7 +249,9 @@ public class Balance extends BenchmarkExecutor
         writer.write(',');
         writer.write(metrics.getAlgorithm());
         writer.write(',');
-        writer.write(String.valueOf(keys));
+        writer.write(String.valueOf(placements / replicas));
+        writer.write(',');
+        writer.write(String.valueOf(replicas));
         writer.write(',');
         writer.write(metrics.getDistribution().name());
         writer.write(',');
@@ -177,11 +263,13 @@ public class Balance extends BenchmarkExecutor
         writer.write(',');
         writer.write(String.valueOf(max));
         writer.write(',');
-        writer.write(String.valueOf(keys / nodes));
+        writer.write(String.valueOf(placements / nodes));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.getMinRatio()));
         writer.write(',');
-        writer.write(String.valueOf(min * nodes / keys));
+        writer.write(String.valueOf(metrics.getMaxRatio()));
         writer.write(',');
-        writer.write(String.valueOf(max * nodes / keys));
+        writer.write(String.valueOf(metrics.getMaxDeviation()));
         writer.write(',');
         writer.write(String.valueOf(metrics.getVariance()));
         writer.newLine();
@@ -190,6 +278,8 @@ public class Balance extends BenchmarkExecutor
 
     /**
      * Returns the set of nodes to use.
+     * <p>
+     * The weights are assigned cyclically to the nodes.
      * 
      * @param nodesCount number of nodes to create
      * @return the set of nodes to use
@@ -197,7 +287,10 @@ public class Balance extends BenchmarkExecutor
     private List<Node> getNodes( int nodesCount )
     {
 
-        final List<Node> nodes = SimpleNode.create( nodesCount );
+        final List<Node> nodes = new ArrayList<>( nodesCount );
+        for( int i = 0; i < nodesCount; ++i )
+            nodes.add( SimpleNode.of(i, weights[i % weights.length]) );
+
         return nodes;
 
     }
@@ -220,14 +313,14 @@ public class Balance extends BenchmarkExecutor
     )
     {
 
-        final String algorithm = factory.getConfig().getName();
+        final String algorithm = factory.getConfig().getLabel();
         final List<Node> nodes = getNodes( nodesCount );
 
         final ConsistentHash consistentHash = factory.createConsistentHash( function, nodes );
         final List<Node> removed = BenchmarkExecutionUtils.removeNodesIfNeeded( config, consistentHash, nodes );
         nodes.removeAll( removed );
 
-        final Metrics metrics = new Metrics( function.name(), algorithm, nodes, distribution, keysCount, iterations );
+        final Metrics metrics = new Metrics( function.name(), algorithm, nodes, distribution, keysCount * replicas, iterations );
 
         for( int i = 0; i < iterations; ++i )
         {
@@ -246,11 +339,18 @@ public class Balance extends BenchmarkExecutor
             final KeyGenerator keyGenerator = KeyGenerator.create( distribution );
 
             final long start = System.currentTimeMillis();
-            keyGenerator.stream().limit( keysCount ).forEach( key ->
-            {
-                final Node node = consistentHash.getNode(key);
-                metrics.collect( iteration, node );
-            });
+            if( replicas == 1 )
+                keyGenerator.stream().limit( keysCount ).forEach( key ->
+                {
+                    final Node node = consistentHash.getNode(key);
+                    metrics.collect( iteration, node );
+                });
+            else
+                keyGenerator.stream().limit( keysCount ).forEach( key ->
+                {
+                    for( Node node : consistentHash.getNodes(key, replicas) )
+                        metrics.collect( iteration, node );
+                });
 
             final long end = System.currentTimeMillis();
             final long time = end - start;
@@ -293,6 +393,9 @@ public class Balance extends BenchmarkExecutor
         /** Keeps the count of keys for each node. */
         private final ArrayList<Map<Node,AtomicInteger>> counts;
 
+        /** The expected number of keys for each node according to its weight. */
+        private final Map<Node,Double> targets;
+
 
         /**
          * Constructor with parameters.
@@ -318,6 +421,10 @@ public class Balance extends BenchmarkExecutor
             this.keysCount = keysCount;
             this.distribution = distribution;
             this.counts = new ArrayList<>( iterations );
+            this.targets = new HashMap<>();
+
+            final double totalWeight = nodes.stream().mapToInt( Node::weight ).sum();
+            nodes.forEach( n -> targets.put(n, keysCount * n.weight() / totalWeight) );
 
             for( int i = 0; i < iterations; ++i )
             {
@@ -412,6 +519,73 @@ public class Balance extends BenchmarkExecutor
 
         }
         
+        /**
+         * Returns the average of the lowest ratio between the
+         * load of a node and its expected share.
+         *
+         * @return average min ratio
+         */
+        public double getMinRatio()
+        {
+
+            return counts.stream()
+                    .mapToDouble( iter ->
+                        iter.entrySet().stream()
+                            .mapToDouble( e -> e.getValue().get() / targets.get(e.getKey()) )
+                            .min()
+                            .orElseThrow()
+                    )
+                    .average()
+                    .orElseThrow();
+
+        }
+
+        /**
+         * Returns the average of the highest ratio between the
+         * load of a node and its expected share.
+         *
+         * @return average max ratio
+         */
+        public double getMaxRatio()
+        {
+
+            return counts.stream()
+                    .mapToDouble( iter ->
+                        iter.entrySet().stream()
+                            .mapToDouble( e -> e.getValue().get() / targets.get(e.getKey()) )
+                            .max()
+                            .orElseThrow()
+                    )
+                    .average()
+                    .orElseThrow();
+
+        }
+
+        /**
+         * Returns the average of the highest relative deviation
+         * of the load of a node from its expected share.
+         *
+         * @return average max deviation
+         */
+        public double getMaxDeviation()
+        {
+
+            return counts.stream()
+                    .mapToDouble( iter ->
+                        iter.entrySet().stream()
+                            .mapToDouble( e ->
+                            {
+                                final double target = targets.get( e.getKey() );
+                                return Math.abs( e.getValue().get() - target ) / target;
+                            })
+                            .max()
+                            .orElseThrow()
+                    )
+                    .average()
+                    .orElseThrow();
+
+        }
+
         /**
          * Returns the variance across all the iterations.
          *
@@ -422,21 +596,21 @@ public class Balance extends BenchmarkExecutor
         }
 
         /**
-         * Returns the variance for the given number of iterations
+         * Returns the variance for the given number of iterations.
+         * <p>
+         * The load of each node is compared with its expected share.
          *
          * @param iterations number of iterations to evaluate
          * @return variance
          */
         public double getVariance(int iterations) {
-            int mean = keysCount / getNodesCount();
             return counts.stream()
                     .limit(iterations)
                     .mapToDouble(iter
-                            -> iter.values().stream()
-                            .mapToInt( AtomicInteger::get )
-                            .map(n -> n - mean)
+                            -> iter.entrySet().stream()
+                            .mapToDouble(e -> e.getValue().get() - targets.get(e.getKey()))
                             .map(n -> n * n)
-                            .mapToDouble(n -> n).average().getAsDouble()
+                            .average().getAsDouble()
                     )
                     .average()
                     .orElseThrow();
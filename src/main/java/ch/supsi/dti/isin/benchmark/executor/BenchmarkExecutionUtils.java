@@ -11,6 +11,9 @@ import java.util.List;
 import java.util.logging.Logger;
 
 import org.nerd4j.utils.lang.IsNot;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryLoader;
@@ -38,6 +41,9 @@ public class BenchmarkExecutionUtils
     /** Java Logging System. */
     private static final Logger logger = Logger.getLogger( BenchmarkExecutionUtils.class.getName() );
 
+    /** The maximum size of a batch of keys to lookup. */
+    public static final int MAX_BATCH_SIZE = 4096;
+
 
     /**
      * Returns the path of the file where to store the output of the benchmark.
@@ -101,15 +107,15 @@ public class BenchmarkExecutionUtils
     }
 
     /**
-     * Returns the list of consistent hashing algorithms defined in the given configuration.
+     * Returns the labels of the consistent hashing algorithms defined in the given configuration.
      * 
      * @param factories factories for the arlgorithms to benchmark
-     * @return the list of consistent hashing algorithms
+     * @return the labels of the consistent hashing algorithms
      */
     public static String[] getAlgorithms( List<ConsistentHashFactory> factories )
     {
 
-        return factories.stream().map( f -> f.getConfig().getName() ).toArray( String[]::new );
+        return factories.stream().map( f -> f.getConfig().getLabel() ).toArray( String[]::new );
 
     }
 
@@ -172,6 +178,238 @@ public class BenchmarkExecutionUtils
         
     }
 
+    /**
+     * Returns the list of batch sizes defined in the given benchmark configuration.
+     * <p>
+     * Each batch size must be a power of {@code 2} not greater than {@link #MAX_BATCH_SIZE}.
+     * 
+     * @param config the benchmark configuration to use
+     * @return a list of batch sizes
+     */
+    public static String[] getBatchSizes( BenchmarkConfig config )
+    {
+
+        final String[] defaultSizes = { "64", "256", "1024", "4096" };
+
+        final Object batchSizes = config.getArgs().get( "batchsizes" );
+        if( batchSizes == null )
+            return defaultSizes;
+
+        final ValuePath valuePath = config.getPath().append("args").append("batch-sizes");
+        if( ! (batchSizes instanceof List) )
+            throw InvalidTypeException.of( valuePath, batchSizes, List.class );
+
+        @SuppressWarnings("unchecked")
+        final List<Object> sizeList = (List<Object>) batchSizes;
+        if( sizeList.isEmpty() )
+            return defaultSizes;
+
+        final List<Object> allowed = new ArrayList<>();
+        for( int size = 1; size <= MAX_BATCH_SIZE; size <<= 1 )
+            allowed.add( size );
+
+        final String[] sizes = new String[sizeList.size()];
+        for( int i = 0; i < sizes.length; ++i )
+        {
+            final Object value = sizeList.get( i );
+            if( value == null )
+                throw MissingValueException.of( valuePath.append(i) );
+
+            if( ! (value instanceof Integer) )
+                throw InvalidTypeException.of( valuePath.append(i), value, Integer.class );
+
+            if( ! allowed.contains(value) )
+                throw InconsistentValueException.notIn( valuePath.append(i), allowed, value );
+
+            sizes[i] = String.valueOf( value );
+
+        }
+
+        return sizes;
+        
+    }
+
+    /**
+     * Returns the list of reader thread counts defined in the given benchmark configuration.
+     * <p>
+     * Each thread count must be a positive integer.
+     * 
+     * @param config the benchmark configuration to use
+     * @return a list of thread counts
+     */
+    public static int[] getThreadCounts( BenchmarkConfig config )
+    {
+
+        final int[] defaultCounts = { 1, 2, 4 };
+
+        final Object threads = config.getArgs().get( "threads" );
+        if( threads == null )
+            return defaultCounts;
+
+        final ValuePath valuePath = config.getPath().append("args").append("threads");
+        if( ! (threads instanceof List) )
+            throw InvalidTypeException.of( valuePath, threads, List.class );
+
+        @SuppressWarnings("unchecked")
+        final List<Object> threadList = (List<Object>) threads;
+        if( threadList.isEmpty() )
+            return defaultCounts;
+
+        final int[] counts = new int[threadList.size()];
+        for( int i = 0; i < counts.length; ++i )
+        {
+            final Object value = threadList.get( i );
+            if( value == null )
+                throw MissingValueException.of( valuePath.append(i) );
+
+            if( ! (value instanceof Integer) )
+                throw InvalidTypeException.of( valuePath.append(i), value, Integer.class );
+
+            final int count = (Integer) value;
+            if( count < 1 )
+                throw InconsistentValueException.lessThan( valuePath.append(i), 1, count );
+
+            counts[i] = count;
+
+        }
+
+        return counts;
+        
+    }
+
+
+    /**
+     * Returns the list of replica counts defined in the given benchmark configuration.
+     * <p>
+     * Each replica count must be a positive integer.
+     * 
+     * @param config the benchmark configuration to use
+     * @return a list of replica counts
+     */
+    public static String[] getReplicaCounts( BenchmarkConfig config )
+    {
+
+        final String[] defaultCounts = { "1", "2", "3" };
+
+        final Object replicas = config.getArgs().get( "replicas" );
+        if( replicas == null )
+            return defaultCounts;
+
+        final ValuePath valuePath = config.getPath().append("args").append("replicas");
+        if( ! (replicas instanceof List) )
+            throw InvalidTypeException.of( valuePath, replicas, List.class );
+
+        @SuppressWarnings("unchecked")
+        final List<Object> replicaList = (List<Object>) replicas;
+        if( replicaList.isEmpty() )
+            return defaultCounts;
+
+        final String[] counts = new String[replicaList.size()];
+        for( int i = 0; i < counts.length; ++i )
+        {
+            final Object value = replicaList.get( i );
+            if( value == null )
+                throw MissingValueException.of( valuePath.append(i) );
+
+            if( ! (value instanceof Integer) )
+                throw InvalidTypeException.of( valuePath.append(i), value, Integer.class );
+
+            final int count = (Integer) value;
+            if( count < 1 )
+                throw InconsistentValueException.lessThan( valuePath.append(i), 1, count );
+
+            counts[i] = String.valueOf( count );
+
+        }
+
+        return counts;
+        
+    }
+
+    /**
+     * Returns the pause in milliseconds between two consecutive
+     * resizes defined in the given benchmark configuration.
+     * 
+     * @param config the benchmark configuration to use
+     * @return the pause between two resizes
+     */
+    public static int getResizeInterval( BenchmarkConfig config )
+    {
+
+        final Object value = config.getArgs().get( "resizeinterval" );
+        if( value == null )
+            return 1;
+
+        final ValuePath valuePath = config.getPath().append("args").append("resize-interval");
+        if( ! (value instanceof Integer) )
+            throw InvalidTypeException.of( valuePath, value, Integer.class );
+
+        final int interval = (Integer) value;
+        if( interval < 0 )
+            throw InconsistentValueException.lessThan( valuePath, 0, interval );
+
+        return interval;
+
+    }
+
+    /**
+     * Returns the number of nodes added and then removed
+     * by each resize defined in the given benchmark configuration.
+     * 
+     * @param config the benchmark configuration to use
+     * @return the number of nodes involved in each resize
+     */
+    public static int getResizeNodes( BenchmarkConfig config )
+    {
+
+        final Object value = config.getArgs().get( "resizenodes" );
+        if( value == null )
+            return 1;
+
+        final ValuePath valuePath = config.getPath().append("args").append("resize-nodes");
+        if( ! (value instanceof Integer) )
+            throw InvalidTypeException.of( valuePath, value, Integer.class );
+
+        final int nodes = (Integer) value;
+        if( nodes < 1 )
+            throw InconsistentValueException.lessThan( valuePath, 1, nodes );
+
+        return nodes;
+
+    }
+
+    /**
+     * Adds the {@code JMH} profilers enabled in the given benchmark configuration.
+     * <p>
+     * If the argument {@code gc-profiler} is {@code true}, the {@link GCProfiler}
+     * is added and the results report the memory allocated by each operation
+     * ({@code gc.alloc.rate.norm} in bytes/op).
+     * 
+     * @param config  the benchmark configuration to use
+     * @param options the options to extend
+     * @return the options with the enabled profilers
+     */
+    public static Options addProfilersIfNeeded( BenchmarkConfig config, Options options )
+    {
+
+        final Object gcProfiler = config.getArgs().get( "gcprofiler" );
+        if( gcProfiler == null )
+            return options;
+
+        final ValuePath valuePath = config.getPath().append("args").append("gc-profiler");
+        if( ! (gcProfiler instanceof Boolean) )
+            throw InvalidTypeException.of( valuePath, gcProfiler, Boolean.class );
+
+        if( ! (Boolean) gcProfiler )
+            return options;
+
+        return new OptionsBuilder()
+            .parent( options )
+            .addProfiler( GCProfiler.class )
+            .build();
+
+    }
+
     /**
      * Extracts from the given configuration the benchmark configuration for the given algorithm.
      * 
@@ -190,13 +428,13 @@ public class BenchmarkExecutionUtils
      * Extracts from the given configuration the algorithm configuration for the given algorithm.
      * 
      * @param config the configuration to parse
-     * @param algorithm the algorithm for which to extract the configuration
+     * @param algorithm the label of the algorithm for which to extract the configuration
      * @return the configuration for the given algorithm
      */
     public static AlgorithmConfig getAlgorithmConfig( Config config, String algorithm )
     {
 
-        return config.getAlgorithms().stream().filter( a -> a.getName().equals(algorithm) ).findFirst().get();
+        return config.getAlgorithms().stream().filter( a -> a.getLabel().equals(algorithm) ).findFirst().get();
 
     }
 
@@ -0,0 +1,400 @@
+package ch.supsi.dti.isin.benchmark.executor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.distribution.ZipfDistribution;
+import org.apache.commons.math3.random.Well19937c;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
+import ch.supsi.dti.isin.benchmark.config.BenchmarkConfig;
+import ch.supsi.dti.isin.benchmark.config.ConfigUtils;
+import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.bounded.BoundedLoadHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Benchmark tool to measure the effect of bounded loads under skewed key popularity.
+ * <p>
+ * The requested keys follow a Zipfian distribution, therefore few keys are
+ * requested many times. Each request is assigned to a node both by the plain
+ * algorithm and by the same algorithm wrapped into a {@link BoundedLoadHash},
+ * and the loads of the nodes are compared with the average load.
+ *
+ * @author Massimo Coluzzi
+ */
+public class BoundedLoad extends BenchmarkExecutor
+{
+
+
+    /** Default value to use as key multiplier. */
+    public static final int DEFAULT_KEY_MULTIPLIER = 100;
+
+    /** Default exponent of the Zipfian distribution. */
+    public static final float DEFAULT_EXPONENT = 1.0f;
+
+
+    /**
+     * The number of requests used for this benchmark will be the number of nodes multiplied by this value.
+     * The number of distinct keys is the same as the number of requests.
+     * The default value for this property is {@link #DEFAULT_KEY_MULTIPLIER}.
+     */
+    private final int keyMultiplier;
+
+    /** The exponent of the Zipfian distribution of the requests. */
+    private final float exponent;
+
+    /** The tolerated excess over the average load. */
+    private final float epsilon;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config  configuration to use to setup the current benchmark
+     */
+    public BoundedLoad( BenchmarkConfig config )
+    {
+
+        super( config );
+
+        this.keyMultiplier = getKeyMultiplier();
+        this.exponent = getExponent();
+        this.epsilon = getEpsilon();
+
+    }
+
+
+    /* ***************** */
+    /*  EXTENSION HOOKS  */
+    /* ***************** */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void performBenchmak( List<ConsistentHashFactory> factories ) throws Exception
+    {
+
+        runAndWriteMetrics( factories );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the multiplier to apply to get the number of requests to use.
+     *
+     * @return the multiplier to apply to get the number of requests to use
+     */
+    private int getKeyMultiplier()
+    {
+
+        final Object argument = config.getArgs().get( "keymultiplier" );
+        if( argument == null )
+            return DEFAULT_KEY_MULTIPLIER;
+
+        final ValuePath path = config.getPath().append( "key-multiplier" );
+        final int keyMultiplier = ConfigUtils.toInt( path, argument );
+        if( keyMultiplier < 1 )
+            throw InconsistentValueException.lessThan( path, 1, keyMultiplier );
+
+        return keyMultiplier;
+
+    }
+
+    /**
+     * Returns the exponent of the Zipfian distribution of the requests.
+     *
+     * @return the exponent of the Zipfian distribution
+     */
+    private float getExponent()
+    {
+
+        final Object argument = config.getArgs().get( "exponent" );
+        if( argument == null )
+            return DEFAULT_EXPONENT;
+
+        final ValuePath path = config.getPath().append( "exponent" );
+        final float exponent = ConfigUtils.toFloat( path, argument );
+        if( exponent <= 0 )
+            throw InconsistentValueException.lessOrEqual( path, 0, exponent );
+
+        return exponent;
+
+    }
+
+    /**
+     * Returns the tolerated excess over the average load.
+     *
+     * @return the value of epsilon
+     */
+    private float getEpsilon()
+    {
+
+        final Object argument = config.getArgs().get( "epsilon" );
+        if( argument == null )
+            return (float) BoundedLoadHash.DEFAULT_EPSILON;
+
+        final ValuePath path = config.getPath().append( "epsilon" );
+        final float epsilon = ConfigUtils.toFloat( path, argument );
+        if( epsilon <= 0 )
+            throw InconsistentValueException.lessOrEqual( path, 0, epsilon );
+
+        return epsilon;
+
+    }
+
+    /**
+     * Runs the benchmark and writes the results.
+     *
+     * @param factories the algorithms to benchmark
+     * @throws IOException if an error occurred while writing results on file.
+     */
+    private void runAndWriteMetrics( List<ConsistentHashFactory> factories ) throws IOException
+    {
+
+        final Path file = BenchmarkExecutionUtils.getOutputFile( config );
+        try( final BufferedWriter writer = Files.newBufferedWriter(file) )
+        {
+
+            final List<HashFunction> functions = BenchmarkExecutionUtils.getHashFunctions( config );
+
+            printHeader( writer );
+            for( HashFunction function :  functions )
+                for( ConsistentHashFactory factory : factories )
+                    for( int nodesCount : config.getCommon().getInitNodes() )
+                    {
+
+                        if( config.getCommon().isGc() )
+                            System.gc();
+
+                        final Metrics metrics = collectMetrics(
+                            function, factory, nodesCount, nodesCount * keyMultiplier,
+                            config.getCommon().getIterations().getExecution()
+                        );
+
+                        printMetrics( metrics, writer );
+                        writer.flush();
+
+                    }
+
+        }
+
+    }
+
+    /**
+     * Prints the CSV header.
+     *
+     * @param writer the writer
+     */
+    private void printHeader( BufferedWriter writer ) throws IOException
+    {
+
+        writer.write( "HashFunction,Algorithm,Keys,Exponent,Epsilon,Nodes,Iterations,Avg,Max,Max/Avg,BoundedMax,BoundedMax/Avg,ExtraProbes/Key" );
+        writer.newLine();
+
+    }
+
+    /**
+     * Prints the collected metrics in a CSV format.
+     *
+     * @param metrics metrics to print.
+     */
+    private void printMetrics( Metrics metrics, BufferedWriter writer ) throws IOException
+    {
+
+        final double avg = (double) metrics.keys / metrics.nodes;
+
+        writer.write(metrics.function);
+        writer.write(',');
+        writer.write(metrics.algorithm);
+        writer.write(',');
+        writer.write(String.valueOf(metrics.keys));
+        writer.write(',');
+        writer.write(String.valueOf(exponent));
+        writer.write(',');
+        writer.write(String.valueOf(epsilon));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.nodes));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.iterations));
+        writer.write(',');
+        writer.write(String.valueOf(avg));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.maxLoad));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.maxLoad / avg));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.boundedMaxLoad));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.boundedMaxLoad / avg));
+        writer.write(',');
+        writer.write(String.valueOf(metrics.extraProbes / metrics.keys));
+        writer.newLine();
+
+    }
+
+    /**
+     * Collects metrics about the loads of the nodes with and without bounded loads.
+     *
+     * @param function   the hash function to use
+     * @param factory    the algorithm to collect metrics from
+     * @param nodesCount number of nodes of the cluster
+     * @param keysCount  number of requests
+     * @param iterations number of times the test will be repeated
+     * @return metrics
+     */
+    private Metrics collectMetrics(
+            HashFunction function, ConsistentHashFactory factory,
+            int nodesCount, int keysCount, int iterations
+    )
+    {
+
+        final String algorithm = factory.getConfig().getLabel();
+        final List<Node> nodes = SimpleNode.create( nodesCount );
+
+        /* The hashes of the distinct keys are computed once, the rank of a key is its index. */
+        final long[] keyHashes = new long[keysCount];
+        for( int i = 0; i < keysCount; ++i )
+            keyHashes[i] = function.hash( "key_" + i );
+
+        final Metrics metrics = new Metrics( function.name(), algorithm, nodesCount, keysCount, iterations );
+        for( int i = 0; i < iterations; ++i )
+        {
+
+            System.out.print("ITERATION ");
+            System.out.print(i + 1);
+            System.out.print(": Collecting metrics for ");
+            System.out.print(algorithm);
+            System.out.print("(" + function.name() + ", ");
+            System.out.print(nodesCount + "), ");
+            System.out.print("zipf(" + keysCount + ", " + exponent + ")...");
+
+            final ConsistentHash consistentHash = factory.createConsistentHash( function, nodes );
+            final BoundedLoadHash boundedLoadHash = new BoundedLoadHash(
+                factory.createConsistentHash( function, nodes ), nodes, epsilon
+            );
+
+            final ZipfDistribution zipf = new ZipfDistribution( new Well19937c(i), keysCount, exponent );
+            final Map<Node,int[]> loads = new HashMap<>();
+
+            final long start = System.currentTimeMillis();
+            for( int k = 0; k < keysCount; ++k )
+            {
+
+                final long keyHash = keyHashes[zipf.sample() - 1];
+                ++loads.computeIfAbsent( consistentHash.getNode(keyHash), n -> new int[1] )[0];
+                boundedLoadHash.acquire( keyHash );
+
+            }
+
+            final long end = System.currentTimeMillis();
+
+            final int maxLoad = loads.values().stream().mapToInt( load -> load[0] ).max().orElseThrow();
+            final int boundedMaxLoad = nodes.stream().mapToInt( boundedLoadHash::load ).max().orElseThrow();
+            metrics.collect( maxLoad, boundedMaxLoad, boundedLoadHash.extraProbes() );
+
+            System.out.println("-> [" + maxLoad + "," + boundedMaxLoad + "] in " + (end - start) + "ms");
+
+        }
+
+        return metrics;
+
+    }
+
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Class to collect the bounded load metrics.
+     *
+     * @author Massimo Coluzzi
+     */
+    private static class Metrics
+    {
+
+        /** The hash function this metrics are related to. */
+        final String function;
+
+        /** The algorithm this metrics are related to. */
+        final String algorithm;
+
+        /** The number of nodes of the cluster. */
+        final int nodes;
+
+        /** The number of requests of each iteration. */
+        final int keys;
+
+        /** The number of iterations of the benchmark. */
+        final int iterations;
+
+        /** Average across the iterations of the highest load without bounds. */
+        double maxLoad;
+
+        /** Average across the iterations of the highest load with bounds. */
+        double boundedMaxLoad;
+
+        /** Average across the iterations of the extra probes. */
+        double extraProbes;
+
+
+        /**
+         * Constructor with parameters.
+         *
+         * @param function   the hash function this metrics refer to
+         * @param algorithm  the algorithm this metrics refer to
+         * @param nodes      the number of nodes of the cluster
+         * @param keys       the number of requests of each iteration
+         * @param iterations number of times the benchmark is repeated
+         */
+        Metrics( String function, String algorithm, int nodes, int keys, int iterations )
+        {
+
+            super();
+
+            this.function = function;
+            this.algorithm = algorithm;
+            this.nodes = nodes;
+            this.keys = keys;
+            this.iterations = iterations;
+
+        }
+
+        /**
+         * Collects the results of an iteration.
+         *
+         * @param maxLoad        the highest load without bounds
+         * @param boundedMaxLoad the highest load with bounds
+         * @param extraProbes    the number of extra probes
+         */
+        void collect( int maxLoad, int boundedMaxLoad, long extraProbes )
+        {
+
+            this.maxLoad += (double) maxLoad / iterations;
+            this.boundedMaxLoad += (double) boundedMaxLoad / iterations;
+            this.extraProbes += (double) extraProbes / iterations;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,465 @@
+package ch.supsi.dti.isin.benchmark.executor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
+import ch.supsi.dti.isin.benchmark.adapter.HashFunctionLoader;
+import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.BenchmarkConfig;
+import ch.supsi.dti.isin.benchmark.config.CommonConfig;
+import ch.supsi.dti.isin.benchmark.config.IterationsConfig;
+import ch.supsi.dti.isin.benchmark.config.JMHConfigWrapper;
+import ch.supsi.dti.isin.benchmark.config.TimeConfig;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.concurrent.ConcurrentConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+import ch.supsi.dti.isin.key.Distribution;
+import ch.supsi.dti.isin.key.KeyGenerator;
+
+/**
+ * Benchmarks the time needed to find which node a given key belongs
+ * when multiple reader threads perform lookups while a writer thread
+ * keeps resizing the cluster.
+ *
+ * <p>
+ * The lock-free {@link ConcurrentConsistentHash} is compared with
+ * a plain {@link ConsistentHash} guarded by a read-write lock.
+ * The benchmark is executed once for each configured number of
+ * reader threads and all the results are stored in the same file.
+ *
+ * @author Massimo Coluzzi
+ */
+public class ConcurrentLookupTime extends BenchmarkExecutor
+{
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config  configuration to use to setup the current benchmark
+     */
+    public ConcurrentLookupTime( BenchmarkConfig config )
+    {
+
+        super( config );
+
+    }
+
+
+    /* ***************** */
+    /*  EXTENSION HOOKS  */
+    /* ***************** */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void performBenchmak( List<ConsistentHashFactory> factories ) throws Exception
+    {
+
+        final Path file = BenchmarkExecutionUtils.getOutputFile( config );
+
+        final String[] benchmarks    = { config.getName() };
+        final String[] distributions = BenchmarkExecutionUtils.getKeyDistributions( config );
+        final String[] functions     = BenchmarkExecutionUtils.getHashFunctionNames( config );
+        final String[] initNodes     = BenchmarkExecutionUtils.getInitNodes( config );
+        final String[] algorithms    = BenchmarkExecutionUtils.getAlgorithms( factories );
+        final int[] threadCounts     = BenchmarkExecutionUtils.getThreadCounts( config );
+
+        final CommonConfig common = config.getCommon();
+        final TimeConfig time = common.getTime();
+        final IterationsConfig iterations = common.getIterations();
+
+        final List<RunResult> results = new ArrayList<>();
+        for( int threads : threadCounts )
+        {
+
+            final Options opt = new OptionsBuilder()
+                .include( ConcurrentLookupTime.ConcurrentLookupTimeExecutor.class.getCanonicalName() )
+
+                .param( "benchmark", benchmarks )
+                .param( "function", functions )
+                .param( "initNodes", initNodes )
+                .param( "algorithm", algorithms )
+                .param( "distribution", distributions )
+
+                .threads( threads )
+
+                .shouldDoGC( common.isGc() )
+                .forks( 1 )
+
+                .mode( Mode.AverageTime )
+                .timeUnit( time.getUnit() )
+                .warmupTime( time.getWarmup() )
+                .measurementTime( time.getExecution() )
+                .warmupIterations( iterations.getWarmup() )
+                .measurementIterations( iterations.getExecution() )
+
+                .build();
+
+            try{
+
+                results.addAll( new Runner(opt).run() );
+
+            }catch( RunnerException ex )
+            {
+
+                throw BenchmarkExecutionException.of( ex );
+
+            }
+
+        }
+
+        /* Each run has a different number of threads, the CSV reports it in the "Threads" column. */
+        ResultFormatFactory.getInstance( ResultFormatType.CSV, file.toString() ).writeOut( results );
+
+    }
+
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Inner class that executes the benchmark.
+     *
+     * <p>{@code JMH} benchmarks need an inner class in order to work.
+     * The outer class is used to pass the configurations and run the benchmark inside the inner class.
+     *
+     * @author Massimo Coluzzi
+     */
+    @State(Scope.Benchmark)
+    public static class ConcurrentLookupTimeExecutor
+    {
+
+        /** Number of precomputed key hashes, must be a power of 2. */
+        private static final int KEY_HASHES = 1 << 20;
+
+        /** Mask used to cycle over the precomputed key hashes. */
+        private static final int KEY_HASHES_MASK = KEY_HASHES - 1;
+
+        /** Name of the benchmark method that uses the lock based consistent hash. */
+        private static final String LOCKED_BENCHMARK = "getNodeLocked";
+
+
+        /** Name of the current benchmark. */
+        @Param({})
+        private String benchmark;
+
+        /** Number of nodes used to initialize the cluster. */
+        @Param({})
+        private int initNodes;
+
+        /** Hash function used to initialize the cluster. */
+        @Param({})
+        private String function;
+
+        /** Name of the algorithm to benchmark. */
+        @Param({})
+        private String algorithm;
+
+        /** Statistical key distribution. */
+        @Param({})
+        private Distribution distribution;
+
+        /** Precomputed hashes of the keys to use during the benchmark. */
+        private long[] keyHashes;
+
+        /** The lock-free consistent hash. */
+        private ConcurrentConsistentHash concurrentHash;
+
+        /** The consistent hash guarded by {@link #lock}. */
+        private ConsistentHash lockedHash;
+
+        /** The lock used to guard {@link #lockedHash}. */
+        private ReadWriteLock lock;
+
+        /** The thread that keeps resizing the cluster. */
+        private Thread writer;
+
+        /** Tells the writer thread to stop. */
+        private volatile boolean stopped;
+
+
+        /* **************** */
+        /*  PUBLIC METHODS  */
+        /* **************** */
+
+
+        /**
+         * Setups config values before running the benchmark. This method is automatically run by {@code JMH} before the benchmark.
+         *
+         * <p>
+         * Since {@code JMH} benchmarks run in another process, previously created object are not accessible from the other process.
+         * Therefore, before every {@code JMH} benchmark, the config objects, needed for that specific benchmark, are recreated.
+         *
+         * @param wrapper a wrapper object, automatically created and populated by {@code JMH},
+         *                containing all the configurations needed by the benchmark.
+         * @param params  the parameters of the current benchmark run
+         */
+        @Setup
+        public void setup( JMHConfigWrapper wrapper, BenchmarkParams params )
+        {
+
+            final BenchmarkConfig benchmarkConfig = BenchmarkExecutionUtils.getBenchmarkConfig( wrapper.getConfig(), benchmark );
+            final AlgorithmConfig algorithmConfig = BenchmarkExecutionUtils.getAlgorithmConfig( wrapper.getConfig(), algorithm );
+            final ConsistentHashFactory factory = BenchmarkExecutionUtils.getFactory( algorithmConfig );
+            final HashFunction hashFunction = HashFunctionLoader.getInstance().load( function );
+            final List<Node> nodes = SimpleNode.create( initNodes );
+            final ConsistentHash consistentHash = factory.createConsistentHash( hashFunction, nodes );
+
+            BenchmarkExecutionUtils.removeNodesIfNeeded( benchmarkConfig, consistentHash, nodes );
+
+            final Iterator<String> keys = KeyGenerator.create( distribution ).iterator();
+            this.keyHashes = new long[KEY_HASHES];
+            for( int i = 0; i < KEY_HASHES; ++i )
+                keyHashes[i] = hashFunction.hash( keys.next() );
+
+            this.lock = new ReentrantReadWriteLock();
+            this.lockedHash = consistentHash;
+            this.concurrentHash = new ConcurrentConsistentHash( consistentHash );
+
+            final boolean locked = params.getBenchmark().endsWith( LOCKED_BENCHMARK );
+            final int resizeInterval = BenchmarkExecutionUtils.getResizeInterval( benchmarkConfig );
+            final Collection<Node> toResize = Collections.singleton( SimpleNode.of(initNodes) );
+
+            this.stopped = false;
+            this.writer = new Thread( () -> resize(toResize, resizeInterval, locked), "resizer" );
+            this.writer.setDaemon( true );
+            this.writer.start();
+
+        }
+
+        /**
+         * Stops the writer thread. This method is automatically run by {@code JMH} after the benchmark.
+         *
+         * @throws InterruptedException if interrupted while waiting for the writer to stop
+         */
+        @TearDown
+        public void tearDown() throws InterruptedException
+        {
+
+            this.stopped = true;
+            this.writer.interrupt();
+            this.writer.join();
+
+        }
+
+        /**
+         * Does a lookup on the lock-free consistent hash.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * The looked up node is returned to prevent the {@code JIT}
+         * compiler from optimizing the method.
+         *
+         * @param cursor the per-thread position in the precomputed key hashes
+         * @return the looked up node
+         */
+        @Benchmark
+        public Object getNode( Cursor cursor )
+        {
+
+            return concurrentHash.getNode( keyHashes[cursor.next()] );
+
+        }
+
+        /**
+         * Does a lookup on the consistent hash guarded by a read-write lock.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * The looked up node is returned to prevent the {@code JIT}
+         * compiler from optimizing the method.
+         *
+         * @param cursor the per-thread position in the precomputed key hashes
+         * @return the looked up node
+         */
+        @Benchmark
+        public Object getNodeLocked( Cursor cursor )
+        {
+
+            lock.readLock().lock();
+            try{
+
+                return lockedHash.getNode( keyHashes[cursor.next()] );
+
+            }finally
+            {
+
+                lock.readLock().unlock();
+
+            }
+
+        }
+
+
+        /* ***************** */
+        /*  PRIVATE METHODS  */
+        /* ***************** */
+
+
+        /**
+         * Keeps adding and removing the given nodes until stopped.
+         * <p>
+         * The nodes are removed right after being added,
+         * so the removals are always in LIFO order.
+         *
+         * @param toResize       the nodes to add and remove
+         * @param resizeInterval pause in milliseconds between two resizes
+         * @param locked         {@code true} to resize the lock based consistent hash
+         */
+        private void resize( Collection<Node> toResize, int resizeInterval, boolean locked )
+        {
+
+            while( ! stopped )
+            {
+
+                if( locked )
+                {
+
+                    writeLocked( () -> lockedHash.addNodes(toResize) );
+                    pause( resizeInterval );
+                    writeLocked( () -> lockedHash.removeNodes(toResize) );
+
+                }
+                else
+                {
+
+                    concurrentHash.addNodes( toResize );
+                    pause( resizeInterval );
+                    concurrentHash.removeNodes( toResize );
+
+                }
+
+                pause( resizeInterval );
+
+            }
+
+        }
+
+        /**
+         * Applies the given update to the lock based
+         * consistent hash holding the write lock.
+         *
+         * @param update the update to apply
+         */
+        private void writeLocked( Runnable update )
+        {
+
+            lock.writeLock().lock();
+            try{
+
+                update.run();
+
+            }finally
+            {
+
+                lock.writeLock().unlock();
+
+            }
+
+        }
+
+        /**
+         * Pauses the current thread for the given amount of milliseconds.
+         *
+         * @param millis the milliseconds to wait
+         */
+        private void pause( int millis )
+        {
+
+            if( millis <= 0 )
+                return;
+
+            try{
+
+                TimeUnit.MILLISECONDS.sleep( millis );
+
+            }catch( InterruptedException ex )
+            {
+
+                Thread.currentThread().interrupt();
+                this.stopped = true;
+
+            }
+
+        }
+
+
+        /* *************** */
+        /*  INNER CLASSES  */
+        /* *************** */
+
+
+        /**
+         * Per-thread position in the precomputed key hashes.
+         *
+         * @author Massimo Coluzzi
+         */
+        @State(Scope.Thread)
+        public static class Cursor
+        {
+
+            /** Index of the next key hash to use. */
+            private int index;
+
+
+            /**
+             * Starts each thread from a random position
+             * to avoid threads reading the same keys.
+             *
+             */
+            @Setup
+            public void setup()
+            {
+
+                this.index = ThreadLocalRandom.current().nextInt( KEY_HASHES );
+
+            }
+
+            /**
+             * Returns the index of the next key hash to use.
+             *
+             * @return the next index
+             */
+            int next()
+            {
+
+                return index++ & KEY_HASHES_MASK;
+
+            }
+
+        }
+
+    }
+
+}
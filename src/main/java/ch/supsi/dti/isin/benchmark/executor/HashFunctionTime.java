@@ -0,0 +1,277 @@
+package ch.supsi.dti.isin.benchmark.executor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
+import ch.supsi.dti.isin.benchmark.adapter.HashFunctionLoader;
+import ch.supsi.dti.isin.benchmark.config.BenchmarkConfig;
+import ch.supsi.dti.isin.benchmark.config.CommonConfig;
+import ch.supsi.dti.isin.benchmark.config.IterationsConfig;
+import ch.supsi.dti.isin.benchmark.config.TimeConfig;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+import ch.supsi.dti.isin.key.Distribution;
+import ch.supsi.dti.isin.key.KeyGenerator;
+
+/**
+ * Benchmarks the time needed by the hash functions
+ * to hash a key when used by multiple threads.
+ *
+ * <p>
+ * The benchmark is executed once for each configured number of
+ * threads and all the results are stored in the same file.
+ * A thread-safe function that does not rely on synchronization
+ * keeps the time per operation constant as the threads increase.
+ * The consistent hashing algorithms are not involved.
+ *
+ * @author Massimo Coluzzi
+ */
+public class HashFunctionTime extends BenchmarkExecutor
+{
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config  configuration to use to setup the current benchmark
+     */
+    public HashFunctionTime( BenchmarkConfig config )
+    {
+
+        super( config );
+
+    }
+
+
+    /* ***************** */
+    /*  EXTENSION HOOKS  */
+    /* ***************** */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void performBenchmak( List<ConsistentHashFactory> factories ) throws Exception
+    {
+
+        final Path file = BenchmarkExecutionUtils.getOutputFile( config );
+
+        final String[] distributions = BenchmarkExecutionUtils.getKeyDistributions( config );
+        final String[] functions     = BenchmarkExecutionUtils.getHashFunctionNames( config );
+        final int[] threadCounts     = BenchmarkExecutionUtils.getThreadCounts( config );
+
+        final CommonConfig common = config.getCommon();
+        final TimeConfig time = common.getTime();
+        final IterationsConfig iterations = common.getIterations();
+
+        final List<RunResult> results = new ArrayList<>();
+        for( int threads : threadCounts )
+        {
+
+            final Options opt = new OptionsBuilder()
+                .include( HashFunctionTime.HashFunctionTimeExecutor.class.getCanonicalName() )
+
+                .param( "function", functions )
+                .param( "distribution", distributions )
+
+                .threads( threads )
+
+                .shouldDoGC( common.isGc() )
+                .forks( 1 )
+
+                .mode( Mode.AverageTime )
+                .timeUnit( time.getUnit() )
+                .warmupTime( time.getWarmup() )
+                .measurementTime( time.getExecution() )
+                .warmupIterations( iterations.getWarmup() )
+                .measurementIterations( iterations.getExecution() )
+
+                .build();
+
+            try{
+
+                results.addAll( new Runner(opt).run() );
+
+            }catch( RunnerException ex )
+            {
+
+                throw BenchmarkExecutionException.of( ex );
+
+            }
+
+        }
+
+        /* Each run has a different number of threads, the CSV reports it in the "Threads" column. */
+        ResultFormatFactory.getInstance( ResultFormatType.CSV, file.toString() ).writeOut( results );
+
+    }
+
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Inner class that executes the benchmark.
+     *
+     * <p>{@code JMH} benchmarks need an inner class in order to work.
+     * The outer class is used to pass the configurations and run the benchmark inside the inner class.
+     *
+     * @author Massimo Coluzzi
+     */
+    @State(Scope.Benchmark)
+    public static class HashFunctionTimeExecutor
+    {
+
+        /** Number of precomputed keys, must be a power of 2. */
+        private static final int KEYS = 1 << 16;
+
+        /** Mask used to cycle over the precomputed keys. */
+        private static final int KEYS_MASK = KEYS - 1;
+
+        /** Seed used by the seeded hashing benchmarks. */
+        private static final int SEED = 0xDEADBEEF;
+
+
+        /** Name of the hash function to benchmark. */
+        @Param({})
+        private String function;
+
+        /** Statistical key distribution. */
+        @Param({})
+        private Distribution distribution;
+
+        /** Precomputed keys shared by all the threads. */
+        private String[] keys;
+
+        /** Precomputed hashes of the keys shared by all the threads. */
+        private long[] keyHashes;
+
+        /** The hash function to benchmark. */
+        private HashFunction hashFunction;
+
+
+        /* **************** */
+        /*  PUBLIC METHODS  */
+        /* **************** */
+
+
+        /**
+         * Setups config values before running the benchmark. This method is automatically run by {@code JMH} before the benchmark.
+         *
+         */
+        @Setup
+        public void setup()
+        {
+
+            this.hashFunction = HashFunctionLoader.getInstance().load( function );
+
+            final Iterator<String> generator = KeyGenerator.create( distribution ).iterator();
+            this.keys = new String[KEYS];
+            this.keyHashes = new long[KEYS];
+            for( int i = 0; i < KEYS; ++i )
+            {
+                keys[i] = generator.next();
+                keyHashes[i] = hashFunction.hash( keys[i] );
+            }
+
+        }
+
+        /**
+         * Hashes a precomputed key.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * @param cursor the per-thread position in the precomputed keys
+         * @return the computed hash
+         */
+        @Benchmark
+        public long hash( Cursor cursor )
+        {
+
+            return hashFunction.hash( keys[cursor.next()] );
+
+        }
+
+        /**
+         * Hashes a precomputed key with a seed,
+         * as done by the rehashing loops of the engines.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * @param cursor the per-thread position in the precomputed keys
+         * @return the computed hash
+         */
+        @Benchmark
+        public long hashWithSeed( Cursor cursor )
+        {
+
+            return hashFunction.hash( keyHashes[cursor.next()], SEED );
+
+        }
+
+
+        /* *************** */
+        /*  INNER CLASSES  */
+        /* *************** */
+
+
+        /**
+         * Per-thread position in the precomputed keys.
+         *
+         * @author Massimo Coluzzi
+         */
+        @State(Scope.Thread)
+        public static class Cursor
+        {
+
+            /** Index of the next key to use. */
+            private int index;
+
+
+            /**
+             * Starts each thread from a random position
+             * to avoid threads reading the same keys.
+             *
+             */
+            @Setup
+            public void setup()
+            {
+
+                this.index = ThreadLocalRandom.current().nextInt( KEYS );
+
+            }
+
+            /**
+             * Returns the index of the next key to use.
+             *
+             * @return the next index
+             */
+            int next()
+            {
+
+                return index++ & KEYS_MASK;
+
+            }
+
+        }
+
+    }
+
+}
@@ -134,7 +134,7 @@ public class IncrementalMemoryUsage extends BenchmarkExecutor
                             BenchmarkExecutionUtils.removeNodes( consistentHash, nodes, removalRate );
                             
                             final long bytes = GraphLayout.parseInstance( consistentHash.engine() ).totalSize();
-                            printMetrics( function.name(), factory.getConfig().getName(), nodesCount, removalRate, bytes, writer );
+                            printMetrics( function.name(), factory.getConfig().getLabel(), nodesCount, removalRate, bytes, writer );
 
                             writer.flush();
                         }
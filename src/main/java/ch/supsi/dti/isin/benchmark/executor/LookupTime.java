@@ -35,6 +35,12 @@ import ch.supsi.dti.isin.key.KeyGenerator;
 
 /**
  * Benchmarks the time needed for a consistent hashing algorithm to lookup a key.
+ * <p>
+ * The lookup is measured both starting from a {@link String} key
+ * and starting from a precomputed 64-bit key hash. The lookup
+ * of a key hash is also measured through the {@link ConsistentHash}
+ * wrapper to show the cost of the consistency checks and of the
+ * mapping between buckets and nodes.
  * 
  * @author Massimo Coluzzi
  * @author Samuel De Babo Martins
@@ -106,7 +112,7 @@ public class LookupTime extends BenchmarkExecutor
 
         try{
 
-            new Runner( opt ).run();
+            new Runner( BenchmarkExecutionUtils.addProfilersIfNeeded(config, opt) ).run();
 
         }catch( RunnerException ex )
         {
@@ -135,6 +141,12 @@ public class LookupTime extends BenchmarkExecutor
     public static class LookupTimeExecutor
     {
 
+        /** Number of precomputed key hashes, must be a power of 2. */
+        private static final int KEY_HASHES = 1 << 20;
+
+        /** Mask used to cycle over the precomputed key hashes. */
+        private static final int KEY_HASHES_MASK = KEY_HASHES - 1;
+
         /** Name of the current benchmark. */
         @Param({})
         private String benchmark;
@@ -158,9 +170,21 @@ public class LookupTime extends BenchmarkExecutor
         /** The keys to use during the benchmark. */
         private Iterator<String> keys;
 
+        /** Precomputed hashes of the keys to use during the primitive benchmark. */
+        private long[] keyHashes;
+
+        /** Index of the next key hash to use. */
+        private int keyHashIndex;
+
         /** The pilot where to invoke the lookup function on. */
         private ConsistentHashEnginePilot<?> pilot;
 
+        /** The wrapper of the engine driven by the pilot. */
+        private ConsistentHash consistentHash;
+
+        /** The read-only form of the wrapper, see {@link ConsistentHash#freeze()}. */
+        private ConsistentHash frozen;
+
                 
         /* **************** */
         /*  PUBLIC METHODS  */
@@ -193,6 +217,15 @@ public class LookupTime extends BenchmarkExecutor
 
             this.keys = KeyGenerator.create(distribution).iterator();
             this.pilot = factory.createEnginePilot( consistentHash );
+            this.consistentHash = consistentHash;
+            this.frozen = consistentHash.freeze();
+
+            final Iterator<String> hashedKeys = KeyGenerator.create(distribution).iterator();
+            this.keyHashes = new long[KEY_HASHES];
+            for( int i = 0; i < KEY_HASHES; ++i )
+                keyHashes[i] = hashFunction.hash( hashedKeys.next() );
+
+            this.keyHashIndex = 0;
 
             
         }
@@ -215,6 +248,63 @@ public class LookupTime extends BenchmarkExecutor
 
         }
 
+        /**
+         * Does a lookup using a precomputed key hash.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * It measures the cost of the lookup without the cost
+         * of hashing a {@link String}, so it can be compared
+         * with {@link #getNode()} to isolate the hashing overhead.
+         * 
+         * @return the looked up node
+         */
+        @Benchmark
+        public Object getNodeByHash()
+        {
+
+            return pilot.getNode( keyHashes[keyHashIndex++ & KEY_HASHES_MASK] );
+
+        }
+
+        /**
+         * Does a lookup using a precomputed key hash
+         * through the {@link ConsistentHash} wrapper.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * It can be compared with {@link #getNodeByHash()}
+         * to isolate the overhead of the wrapper.
+         * 
+         * @return the looked up node
+         */
+        @Benchmark
+        public Object getNodeByWrapper()
+        {
+
+            return consistentHash.getNode( keyHashes[keyHashIndex++ & KEY_HASHES_MASK] );
+
+        }
+
+        /**
+         * Does a lookup using a precomputed key hash
+         * through the frozen form of the {@link ConsistentHash}.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * It can be compared with {@link #getNodeByWrapper()}
+         * to measure the gain of the read-only structures.
+         * 
+         * @return the looked up node
+         */
+        @Benchmark
+        public Object getNodeByFrozenWrapper()
+        {
+
+            return frozen.getNode( keyHashes[keyHashIndex++ & KEY_HASHES_MASK] );
+
+        }
+
     }
 
 }
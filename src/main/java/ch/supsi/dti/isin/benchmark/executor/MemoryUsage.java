@@ -126,7 +126,7 @@ public class MemoryUsage extends BenchmarkExecutor
                         BenchmarkExecutionUtils.removeNodesIfNeeded( config, consistentHash, nodes );
                         
                         final long bytes = GraphLayout.parseInstance( consistentHash.engine() ).totalSize();
-                        printMetrics( function.name(), factory.getConfig().getName(), nodesCount, bytes, writer );
+                        printMetrics( function.name(), factory.getConfig().getLabel(), nodesCount, bytes, writer );
 
                         writer.flush();
                     }
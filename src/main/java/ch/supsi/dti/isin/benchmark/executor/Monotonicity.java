@@ -31,6 +31,8 @@ import ch.supsi.dti.isin.key.KeyGenerator;
  * resizing of the cluster. Only the keys of the nodes involved in the
  * resizing should change their location. This benchmark measures how
  * many keys comply with such a constraint and how many do not.
+ * The time spent by the algorithm to remove and to restore
+ * the nodes is reported as well, in milliseconds.
  *
  * 
  * @author Massimo Coluzzi
@@ -225,7 +227,7 @@ public class Monotonicity extends BenchmarkExecutor
                 .limit( keysCount ).distinct()
                 .collect( Collectors.toMap( Function.identity(), s -> new Position() ) );
 
-        final String algorithm = factory.getConfig().getName();
+        final String algorithm = factory.getConfig().getLabel();
         final List<Node> initNodes = SimpleNode.create( nodesCount );
 
         final ConsistentHash consistentHash = factory.createConsistentHash( function, initNodes );
@@ -236,12 +238,16 @@ public class Monotonicity extends BenchmarkExecutor
 
         collect( Phase.BEFORE_REMOVE, consistentHash, metrics, nodeMap );
 
+        final long removeStart = System.nanoTime();
         consistentHash.removeNodes( nodes );
+        metrics.setRemoveTime( System.nanoTime() - removeStart );
 
         collect( Phase.AFTER_REMOVE, consistentHash, metrics, nodeMap );
 
         Collections.reverse( nodes );
+        final long restoreStart = System.nanoTime();
         consistentHash.addNodes( nodes );
+        metrics.setRestoreTime( System.nanoTime() - restoreStart );
 
         collect( Phase.AFTER_RESTORE, consistentHash, metrics, nodeMap );
 
@@ -318,7 +324,8 @@ public class Monotonicity extends BenchmarkExecutor
         writer.write( "KeysRelocatedAfterResize,NodesChangedAfterResize,"  );
         writer.write( "KeysMovedFromRemovedNodes%,KeysMovedFromOtherNodes%,NodesLosingKeys%,"  );
         writer.write( "KeysMovedToRestoredNodes%,KeysMovedToOtherNodes%,NodesGainingKeys%,"  );
-        writer.write( "KeysRelocatedAfterResize%,NodesChangedAfterResize%" );
+        writer.write( "KeysRelocatedAfterResize%,NodesChangedAfterResize%,"  );
+        writer.write( "RemoveTime(ms),RestoreTime(ms)" );
         writer.newLine();
 
     }
@@ -409,6 +416,10 @@ public class Monotonicity extends BenchmarkExecutor
             writer.write( String.valueOf(keysRelocatedAfterResizePerc) );
             writer.write( ',' );
             writer.write( String.valueOf(nodesChangedAfterResizePerc) );
+            writer.write( ',' );
+            writer.write( String.valueOf(metrics.getRemoveTime() / 1e6) );
+            writer.write( ',' );
+            writer.write( String.valueOf(metrics.getRestoreTime() / 1e6) );
             writer.newLine();
 
 
@@ -545,6 +556,12 @@ public class Monotonicity extends BenchmarkExecutor
         /** Smallest index of the removed nodes. */
         private final int smallestRemovedIndex;
 
+        /** Time in nanoseconds spent to remove the nodes. */
+        private long removeTime;
+
+        /** Time in nanoseconds spent to restore the nodes. */
+        private long restoreTime;
+
 
         /**
          * Constructor with parameters.
@@ -730,6 +747,46 @@ public class Monotonicity extends BenchmarkExecutor
                 .count();
         }
 
+        /**
+         * Sets the time in nanoseconds spent to remove the nodes.
+         *
+         * @param removeTime the time spent to remove the nodes
+         */
+        public void setRemoveTime( long removeTime )
+        {
+            this.removeTime = removeTime;
+        }
+
+        /**
+         * Returns the time in nanoseconds spent to remove the nodes.
+         *
+         * @return the time spent to remove the nodes
+         */
+        public long getRemoveTime()
+        {
+            return removeTime;
+        }
+
+        /**
+         * Sets the time in nanoseconds spent to restore the nodes.
+         *
+         * @param restoreTime the time spent to restore the nodes
+         */
+        public void setRestoreTime( long restoreTime )
+        {
+            this.restoreTime = restoreTime;
+        }
+
+        /**
+         * Returns the time in nanoseconds spent to restore the nodes.
+         *
+         * @return the time spent to restore the nodes
+         */
+        public long getRestoreTime()
+        {
+            return restoreTime;
+        }
+
         /**
          * Returns the fraction of the nodes to remove and restore.
          * 
@@ -216,7 +216,7 @@ public class ResizeBalance extends BenchmarkExecutor
     )
     {
 
-        final String algorithm = factory.getConfig().getName();
+        final String algorithm = factory.getConfig().getLabel();
         final List<Node> initNodes = SimpleNode.create( nodesCount );
         final ConsistentHash consistentHash = factory.createConsistentHash( function, initNodes );
 
@@ -34,6 +34,9 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 /**
  * Benchmarks the time needed for a consistent hashing algorithm
  * to update its internal data structure after a cluster resize.
+ * <p>
+ * The argument {@code resize-nodes} defines how many nodes are
+ * added and then removed by each resize, the default is {@code 1}.
  * 
  * @author Massimo Coluzzi
  * @author Samuel De Babo Martins
@@ -154,6 +157,9 @@ public class ResizeTime extends BenchmarkExecutor
         /** Performs the operations of adding and removing nodes. */
         private ConsistentHashEnginePilot<N> pilot;
 
+        /** The nodes added by the current resize. */
+        private Object[] added;
+
 
         /**
          * Setups config values before running the benchmark. This method is automatically run by {@code JMH} before the benchmark.
@@ -182,22 +188,28 @@ public class ResizeTime extends BenchmarkExecutor
 
             final ConsistentHashEnginePilot<?> pilot = factory.createEnginePilot( consistentHash );
             this.pilot = (ConsistentHashEnginePilot<N>) pilot;
+            this.added = new Object[BenchmarkExecutionUtils.getResizeNodes( benchmarkConfig )];
 
         }
 
         /**
-         * Adds and immediately removes a node.
+         * Adds and immediately removes the configured number of nodes.
          * The resulting metric reports the cost in time of updating
          * the internal data structure of the algorithm when the cluster scales.
          * The metric comprises both cases: when a node is added and when it is removed.
+         * The nodes are removed in reverse order of insertion.
          *
          */
         @Benchmark
+        @SuppressWarnings("unchecked")
         public void resizeNodes()
         {
 
-            final N lastInsertedNode = pilot.addNode();
-            pilot.removeNode( lastInsertedNode );
+            for( int i = 0; i < added.length; ++i )
+                added[i] = pilot.addNode();
+
+            for( int i = added.length - 1; i >= 0; --i )
+                pilot.removeNode( (N) added[i] );
 
         }
 
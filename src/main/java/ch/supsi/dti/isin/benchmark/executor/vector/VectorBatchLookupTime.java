@@ -0,0 +1,318 @@
+package ch.supsi.dti.isin.benchmark.executor.vector;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import org.nerd4j.utils.lang.Require;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
+import ch.supsi.dti.isin.benchmark.adapter.HashFunctionLoader;
+import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.BenchmarkConfig;
+import ch.supsi.dti.isin.benchmark.config.CommonConfig;
+import ch.supsi.dti.isin.benchmark.config.IterationsConfig;
+import ch.supsi.dti.isin.benchmark.config.JMHConfigWrapper;
+import ch.supsi.dti.isin.benchmark.config.TimeConfig;
+import ch.supsi.dti.isin.benchmark.executor.BenchmarkExecutionException;
+import ch.supsi.dti.isin.benchmark.executor.BenchmarkExecutionUtils;
+import ch.supsi.dti.isin.benchmark.executor.BenchmarkExecutor;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.vector.VectorLookup;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+import ch.supsi.dti.isin.key.Distribution;
+import ch.supsi.dti.isin.key.KeyGenerator;
+
+/**
+ * Benchmarks the time needed to lookup a batch of keys with the scalar
+ * engines and with the related lookups based on the Vector API.
+ *
+ * <p>
+ * Only the algorithms having a {@link VectorLookup} are benchmarked,
+ * the other ones are skipped. As in the {@code batch-lookup-time}
+ * benchmark, the reported time is the cost per key.
+ *
+ * @author Massimo Coluzzi
+ */
+public class VectorBatchLookupTime extends BenchmarkExecutor
+{
+
+    /** Name of the module providing the Vector API. */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param config  configuration to use to setup the current benchmark
+     */
+    public VectorBatchLookupTime( BenchmarkConfig config )
+    {
+
+        super( config );
+
+    }
+
+
+    /* ***************** */
+    /*  EXTENSION HOOKS  */
+    /* ***************** */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void performBenchmak( List<ConsistentHashFactory> factories ) throws Exception
+    {
+
+        Require.toHold(
+            ModuleLayer.boot().findModule( VECTOR_MODULE ).isPresent(),
+            "Run the benchmark with the option --add-modules " + VECTOR_MODULE
+        );
+
+        final List<ConsistentHashFactory> vectorizable = factories.stream()
+            .filter( VectorBatchLookupTime::isVectorizable )
+            .toList();
+
+        if( vectorizable.isEmpty() )
+        {
+            System.out.println( "None of the configured algorithms has a vectorized lookup" );
+            return;
+        }
+
+        final Path file = BenchmarkExecutionUtils.getOutputFile( config );
+
+        final String[] benchmarks      = { config.getName() };
+        final String[] distributions   = BenchmarkExecutionUtils.getKeyDistributions( config );
+        final String[] functions       = BenchmarkExecutionUtils.getHashFunctionNames( config );
+        final String[] initNodes       = BenchmarkExecutionUtils.getInitNodes( config );
+        final String[] batchSizes      = BenchmarkExecutionUtils.getBatchSizes( config );
+        final String[] algorithms      = BenchmarkExecutionUtils.getAlgorithms( vectorizable );
+        final String[] implementations = { "scalar", "vector" };
+
+        final CommonConfig common = config.getCommon();
+        final TimeConfig time = common.getTime();
+        final IterationsConfig iterations = common.getIterations();
+
+        final Options opt = new OptionsBuilder()
+            .include( VectorBatchLookupTime.VectorBatchLookupTimeExecutor.class.getCanonicalName() )
+
+            .param( "benchmark", benchmarks )
+            .param( "function", functions )
+            .param( "initNodes", initNodes )
+            .param( "algorithm", algorithms )
+            .param( "distribution", distributions )
+            .param( "batchSize", batchSizes )
+            .param( "implementation", implementations )
+
+            .resultFormat( ResultFormatType.CSV )
+            .result( file.toString() )
+
+            .shouldDoGC( common.isGc() )
+            .forks( 1 )
+            .jvmArgsAppend( "--add-modules", VECTOR_MODULE )
+
+            .mode( Mode.AverageTime )
+            .timeUnit( time.getUnit() )
+            .warmupTime( time.getWarmup() )
+            .measurementTime( time.getExecution() )
+            .warmupIterations( iterations.getWarmup() )
+            .measurementIterations( iterations.getExecution() )
+
+            .build();
+
+        try{
+
+            new Runner( opt ).run();
+
+        }catch( RunnerException ex )
+        {
+
+            throw BenchmarkExecutionException.of( ex );
+
+        }
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Tells if the engine created by the given factory has a vectorized lookup.
+     *
+     * @param factory the factory to check
+     * @return {@code true} if the engine has a vectorized lookup
+     */
+    private static boolean isVectorizable( ConsistentHashFactory factory )
+    {
+
+        final HashFunction function = ConsistentHash.DEFAULT_HASH_FUNCTION;
+        final Object engine = factory.createEngineInitializer( function, SimpleNode.create(1) ).get();
+
+        return VectorLookup.supports( engine );
+
+    }
+
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Inner class that executes the benchmark.
+     *
+     * <p>{@code JMH} benchmarks need an inner class in order to work.
+     * The outer class is used to pass the configurations and run the benchmark inside the inner class.
+     *
+     * @author Massimo Coluzzi
+     */
+    @State(Scope.Benchmark)
+    public static class VectorBatchLookupTimeExecutor
+    {
+
+        /** Number of keys resolved by each benchmark invocation. */
+        private static final int KEYS_PER_INVOCATION = BenchmarkExecutionUtils.MAX_BATCH_SIZE;
+
+        /** Number of precomputed key hashes, must be a multiple of {@link #KEYS_PER_INVOCATION}. */
+        private static final int KEY_HASHES = 1 << 20;
+
+
+        /** Name of the current benchmark. */
+        @Param({})
+        private String benchmark;
+
+        /** Number of nodes used to initialize the cluster. */
+        @Param({})
+        private int initNodes;
+
+        /** Hash function used to initialize the cluster. */
+        @Param({})
+        private String function;
+
+        /** Name of the algorithm to benchmark. */
+        @Param({})
+        private String algorithm;
+
+        /** Statistical key distribution. */
+        @Param({})
+        private Distribution distribution;
+
+        /** Number of keys to lookup in a single call. */
+        @Param({})
+        private int batchSize;
+
+        /** Either {@code scalar} or {@code vector}. */
+        @Param({})
+        private String implementation;
+
+        /** Precomputed batches of key hashes. */
+        private long[][] batches;
+
+        /** Number of batches to lookup in each invocation. */
+        private int batchesPerInvocation;
+
+        /** Index of the next batch to use. */
+        private int batchIndex;
+
+        /** Reusable buffer for the looked up buckets. */
+        private int[] buckets;
+
+        /** The lookup to benchmark. */
+        private VectorLookup lookup;
+
+
+        /* **************** */
+        /*  PUBLIC METHODS  */
+        /* **************** */
+
+
+        /**
+         * Setups config values before running the benchmark. This method is automatically run by {@code JMH} before the benchmark.
+         *
+         * <p>
+         * Since {@code JMH} benchmarks run in another process, previously created object are not accessible from the other process.
+         * Therefore, before every {@code JMH} benchmark, the config objects, needed for that specific benchmark, are recreated.
+         *
+         * @param wrapper a wrapper object, automatically created and populated by {@code JMH},
+         *                containing all the configurations needed by the benchmark.
+         */
+        @Setup
+        public void setup( JMHConfigWrapper wrapper )
+        {
+
+            final BenchmarkConfig benchmarkConfig = BenchmarkExecutionUtils.getBenchmarkConfig( wrapper.getConfig(), benchmark );
+            final AlgorithmConfig algorithmConfig = BenchmarkExecutionUtils.getAlgorithmConfig( wrapper.getConfig(), algorithm );
+            final ConsistentHashFactory factory = BenchmarkExecutionUtils.getFactory( algorithmConfig );
+            final HashFunction hashFunction = HashFunctionLoader.getInstance().load( function );
+            final List<Node> nodes = SimpleNode.create( initNodes );
+            final ConsistentHash consistentHash = factory.createConsistentHash( hashFunction, nodes );
+
+            BenchmarkExecutionUtils.removeNodesIfNeeded( benchmarkConfig, consistentHash, nodes );
+
+            final Iterator<String> keys = KeyGenerator.create( distribution ).iterator();
+            this.batches = new long[KEY_HASHES / batchSize][batchSize];
+            for( long[] batch : batches )
+                for( int i = 0; i < batchSize; ++i )
+                    batch[i] = hashFunction.hash( keys.next() );
+
+            this.batchesPerInvocation = KEYS_PER_INVOCATION / batchSize;
+            this.batchIndex = 0;
+            this.buckets = new int[batchSize];
+
+            final BucketBasedEngine engine = (BucketBasedEngine) consistentHash.engine();
+            this.lookup = "vector".equals( implementation ) ? VectorLookup.of( engine ) : engine::getBuckets;
+
+        }
+
+        /**
+         * Does a lookup of {@link #KEYS_PER_INVOCATION} keys
+         * split into batches of the configured size.
+         * This operation will be benchmarked by {@code JMH}.
+         *
+         * <p>
+         * The looked up buckets are returned to prevent the {@code JIT}
+         * compiler from optimizing the method.
+         *
+         * @return the looked up buckets
+         */
+        @Benchmark
+        @OperationsPerInvocation(KEYS_PER_INVOCATION)
+        public Object getBuckets()
+        {
+
+            for( int i = 0; i < batchesPerInvocation; ++i )
+            {
+
+                lookup.getBuckets( batches[batchIndex], buckets );
+                if( ++batchIndex >= batches.length )
+                    batchIndex = 0;
+
+            }
+
+            return buckets;
+
+        }
+
+    }
+
+}
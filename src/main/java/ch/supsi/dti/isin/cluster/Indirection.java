@@ -1,7 +1,6 @@
 package ch.supsi.dti.isin.cluster;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.nerd4j.utils.lang.Require;
 import org.nerd4j.utils.lang.RequirementFailure;
@@ -21,16 +20,38 @@ import org.nerd4j.utils.lang.RequirementFailure;
  *  <li>Two buckets cannot be mapped to the same node.</li>
  * </ul>
  * 
+ * <p>
+ * The nodes are stored in an array indexed by bucket, therefore
+ * the lookup of a node does not box the bucket nor compute any hash.
+ * The buckets are found by node through an open addressing table
+ * of primitive buckets, the related node is read from the array.
+ * 
  * @author Massimo Coluzzi
  */
 public class Indirection
 {
 
-    /** Maps each node to the related bucket. */
-    private Map<Node,Integer> nodeToBucket;
+    /** The minimum size of the table mapping the nodes to the buckets. */
+    private static final int MIN_TABLE_SIZE = 1 << 4;
+
+    /** Value of an empty slot in the table mapping the nodes to the buckets. */
+    private static final int EMPTY = -1;
+
+    /** Multiplier used to spread the hash codes of the nodes over the table (Fibonacci hashing). */
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
 
-    /** Maps each bucket to the related node. */
-    private Map<Integer,Node> bucketToNode;
+    /** Maps each bucket to the related node, {@code null} if the bucket is not mapped. */
+    private Node[] bucketToNode;
+
+    /** Open addressing table of the mapped buckets, looked up by the hash code of the related node. */
+    private int[] nodeToBucket;
+
+    /** Shift to apply to get the slot of a node, depends on the size of the table. */
+    private int shift;
+
+    /** The number of mappings. */
+    private int size;
 
     /** The upper bound of the interval of allowed buckets. */
     private int capacity;
@@ -47,10 +68,30 @@ public class Indirection
         super();
 
         Require.toHold( size >= 0, "The initial size cannot be negative" );
-        this.nodeToBucket = new HashMap<>( size );
-        this.bucketToNode = new HashMap<>( size );
+        this.bucketToNode = new Node[size];
+        this.size         = 0;
         this.capacity     = 0;
 
+        allocate( tableSize(size) );
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the indirection to copy
+     */
+    private Indirection( Indirection other )
+    {
+
+        super();
+
+        this.bucketToNode = other.bucketToNode.clone();
+        this.nodeToBucket = other.nodeToBucket.clone();
+        this.shift        = other.shift;
+        this.size         = other.size;
+        this.capacity     = other.capacity;
+
     }
 
 
@@ -59,6 +100,36 @@ public class Indirection
     /* **************** */
 
 
+    /**
+     * Returns a copy of the current indirection.
+     * <p>
+     * Changes to the copy do not affect the current indirection.
+     * 
+     * @return a copy of the current indirection
+     */
+    public Indirection copy()
+    {
+
+        return new Indirection( this );
+
+    }
+
+    /**
+     * Returns the nodes indexed by the related buckets.
+     * <p>
+     * The array is as long as the interval of the allowed buckets,
+     * the buckets not mapped to any node are {@code null}.
+     * Changes to the array do not affect the current indirection.
+     * 
+     * @return the nodes indexed by bucket
+     */
+    public Node[] toArray()
+    {
+
+        return Arrays.copyOf( bucketToNode, capacity );
+
+    }
+
     /**
      * Adds the new mapping between the given node and bucket.
      * 
@@ -75,17 +146,38 @@ public class Indirection
             () -> "The bucket must be in the interval [0," + capacity + "] but was " + bucket
         );
 
-        Require.toHold( ! nodeToBucket.containsKey(node), () -> "Duplicated node " + node );
-        Require.toHold( ! bucketToNode.containsKey(bucket), () -> "Duplicated bucket " + bucket );
+        Require.toHold( find(node) == EMPTY, () -> "Duplicated node " + node );
+        Require.toHold( bucket == capacity || bucketToNode[bucket] == null, () -> "Duplicated bucket " + bucket );
+
+        if( bucket == bucketToNode.length )
+            bucketToNode = Arrays.copyOf( bucketToNode, Math.max(MIN_TABLE_SIZE, bucket << 1) );
+
+        bucketToNode[bucket] = node;
+        add( node, bucket );
+        ++size;
 
-        nodeToBucket.put( node, bucket );
-        bucketToNode.put( bucket, node );
+        if( size > (nodeToBucket.length >>> 2) * 3 )
+            resizeTable( nodeToBucket.length << 1 );
 
         if( bucket == capacity )
             ++capacity;
 
     }
 
+    /**
+     * Tells if the given node is mapped to a bucket.
+     * 
+     * @param node the node to search for
+     * @return {@code true} if the node is mapped to a bucket
+     * @throws RequirementFailure if the node is {@code null}
+     */
+    public boolean contains( Node node )
+    {
+
+        return find( Require.nonNull(node, "The node to search for cannot be null") ) != EMPTY;
+
+    }
+
     /**
      * Returns the bucket mapped to the given node, if any.
      * If the given node is {@code null} or the mapping does
@@ -99,11 +191,12 @@ public class Indirection
     public int get( Node node )
     {
 
-        final Integer bucket = nodeToBucket.get(
+        final int slot = find(
             Require.nonNull( node, "The node to search for cannot be null" )
         );
 
-        return Require.nonNull( bucket, () -> "Node " + node + " is not mapped to any bucket" ).intValue();
+        Require.toHold( slot != EMPTY, () -> "Node " + node + " is not mapped to any bucket" );
+        return nodeToBucket[slot];
         
     }
 
@@ -120,12 +213,16 @@ public class Indirection
     public Node get( int bucket )
     {
 
+        /* The checks are evaluated only if the lookup fails. */
+        final Node node = bucket >= 0 && bucket < capacity ? bucketToNode[bucket] : null;
+        if( node != null )
+            return node;
+
         Require.toHold(
             bucket >= 0 && bucket < capacity,
             () -> "The bucket must be in the interval [0," + capacity + ") but was " + bucket
         );
         
-        final Node node = bucketToNode.get( bucket );
         return Require.nonNull( node, () -> "Bucket " + bucket + " is not mapped to any node" );
 
     }
@@ -141,12 +238,7 @@ public class Indirection
     {
 
         final int bucket = get( node );
-
-        nodeToBucket.remove( node );
-        bucketToNode.remove( bucket );
-        
-        if( bucket == capacity - 1 )
-            --capacity;
+        delete( bucket );
 
         return bucket;
 
@@ -163,12 +255,7 @@ public class Indirection
     {
 
         final Node node = get( bucket );
-
-        nodeToBucket.remove( node );
-        bucketToNode.remove( bucket );
-
-        if( bucket == capacity - 1 )
-            --capacity;
+        delete( bucket );
 
         return node;
         
@@ -182,7 +269,7 @@ public class Indirection
     public int size()
     {
 
-        return nodeToBucket.size();
+        return size;
 
     }
 
@@ -198,4 +285,188 @@ public class Indirection
 
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Removes the mapping of the given bucket.
+     * <p>
+     * We assume the bucket to be mapped.
+     * 
+     * @param bucket the bucket to remove
+     */
+    private void delete( int bucket )
+    {
+
+        emptySlot( find(bucketToNode[bucket]) );
+        bucketToNode[bucket] = null;
+        --size;
+
+        if( bucket == capacity - 1 )
+            --capacity;
+
+    }
+
+    /**
+     * Returns the smallest table size able to map
+     * the given number of nodes with a load factor of 0.75.
+     * 
+     * @param size the number of nodes to map
+     * @return the size of the table, a power of 2
+     */
+    private static int tableSize( int size )
+    {
+
+        final int minSize = Math.max( MIN_TABLE_SIZE, size + (size / 3) + 1 );
+        return Integer.highestOneBit( minSize - 1 ) << 1;
+
+    }
+
+    /**
+     * Allocates an empty table of the given size.
+     * 
+     * @param tableSize the size of the table, must be a power of 2
+     */
+    private void allocate( int tableSize )
+    {
+
+        this.nodeToBucket = new int[tableSize];
+        this.shift = Integer.numberOfLeadingZeros( tableSize ) + 1;
+
+        Arrays.fill( nodeToBucket, EMPTY );
+
+    }
+
+    /**
+     * Returns the first slot where to look for the given node.
+     * 
+     * @param node the node to search for
+     * @return the first slot to probe
+     */
+    private int index( Node node )
+    {
+
+        return (node.hashCode() * GOLDEN_RATIO) >>> shift;
+
+    }
+
+    /**
+     * Returns the slot containing the bucket of the given node.
+     * 
+     * @param node the node to search for
+     * @return the slot of the bucket if any, {@link #EMPTY} otherwise
+     */
+    private int find( Node node )
+    {
+
+        final int mask = nodeToBucket.length - 1;
+
+        int i = index( node );
+        int b;
+        while( (b = nodeToBucket[i]) != EMPTY )
+        {
+
+            if( bucketToNode[b].equals(node) )
+                return i;
+
+            i = (i + 1) & mask;
+
+        }
+
+        return EMPTY;
+
+    }
+
+    /**
+     * Adds the bucket of the given node to the table.
+     * <p>
+     * We expect the node not to be in the table and
+     * the table to have at least one empty slot.
+     * 
+     * @param node   the node to add
+     * @param bucket the related bucket
+     */
+    private void add( Node node, int bucket )
+    {
+
+        final int mask = nodeToBucket.length - 1;
+
+        int i = index( node );
+        while( nodeToBucket[i] != EMPTY )
+            i = (i + 1) & mask;
+
+        nodeToBucket[i] = bucket;
+
+    }
+
+    /**
+     * Removes the bucket in the given slot from the table.
+     * <p>
+     * The following entries of the same cluster are shifted
+     * backwards to fill the hole, therefore the table never
+     * contains deleted markers.
+     * 
+     * @param slot the slot to empty
+     */
+    private void emptySlot( int slot )
+    {
+
+        final int mask = nodeToBucket.length - 1;
+
+        int hole = slot;
+        int i = hole;
+        while( true )
+        {
+
+            i = (i + 1) & mask;
+
+            final int b = nodeToBucket[i];
+            if( b == EMPTY )
+                break;
+
+            /*
+             * The entry can fill the hole only if its first slot
+             * does not fall (cyclically) between the hole and
+             * the current slot.
+             */
+            final int home = index( bucketToNode[b] );
+            final boolean reachable = hole <= i
+                ? hole < home && home <= i
+                : hole < home || home <= i;
+
+            if( ! reachable )
+            {
+
+                nodeToBucket[hole] = b;
+                hole = i;
+
+            }
+
+        }
+
+        nodeToBucket[hole] = EMPTY;
+
+    }
+
+    /**
+     * Resizes the table by creating a new table
+     * and adding the buckets of the old table.
+     * 
+     * @param newTableSize the size of the new table
+     */
+    private void resizeTable( int newTableSize )
+    {
+
+        final int[] oldTable = nodeToBucket;
+
+        allocate( newTableSize );
+        for( int bucket : oldTable )
+            if( bucket != EMPTY )
+                add( bucketToNode[bucket], bucket );
+
+    }
+
 }
@@ -12,6 +12,13 @@ import org.nerd4j.utils.lang.Comparative;
  * a unique name that can be an IP address, a MAC
  * address a UUID, or any similar value.
  * 
+ * <p>
+ * A node can also declare a weight representing its
+ * capacity relative to the other nodes. The algorithms
+ * supporting weights (see {@code ConsistentHash#supportsWeights()})
+ * assign to each node a share of the keys proportional
+ * to its weight, the other algorithms ignore it.
+ * 
  * @author Massimo Coluzzi
  */
 public interface Node extends Comparative<Node>
@@ -24,6 +31,21 @@ public interface Node extends Comparative<Node>
      */
     String name();
 
+    /**
+     * Returns the weight of the node.
+     * <p>
+     * The weight must be strictly positive,
+     * by default every node has weight {@code 1}.
+     * 
+     * @return the weight of the node
+     */
+    default int weight()
+    {
+
+        return 1;
+
+    }
+
 
     /* ************************* */
     /*  DEFAULT IMPLEMENTATIONS  */
@@ -21,18 +21,23 @@ public class SimpleNode implements Node
     /** Unique name of the node. */
     private final String name;
 
+    /** Weight of the node. */
+    private final int weight;
+
 
     /**
      * Constructor with parameters.
      * 
-     * @param name unique name of the node
+     * @param name   unique name of the node
+     * @param weight weight of the node
      */
-    private SimpleNode( String name )
+    private SimpleNode( String name, int weight )
     {
 
         super();
 
         this.name = Require.nonBlank( name, "The name cannot be empty or blank" );
+        this.weight = Require.trueFor( weight, weight > 0, "The weight must be strictly positive" );
 
     }
 
@@ -51,7 +56,21 @@ public class SimpleNode implements Node
     public static SimpleNode of( String name )
     {
 
-        return new SimpleNode( name );
+        return new SimpleNode( name, 1 );
+
+    }
+
+    /**
+     * Creates a new {@link SimpleNode} with the given name and weight.
+     * 
+     * @param name   the name of the node (cannot be empty or blank).
+     * @param weight the weight of the node (must be strictly positive).
+     * @return a new {@link SimpleNode}
+     */
+    public static SimpleNode of( String name, int weight )
+    {
+
+        return new SimpleNode( name, weight );
 
     }
 
@@ -64,10 +83,26 @@ public class SimpleNode implements Node
      * @return a new {@link SimpleNode}
      */
     public static SimpleNode of( int index )
+    {
+
+        return of( index, 1 );
+
+    }
+
+    /**
+     * Creates a new {@link SimpleNode} for the given index with the given weight.
+     * <p>
+     * The name of the node will be in the form {@code "node_<index>"}
+     * 
+     * @param index  the index of the node to create.
+     * @param weight the weight of the node (must be strictly positive).
+     * @return a new {@link SimpleNode}
+     */
+    public static SimpleNode of( int index, int weight )
     {
 
         final String name = "node_" + Require.trueFor( index, index >= 0, "The node index canno be negative" );
-        return new SimpleNode( name );
+        return new SimpleNode( name, weight );
 
     }
 
@@ -107,6 +142,17 @@ public class SimpleNode implements Node
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int weight()
+    {
+
+        return weight;
+
+    }
+
 
     /* ****************** */
     /*  OBJECT OVERRIDES  */
@@ -18,6 +18,98 @@ public interface BucketBasedEngine
      */
     int getBucket( String key );
 
+    /**
+     * Returns the index of the bucket where the key
+     * with the given hash value should be mapped.
+     * <p>
+     * This method allows to perform lookups on keys
+     * that are already hashed (or naturally numeric)
+     * without creating any intermediate object.
+     * 
+     * @param keyHash the hash value of the key to map
+     * @return the related bucket
+     */
+    int getBucket( long keyHash );
+
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key {@code keys[i]} should be mapped.
+     * <p>
+     * The array {@code out} must be at least as long as {@code keys}.
+     * 
+     * @param keys the keys to map
+     * @param out  the array where to store the related buckets
+     */
+    default void getBuckets( String[] keys, int[] out )
+    {
+
+        for( int i = 0; i < keys.length; ++i )
+            out[i] = getBucket( keys[i] );
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     * <p>
+     * The array {@code out} must be at least as long as {@code keyHashes}.
+     * Implementations are expected to override this method to hoist
+     * the state needed by the lookup out of the loop.
+     * 
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related buckets
+     */
+    default void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getBucket( keyHashes[i] );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct buckets
+     * where the given key should be replicated.
+     * <p>
+     * The array {@code out} cannot be longer than {@link #size()}.
+     * 
+     * @param key the key to map
+     * @param out the array where to store the related buckets
+     */
+    void getReplicas( String key, int[] out );
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct buckets
+     * where the key with the given hash value should be replicated.
+     * <p>
+     * The array {@code out} cannot be longer than {@link #size()}.
+     * The default implementation walks the rehash chain of the key
+     * (see {@link ConsistentHash#rehash(long, int)}) and skips
+     * the buckets already found.
+     * 
+     * @param keyHash the hash value of the key to map
+     * @param out     the array where to store the related buckets
+     */
+    default void getReplicas( long keyHash, int[] out )
+    {
+
+        int found = 0;
+        for( int probe = 0; found < out.length; ++probe )
+        {
+
+            final int bucket = getBucket( ConsistentHash.rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && out[i] != bucket )
+                ++i;
+
+            if( i == found )
+                out[found++] = bucket;
+
+        }
+
+    }
+
     /**
      * Adds a new bucket to the engine.
      * 
@@ -33,4 +125,20 @@ public interface BucketBasedEngine
      */
     int removeBucket( int b );
 
+    /**
+     * Returns the number of working buckets.
+     * 
+     * @return the number of working buckets
+     */
+    int size();
+
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    BucketBasedEngine copy();
+
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package ch.supsi.dti.isin.consistenthash;
+
+
+/**
+ * Per-thread scratch array for the buckets of a batch lookup.
+ * <p>
+ * The bucket based implementations resolve a batch of key hashes
+ * into buckets before mapping the buckets to the nodes. On small
+ * batches, allocating the array of the buckets on each call costs
+ * as much as the lookups, therefore each thread reuses the same
+ * array and replaces it only when a longer batch comes.
+ * <p>
+ * The returned array may be longer than requested and
+ * is valid only until the next call in the same thread.
+ *
+ * @author Massimo Coluzzi
+ */
+public final class BucketBuffer
+{
+
+    /** Length of the array allocated on the first use. */
+    private static final int INITIAL_LENGTH = 64;
+
+    /** The array reused by each thread. */
+    private static final ThreadLocal<int[]> buffer = ThreadLocal.withInitial( () -> new int[INITIAL_LENGTH] );
+
+
+    /**
+     * This class is not intended to be instantiated.
+     */
+    private BucketBuffer()
+    {
+
+        super();
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns an array of at least the given length
+     * owned by the current thread.
+     *
+     * @param length the minimum length of the array
+     * @return an array of at least the given length
+     */
+    public static int[] get( int length )
+    {
+
+        final int[] buckets = buffer.get();
+        if( buckets.length >= length )
+            return buckets;
+
+        final int[] grown = new int[Math.max( length, buckets.length << 1 )];
+        buffer.set( grown );
+
+        return grown;
+
+    }
+
+}
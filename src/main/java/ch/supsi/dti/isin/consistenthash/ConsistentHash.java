@@ -1,7 +1,9 @@
 package ch.supsi.dti.isin.consistenthash;
 
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.nerd4j.utils.lang.Require;
 import org.nerd4j.utils.math.PrimeSieve;
@@ -42,6 +44,127 @@ public interface ConsistentHash
      */
     Node getNode( String key );
 
+    /**
+     * Returns the node associated to the key with the given hash value.
+     * <p>
+     * This method allows to perform lookups on keys that
+     * are already hashed (or naturally numeric) without
+     * paying the cost of hashing a {@link String}.
+     * The hash is expected to be in the same domain
+     * of the {@link HashFunction} used by the algorithm,
+     * otherwise keys may not be evenly distributed.
+     * 
+     * @param keyHash the hash value of the key to check
+     * @return the related node
+     */
+    Node getNode( long keyHash );
+
+    /**
+     * Stores into {@code out[i]} the node associated to the key {@code keys[i]}.
+     * <p>
+     * The array {@code out} must be at least as long as {@code keys}.
+     * 
+     * @param keys the keys to check
+     * @param out  the array where to store the related nodes
+     */
+    default void getNodes( String[] keys, Node[] out )
+    {
+
+        checkBatch( keys, out );
+        for( int i = 0; i < keys.length; ++i )
+            out[i] = getNode( keys[i] );
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the node associated to the key with hash {@code keyHashes[i]}.
+     * <p>
+     * The array {@code out} must be at least as long as {@code keyHashes}.
+     * 
+     * @param keyHashes the hash values of the keys to check
+     * @param out       the array where to store the related nodes
+     */
+    default void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        checkBatch( keyHashes, out );
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNode( keyHashes[i] );
+
+    }
+
+    /**
+     * Returns the given number of distinct nodes where the given key should be replicated.
+     * <p>
+     * The first node is the one returned by {@link #getNode(String)}.
+     * The order of the replicas is stable: asking for more replicas
+     * returns the same nodes followed by the new ones.
+     * 
+     * @param key      the key to check
+     * @param replicas the number of replicas, between {@code 1} and {@link #nodeCount()}
+     * @return the related nodes
+     */
+    List<Node> getNodes( String key, int replicas );
+
+    /**
+     * Returns the given number of distinct nodes where the key with the given hash value should be replicated.
+     * <p>
+     * The first node is the one returned by {@link #getNode(long)}.
+     * The order of the replicas is stable: asking for more replicas
+     * returns the same nodes followed by the new ones.
+     * 
+     * @param keyHash  the hash value of the key to check
+     * @param replicas the number of replicas, between {@code 1} and {@link #nodeCount()}
+     * @return the related nodes
+     */
+    default List<Node> getNodes( long keyHash, int replicas )
+    {
+
+        checkReplicas( replicas, nodeCount() );
+
+        final Node[] out = new Node[replicas];
+        getNodes( keyHash, replicas, out );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * Stores into {@code out[0..replicas-1]} the distinct nodes where
+     * the key with the given hash value should be replicated.
+     * <p>
+     * This method allows to reuse the same array across lookups.
+     * The default implementation walks the rehash chain of the key
+     * (see {@link #rehash(long, int)}) and skips the nodes already found.
+     * Implementations are expected to override this method when
+     * the algorithm provides a native way to select the replicas.
+     * 
+     * @param keyHash  the hash value of the key to check
+     * @param replicas the number of replicas, between {@code 1} and {@link #nodeCount()}
+     * @param out      the array where to store the related nodes
+     */
+    default void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        checkReplicas( replicas, nodeCount(), out );
+
+        int found = 0;
+        for( int probe = 0; found < replicas; ++probe )
+        {
+
+            final Node node = getNode( rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && ! out[i].equals(node) )
+                ++i;
+
+            if( i == found )
+                out[found++] = node;
+
+        }
+
+    }
+
     /**
      * Makes the algorithm aware of new nodes in the cluster.
      * 
@@ -63,6 +186,22 @@ public interface ConsistentHash
      */
     boolean supportsOnlyLifoRemovals();
 
+    /**
+     * Tells if the algorithm takes into account the weights of the nodes.
+     * <p>
+     * If supported, each node gets a share of the keys proportional
+     * to its {@link Node#weight()}, otherwise weights are ignored
+     * and every node gets the same share.
+     * 
+     * @return {@code true} if the weights of the nodes are supported
+     */
+    default boolean supportsWeights()
+    {
+
+        return false;
+
+    }
+
     /**
      * Returns the number of nodes in the cluster.
      * 
@@ -78,7 +217,40 @@ public interface ConsistentHash
      */
     Object engine();
 
-    
+    /**
+     * Returns a deep copy of the current instance.
+     * <p>
+     * Changes to the copy do not affect the current
+     * instance and vice versa. The copy maps every
+     * key to the same node as the current instance.
+     * 
+     * @return a deep copy of the current instance
+     */
+    ConsistentHash copy();
+
+    /**
+     * Returns a read-only snapshot of the current instance optimized for lookups.
+     * <p>
+     * The snapshot maps every key to the same node as the current instance
+     * and does not change when the current instance changes. Adding or removing
+     * nodes from the snapshot throws an {@link UnsupportedOperationException},
+     * therefore a new snapshot should be created after each change of the
+     * cluster and published in place of the previous one.
+     * <p>
+     * The default implementation wraps a copy of the current instance.
+     * Implementations are expected to override this method to compile
+     * their structures into a more compact form.
+     *
+     * @return a read-only snapshot of the current instance
+     */
+    default ConsistentHash freeze()
+    {
+
+        return new FrozenHash( this );
+
+    }
+
+
     /* ***************** */
     /*  FACTORY METHODS  */
     /* ***************** */
@@ -132,6 +304,147 @@ public interface ConsistentHash
     }
 
 
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Checks the arguments of a batch lookup.
+     * 
+     * @param keys the keys to evaluate
+     * @param out  the array where to store the related nodes
+     */
+    static void checkBatch( String[] keys, Node[] out )
+    {
+
+        Require.nonNull( keys, "The keys to evaluate are mandatory" );
+        Require.nonNull( out, "The array where to store the nodes is mandatory" );
+        Require.toHold( out.length >= keys.length, "The array where to store the nodes is too small" );
+
+    }
+
+    /**
+     * Checks the arguments of a batch lookup.
+     * 
+     * @param keyHashes the hash values of the keys to evaluate
+     * @param out       the array where to store the related nodes
+     */
+    static void checkBatch( long[] keyHashes, Node[] out )
+    {
+
+        Require.nonNull( keyHashes, "The key hashes to evaluate are mandatory" );
+        Require.nonNull( out, "The array where to store the nodes is mandatory" );
+        Require.toHold( out.length >= keyHashes.length, "The array where to store the nodes is too small" );
+
+    }
+
+    /**
+     * Checks the number of replicas to lookup.
+     * 
+     * @param replicas  the number of replicas
+     * @param nodeCount the number of nodes in the cluster
+     */
+    static void checkReplicas( int replicas, int nodeCount )
+    {
+
+        Require.toHold( replicas > 0, "The number of replicas must be strictly positive" );
+        Require.toHold( replicas <= nodeCount, "The number of replicas cannot be greater than the number of nodes" );
+
+    }
+
+    /**
+     * Checks the arguments of a replicas lookup.
+     * 
+     * @param replicas  the number of replicas
+     * @param nodeCount the number of nodes in the cluster
+     * @param out       the array where to store the related nodes
+     */
+    static void checkReplicas( int replicas, int nodeCount, Node[] out )
+    {
+
+        checkReplicas( replicas, nodeCount );
+
+        Require.nonNull( out, "The array where to store the nodes is mandatory" );
+        Require.toHold( out.length >= replicas, "The array where to store the nodes is too small" );
+
+    }
+
+    /**
+     * Returns the exception to throw when trying to change
+     * an instance returned by {@link #freeze()}.
+     * 
+     * @return the exception to throw
+     */
+    static UnsupportedOperationException frozen()
+    {
+
+        return new UnsupportedOperationException(
+            "The consistent hash is frozen, apply the changes to the live instance and freeze it again"
+        );
+
+    }
+
+    /**
+     * Reduces the given hash value into the range {@code [0,n)}.
+     * <p>
+     * The result is the same as {@code Math.abs(hash) % n} for every
+     * value but {@link Long#MIN_VALUE}, whose absolute value is negative.
+     * Therefore the algorithms can use it without moving any key.
+     *
+     * @param hash the hash value to reduce
+     * @param n    the size of the range
+     * @return a value in the range {@code [0,n)}
+     */
+    static int reduce( long hash, int n )
+    {
+
+        return (int) Math.abs( hash % n );
+
+    }
+
+    /**
+     * Returns the {@code i}-th element of the rehash chain of the given key hash.
+     * <p>
+     * The first element is the key hash itself, the following ones
+     * are obtained by mixing the key hash with the index using
+     * the {@code SplitMix64} finalizer. The algorithms use the chain
+     * to select the replicas of a key when they do not provide
+     * a native way to do it.
+     * 
+     * @param keyHash the hash value of the key
+     * @param i       the index in the chain
+     * @return the {@code i}-th element of the chain
+     */
+    static long rehash( long keyHash, int i )
+    {
+
+        if( i == 0 )
+            return keyHash;
+
+        return mix( keyHash + i * 0x9E3779B97F4A7C15L );
+
+    }
+
+    /**
+     * Applies the {@code SplitMix64} finalizer to the given value.
+     * <p>
+     * The function is a bijection, therefore distinct
+     * values are mapped to distinct values.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    static long mix( long value )
+    {
+
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+
+    }
+
+
     /* *************** */
     /*  INNER CLASSES  */
     /* *************** */
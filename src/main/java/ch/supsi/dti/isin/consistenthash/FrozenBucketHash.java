@@ -0,0 +1,228 @@
+package ch.supsi.dti.isin.consistenthash;
+
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+
+
+/**
+ * Read-only {@link ConsistentHash} backed by a compiled bucket based engine.
+ * <p>
+ * The nodes are stored in an array indexed by bucket, therefore a lookup
+ * costs the evaluation of the engine and a single array access.
+ * The engine is expected to be read-only as well, see
+ * {@link ch.supsi.dti.isin.consistenthash.anchor.FrozenAnchorEngine} and
+ * {@link ch.supsi.dti.isin.consistenthash.memento.FrozenMementoEngine}.
+ * Adding or removing nodes throws an {@link UnsupportedOperationException}.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FrozenBucketHash implements ConsistentHash
+{
+
+    /** The read-only engine mapping the keys to the buckets. */
+    private final BucketBasedEngine engine;
+
+    /** The nodes indexed by the related buckets. */
+    private final Node[] bucketToNode;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The array of the nodes is not copied,
+     * therefore it must not be changed later.
+     *
+     * @param engine       the read-only engine mapping the keys to the buckets
+     * @param bucketToNode the nodes indexed by the related buckets
+     */
+    public FrozenBucketHash( BucketBasedEngine engine, Node[] bucketToNode )
+    {
+
+        super();
+
+        this.engine = Require.nonNull( engine, "The engine to use is mandatory" );
+        this.bucketToNode = Require.nonNull( bucketToNode, "The nodes are mandatory" );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        final int bucket = engine.getBucket(
+            Require.nonEmpty( key, "The key to evaluate is mandatory" )
+        );
+
+        return bucketToNode[bucket];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return bucketToNode[engine.getBucket( keyHash )];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = bucketToNode[buckets[i]];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = bucketToNode[buckets[i]];
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = bucketToNode[buckets[i]];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> nodes )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> nodes )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The compiled engines are taken from
+     * algorithms supporting arbitrary removals.
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return engine.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed,
+     * therefore the copy is the instance itself.
+     */
+    @Override
+    public FrozenBucketHash copy()
+    {
+
+        return this;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrozenBucketHash freeze()
+    {
+
+        return this;
+
+    }
+
+}
@@ -0,0 +1,229 @@
+package ch.supsi.dti.isin.consistenthash;
+
+
+import java.util.Collection;
+import java.util.List;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+
+
+/**
+ * Read-only snapshot of a {@link ConsistentHash} instance.
+ * <p>
+ * The lookups are delegated to a private copy of the given instance,
+ * while adding or removing nodes throws an {@link UnsupportedOperationException}.
+ * This is the default implementation of {@link ConsistentHash#freeze()}
+ * used by the algorithms that do not provide a compiled form.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FrozenHash implements ConsistentHash
+{
+
+    /** The private copy of the consistent hash to query. */
+    private final ConsistentHash consistentHash;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The given instance is copied, therefore later
+     * changes to it do not affect the current instance.
+     *
+     * @param consistentHash the consistent hash to freeze
+     */
+    public FrozenHash( ConsistentHash consistentHash )
+    {
+
+        super();
+
+        Require.nonNull( consistentHash, "The consistent hash to freeze is mandatory" );
+        this.consistentHash = consistentHash.copy();
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        return consistentHash.getNode( key );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return consistentHash.getNode( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        consistentHash.getNodes( keys, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        consistentHash.getNodes( keyHashes, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        return consistentHash.getNodes( key, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( long keyHash, int replicas )
+    {
+
+        return consistentHash.getNodes( keyHash, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        consistentHash.getNodes( keyHash, replicas, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> nodes )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> nodes )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tells the removals supported by the frozen instance.
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return consistentHash.supportsOnlyLifoRemovals();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return consistentHash.supportsWeights();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return consistentHash.nodeCount();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the engine of the frozen instance.
+     */
+    @Override
+    public Object engine()
+    {
+
+        return consistentHash.engine();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed,
+     * therefore the copy is the instance itself.
+     */
+    @Override
+    public FrozenHash copy()
+    {
+
+        return this;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrozenHash freeze()
+    {
+
+        return this;
+
+    }
+
+}
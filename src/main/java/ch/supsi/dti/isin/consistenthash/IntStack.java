@@ -0,0 +1,134 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import java.util.Arrays;
+
+
+/**
+ * Growable stack of primitive {@code int} values.
+ * <p>
+ * The engines use this class to keep track of the removed buckets
+ * without allocating a node and a boxed {@link Integer} for each
+ * removal. The backing array is allocated on the first push and
+ * doubles its length when full.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class IntStack
+{
+
+    /** Length of the backing array allocated on the first push. */
+    private static final int INITIAL_LENGTH = 8;
+
+
+    /** The values in the stack, the top of the stack is at {@code size - 1}. */
+    private int[] values;
+
+    /** Number of values in the stack. */
+    private int size;
+
+
+    /**
+     * Default constructor.
+     */
+    public IntStack()
+    {
+
+        super();
+
+        this.values = new int[0];
+        this.size = 0;
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the stack to copy
+     */
+    private IntStack( IntStack other )
+    {
+
+        super();
+
+        this.values = Arrays.copyOf( other.values, other.size );
+        this.size = other.size;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns a deep copy of the current stack.
+     * <p>
+     * Changes to the copy do not affect the current stack.
+     *
+     * @return a deep copy of the current stack
+     */
+    public IntStack copy()
+    {
+
+        return new IntStack( this );
+
+    }
+
+    /**
+     * Pushes the given value on top of the stack.
+     *
+     * @param value the value to push
+     */
+    public void push( int value )
+    {
+
+        if( size == values.length )
+            values = Arrays.copyOf( values, Math.max(INITIAL_LENGTH, size << 1) );
+
+        values[size++] = value;
+
+    }
+
+    /**
+     * Removes and returns the value on top of the stack.
+     *
+     * @return the value on top of the stack
+     */
+    public int pop()
+    {
+
+        return values[--size];
+
+    }
+
+    /**
+     * Tells if the stack is empty.
+     *
+     * @return {@code true} if the stack is empty
+     */
+    public boolean isEmpty()
+    {
+
+        return size == 0;
+
+    }
+
+    /**
+     * Returns the number of values in the stack.
+     *
+     * @return the number of values in the stack
+     */
+    public int size()
+    {
+
+        return size;
+
+    }
+
+}
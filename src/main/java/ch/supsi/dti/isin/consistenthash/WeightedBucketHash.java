@@ -0,0 +1,423 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+
+
+/**
+ * Wrapper to adapt any {@link BucketBasedEngine} to the {@link ConsistentHash}
+ * interface taking into account the weights of the nodes.
+ * <p>
+ * Each node owns as many buckets as its weight, therefore it gets a share
+ * of the keys proportional to its weight. The owners are stored by bucket,
+ * therefore a lookup does not need to resolve any name.
+ * <p>
+ * When a node is removed all its buckets are removed, hence this
+ * wrapper is intended for the engines supporting arbitrary removals.
+ *
+ * This wrapper performs all the consistency checks.
+ *
+ *
+ * @author Massimo Coluzzi
+ */
+public class WeightedBucketHash implements ConsistentHash
+{
+
+    /** The bucket based engine to use. */
+    private final BucketBasedEngine engine;
+
+    /** Overall capacity of the cluster (max number of buckets). */
+    private final int capacity;
+
+    /** The buckets owned by each node. */
+    private final Map<String,int[]> buckets;
+
+    /** The owner of each bucket, {@code null} if the bucket is not used. */
+    private Node[] owners;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The engine factory receives the total weight of the initial nodes
+     * and must return an engine with the same number of working buckets.
+     *
+     * @param initNodes nodes used to initialize the cluster
+     * @param capacity  overall capacity of the cluster (max number of buckets)
+     * @param newEngine factory creating an engine with the given number of buckets
+     */
+    public WeightedBucketHash( Collection<? extends Node> initNodes, int capacity,
+        IntFunction<? extends BucketBasedEngine> newEngine )
+    {
+
+        super();
+
+        Require.nonEmpty( initNodes, "The cluster must have at least one node" );
+        Require.nonNull( newEngine, "The engine factory is mandatory" );
+
+        final int totalWeight = totalWeight( initNodes );
+        Require.toHold( totalWeight <= capacity, "The cluster overall capacity cannot be smaller than the total weight of the nodes" );
+
+        this.engine = Require.nonNull( newEngine.apply(totalWeight), "The engine to use is mandatory" );
+        this.capacity = capacity;
+
+        this.buckets = new HashMap<>( initNodes.size() );
+        this.owners = new Node[totalWeight];
+
+        int bucket = 0;
+        for( Node node : initNodes )
+        {
+
+            Require.toHold( buckets.get(node.name()) == null, () -> "Resource '" + node + "' already exists" );
+
+            final int[] owned = new int[node.weight()];
+            for( int i = 0; i < owned.length; ++i )
+            {
+                owned[i] = bucket;
+                owners[bucket++] = node;
+            }
+
+            buckets.put( node.name(), owned );
+
+        }
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the instance to copy
+     */
+    private WeightedBucketHash( WeightedBucketHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.capacity = other.capacity;
+
+        /* The arrays of the owned buckets are never modified, therefore they can be shared. */
+        this.buckets = new HashMap<>( other.buckets );
+        this.owners = other.owners.clone();
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        return getNodeByBucket( engine.getBucket(key) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return getNodeByBucket( engine.getBucket(keyHash) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNodeByBucket( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The buckets of the replicas are taken from the engine,
+     * the buckets owned by the nodes already found are skipped.
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final Node[] out = new Node[replicas];
+        collectReplicas( buckets -> engine.getReplicas(key, buckets), replicas, out );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The buckets of the replicas are taken from the engine,
+     * the buckets owned by the nodes already found are skipped.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+        collectReplicas( buckets -> engine.getReplicas(keyHash, buckets), replicas, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> toAdd )
+    {
+
+        Require.nonEmpty( toAdd, "The resources to add are mandatory" );
+
+        final Set<String> names = new HashSet<>();
+        toAdd.forEach( node ->
+        {
+
+            Require.nonNull( node, "The resource to add cannot be null" );
+            Require.toHold(
+                ! buckets.containsKey(node.name()) && names.add(node.name()),
+                () -> "Resource '" + node + "' already exists"
+            );
+
+        });
+
+        Require.toHold( engine.size() + totalWeight(toAdd) <= capacity, "No room for more resources" );
+
+        for( Node node : toAdd )
+        {
+
+            final int[] owned = new int[node.weight()];
+            for( int i = 0; i < owned.length; ++i )
+            {
+
+                final int bucket = engine.addBucket();
+                if( bucket >= owners.length )
+                    owners = Arrays.copyOf( owners, Math.max(bucket + 1, owners.length << 1) );
+
+                owned[i] = bucket;
+                owners[bucket] = node;
+
+            }
+
+            buckets.put( node.name(), owned );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The buckets of each node are removed in reverse order of addition.
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> toRemove )
+    {
+
+        Require.nonEmpty( toRemove, "The resources to remove are mandatory" );
+        Require.toHold( buckets.size() > toRemove.size(), "Trying to remove more resources than available" );
+
+        final Set<String> names = new HashSet<>();
+        toRemove.forEach( node ->
+        {
+
+            Require.nonNull( node, "The resource to remove cannot be null" );
+            Require.toHold(
+                buckets.containsKey(node.name()) && names.add(node.name()),
+                () -> "Resource '" + node + "' does not exist"
+            );
+
+        });
+
+        for( Node node : toRemove )
+        {
+
+            final int[] owned = buckets.remove( node.name() );
+            for( int i = owned.length - 1; i >= 0; --i )
+            {
+
+                owners[owned[i]] = null;
+                engine.removeBucket( owned[i] );
+
+            }
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return buckets.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WeightedBucketHash copy()
+    {
+
+        return new WeightedBucketHash( this );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the node owning the given bucket.
+     *
+     * @param bucket the bucket to check
+     * @return the related node
+     */
+    private Node getNodeByBucket( int bucket )
+    {
+
+        return Require.nonNull(
+            owners[bucket],
+            () -> "Expected node in bucket " + bucket + " but it does not exist"
+        );
+
+    }
+
+    /**
+     * Stores into {@code out} the owners of the replicated buckets
+     * skipping the owners already found.
+     * <p>
+     * Since a node can own more buckets, the number of buckets
+     * to replicate is doubled until enough distinct owners are found.
+     * The order of the bucket replicas is stable, therefore each
+     * round extends the buckets of the previous one.
+     *
+     * @param replicate function storing the replicated buckets into the given array
+     * @param replicas  the number of replicas
+     * @param out       the array where to store the related nodes
+     */
+    private void collectReplicas( Consumer<int[]> replicate, int replicas, Node[] out )
+    {
+
+        int length = replicas;
+        while( true )
+        {
+
+            final int[] replicated = new int[length];
+            replicate.accept( replicated );
+
+            int found = 0;
+            for( int k = 0; k < length && found < replicas; ++k )
+            {
+
+                final Node node = getNodeByBucket( replicated[k] );
+
+                int i = 0;
+                while( i < found && out[i] != node )
+                    ++i;
+
+                if( i == found )
+                    out[found++] = node;
+
+            }
+
+            if( found == replicas )
+                return;
+
+            length = Math.min( length << 1, engine.size() );
+
+        }
+
+    }
+
+    /**
+     * Returns the sum of the weights of the given nodes.
+     *
+     * @param nodes the nodes to check
+     * @return the total weight
+     */
+    private static int totalWeight( Collection<? extends Node> nodes )
+    {
+
+        int totalWeight = 0;
+        for( Node node : nodes )
+            totalWeight += Require.nonNull( node, "The nodes cannot be null" ).weight();
+
+        return totalWeight;
+
+    }
+
+}
@@ -1,9 +1,10 @@
 package ch.supsi.dti.isin.consistenthash.anchor;
 
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.IntStack;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -23,20 +24,20 @@ public class AnchorEngine implements BucketBasedEngine
 {
 
     /** Common default seed to use during hashing of the nodes. */
-    private static final int  SEED = 0xDEADBEEF;
+    static final int SEED = 0xDEADBEEF;
 
 
     /** The anchor: the total set of nodes. */
-    private final int[] A;
+    private int[] A;
 
     /** The working set of nodes. */
-    private final int[] W;
+    private int[] W;
 
     /** Keeps track of the last position of each node. */
-    private final int[] L;
+    private int[] L;
 
     /** Keeps track of the replacement of each node. */
-    private final int[] K;
+    private int[] K;
 
     /** Maximum number of nodes in the cluster (the size of the anchor). */
     private int capacity;
@@ -45,7 +46,7 @@ public class AnchorEngine implements BucketBasedEngine
     private int size;
 
     /** Keeps track of the removed nodes in reverse order. */
-    private final Deque<Integer> removed;
+    private final IntStack removed;
 
     /** The hash function to use. */
     private final HashFunction hashFunction;
@@ -87,7 +88,31 @@ public class AnchorEngine implements BucketBasedEngine
         this.capacity = capacity;
         this.size = size;
 
-        this.removed = new LinkedList<>();
+        this.removed = new IntStack();
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the engine to copy
+     */
+    private AnchorEngine( AnchorEngine other )
+    {
+
+        super();
+
+        this.hashFunction = other.hashFunction;
+
+        this.A = other.A.clone();
+        this.W = other.W.clone();
+        this.L = other.L.clone();
+        this.K = other.K.clone();
+
+        this.capacity = other.capacity;
+        this.size = other.size;
+
+        this.removed = other.removed.copy();
 
     }
 
@@ -97,6 +122,35 @@ public class AnchorEngine implements BucketBasedEngine
     /* **************** */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    public AnchorEngine copy()
+    {
+
+        return new AnchorEngine( this );
+
+    }
+
+    /**
+     * Returns a read-only copy of the current engine
+     * where the replacement chains are compressed.
+     * <p>
+     * Changes to the current engine do not affect the returned one.
+     * 
+     * @return a read-only copy of the current engine
+     */
+    public FrozenAnchorEngine freeze()
+    {
+
+        return new FrozenAnchorEngine( A, K, size, hashFunction );
+
+    }
+
     /**
      * Returns the bucket where the given key should be mapped.
      * 
@@ -106,8 +160,21 @@ public class AnchorEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        long k = Math.abs( hashFunction.hash(key,SEED) );
-        int b = (int) (k % capacity);
+        return getBucket( hashFunction.hash(key,SEED) );
+
+    }
+
+    /**
+     * Returns the bucket where the key with the given hash should be mapped.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long keyHash )
+    {
+
+        long k = Math.abs( keyHash );
+        int b = ConsistentHash.reduce( k, capacity );
 
         /* Loop until hitting a working bucket. */
         while( A[b] > 0 )
@@ -115,7 +182,7 @@ public class AnchorEngine implements BucketBasedEngine
             /* We rehash the key using the bucket as seed */
             k = Math.abs( hashFunction.hash(k,b,SEED) );
             
-            int h = (int) (k % A[b]);
+            int h = ConsistentHash.reduce( k, A[b] );
             while (A[h] >= A[b])
                 h = K[h];
             
@@ -127,6 +194,17 @@ public class AnchorEngine implements BucketBasedEngine
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key,SEED), out );
+
+    }
+
     /**
      * Adds a new bucket to the engine.
      * 
@@ -197,6 +275,43 @@ public class AnchorEngine implements BucketBasedEngine
 
     }
 
+
+    /**
+     * Increases the overall capacity of the engine.
+     * <p>
+     * The new buckets are appended as removed buckets in the same way
+     * as the constructor does, therefore the engine behaves as if it
+     * had been created with the new capacity and has gone through the
+     * same changes. However, the first bucket of a key depends on the
+     * capacity, so the keys landing on a different first bucket can be
+     * remapped. If the capacity doubles, the keys landing on the upper
+     * half of the anchor are rehashed and about half of the keys move.
+     * 
+     * @param capacity the new capacity (must be greater than the current one)
+     */
+    public void grow( int capacity )
+    {
+
+        this.A = Arrays.copyOf( A, capacity );
+        this.W = Arrays.copyOf( W, capacity );
+        this.L = Arrays.copyOf( L, capacity );
+        this.K = Arrays.copyOf( K, capacity );
+
+        /* The new buckets are treated as removed before any other bucket. */
+        for( int i = this.capacity; i < capacity; ++i )
+        {
+
+            A[i] = i;
+            L[i] = i;
+            W[i] = i;
+            K[i] = i;
+
+        }
+
+        this.capacity = capacity;
+
+    }
+
     /**
      * Returns the size of the working set.
      * 
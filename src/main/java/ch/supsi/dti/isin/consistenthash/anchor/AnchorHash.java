@@ -1,12 +1,18 @@
 package ch.supsi.dti.isin.consistenthash.anchor;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.nerd4j.utils.lang.Require;
 
 import ch.supsi.dti.isin.cluster.Indirection;
 import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.BucketBuffer;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.FrozenBucketHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -35,7 +41,7 @@ public class AnchorHash implements ConsistentHash
      * Constructor with parameters.
      * 
      * @param initNodes     nodes used to initializa the cluster
-     * @param capacity      overall capacity of the cluster (max number of nodes)
+     * @param capacity      initial capacity of the cluster (grows when needed)
      */
     public AnchorHash( Collection<? extends Node> initNodes, int capacity )
     {
@@ -48,7 +54,7 @@ public class AnchorHash implements ConsistentHash
      * Constructor with parameters.
      * 
      * @param initNodes     nodes used to initializa the cluster
-     * @param capacity      overall capacity of the cluster (max number of nodes)
+     * @param capacity      initial capacity of the cluster (grows when needed)
      * @param hashFunction  hash function to use 
      */
     public AnchorHash( Collection<? extends Node> initNodes, int capacity, HashFunction hashFunction )
@@ -72,6 +78,60 @@ public class AnchorHash implements ConsistentHash
         
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private AnchorHash( AnchorHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.indirection = other.indirection.copy();
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Increases the overall capacity of the cluster.
+     * <p>
+     * The mapping of a key depends on the capacity, therefore growing
+     * the cluster remaps part of the keys even if the working nodes
+     * do not change. If the capacity doubles about half of the keys
+     * are remapped.
+     * <p>
+     * The capacity is doubled automatically when adding
+     * more nodes than the current capacity allows.
+     * 
+     * @param capacity the new overall capacity of the cluster
+     */
+    public void grow( int capacity )
+    {
+
+        Require.toHold( capacity > engine.capacity(), "The new capacity must be greater than the current one" );
+        engine.grow( capacity );
+
+    }
+
+    /**
+     * Returns the overall capacity of the cluster.
+     * 
+     * @return the overall capacity of the cluster
+     */
+    public int capacity()
+    {
+
+        return engine.capacity();
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -93,6 +153,94 @@ public class AnchorHash implements ConsistentHash
         
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final int bucket = engine.getBucket( keyHash );
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keys, out );
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            final int bucket = engine.getBucket(
+                Require.nonEmpty( keys[i], "The key to evaluate is mandatory" )
+            );
+
+            out[i] = indirection.get( bucket );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -101,24 +249,30 @@ public class AnchorHash implements ConsistentHash
     {
 
         Require.nonEmpty( toAdd, "The resources to add are mandatory" );
-        Require.toHold( engine.size() + toAdd.size() <= engine.capacity(), "No room for more resources" );
 
+        /* The nodes are checked before growing to leave the cluster untouched on failure. */
+        final Set<Node> nodes = new HashSet<>();
         for( Node node : toAdd )
         {
 
-            final int bucket = engine.addBucket();
+            Require.nonNull( node, "The resource to add cannot be null" );
+            Require.toHold(
+                ! indirection.contains(node) && nodes.add(node),
+                () -> "Resource '" + node + "' already exists"
+            );
 
-            try{
+        }
 
-                indirection.put( node, bucket );
+        /* If there is no room for the new resources the capacity is doubled. */
+        final int required = engine.size() + nodes.size();
+        if( required > engine.capacity() )
+            engine.grow( Math.max(required, engine.capacity() << 1) );
 
-            }catch( RuntimeException ex )
-            {
+        for( Node node : toAdd )
+        {
 
-                engine.removeBucket( bucket );
-                throw ex;
-                
-            }
+            final int bucket = engine.addBucket();
+            indirection.put( node, bucket );
 
         }
 
@@ -177,4 +331,28 @@ public class AnchorHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AnchorHash copy()
+    {
+
+        return new AnchorHash( this );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The engine is compiled into a read-only form, see {@link AnchorEngine#freeze()}.
+     */
+    @Override
+    public FrozenBucketHash freeze()
+    {
+
+        return new FrozenBucketHash( engine.freeze(), indirection.toArray() );
+
+    }
+
 }
@@ -0,0 +1,321 @@
+package ch.supsi.dti.isin.consistenthash.anchor;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.IntStack;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Read-only implementation of the {@code AnchorHash} algorithm
+ * with compressed replacement chains.
+ * <p>
+ * When a key is rehashed into a removed bucket {@code h}, the lookup
+ * of {@link AnchorEngine} follows the replacements {@code K[h]} until it finds
+ * a bucket removed after the bucket being replaced. Each bucket here also
+ * stores the tail of its replacement chain and the lowest value of {@code A}
+ * met before reaching the tail. If the lowest value is not below the one of
+ * the replaced bucket, the lookup jumps directly to the tail, otherwise
+ * it follows the chain as the original algorithm does. The mapping of
+ * the keys does not change, see {@link AnchorEngine#freeze()}.
+ * <p>
+ * The values of each bucket are interleaved into a single array:
+ * {@code A[b]}, the tail, the lowest value and {@code K[b]}.
+ * Therefore a step of the lookup reads a single cache line.
+ * Adding or removing buckets throws an {@link UnsupportedOperationException}.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FrozenAnchorEngine implements BucketBasedEngine
+{
+
+    /** Number of values stored for each bucket. */
+    private static final int STRIDE_BITS = 2;
+
+    /** Offset of the tail of the replacement chain. */
+    private static final int TAIL = 1;
+
+    /** Offset of the lowest value of {@code A} met before reaching the tail. */
+    private static final int LOWEST = 2;
+
+    /** Offset of the replacement of the bucket. */
+    private static final int NEXT = 3;
+
+    /** Value of a bucket whose tail has not been computed yet. */
+    private static final int UNKNOWN = -1;
+
+    /** Value of a bucket whose tail is being computed. */
+    private static final int VISITING = -2;
+
+
+    /** The values of each bucket: {@code A[b]}, the tail, the lowest value and {@code K[b]}. */
+    private final int[] table;
+
+    /** Maximum number of buckets in the cluster (the size of the anchor). */
+    private final int capacity;
+
+    /** Size of the working set of buckets. */
+    private final int size;
+
+    /** The hash function to use. */
+    private final HashFunction hashFunction;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The given arrays are only read.
+     *
+     * @param A             the anchor of the engine to freeze
+     * @param K             the replacements of the engine to freeze
+     * @param size          the size of the working set
+     * @param hashFunction  hash function to use
+     */
+    FrozenAnchorEngine( int[] A, int[] K, int size, HashFunction hashFunction )
+    {
+
+        super();
+
+        Require.toHold( A.length <= Integer.MAX_VALUE >> STRIDE_BITS, "The capacity is too big to be frozen" );
+
+        this.capacity = A.length;
+        this.size = size;
+        this.hashFunction = hashFunction;
+
+        this.table = new int[capacity << STRIDE_BITS];
+        for( int b = 0; b < capacity; ++b )
+        {
+
+            table[b << STRIDE_BITS] = A[b];
+            table[(b << STRIDE_BITS) + TAIL] = UNKNOWN;
+            table[(b << STRIDE_BITS) + NEXT] = K[b];
+
+        }
+
+        compressChains();
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( String key )
+    {
+
+        return getBucket( hashFunction.hash(key,AnchorEngine.SEED) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( long keyHash )
+    {
+
+        final int[] table = this.table;
+
+        long k = Math.abs( keyHash );
+        int b = ConsistentHash.reduce( k, capacity );
+
+        /* Loop until hitting a working bucket. */
+        int a;
+        while( (a = table[b << STRIDE_BITS]) > 0 )
+        {
+
+            /* We rehash the key using the bucket as seed */
+            k = Math.abs( hashFunction.hash(k,b,AnchorEngine.SEED) );
+
+            int h = ConsistentHash.reduce( k, a );
+            int i = h << STRIDE_BITS;
+            if( table[i] >= a )
+            {
+
+                /* The whole chain is skipped if no bucket in it stops the original loop. */
+                if( table[i + LOWEST] >= a )
+                    h = table[i + TAIL];
+                else
+                    do{
+                        h = table[i + NEXT];
+                        i = h << STRIDE_BITS;
+                    }while( table[i] >= a );
+
+            }
+
+            b = h;
+
+        }
+
+        return b;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key,AnchorEngine.SEED), out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed.
+     */
+    @Override
+    public int addBucket()
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed.
+     */
+    @Override
+    public int removeBucket( int b )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+
+        return size;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed,
+     * therefore the copy is the engine itself.
+     */
+    @Override
+    public FrozenAnchorEngine copy()
+    {
+
+        return this;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the overall capacity of the cluster.
+     *
+     * @return overall capacity of the cluster.
+     */
+    public int capacity()
+    {
+
+        return capacity;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Computes the tail of the replacement chain of each bucket
+     * and the lowest value of {@code A} met before reaching it.
+     * <p>
+     * The chains share their suffixes, therefore each bucket is visited once.
+     * A chain ends on a working bucket. If a chain ends in any other way,
+     * the lowest value is set to {@code 0} so that the lookup follows
+     * the chain exactly as the original algorithm does.
+     */
+    private void compressChains()
+    {
+
+        final IntStack visited = new IntStack();
+        for( int b = 0; b < capacity; ++b )
+        {
+
+            /* Walks the chain until a bucket with a known tail. */
+            int h = b;
+            while( table[(h << STRIDE_BITS) + TAIL] == UNKNOWN )
+            {
+
+                final int i = h << STRIDE_BITS;
+                if( table[i] == 0 )
+                {
+                    table[i + TAIL] = h;
+                    table[i + LOWEST] = Integer.MAX_VALUE;
+                    break;
+                }
+
+                if( table[i + NEXT] == h )
+                {
+                    table[i + TAIL] = h;
+                    table[i + LOWEST] = 0;
+                    break;
+                }
+
+                table[i + TAIL] = VISITING;
+                visited.push( h );
+                h = table[i + NEXT];
+
+            }
+
+            /* A cycle is broken on the bucket met twice. */
+            if( table[(h << STRIDE_BITS) + TAIL] == VISITING )
+            {
+                table[(h << STRIDE_BITS) + TAIL] = h;
+                table[(h << STRIDE_BITS) + LOWEST] = 0;
+            }
+
+            /* The visited buckets share the tail of their replacement. */
+            while( ! visited.isEmpty() )
+            {
+
+                final int v = visited.pop();
+                final int i = v << STRIDE_BITS;
+                if( table[i + TAIL] != VISITING )
+                    continue;
+
+                final int j = table[i + NEXT] << STRIDE_BITS;
+                table[i + TAIL] = table[j + TAIL];
+                table[i + LOWEST] = Math.min( table[i], table[j + LOWEST] );
+
+            }
+
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package ch.supsi.dti.isin.consistenthash.binomial;
 
+import java.util.Arrays;
+
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
@@ -63,6 +65,27 @@ public class BinomialEngine implements BucketBasedEngine
         
     }
 
+    /**
+     * Copy constructor.
+     * <p>
+     * The tree filters depend on the sequence of additions and removals,
+     * therefore they are copied instead of being computed from the size.
+     * 
+     * @param other the engine to copy
+     */
+    private BinomialEngine( BinomialEngine other )
+    {
+
+        super();
+
+        this.size = other.size;
+        this.hashFunction = other.hashFunction;
+
+        this.enclosingTreeFilter = other.enclosingTreeFilter;
+        this.minorTreeFilter = other.minorTreeFilter;
+
+    }
+
 
     /* ***************** */
     /*  PRIVATE METHODS  */
@@ -85,6 +108,62 @@ public class BinomialEngine implements BucketBasedEngine
 
     }
 
+    /**
+     * Returns the index of the bucket where the key with the given hash should be mapped.
+     * <p>
+     * The values describing the cluster are provided by the caller,
+     * so they can be read once for a whole batch of keys.
+     * 
+     * @param hash                the hash of the key to map
+     * @param size                the size of the cluster (must be > 1)
+     * @param enclosingTreeFilter the current enclosing tree filter
+     * @param minorTreeFilter     the current minor tree filter
+     * @return the related bucket
+     */
+    private int getBucket( long hash, int size, int enclosingTreeFilter, int minorTreeFilter )
+    {
+
+        /* We get a position within the enclosing tree based on the value of the key hash. */
+        int bucket = (int) hash & enclosingTreeFilter;
+
+        /* We relocate the bucket randomly inside the same tree level. */
+        bucket = relocateWithinLevel( bucket, hash );
+
+        /* If the final position is valid, we return it. */
+        if( bucket < size )
+            return bucket;
+
+        /*
+         * Otherwise, we get a new random position in the enclosing tree
+         * and return it if in the range [minorTreeFilter+1,size-1].
+         * We repeat the operation twice (if needed) to get a better balance.
+         */
+        long h = hash;
+        for( int i = 0; i < 4; ++i )
+        {
+
+            h = rehash( h, enclosingTreeFilter );
+            bucket = (int) h & enclosingTreeFilter;
+            bucket = relocateWithinLevel( bucket, h );
+            
+            if( bucket <= minorTreeFilter )
+                break;
+
+            if( bucket < size )
+                return bucket;
+
+        }
+
+        /*
+         * Finally, if none of the previous operations succeed,
+         * we remap the key in the range covered by the minor tree,
+         * which is guaranteed valid.
+         */
+        bucket = (int) hash & minorTreeFilter;
+        return relocateWithinLevel( bucket, hash );
+
+    }
+
     /**
      * Returns a random position iside the same tree level of the provided bucket.
      * 
@@ -132,46 +211,61 @@ public class BinomialEngine implements BucketBasedEngine
             return 0;
 
         /* We get the hash of the provided key. */
-        final long hash = hashFunction.hash( key );
-        
-        /* We get a position within the enclosing tree based on the value of the key hash. */
-        int bucket = (int) hash & enclosingTreeFilter;
+        return getBucket( hashFunction.hash(key) );
 
-        /* We relocate the bucket randomly inside the same tree level. */
-        bucket = relocateWithinLevel( bucket, hash );
+    }
 
-        /* If the final position is valid, we return it. */
-        if( bucket < size )
-            return bucket;
+    /**
+     * Returns the index of the bucket where the key with the given hash should be mapped.
+     * 
+     * @param hash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long hash )
+    {
 
-        /*
-         * Otherwise, we get a new random position in the enclosing tree
-         * and return it if in the range [minorTreeFilter+1,size-1].
-         * We repeat the operation twice (if needed) to get a better balance.
-         */
-        long h = hash;
-        for( int i = 0; i < 4; ++i )
-        {
+        /* If the cluster counts only one node we return such a node. */
+        if( size < 2 )
+            return 0;
 
-            h = rehash( h, enclosingTreeFilter );
-            bucket = (int) h & enclosingTreeFilter;
-            bucket = relocateWithinLevel( bucket, h );
-            
-            if( bucket <= minorTreeFilter )
-                break;
+        return getBucket( hash, size, enclosingTreeFilter, minorTreeFilter );
 
-            if( bucket < size )
-                return bucket;
+    }
 
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     * 
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related buckets
+     */
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = this.size;
+        
+        /* If the cluster counts only one node we return such a node. */
+        if( size < 2 )
+        {
+            Arrays.fill( out, 0, keyHashes.length, 0 );
+            return;
         }
 
-        /*
-         * Finally, if none of the previous operations succeed,
-         * we remap the key in the range covered by the minor tree,
-         * which is guaranteed valid.
-         */
-        bucket = (int) hash & minorTreeFilter;
-        return relocateWithinLevel( bucket, hash );
+        final int enclosingTreeFilter = this.enclosingTreeFilter;
+        final int minorTreeFilter = this.minorTreeFilter;
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getBucket( keyHashes[i], size, enclosingTreeFilter, minorTreeFilter );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
 
     }
 
@@ -210,6 +304,20 @@ public class BinomialEngine implements BucketBasedEngine
         
     }
    
+    /**
+     * Returns a copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a copy of the current engine
+     */
+    public BinomialEngine copy()
+    {
+
+        return new BinomialEngine( this );
+
+    }
+
     /**
      * Returns the size of the cluster.
      * 
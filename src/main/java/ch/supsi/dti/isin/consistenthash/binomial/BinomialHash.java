@@ -1,11 +1,14 @@
 package ch.supsi.dti.isin.consistenthash.binomial;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.nerd4j.utils.lang.Require;
 
 import ch.supsi.dti.isin.cluster.Indirection;
 import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.BucketBuffer;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
@@ -76,6 +79,21 @@ public class BinomialHash implements ConsistentHash
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private BinomialHash( BinomialHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.indirection = other.indirection.copy();
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -97,6 +115,94 @@ public class BinomialHash implements ConsistentHash
         
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final int bucket = engine.getBucket( keyHash );
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keys, out );
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            final int bucket = engine.getBucket(
+                Require.nonEmpty( keys[i], "The key to evaluate is mandatory" )
+            );
+
+            out[i] = indirection.get( bucket );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,4 +277,15 @@ public class BinomialHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BinomialHash copy()
+    {
+
+        return new BinomialHash( this );
+
+    }
+
 }
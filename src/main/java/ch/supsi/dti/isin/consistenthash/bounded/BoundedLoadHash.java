@@ -0,0 +1,597 @@
+package ch.supsi.dti.isin.consistenthash.bounded;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+
+
+/**
+ * Wrapper adding bounded loads to any {@link ConsistentHash} as described in:
+ * {@code https://arxiv.org/pdf/1608.01350.pdf}
+ *
+ * <p>
+ * The wrapper tracks the number of keys assigned to each node,
+ * therefore it must be created with the nodes of the wrapped instance.
+ * Given a balance parameter {@code c = 1 + epsilon}, a node can accept
+ * a new key only if its load is below {@code ceil(c * (m + 1) * w / W)} where
+ * {@code m} is the number of assigned keys, {@code w} is the weight of
+ * the node and {@code W} is the total weight. With nodes of weight
+ * {@code 1} the bound is {@code ceil(c * (m + 1) / n)}.
+ * <p>
+ * The candidates for a key are its replicas in the wrapped instance
+ * (see {@link ConsistentHash#getNodes(long, int, Node[])}): the first
+ * candidate is the node of the key, the following ones are the ring
+ * successors, the next nodes in the rendezvous ranking or the nodes
+ * of the rehash chain, depending on the algorithm. The replicas are
+ * distinct nodes, therefore if the cluster has no more than
+ * {@link #maxProbes} nodes every node is probed and the bound holds
+ * unless the loads are updated concurrently. Otherwise, if none of the
+ * first {@link #maxProbes} candidates can accept the key, the least
+ * loaded candidate is used.
+ * The candidates after the first one are looked up only if needed,
+ * in batches of growing size.
+ * <p>
+ * Loads are kept in atomic counters, one for each node, and they are
+ * updated with {@code compare-and-set}, therefore {@link #acquire(long)}
+ * and {@link #release(Node)} can be called concurrently. Changes to the
+ * cluster are not synchronized with the lookups.
+ *
+ * This wrapper performs all the consistency checks.
+ *
+ *
+ * @author Massimo Coluzzi
+ */
+public class BoundedLoadHash implements ConsistentHash
+{
+
+    /** Default value of {@code epsilon}. */
+    public static final double DEFAULT_EPSILON = 0.25;
+
+    /** Default maximum number of candidates to probe. */
+    public static final int DEFAULT_MAX_PROBES = 64;
+
+    /** Number of candidates looked up when the first one cannot accept the key. */
+    private static final int INITIAL_CANDIDATES = 4;
+
+
+    /** The consistent hash to wrap. */
+    private final ConsistentHash consistentHash;
+
+    /** The balance parameter {@code c = 1 + epsilon}. */
+    private final double balance;
+
+    /** Maximum number of candidates to probe. */
+    private final int maxProbes;
+
+    /** The number of keys assigned to each node. */
+    private final Map<Node,AtomicInteger> loads;
+
+    /** The number of keys assigned to the cluster. */
+    private final AtomicLong totalLoad;
+
+    /** The number of candidates probed after the first one. */
+    private final LongAdder extraProbes;
+
+    /** The sum of the weights of the nodes. */
+    private long totalWeight;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param consistentHash the consistent hash to wrap
+     * @param nodes          the nodes of the consistent hash to wrap
+     */
+    public BoundedLoadHash( ConsistentHash consistentHash, Collection<? extends Node> nodes )
+    {
+
+        this( consistentHash, nodes, DEFAULT_EPSILON );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param consistentHash the consistent hash to wrap
+     * @param nodes          the nodes of the consistent hash to wrap
+     * @param epsilon        the tolerated excess over the average load
+     */
+    public BoundedLoadHash( ConsistentHash consistentHash, Collection<? extends Node> nodes, double epsilon )
+    {
+
+        this( consistentHash, nodes, epsilon, DEFAULT_MAX_PROBES );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param consistentHash the consistent hash to wrap
+     * @param nodes          the nodes of the consistent hash to wrap
+     * @param epsilon        the tolerated excess over the average load
+     * @param maxProbes      maximum number of candidates to probe
+     */
+    public BoundedLoadHash( ConsistentHash consistentHash, Collection<? extends Node> nodes,
+        double epsilon, int maxProbes )
+    {
+
+        super();
+
+        Require.toHold( epsilon > 0, "The value of epsilon must be strictly positive" );
+        Require.toHold( maxProbes > 0, "The maximum number of probes must be strictly positive" );
+
+        this.consistentHash = Require.nonNull( consistentHash, "The consistent hash to wrap is mandatory" );
+
+        this.balance = 1 + epsilon;
+        this.maxProbes = maxProbes;
+
+        this.loads = new ConcurrentHashMap<>();
+        this.totalLoad = new AtomicLong();
+        this.extraProbes = new LongAdder();
+        this.totalWeight = 0;
+
+        Require.nonNull( nodes, "The nodes of the consistent hash to wrap are mandatory" );
+        Require.toHold( nodes.size() == consistentHash.nodeCount(), "The nodes must be the ones of the consistent hash to wrap" );
+        for( Node node : nodes )
+        {
+
+            Require.nonNull( node, "The nodes cannot be null" );
+            Require.toHold( loads.putIfAbsent(node, new AtomicInteger()) == null, () -> "Resource '" + node + "' already exists" );
+            totalWeight += node.weight();
+
+        }
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the instance to copy
+     */
+    private BoundedLoadHash( BoundedLoadHash other )
+    {
+
+        super();
+
+        this.consistentHash = other.consistentHash.copy();
+
+        this.balance = other.balance;
+        this.maxProbes = other.maxProbes;
+
+        this.loads = new ConcurrentHashMap<>();
+        other.loads.forEach( (node,load) -> loads.put(node, new AtomicInteger(load.get())) );
+
+        this.totalLoad = new AtomicLong( other.totalLoad.get() );
+        this.extraProbes = new LongAdder();
+        this.extraProbes.add( other.extraProbes.sum() );
+        this.totalWeight = other.totalWeight;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Assigns the given key to a node and increases the load of such a node.
+     * <p>
+     * The key is assigned to the first candidate with a load below the bound.
+     *
+     * @param key the key to assign
+     * @return the node the key has been assigned to
+     */
+    public Node acquire( String key )
+    {
+
+        Require.nonEmpty( key, "The key to assign is mandatory" );
+        return select( key, 0, true );
+
+    }
+
+    /**
+     * Assigns the key with the given hash to a node and increases the load of such a node.
+     * <p>
+     * The key is assigned to the first candidate with a load below the bound.
+     *
+     * @param keyHash the hash of the key to assign
+     * @return the node the key has been assigned to
+     */
+    public Node acquire( long keyHash )
+    {
+
+        return select( null, keyHash, true );
+
+    }
+
+    /**
+     * Decreases the load of the given node.
+     * <p>
+     * Each call to {@link #acquire(long)} should be
+     * followed by a call to this method when the
+     * related key is not served anymore.
+     *
+     * @param node the node to release
+     */
+    public void release( Node node )
+    {
+
+        Require.nonNull( node, "The node to release is mandatory" );
+
+        final AtomicInteger load = loads.get( node );
+        if( load != null && load.getAndUpdate(value -> value > 0 ? value - 1 : 0) > 0 )
+            totalLoad.decrementAndGet();
+
+    }
+
+    /**
+     * Returns the number of keys assigned to the given node.
+     *
+     * @param node the node to check
+     * @return the load of the node
+     */
+    public int load( Node node )
+    {
+
+        final AtomicInteger load = loads.get( Require.nonNull(node, "The node to check is mandatory") );
+        return load != null ? load.get() : 0;
+
+    }
+
+    /**
+     * Returns the number of keys assigned to the cluster.
+     *
+     * @return the total load
+     */
+    public long totalLoad()
+    {
+
+        return totalLoad.get();
+
+    }
+
+    /**
+     * Returns the number of candidates probed after the first one
+     * by all the calls to {@link #acquire(long)}.
+     * <p>
+     * When no candidate can accept a key, the fallback to
+     * the least loaded candidate counts as one more probe.
+     *
+     * @return the number of extra probes
+     */
+    public long extraProbes()
+    {
+
+        return extraProbes.sum();
+
+    }
+
+    /**
+     * Returns the maximum number of keys the given node can accept.
+     *
+     * @param node the node to check
+     * @return the current bound of the node
+     */
+    public int bound( Node node )
+    {
+
+        return (int) Math.ceil( balance * (totalLoad.get() + 1) * node.weight() / totalWeight );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the node the key would be assigned to
+     * by {@link #acquire(String)} without changing the loads.
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        return select( key, 0, false );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the node the key would be assigned to
+     * by {@link #acquire(long)} without changing the loads.
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return select( null, keyHash, false );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the ones of the wrapped instance,
+     * the loads of the nodes are not taken into account.
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        return consistentHash.getNodes( key, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the ones of the wrapped instance,
+     * the loads of the nodes are not taken into account.
+     */
+    @Override
+    public List<Node> getNodes( long keyHash, int replicas )
+    {
+
+        return consistentHash.getNodes( keyHash, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the ones of the wrapped instance,
+     * the loads of the nodes are not taken into account.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        consistentHash.getNodes( keyHash, replicas, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> nodes )
+    {
+
+        consistentHash.addNodes( nodes );
+        for( Node node : nodes )
+        {
+            loads.put( node, new AtomicInteger() );
+            totalWeight += node.weight();
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The keys assigned to the removed nodes are discarded.
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> nodes )
+    {
+
+        consistentHash.removeNodes( nodes );
+        for( Node node : nodes )
+        {
+
+            final AtomicInteger load = loads.remove( node );
+            if( load != null )
+            {
+                totalLoad.addAndGet( -load.get() );
+                totalWeight -= node.weight();
+            }
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return consistentHash.supportsOnlyLifoRemovals();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return consistentHash.supportsWeights();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return consistentHash.nodeCount();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return consistentHash.engine();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundedLoadHash copy()
+    {
+
+        return new BoundedLoadHash( this );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the first candidate with a load below the bound
+     * or the least loaded candidate if none is found.
+     * <p>
+     * The key is identified either by the given string or,
+     * if the string is {@code null}, by the given hash.
+     * If required, the load of the selected node is increased.
+     *
+     * @param key     the key to assign, {@code null} to use the hash
+     * @param keyHash the hash of the key to assign
+     * @param acquire tells if the load of the selected node should be increased
+     * @return the selected node
+     */
+    private Node select( String key, long keyHash, boolean acquire )
+    {
+
+        final int probes = Math.min( maxProbes, consistentHash.nodeCount() );
+
+        /* The first candidate is the node of the key, the other ones are looked up only if needed. */
+        Node[] candidates = null;
+
+        Node leastLoaded = null;
+        int minLoad = Integer.MAX_VALUE;
+        for( int probe = 0; probe < probes; ++probe )
+        {
+
+            final Node node;
+            if( probe == 0 )
+                node = key != null ? consistentHash.getNode( key ) : consistentHash.getNode( keyHash );
+            else
+            {
+
+                if( candidates == null || probe == candidates.length )
+                    candidates = candidates( key, keyHash, Math.min(Math.max(probe << 1, INITIAL_CANDIDATES), probes) );
+
+                node = candidates[probe];
+
+            }
+
+            final AtomicInteger load = loads.get( node );
+            if( load == null )
+                continue;
+
+            if( acquire ? tryIncrement(load, bound(node)) : load.get() < bound(node) )
+            {
+
+                if( acquire )
+                {
+                    totalLoad.incrementAndGet();
+                    extraProbes.add( probe );
+                }
+
+                return node;
+
+            }
+
+            final int current = load.get();
+            if( current < minLoad )
+            {
+                leastLoaded = node;
+                minLoad = current;
+            }
+
+        }
+
+        final Node node = Require.nonNull( leastLoaded, "Unable to find a node for the given key" );
+        if( acquire )
+        {
+            loads.get( node ).incrementAndGet();
+            totalLoad.incrementAndGet();
+            extraProbes.add( probes );
+        }
+
+        return node;
+
+    }
+
+    /**
+     * Returns the first candidates for the given key.
+     * <p>
+     * The candidates are the replicas of the key in the wrapped instance.
+     * Fewer replicas are a prefix of more replicas, therefore the
+     * candidates already probed keep their position.
+     *
+     * @param key     the key to assign, {@code null} to use the hash
+     * @param keyHash the hash of the key to assign
+     * @param count   the number of candidates to return
+     * @return the first candidates for the key
+     */
+    private Node[] candidates( String key, long keyHash, int count )
+    {
+
+        if( key != null )
+            return consistentHash.getNodes( key, count ).toArray( new Node[count] );
+
+        final Node[] candidates = new Node[count];
+        consistentHash.getNodes( keyHash, count, candidates );
+
+        return candidates;
+
+    }
+
+    /**
+     * Increments the given counter if it is below the given bound.
+     *
+     * @param load  the counter to increment
+     * @param bound the bound to respect
+     * @return {@code true} if the counter has been incremented
+     */
+    private static boolean tryIncrement( AtomicInteger load, int bound )
+    {
+
+        int current = load.get();
+        while( current < bound )
+        {
+
+            if( load.compareAndSet(current, current + 1) )
+                return true;
+
+            current = load.get();
+
+        }
+
+        return false;
+
+    }
+
+}
@@ -0,0 +1,353 @@
+package ch.supsi.dti.isin.consistenthash.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+
+
+/**
+ * Thread-safe wrapper of a {@link ConsistentHash} instance.
+ * <p>
+ * Lookups are performed on an immutable snapshot of the cluster
+ * published through an {@link AtomicReference}, therefore readers
+ * never block and never see a partially applied update.
+ * <p>
+ * Updates are applied using the copy-on-write approach:
+ * the current snapshot is copied, the copy is modified
+ * and then published with a {@code compare-and-set}.
+ * If another update has been published in the meantime,
+ * the update is retried on the new snapshot.
+ * If an update fails the consistency checks, the current
+ * snapshot is left untouched.
+ * <p>
+ * Each update costs a full copy of the wrapped instance,
+ * therefore this class fits scenarios where lookups are
+ * much more frequent than resizes.
+ * <p>
+ * Optionally, each published snapshot is also compiled with
+ * {@link ConsistentHash#freeze()} and the lookups are performed
+ * on the frozen form. The keys are mapped to the same nodes,
+ * while each update also pays the cost of the compilation.
+ *
+ * @author Massimo Coluzzi
+ */
+public class ConcurrentConsistentHash implements ConsistentHash
+{
+
+    /** The current snapshot of the cluster. */
+    private final AtomicReference<Snapshot> snapshot;
+
+    /** Tells if the lookups are performed on the frozen form of the snapshots. */
+    private final boolean frozen;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The given instance is copied, therefore later
+     * changes to it do not affect the current instance.
+     *
+     * @param consistentHash the consistent hash to wrap
+     */
+    public ConcurrentConsistentHash( ConsistentHash consistentHash )
+    {
+
+        this( consistentHash, false );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The given instance is copied, therefore later
+     * changes to it do not affect the current instance.
+     *
+     * @param consistentHash the consistent hash to wrap
+     * @param frozen         tells if the lookups should be performed on the frozen snapshots
+     */
+    public ConcurrentConsistentHash( ConsistentHash consistentHash, boolean frozen )
+    {
+
+        super();
+
+        Require.nonNull( consistentHash, "The consistent hash to wrap is mandatory" );
+
+        this.frozen = frozen;
+        this.snapshot = new AtomicReference<>( new Snapshot(consistentHash.copy(), frozen) );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        return snapshot.get().lookup.getNode( key );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return snapshot.get().lookup.getNode( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the keys are evaluated on the same snapshot.
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        snapshot.get().lookup.getNodes( keys, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the key hashes are evaluated on the same snapshot.
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        snapshot.get().lookup.getNodes( keyHashes, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the replicas are evaluated on the same snapshot.
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        return snapshot.get().lookup.getNodes( key, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the replicas are evaluated on the same snapshot.
+     */
+    @Override
+    public List<Node> getNodes( long keyHash, int replicas )
+    {
+
+        return snapshot.get().lookup.getNodes( keyHash, replicas );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the replicas are evaluated on the same snapshot.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        snapshot.get().lookup.getNodes( keyHash, replicas, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> nodes )
+    {
+
+        update( ch -> ch.addNodes(nodes) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> nodes )
+    {
+
+        update( ch -> ch.removeNodes(nodes) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return snapshot.get().live.supportsOnlyLifoRemovals();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return snapshot.get().live.supportsWeights();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return snapshot.get().live.nodeCount();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the engine of the current snapshot.
+     */
+    @Override
+    public Object engine()
+    {
+
+        return snapshot.get().lookup.engine();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConcurrentConsistentHash copy()
+    {
+
+        return new ConcurrentConsistentHash( snapshot.get().live, frozen );
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the current snapshot of the cluster.
+     * <p>
+     * The returned instance must be considered read-only,
+     * modifying it leads to undefined behavior.
+     * If the snapshots are frozen, the frozen form is returned.
+     *
+     * @return the current snapshot
+     */
+    public ConsistentHash snapshot()
+    {
+
+        return snapshot.get().lookup;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Applies the given update to a copy of the current
+     * snapshot and publishes the result.
+     * <p>
+     * If a concurrent update was published in the
+     * meantime, the update is retried.
+     *
+     * @param update the update to apply
+     */
+    private void update( Consumer<ConsistentHash> update )
+    {
+
+        while( true )
+        {
+
+            final Snapshot current = snapshot.get();
+            final ConsistentHash next = current.live.copy();
+
+            update.accept( next );
+            if( snapshot.compareAndSet(current, new Snapshot(next, frozen)) )
+                return;
+
+        }
+
+    }
+
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Immutable pair of the instance to update and the instance to query.
+     *
+     * @author Massimo Coluzzi
+     */
+    private static class Snapshot
+    {
+
+        /** The instance to copy and update on changes. */
+        final ConsistentHash live;
+
+        /** The instance to query, either the live one or its frozen form. */
+        final ConsistentHash lookup;
+
+
+        /**
+         * Constructor with parameters.
+         * <p>
+         * The given instance must not be changed later.
+         *
+         * @param live   the instance to copy and update on changes
+         * @param frozen tells if the lookups should be performed on the frozen form
+         */
+        Snapshot( ConsistentHash live, boolean frozen )
+        {
+
+            super();
+
+            this.live = live;
+            this.lookup = frozen ? live.freeze() : live;
+
+        }
+
+    }
+
+}
@@ -1,11 +1,11 @@
 package ch.supsi.dti.isin.consistenthash.dx;
 
 import java.util.BitSet;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Random;
 
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.IntStack;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -23,6 +23,10 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
  */
 public class DxEngine implements BucketBasedEngine
 {
+
+    /** Increment of the {@code SplitMix64} sequence used to derive the probes. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
     
     /** Working nodes. */
     private int size;
@@ -37,20 +41,50 @@ public class DxEngine implements BucketBasedEngine
     private final BitSet failed;
 
     /** Keeps track of the removed nodes in reverse order. */
-    private final Deque<Integer> removed;
+    private final IntStack removed;
 
     /** Hashing function to use */
     private final HashFunction hashFunction;
 
+    /**
+     * Tells if the buckets are probed with {@link Random}
+     * to reproduce the placements of the original implementation.
+     */
+    private final boolean compatibility;
+
 
     /**
      * Constructor with parameters.
+     * <p>
+     * The buckets are probed with {@link Random} to reproduce the
+     * placements of the original implementation. Use the constructor
+     * with {@code compatibility} set to {@code false} to probe them with
+     * the allocation-free {@code SplitMix64} sequence.
      * 
-     * @param nodes        initial cluster nodes
+     * @param size         initial number of working buckets
      * @param capacity     overall number of available buckets
      * @param hashFunction the hash function to use
      */
     public DxEngine( int size, int capacity, HashFunction hashFunction )
+    {
+
+        this( size, capacity, hashFunction, true );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * In compatibility mode the buckets are probed with {@link Random}
+     * as in the original implementation, otherwise an inlined
+     * {@code SplitMix64} sequence is used.
+     * 
+     * @param size          initial number of working buckets
+     * @param capacity      overall number of available buckets
+     * @param hashFunction  the hash function to use
+     * @param compatibility tells if the placements of the original implementation should be reproduced
+     */
+    public DxEngine( int size, int capacity, HashFunction hashFunction, boolean compatibility )
     {
 
         super();
@@ -58,20 +92,54 @@ public class DxEngine implements BucketBasedEngine
         this.size = size;
         this.capacity = capacity;
 
-        this.removed = new LinkedList<>();
+        this.removed = new IntStack();
         this.hashFunction = hashFunction;
+        this.compatibility = compatibility;
 
         this.failed = new BitSet( capacity );
         this.failed.set( size, capacity );
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the engine to copy
+     */
+    private DxEngine( DxEngine other )
+    {
+
+        super();
+
+        this.size = other.size;
+        this.capacity = other.capacity;
+        this.removed = other.removed.copy();
+        this.hashFunction = other.hashFunction;
+        this.compatibility = other.compatibility;
+        this.failed = (BitSet) other.failed.clone();
+
+    }
+
 
     /* **************** */
     /*  PUBLIC METHODS  */
     /* **************** */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    public DxEngine copy()
+    {
+
+        return new DxEngine( this );
+
+    }
+
     /**
      * Returns the bucket where the given key should be mapped.
      * 
@@ -81,18 +149,58 @@ public class DxEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        final Random random = new Random( hashFunction.hash( key ) );
-        int b = random.nextInt( capacity );
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the bucket where the key with the given hash should be mapped.
+     * <p>
+     * The buckets are probed in a pseudo-random sequence seeded
+     * by the key hash until a working bucket is found.
+     * The sequence is the {@code SplitMix64} sequence started
+     * from the full 64 bits of the key hash, and each value is
+     * reduced to the range {@code [0,capacity)} with the
+     * multiply-shift technique by Lemire. The bias of the reduction
+     * is below {@code capacity / 2^32} and is neglected.
+     * No object is allocated.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long keyHash )
+    {
+
+        if( compatibility )
+            return getCompatibleBucket( keyHash );
+
+        final long bound = capacity;
 
         /* Loop until hitting a working bucket. */
-        while( failed.get(b) )
-            /* Next random in sequence. */
-            b = random.nextInt( capacity );
+        long state = keyHash;
+        int b;
+        do{
+
+            state += GOLDEN_GAMMA;
+            b = (int)( ((ConsistentHash.mix(state) >>> 32) * bound) >>> 32 );
+
+        }while( failed.get(b) );
 
         return b;
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
     /**
      * Adds a new bucket to the engine.
      * 
@@ -131,6 +239,27 @@ public class DxEngine implements BucketBasedEngine
         
     }
 
+
+    /**
+     * Increases the overall capacity of the engine.
+     * <p>
+     * The new buckets are added as failed buckets. Since the sequence
+     * of the random buckets visited by a key depends on the capacity,
+     * growing the engine remaps almost all the keys. In compatibility
+     * mode, if the capacity doubles and is not a power of {@code 2},
+     * only the keys probing the upper half of the buckets are remapped,
+     * that is about half of the keys.
+     * 
+     * @param capacity the new capacity (must be greater than the current one)
+     */
+    public void grow( int capacity )
+    {
+
+        failed.set( this.capacity, capacity );
+        this.capacity = capacity;
+
+    }
+
     /**
      * Returns the size of the working set.
      * 
@@ -155,4 +284,32 @@ public class DxEngine implements BucketBasedEngine
 
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the bucket where the key with the given hash should
+     * be mapped as computed by the original implementation.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    private int getCompatibleBucket( long keyHash )
+    {
+
+        final Random random = new Random( keyHash );
+        int b = random.nextInt( capacity );
+
+        /* Loop until hitting a working bucket. */
+        while( failed.get(b) )
+            /* Next random in sequence. */
+            b = random.nextInt( capacity );
+
+        return b;
+
+    }
+
 }
@@ -1,11 +1,16 @@
 package ch.supsi.dti.isin.consistenthash.dx;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.nerd4j.utils.lang.Require;
 
 import ch.supsi.dti.isin.cluster.Indirection;
 import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.BucketBuffer;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
@@ -35,7 +40,7 @@ public class DxHash implements ConsistentHash
      * Constructor with parameters.
      *
      * @param nodes    initial cluster nodes
-     * @param capacity overall capacity of the cluster (max number of nodes)
+     * @param capacity initial capacity of the cluster (grows when needed)
      */
     public DxHash( Collection<? extends Node> nodes, int capacity )
     {
@@ -47,11 +52,34 @@ public class DxHash implements ConsistentHash
     /**
      * Constructor with parameters.
      *
+     * <p>
+     * The placements of the original implementation based on {@link java.util.Random}
+     * are reproduced. Use the constructor with {@code compatibility} set to {@code false}
+     * to probe the buckets with the allocation-free {@code SplitMix64} sequence.
+     *
      * @param nodes        initial cluster nodes
-     * @param capacity     overall capacity of the cluster (max number of nodes)
+     * @param capacity     initial capacity of the cluster (grows when needed)
      * @param hashFunction the hash function to use
      */
     public DxHash( Collection<? extends Node> nodes, int capacity, HashFunction hashFunction )
+    {
+
+        this( nodes, capacity, hashFunction, true );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * In compatibility mode the placements of the original
+     * implementation based on {@link java.util.Random} are reproduced.
+     *
+     * @param nodes         initial cluster nodes
+     * @param capacity      initial capacity of the cluster (grows when needed)
+     * @param hashFunction  the hash function to use
+     * @param compatibility tells if the placements of the original implementation should be reproduced
+     */
+    public DxHash( Collection<? extends Node> nodes, int capacity, HashFunction hashFunction, boolean compatibility )
     {
 
         super();
@@ -60,7 +88,7 @@ public class DxHash implements ConsistentHash
         Require.toHold( nodes.size() <= capacity, "The cluster overall capacity cannot be smaller than the number of working nodes" );
         
         this.engine = new DxEngine(
-            0, capacity, Require.nonNull( hashFunction, "The hash function to use cannot be null" )
+            0, capacity, Require.nonNull( hashFunction, "The hash function to use cannot be null" ), compatibility
         );
 
         this.indirection = new Indirection( nodes.size() );
@@ -75,6 +103,60 @@ public class DxHash implements ConsistentHash
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private DxHash( DxHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.indirection = other.indirection.copy();
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Increases the overall capacity of the cluster.
+     * <p>
+     * The mapping of a key depends on the capacity, therefore growing
+     * the cluster remaps almost all the keys even if the working nodes
+     * do not change. In compatibility mode, if the capacity doubles
+     * and is not a power of {@code 2}, about half of the keys are remapped.
+     * <p>
+     * The capacity is doubled automatically when adding
+     * more nodes than the current capacity allows.
+     * 
+     * @param capacity the new overall capacity of the cluster
+     */
+    public void grow( int capacity )
+    {
+
+        Require.toHold( capacity > engine.capacity(), "The new capacity must be greater than the current one" );
+        engine.grow( capacity );
+
+    }
+
+    /**
+     * Returns the overall capacity of the cluster.
+     * 
+     * @return the overall capacity of the cluster
+     */
+    public int capacity()
+    {
+
+        return engine.capacity();
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -95,6 +177,94 @@ public class DxHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final int bucket = engine.getBucket( keyHash );
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keys, out );
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            final int bucket = engine.getBucket(
+                Require.nonEmpty( keys[i], "The key to evaluate is mandatory" )
+            );
+
+            out[i] = indirection.get( bucket );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -103,24 +273,31 @@ public class DxHash implements ConsistentHash
     {
 
         Require.nonEmpty( toAdd, "The resources to add are mandatory" );
-        Require.toHold( engine.size() + toAdd.size() <= engine.capacity(), "No room for more resources" );
+
+        /* The nodes are checked before growing to leave the cluster untouched on failure. */
+        final Set<Node> nodes = new HashSet<>();
         for( Node node : toAdd )
         {
 
-            final int bucket = engine.addBucket();
+            Require.nonNull( node, "The resource to add cannot be null" );
+            Require.toHold(
+                ! indirection.contains(node) && nodes.add(node),
+                () -> "Resource '" + node + "' already exists"
+            );
+
+        }
 
-            try{
+        /* If there is no room for the new resources the capacity is doubled. */
+        final int required = engine.size() + nodes.size();
+        if( required > engine.capacity() )
+            engine.grow( Math.max(required, engine.capacity() << 1) );
 
-                indirection.put( node, bucket );
+        for( Node node : toAdd )
+        {
 
-            }catch( RuntimeException ex )
-            {
+            final int bucket = engine.addBucket();
+            indirection.put( node, bucket );
 
-                engine.removeBucket( bucket );
-                throw ex;
-                
-            }
-            
         }
 
     }
@@ -177,4 +354,15 @@ public class DxHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DxHash copy()
+    {
+
+        return new DxHash( this );
+
+    }
+
 }
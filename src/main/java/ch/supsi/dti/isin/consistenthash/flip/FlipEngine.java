@@ -1,5 +1,7 @@
 package ch.supsi.dti.isin.consistenthash.flip;
 
+import java.util.Arrays;
+
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
@@ -76,7 +78,49 @@ public class FlipEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        return fliphash( key );
+        return fliphash( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( long keyHash )
+    {
+
+        return fliphash( keyHash );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = this.size;
+        if( size == 0 )
+        {
+            Arrays.fill( out, 0, keyHashes.length, 0 );
+            return;
+        }
+
+        final long pow2Mask = ~0L >>> Long.numberOfLeadingZeros( size );
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = fliphash( keyHashes[i], size, pow2Mask );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
 
     }
 
@@ -102,6 +146,21 @@ public class FlipEngine implements BucketBasedEngine
         
     }
    
+    /**
+     * Returns a copy of the current engine.
+     * <p>
+     * The state of the engine depends only on its size,
+     * therefore the copy is a new engine of the same size.
+     * 
+     * @return a copy of the current engine
+     */
+    public FlipEngine copy()
+    {
+
+        return new FlipEngine( size, maxNumIterations, hashFunction );
+
+    }
+
     /**
      * Returns the size of the cluster.
      * 
@@ -114,6 +173,18 @@ public class FlipEngine implements BucketBasedEngine
 
     }
 
+    /**
+     * Returns the hash function used by the engine.
+     * 
+     * @return the hash function used by the engine.
+     */
+    public HashFunction hashFunction()
+    {
+
+        return hashFunction;
+
+    }
+
 
     /* ***************** */
     /*  PRIVATE METHODS  */
@@ -124,17 +195,35 @@ public class FlipEngine implements BucketBasedEngine
      * The function to use when {@code 2^(r-1)<n<2^r} as described
      * in the related paper.
      * 
-     * @param key the key to hash
+     * @param hash the hash of the key to map
      * @return the destination bucket
      */
-    private int fliphash( String key )
+    private int fliphash( long hash )
     {
 
         if( size == 0 )
             return 0;
 
         final long pow2Mask = ~0L >>> Long.numberOfLeadingZeros( size );
-        final long hash = hashFunction.hash( key );
+        return fliphash( hash, size, pow2Mask );
+
+    }
+
+    /**
+     * The function to use when {@code 2^(r-1)<n<2^r} as described
+     * in the related paper.
+     * <p>
+     * The values depending only on the cluster size are
+     * provided by the caller, so they can be computed once
+     * for a whole batch of keys.
+     * 
+     * @param hash     the hash of the key to map
+     * @param size     the size of the cluster (must be > 0)
+     * @param pow2Mask the smallest mask of the form {@code 2^r-1} covering {@code size}
+     * @return the destination bucket
+     */
+    private int fliphash( long hash, int size, long pow2Mask )
+    {
 
         final int fliphashPow2 = fliphashPow2( hash, pow2Mask );
         if( fliphashPow2 < size )
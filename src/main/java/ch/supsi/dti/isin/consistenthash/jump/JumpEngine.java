@@ -59,7 +59,47 @@ public class JumpEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        return Hashing.consistentHash( hashFunction.hash(key), size );
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the index of the bucket where the key with the given hash should be mapped.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long keyHash )
+    {
+
+        return Hashing.consistentHash( keyHash, size );
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     * 
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related buckets
+     */
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = this.size;
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = Hashing.consistentHash( keyHashes[i], size );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
 
     }
 
@@ -85,6 +125,21 @@ public class JumpEngine implements BucketBasedEngine
         
     }
    
+    /**
+     * Returns a copy of the current engine.
+     * <p>
+     * The state of the engine depends only on its size,
+     * therefore the copy is a new engine of the same size.
+     * 
+     * @return a copy of the current engine
+     */
+    public JumpEngine copy()
+    {
+
+        return new JumpEngine( size, hashFunction );
+
+    }
+
     /**
      * Returns the size of the cluster.
      * 
@@ -62,7 +62,48 @@ public class JumpBackEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        return consistentBucketHasher.getBucket( hashFunction.hash(key), size );
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the index of the bucket where the key with the given hash should be mapped.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long keyHash )
+    {
+
+        return consistentBucketHasher.getBucket( keyHash, size );
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     * 
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related buckets
+     */
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = this.size;
+        final ConsistentBucketHasher hasher = this.consistentBucketHasher;
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = hasher.getBucket( keyHashes[i], size );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
 
     }
 
@@ -88,6 +129,21 @@ public class JumpBackEngine implements BucketBasedEngine
         
     }
    
+    /**
+     * Returns a copy of the current engine.
+     * <p>
+     * The state of the engine depends only on its size,
+     * therefore the copy is a new engine of the same size.
+     * 
+     * @return a copy of the current engine
+     */
+    public JumpBackEngine copy()
+    {
+
+        return new JumpBackEngine( size, hashFunction );
+
+    }
+
     /**
      * Returns the size of the cluster.
      * 
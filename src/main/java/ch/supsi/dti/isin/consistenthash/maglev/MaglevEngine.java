@@ -4,7 +4,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import ch.supsi.dti.isin.hashfunction.HashFunction;
@@ -15,6 +14,38 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
  * {@code https://static.googleusercontent.com/media/research.google.com/en//pubs/archive/44824.pdf}
  *
  * <p>
+ * Each backend is associated to a slot and the lookup table stores
+ * the slots of the backends, therefore a lookup is a modulo followed
+ * by two array reads. The slots released by the removed backends
+ * are reused by the backends added later.
+ * <p>
+ * The lookup table is populated by visiting the backends in the
+ * order of their names, therefore the table depends only on the set
+ * of backends and not on the order in which they have been added.
+ * The population loop works on primitive arrays only.
+ *
+ * <p>
+ * In incremental mode the table is rebuilt only when the engine
+ * is empty. Afterwards, the added backends take entries from the
+ * backends owning more than their share, and the entries of the
+ * removed backends are given to the backends owning less than
+ * their share. Only the entries involved in the resize change
+ * owner, at the cost of a table that depends on the history
+ * of the resizes. With {@code M} entries and {@code N} backends,
+ * after an addition each backend owns at least {@code floor(M/N)}
+ * entries and after a removal each backend owns at most
+ * {@code ceil(M/N)} entries.
+ *
+ * <p>
+ * Each backend can have a weight. During the population, at each turn
+ * every backend takes as many empty entries as its weight, therefore
+ * each backend gets a share of the table proportional to its weight.
+ * In incremental mode the shares {@code M/N} are replaced by
+ * {@code M*w/W} where {@code w} is the weight of the backend and
+ * {@code W} is the total weight. If all the weights are {@code 1}
+ * the table is the same as the one built without weights.
+ *
+ * <p>
  * <b>IMPORTANT:</b>
  * This class is not performing any consistency check
  * to avoid the performance tests to be falsified.
@@ -28,7 +59,10 @@ public class MaglevEngine
     /** Seed used to compute the lookup index. */
     private static final int  INDEX_SEED = 0xDEADBEEF;
 
-    
+    /** Initial number of slots available for the backends. */
+    private static final int INITIAL_SLOTS = 16;
+
+
     /**
      * As described in the related paper the lookup table size
      * should be a prime number and it should be much bigger
@@ -39,33 +73,117 @@ public class MaglevEngine
     /** The hash function to use. */
     private final HashFunction hashFunction;
 
+    /** Tells if the lookup table is updated incrementally. */
+    private final boolean incremental;
+
     /**
      * The lookup table as described in:
      * {@code https://static.googleusercontent.com/media/research.google.com/en//pubs/archive/44824.pdf}
+     * <p>
+     * Each entry contains the slot of the related backend.
      */
-    private String[] lookup;
+    private int[] lookup;
+
+    /** The backends indexed by slot, {@code null} if the slot is free. */
+    private String[] backends;
+
+    /** The permutations of the backends indexed by slot. */
+    private Permutation[] permutations;
+
+    /** The number of lookup entries owned by each slot. */
+    private int[] counts;
 
-    /** Maps each backend to the related permutation. */
-    private Map<String,Permutation> permutations;
+    /** The weights of the backends indexed by slot. */
+    private int[] weights;
+
+    /** The sum of the weights of the backends. */
+    private long totalWeight;
+
+    /** Maps each backend to the related slot. */
+    private final Map<String,Integer> slots;
+
+    /** Stack of the slots released by the removed backends. */
+    private int[] freeSlots;
+
+    /** Number of elements in the stack of released slots. */
+    private int freeCount;
+
+    /** Number of slots used so far. */
+    private int slotCount;
 
 
     /**
      * Constructor with parameters.
-     * 
+     *
      * @param lookupSize size of the lookup table
      * @param hashFunction the hash function to use
      */
     public MaglevEngine( int lookupSize, HashFunction hashFunction )
+    {
+
+        this( lookupSize, false, hashFunction );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param lookupSize   size of the lookup table
+     * @param incremental  tells if the lookup table should be updated incrementally
+     * @param hashFunction the hash function to use
+     */
+    public MaglevEngine( int lookupSize, boolean incremental, HashFunction hashFunction )
     {
 
         super();
 
         this.lookupSize   = lookupSize;
         this.hashFunction = hashFunction;
+        this.incremental  = incremental;
+
+        this.lookup       = new int[0];
+        this.backends     = new String[INITIAL_SLOTS];
+        this.permutations = new Permutation[INITIAL_SLOTS];
+        this.counts       = new int[INITIAL_SLOTS];
+        this.weights      = new int[INITIAL_SLOTS];
+        this.totalWeight  = 0;
+        this.slots        = new HashMap<>();
+
+        this.freeSlots    = new int[INITIAL_SLOTS];
+        this.freeCount    = 0;
+        this.slotCount    = 0;
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private MaglevEngine( MaglevEngine other )
+    {
+
+        super();
+
+        this.lookupSize   = other.lookupSize;
+        this.hashFunction = other.hashFunction;
+        this.incremental  = other.incremental;
+
+        /* The lookup table is replaced on every update, therefore it can be shared. */
+        this.lookup       = other.lookup;
+
+        /* Permutations are never modified by the engine, therefore they can be shared. */
+        this.backends     = other.backends.clone();
+        this.permutations = other.permutations.clone();
+        this.counts       = other.counts.clone();
+        this.weights      = other.weights.clone();
+        this.totalWeight  = other.totalWeight;
+        this.slots        = new HashMap<>( other.slots );
+
+        this.freeSlots    = other.freeSlots.clone();
+        this.freeCount    = other.freeCount;
+        this.slotCount    = other.slotCount;
 
-        this.lookup       = new String[0];
-        this.permutations = new HashMap<>();
-        
     }
 
 
@@ -74,66 +192,242 @@ public class MaglevEngine
     /* **************** */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     *
+     * @return a deep copy of the current engine
+     */
+    public MaglevEngine copy()
+    {
+
+        return new MaglevEngine( this );
+
+    }
+
     /**
      * Returns the backend where the given key should be mapped.
-     * 
+     *
      * @param key the key to map
      * @return the related backend
      */
     public String getBackend( String key )
     {
 
-        final int index = (int)( hashFunction.hash(key, INDEX_SEED) % lookup.length );
-        return lookup[index];
+        return backends[getSlot( key )];
 
     }
 
     /**
-     * Adds the given collection of backends to the lookup table.
-     * 
+     * Returns the backend where the key with the given hash should be mapped.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the related backend
+     */
+    public String getBackend( long keyHash )
+    {
+
+        return backends[getSlot( keyHash )];
+
+    }
+
+    /**
+     * Returns the slot of the backend where the given key should be mapped.
+     *
+     * @param key the key to map
+     * @return the slot of the related backend
+     */
+    public int getSlot( String key )
+    {
+
+        return getSlot( hashFunction.hash(key, INDEX_SEED) );
+
+    }
+
+    /**
+     * Returns the slot of the backend where the key with the given hash should be mapped.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the slot of the related backend
+     */
+    public int getSlot( long keyHash )
+    {
+
+        final int[] lookup = this.lookup;
+        return lookup[(int) Math.floorMod( keyHash, (long) lookup.length )];
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * backends where the given key should be replicated.
+     *
+     * @param key the key to map
+     * @param out the array where to store the slots of the related backends
+     */
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key, INDEX_SEED), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * backends where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the backends met walking the lookup table
+     * from the entry of the key, the entries of the backends
+     * already found are skipped. Since the entries of each backend
+     * are spread across the table, the walk ends after few steps.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     *
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the slots of the related backends
+     */
+    public void getReplicas( long keyHash, int[] out )
+    {
+
+        final int[] lookup = this.lookup;
+
+        int entry = (int) Math.floorMod( keyHash, (long) lookup.length );
+        int found = 0;
+        for( int visited = 0; found < out.length && visited < lookup.length; ++visited )
+        {
+
+            final int slot = lookup[entry];
+            if( ++entry == lookup.length )
+                entry = 0;
+
+            int i = 0;
+            while( i < found && out[i] != slot )
+                ++i;
+
+            if( i == found )
+                out[found++] = slot;
+
+        }
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the backend where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     *
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related backends
+     */
+    public void getBackends( long[] keyHashes, String[] out )
+    {
+
+        final int[] lookup = this.lookup;
+        final long length = lookup.length;
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = backends[lookup[(int) Math.floorMod( keyHashes[i], length )]];
+
+    }
+
+    /**
+     * Adds the given collection of backends to the lookup table
+     * and returns the slots associated to the backends in the same order.
+     *
      * @param toAdd backends to add
+     * @return the slots of the added backends
+     */
+    public int[] addBackends( Collection<String> toAdd )
+    {
+
+        return addBackends( toAdd, null );
+
+    }
+
+    /**
+     * Adds the given collection of backends with the given weights to the
+     * lookup table and returns the slots associated to the backends in the
+     * same order.
+     * <p>
+     * If the weights are {@code null}, each backend gets weight {@code 1}.
+     *
+     * @param toAdd   backends to add
+     * @param weights the weights of the backends in the same order
+     * @return the slots of the added backends
      */
-    public void addBackends( Collection<String> toAdd )
+    public int[] addBackends( Collection<String> toAdd, int[] weights )
     {
-        
-        permutations.values().forEach( Permutation::reset );
+
+        final int[] added = new int[toAdd.size()];
+
+        int i = 0;
         for( String backend : toAdd )
-            permutations.put( backend, newPermutation(backend) );
+        {
+
+            final int weight = weights != null ? weights[i] : 1;
+            added[i++] = acquireSlot( backend, weight );
+
+        }
+
+        this.lookup = incremental && lookup.length > 0 ? claimEntries( added ) : newLookup();
+        return added;
 
-        this.lookup = newLookup();
-            
     }
 
     /**
      * Removes the given collection of backends from the lookup table.
-     * 
+     *
      * @param toRemove backends to remove
      */
     public void removeBackends( Collection<String> toRemove )
     {
 
-        toRemove.forEach( permutations::remove );
-        permutations.values().forEach( Permutation::reset );
+        if( ! incremental || toRemove.size() >= slots.size() )
+        {
+
+            toRemove.forEach( this::releaseSlot );
+            this.lookup = newLookup();
+            return;
+
+        }
+
+        final boolean[] removed = new boolean[slotCount];
+        for( String backend : toRemove )
+        {
+            removed[slots.get(backend)] = true;
+            releaseSlot( backend );
+        }
+
+        this.lookup = releaseEntries( removed );
 
-        this.lookup = newLookup();
+    }
+
+    /**
+     * Returns the slot associated to the given backend.
+     *
+     * @param backend the backend to check
+     * @return the related slot
+     */
+    public int slotOf( String backend )
+    {
+
+        return slots.get( backend );
 
     }
-        
+
     /**
      * Returns the number of backends.
-     * 
+     *
      * @return the number of backends
      */
     public int size()
     {
 
-        return permutations.size();
+        return slots.size();
 
     }
 
     /**
      * Returns the size of the lookup table.
-     * 
+     *
      * @return the size of the lookup table
      */
     public int lookupSize()
@@ -143,6 +437,18 @@ public class MaglevEngine
 
     }
 
+    /**
+     * Tells if the lookup table is updated incrementally.
+     *
+     * @return {@code true} if the lookup table is updated incrementally
+     */
+    public boolean isIncremental()
+    {
+
+        return incremental;
+
+    }
+
 
     /* ***************** */
     /*  DEFAULT METHODS  */
@@ -151,67 +457,346 @@ public class MaglevEngine
 
     /**
      * Returns a stream with the content of the lookup table.
-     * 
+     *
      * @return stream of the lookup table entries
      */
     Stream<String> streamLookupEntries()
     {
 
-        return Arrays.stream( lookup );
-        
+        return Arrays.stream( lookup ).mapToObj( slot -> backends[slot] );
+
     }
 
-    
+
     /* ***************** */
     /*  PRIVATE METHODS  */
     /* ***************** */
 
 
     /**
-     * Creates a new permutation for the given backend.
-     * 
-     * @param backend the source of the permutation
-     * @return a new permutation
+     * Associates the given backend to a slot and creates the related permutation.
+     * <p>
+     * The slots released by the removed backends are reused.
+     *
+     * @param backend the backend to add
+     * @param weight  the weight of the backend
+     * @return the slot associated to the backend
      */
-    private Permutation newPermutation( String backend )
+    private int acquireSlot( String backend, int weight )
     {
 
-        return new Permutation( backend, hashFunction, lookupSize );
+        final int slot;
+        if( freeCount > 0 )
+            slot = freeSlots[--freeCount];
+        else
+        {
+
+            if( slotCount == backends.length )
+            {
+                final int capacity = backends.length << 1;
+                backends = Arrays.copyOf( backends, capacity );
+                permutations = Arrays.copyOf( permutations, capacity );
+                counts = Arrays.copyOf( counts, capacity );
+                weights = Arrays.copyOf( weights, capacity );
+                freeSlots = Arrays.copyOf( freeSlots, capacity );
+            }
+            slot = slotCount++;
+
+        }
+
+        backends[slot] = backend;
+        permutations[slot] = new Permutation( backend, hashFunction, lookupSize );
+        weights[slot] = weight;
+        totalWeight += weight;
+        slots.put( backend, slot );
+
+        return slot;
+
+    }
+
+    /**
+     * Releases the slot of the given backend.
+     *
+     * @param backend the backend to remove
+     */
+    private void releaseSlot( String backend )
+    {
+
+        final int slot = slots.remove( backend );
+        backends[slot] = null;
+        permutations[slot] = null;
+        counts[slot] = 0;
+        totalWeight -= weights[slot];
+        weights[slot] = 0;
+        freeSlots[freeCount++] = slot;
 
     }
 
     /**
      * Creates a new lookup table.
-     * 
+     * <p>
+     * The backends take turns in filling the table: at each turn every backend
+     * moves one step forward in its own permutation and takes the position if
+     * still empty. Therefore, each position goes to the backend reaching it in
+     * the fewest steps, which keeps the disruption low when backends change.
+     * If some backend has a weight different from {@code 1}, at each turn
+     * every backend takes as many empty positions as its weight, moving
+     * forward in its own permutation until each one is found.
+     * The state of the permutations is kept in primitive arrays
+     * visited sequentially to be friendly with the CPU caches.
+     *
      * @return the new lookup table
      */
-    private String[] newLookup()
+    private int[] newLookup()
     {
 
-        final String[] lookup = new String[lookupSize];
-        final AtomicInteger filled = new AtomicInteger();
+        Arrays.fill( counts, 0 );
+
+        final int count = slots.size();
+        if( count == 0 )
+            return new int[0];
+
+        /* Backends are visited in order of name to make the table independent of the history. */
+        final String[] names = slots.keySet().toArray( new String[count] );
+        Arrays.sort( names );
+
+        final int[] order = new int[count];
+        final int[] next  = new int[count];
+        final int[] skips = new int[count];
+        final int[] steps = new int[count];
+        for( int i = 0; i < count; ++i )
+        {
+
+            final int slot = slots.get( names[i] );
+            final Permutation permutation = permutations[slot];
+
+            order[i] = slot;
+            next[i]  = permutation.offset();
+            skips[i] = permutation.skip();
+            steps[i] = weights[slot];
+
+        }
+
+        final int size = lookupSize;
+        final int[] lookup = new int[size];
+
+        /* Most of the checks hit taken positions, a bitmap keeps them in cache. */
+        final long[] taken = new long[(size + 63) >>> 6];
+
+        /* All the weights are strictly positive, the total is equal to the count only if all are 1. */
+        final boolean weighted = totalWeight != count;
+
+        int filled = 0;
+        while( true )
+            for( int i = 0; i < count; ++i )
+                for( int claims = steps[i]; claims > 0; )
+                {
 
-        do {
+                    final int current = next[i];
+                    final int following = current + skips[i];
+                    next[i] = following >= size ? following - size : following;
 
-            permutations.values().forEach( permutation ->
+                    final long bit = 1L << current;
+                    if( (taken[current >>> 6] & bit) == 0 )
+                    {
+
+                        taken[current >>> 6] |= bit;
+                        lookup[current] = order[i];
+                        ++counts[order[i]];
+                        if( ++filled == size )
+                            return lookup;
+
+                        --claims;
+
+                    }
+                    else if( ! weighted )
+                        --claims;
+
+                }
+
+    }
+
+    /**
+     * Updates a copy of the lookup table to make room for the given slots.
+     * <p>
+     * The new backends take turns as in the full population: at each turn
+     * every new backend moves one step forward in its own permutation and
+     * takes the position if the current owner has more than its quota of
+     * {@code floor(M*w/W)} entries. A new backend stops when it owns its quota.
+     * Only the entries taken by the new backends change owner.
+     *
+     * @param added the slots of the added backends
+     * @return the updated lookup table
+     */
+    private int[] claimEntries( int[] added )
+    {
+
+        final int[] lookup = this.lookup.clone();
+        final int size = lookup.length;
+        final int[] quotas = new int[slotCount];
+        for( int slot = 0; slot < slotCount; ++slot )
+            quotas[slot] = (int)( (long) size * weights[slot] / totalWeight );
+
+        final int count = added.length;
+        final int[] order = sortByName( added );
+        final int[] next  = new int[count];
+        final int[] skips = new int[count];
+        for( int i = 0; i < count; ++i )
+        {
+
+            final Permutation permutation = permutations[order[i]];
+
+            next[i]  = permutation.offset();
+            skips[i] = permutation.skip();
+
+        }
+
+        int pending = 0;
+        for( int slot : added )
+            if( quotas[slot] > 0 )
+                ++pending;
+
+        while( pending > 0 )
+            for( int i = 0; i < count; ++i )
             {
 
-                final int pos = permutation.next();
+                final int slot = order[i];
+                if( counts[slot] >= quotas[slot] )
+                    continue;
+
+                final int current = next[i];
+                final int following = current + skips[i];
+                next[i] = following >= size ? following - size : following;
 
-                if( lookup[pos] == null )
-                { //found
+                final int owner = lookup[current];
+                if( counts[owner] > quotas[owner] )
+                {
+
+                    lookup[current] = slot;
+                    --counts[owner];
+                    if( ++counts[slot] == quotas[slot] )
+                        --pending;
 
-                    lookup[pos] = permutation.backend();
-                    if( filled.incrementAndGet() >= lookupSize )
-                        return;
                 }
 
-            });
+            }
+
+        return lookup;
+
+    }
+
+    /**
+     * Updates a copy of the lookup table by giving the entries
+     * of the removed slots to the remaining backends.
+     * <p>
+     * The remaining backends take turns as in the full population: at each
+     * turn every backend moves forward in its own permutation until it takes
+     * as many released entries as its weight. A backend stops when it owns
+     * its limit of {@code ceil(M*w/W)} entries. Therefore, each released
+     * entry goes to the backend reaching it in the fewest steps and the
+     * released entries are spread evenly among the remaining backends.
+     * Only the released entries change owner.
+     *
+     * @param removed tells which slots have been removed
+     * @return the updated lookup table
+     */
+    private int[] releaseEntries( boolean[] removed )
+    {
+
+        final int[] lookup = this.lookup.clone();
+        final int size = lookup.length;
 
-        }while( filled.get() < lookupSize );
+        final int[] limits = new int[slotCount];
+        for( int slot = 0; slot < slotCount; ++slot )
+            limits[slot] = (int)( ((long) size * weights[slot] + totalWeight - 1) / totalWeight );
+
+        /* The released entries are kept in a bitmap as the taken entries in the full population. */
+        final long[] released = new long[(size + 63) >>> 6];
+        int pending = 0;
+        for( int position = 0; position < size; ++position )
+            if( removed[lookup[position]] )
+            {
+                released[position >>> 6] |= 1L << position;
+                ++pending;
+            }
+
+        final int count = slots.size();
+        final int[] live = new int[count];
+        for( int slot = 0, i = 0; slot < slotCount; ++slot )
+            if( backends[slot] != null )
+                live[i++] = slot;
+
+        final int[] order = sortByName( live );
+        final int[] next  = new int[count];
+        final int[] skips = new int[count];
+        for( int i = 0; i < count; ++i )
+        {
+
+            final Permutation permutation = permutations[order[i]];
+
+            next[i]  = permutation.offset();
+            skips[i] = permutation.skip();
+
+        }
+
+        /*
+         * The limits sum to at least the size of the table, therefore while
+         * some entry is pending some backend is below its limit, and its
+         * permutation reaches every entry of the table.
+         */
+        while( pending > 0 )
+            for( int i = 0; i < count && pending > 0; ++i )
+            {
+
+                final int slot = order[i];
+                for( int claims = weights[slot]; claims > 0 && pending > 0 && counts[slot] < limits[slot]; )
+                {
+
+                    final int current = next[i];
+                    final int following = current + skips[i];
+                    next[i] = following >= size ? following - size : following;
+
+                    final long bit = 1L << current;
+                    if( (released[current >>> 6] & bit) != 0 )
+                    {
+
+                        released[current >>> 6] &= ~bit;
+                        lookup[current] = slot;
+                        ++counts[slot];
+                        --pending;
+                        --claims;
+
+                    }
+
+                }
+
+            }
 
         return lookup;
 
     }
 
+    /**
+     * Returns the given slots sorted by the name of the related backends.
+     *
+     * @param slots the slots to sort
+     * @return the sorted slots
+     */
+    private int[] sortByName( int[] slots )
+    {
+
+        final String[] names = new String[slots.length];
+        for( int i = 0; i < slots.length; ++i )
+            names[i] = backends[slots[i]];
+
+        Arrays.sort( names );
+
+        final int[] sorted = new int[slots.length];
+        for( int i = 0; i < names.length; ++i )
+            sorted[i] = this.slots.get( names[i] );
+
+        return sorted;
+
+    }
+
 }
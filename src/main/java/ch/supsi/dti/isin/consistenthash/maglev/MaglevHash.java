@@ -1,5 +1,6 @@
 package ch.supsi.dti.isin.consistenthash.maglev;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +18,8 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
  * Wrapper to adapt the {@link MaglevEngine} to the {@link ConsistentHash} interface.
  * 
  * This wrapper performs all the consistency checks.
+ * The nodes are stored by the slot of the related backend,
+ * therefore a lookup does not need to resolve any name.
  *
  *
  * @author Massimo Coluzzi
@@ -52,6 +55,9 @@ public class MaglevHash implements ConsistentHash
     /** The nodes of the cluster. */
     private final Map<String,Node> nodeMap;
 
+    /** The nodes of the cluster indexed by the slot of the related backend. */
+    private Node[] nodes;
+
 
     /**
      * Constructor with parameters.
@@ -75,6 +81,21 @@ public class MaglevHash implements ConsistentHash
      * @param hashFunction the hash function to use
      */
     public MaglevHash( Collection<? extends Node> initNodes, int lookupSize, HashFunction hashFunction )
+    {
+
+        this( initNodes, lookupSize, false, hashFunction );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param initNodes    nodes used to initializa the cluster
+     * @param lookupSize   the lookup table size
+     * @param incremental  tells if the lookup table should be updated incrementally
+     * @param hashFunction the hash function to use
+     */
+    public MaglevHash( Collection<? extends Node> initNodes, int lookupSize, boolean incremental, HashFunction hashFunction )
     {
 
         Require.nonEmpty( initNodes, "The cluster must have at least one node" );
@@ -88,13 +109,30 @@ public class MaglevHash implements ConsistentHash
             () -> "Expected the lookup table size to be a prime number but was " + lookupSize 
         );
         
-        this.engine = new MaglevEngine( lookupSize, Require.nonNull( hashFunction,"The hash function to use is mandatory") );
+        this.engine = new MaglevEngine( lookupSize, incremental, Require.nonNull( hashFunction,"The hash function to use is mandatory") );
         this.nodeMap = new HashMap<>( initNodes.size() );
+        this.nodes = new Node[initNodes.size()];
 
         this.addNodes( initNodes );
                 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private MaglevHash( MaglevHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+        this.nodes = other.nodes.clone();
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -108,20 +146,72 @@ public class MaglevHash implements ConsistentHash
     public Node getNode( String key )
     {
 
-        final String backend = Require.nonNull(
-            engine.getBackend( key ),
-            () -> "Unable to find a backend for the key " + key
-        );
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        return getNodeBySlot( engine.getSlot(key) );
 
-        final Node node = Require.nonNull(
-            nodeMap.get( backend ),
-            () -> "Expected node with name " + backend + " but it does not exist"
-        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
 
-        return node;
+        return getNodeBySlot( engine.getSlot(keyHash) );
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNodeBySlot( engine.getSlot(keyHashes[i]) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( key, slots );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( keyHash, slots );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
+
+    }
 
     /**
      * {@inheritDoc}
@@ -148,7 +238,21 @@ public class MaglevHash implements ConsistentHash
             .map( node -> node.name() )
             .collect( Collectors.toList() );
 
-        engine.addBackends( backends );
+        final int[] weights = toAdd.stream()
+            .mapToInt( Node::weight )
+            .toArray();
+
+        final int[] slots = engine.addBackends( backends, weights );
+        for( int i = 0; i < slots.length; ++i )
+        {
+
+            final int slot = slots[i];
+            if( slot >= nodes.length )
+                nodes = Arrays.copyOf( nodes, Math.max(slot + 1, nodes.length << 1) );
+
+            nodes[slot] = nodeMap.get( backends.get(i) );
+
+        }
             
     }
 
@@ -173,6 +277,7 @@ public class MaglevHash implements ConsistentHash
         final List<String> backends = toRemove.stream()
             .map( node -> node.name() )
             .peek( nodeMap::remove )
+            .peek( backend -> nodes[engine.slotOf(backend)] = null )
             .collect( Collectors.toList() );
 
         engine.removeBackends( backends );
@@ -190,6 +295,17 @@ public class MaglevHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -212,12 +328,39 @@ public class MaglevHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MaglevHash copy()
+    {
+
+        return new MaglevHash( this );
+
+    }
+
 
     /* ***************** */
     /*  PRIVATE METHODS  */
     /* ***************** */
 
 
+    /**
+     * Returns the node associated to the given slot.
+     * 
+     * @param slot the slot of the related backend
+     * @return the related node
+     */
+    private Node getNodeBySlot( int slot )
+    {
+
+        return Require.nonNull(
+            nodes[slot],
+            () -> "Expected node in slot " + slot + " but it does not exist"
+        );
+
+    }
+
     /**
      * Chechs if the given value is prime.
      * 
@@ -50,13 +50,45 @@ class Permutation
         this.size    = size;
         this.backend = backend;
 
-        this.offset  = (int)(hashFunction.hash(backend,OFFSET_SEED) % size);
-        this.skip    = (int)(hashFunction.hash(backend, SKIP_SEED) % (size-1) + 1 );
+        this.offset  = (int) Math.floorMod( hashFunction.hash(backend,OFFSET_SEED), (long) size );
+        this.skip    = (int) Math.floorMod( hashFunction.hash(backend, SKIP_SEED), (long)(size-1) ) + 1;
 
         this.current = offset;
        
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the permutation to copy
+     */
+    private Permutation( Permutation other )
+    {
+
+        super();
+
+        this.size    = other.size;
+        this.backend = other.backend;
+
+        this.offset  = other.offset;
+        this.skip    = other.skip;
+
+        this.current = other.current;
+
+    }
+
+    /**
+     * Returns a copy of the current permutation.
+     * 
+     * @return a copy of the current permutation
+     */
+    Permutation copy()
+    {
+
+        return new Permutation( this );
+
+    }
+
     /**
      * Returns the backend related to the current permutation.
      * 
@@ -69,6 +101,30 @@ class Permutation
 
     }
 
+    /**
+     * Returns the position where the permutation starts.
+     * 
+     * @return the first value of the permutation
+     */
+    int offset()
+    {
+
+        return offset;
+
+    }
+
+    /**
+     * Returns the distance between two consecutive values of the permutation.
+     * 
+     * @return the skip of the permutation
+     */
+    int skip()
+    {
+
+        return skip;
+
+    }
+
     /**
      * Returns the next value in the permutation.
      * 
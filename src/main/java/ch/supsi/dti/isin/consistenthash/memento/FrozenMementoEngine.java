@@ -0,0 +1,209 @@
+package ch.supsi.dti.isin.consistenthash.memento;
+
+import com.google.common.hash.Hashing;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Read-only implementation of the {@code MementoHash} algorithm.
+ * <p>
+ * The replacement set is flattened into an array indexed by bucket,
+ * therefore following a replacement is a single array access instead
+ * of a probe of the lookup table. The array costs {@code 4} bytes for
+ * each bucket of the b-array, whereas the lookup table costs memory
+ * only for the removed buckets.
+ * <p>
+ * The engine maps every key to the same bucket as the {@link MementoEngine}
+ * it was created from, see {@link MementoEngine#freeze()}.
+ * Adding or removing buckets throws an {@link UnsupportedOperationException}.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FrozenMementoEngine implements BucketBasedEngine
+{
+
+    /** The hash function to use. */
+    private final HashFunction hashFunction;
+
+    /** The replacer of each bucket of the b-array, {@code -1} if the bucket is working. */
+    private final int[] replacers;
+
+    /** The number of working buckets. */
+    private final int size;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param replacers     the replacer of each bucket of the b-array
+     * @param size          the number of working buckets
+     * @param hashFunction  hash function to use
+     */
+    FrozenMementoEngine( int[] replacers, int size, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.replacers    = replacers;
+        this.size         = size;
+        this.hashFunction = hashFunction;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( String key )
+    {
+
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( long keyHash )
+    {
+
+        final int[] replacers = this.replacers;
+        int b = Hashing.consistentHash( keyHash, replacers.length );
+
+        /* The same replacement loop of MementoEngine, see there for details. */
+        int replacer = replacers[b];
+        while( replacer >= 0 )
+        {
+
+            b = ConsistentHash.reduce( hashFunction.hash(keyHash,b), replacer );
+
+            int r = replacers[b];
+            while( r >= replacer )
+            {
+                b = r;
+                r = replacers[b];
+            }
+
+            replacer = r;
+
+        }
+
+        return b;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first replica is the bucket returned by {@link #getBucket(String)},
+     * the following ones are taken from the rehash chain of the hash of the key.
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        out[0] = getBucket( key );
+
+        final long keyHash = hashFunction.hash( key );
+        int found = 1;
+        for( int probe = 1; found < out.length; ++probe )
+        {
+
+            final int bucket = getBucket( ConsistentHash.rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && out[i] != bucket )
+                ++i;
+
+            if( i == found )
+                out[found++] = bucket;
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed.
+     */
+    @Override
+    public int addBucket()
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed.
+     */
+    @Override
+    public int removeBucket( int bucket )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+
+        return size;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen engine cannot be changed,
+     * therefore the copy is the engine itself.
+     */
+    @Override
+    public FrozenMementoEngine copy()
+    {
+
+        return this;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the size of the b-array.
+     *
+     * @return the size of the b-array.
+     */
+    public int bArraySize()
+    {
+
+        return replacers.length;
+
+    }
+
+}
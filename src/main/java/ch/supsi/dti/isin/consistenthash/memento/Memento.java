@@ -1,9 +1,19 @@
 package ch.supsi.dti.isin.consistenthash.memento;
 
-import org.nerd4j.utils.lang.ToString;
+import java.util.Arrays;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 /**
  * Represents the memento replacement set lookup table.
+ * <p>
+ * The lookup table uses open addressing with linear probing
+ * over parallel arrays of primitive values: the removed buckets,
+ * their replacers and the buckets removed before them.
+ * Searching a bucket scans only the dense array of the buckets
+ * and does not follow any reference, and removing a bucket
+ * does not allocate any object.
  * 
  * @author Massimo Coluzzi
  */
@@ -16,9 +26,28 @@ class Memento
     /** The maximum size of the memento table. */
     private static final int MAX_TABLE_SIZE = 1 << 30;
 
+    /** Value of the bucket in an empty slot. */
+    private static final int EMPTY = -1;
+
+    /** Multiplier used to spread the buckets over the table (Fibonacci hashing). */
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+
+    /** The removed buckets, {@link #EMPTY} if the slot is empty. */
+    private int[] buckets;
+
+    /**
+     * The buckets that replaced the removed ones.
+     * These values also represent the size of the working set
+     * after the removal of the related bucket.
+     */
+    private int[] replacers;
+
+    /** The buckets removed before the related ones. */
+    private int[] prevRemoved;
 
-    /** Stores the information about the removed buckets. */
-    private Entry[] table;
+    /** Shift to apply to get the slot of a bucket, depends on the size of the table. */
+    private int shift;
 
     /** The number of removed buckets. */
     private int size;
@@ -34,7 +63,25 @@ class Memento
         super();
 
         this.size = 0;
-        this.table = new Entry[MIN_TABLE_SIZE];
+        allocate( MIN_TABLE_SIZE );
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the replacement set to copy
+     */
+    private Memento( Memento other )
+    {
+
+        super();
+
+        this.size = other.size;
+        this.shift = other.shift;
+        this.buckets = other.buckets.clone();
+        this.replacers = other.replacers.clone();
+        this.prevRemoved = other.prevRemoved.clone();
 
     }
 
@@ -44,6 +91,18 @@ class Memento
     /* ***************** */
 
 
+    /**
+     * Returns a deep copy of the current replacement set.
+     * 
+     * @return a deep copy of the current replacement set
+     */
+    Memento copy()
+    {
+
+        return new Memento( this );
+
+    }
+
     /**
      * Remembers that the given bucket has been removed
      * and that was replaced by the given replacer.
@@ -60,13 +119,11 @@ class Memento
     int remember( int bucket, int replacer, int prevRemoved )
     {
 
-        final Entry entry = new Entry( bucket, replacer, prevRemoved );
-        
-        add( entry, table );
+        add( bucket, replacer, prevRemoved );
         ++this.size;
         
         if( size > capacity() )
-            resizeTable( table.length << 1 );
+            resizeTable( buckets.length << 1 );
 
         return bucket;
 
@@ -87,8 +144,79 @@ class Memento
     int replacer( int bucket )
     {
 
-        final Entry entry = get( bucket );
-        return entry != null ? entry.replacer : -1;
+        final int[] buckets = this.buckets;
+        final int mask = buckets.length - 1;
+
+        int i = index( bucket );
+        int b;
+        while( (b = buckets[i]) != EMPTY )
+        {
+
+            if( b == bucket )
+                return replacers[i];
+
+            i = (i + 1) & mask;
+
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * Follows the replacements of the given bucket
+     * until a working bucket is found.
+     * <p>
+     * The keys mapped to a removed bucket are rehashed into
+     * the working set at the time of the removal, therefore
+     * the keys mapped to the working buckets never move.
+     * 
+     * @param keyHash      the hash of the key to map
+     * @param bucket       the bucket in the b-array the key is mapped to
+     * @param hashFunction the hash function used to rehash the key
+     * @return the related working bucket
+     */
+    int replace( long keyHash, int bucket, HashFunction hashFunction )
+    {
+
+        int b = bucket;
+
+        /*
+         * We check if the bucket was removed, if not we are done.
+         * If the bucket was removed the replacing bucket is >= 0,
+         * otherwise it is -1.
+         */
+        int replacer = replacer( b );
+        while( replacer >= 0 )
+        {
+
+            /*
+             * If the bucket was removed, we must re-hash and find
+             * a new bucket in the remaining slots. To know the
+             * remaining slots, we look at 'replacer' that also
+             * represents the size of the working set when the bucket
+             * was removed and get a new bucket in [0,replacer-1].
+             */
+            b = ConsistentHash.reduce( hashFunction.hash(keyHash,b), replacer );
+
+            /*
+             * If we hit a removed bucket we follow the replacements
+             * until we get a working bucket or a bucket in the range
+             * [0,replacer-1]
+             */
+            int r = replacer( b );
+            while( r >= replacer )
+            {
+                b = r;
+                r = replacer( b );
+            }
+                
+            /* Finally we update the entry of the external loop. */
+            replacer = r;
+                        
+        }
+
+        return b;
 
     }
 
@@ -108,16 +236,40 @@ class Memento
         if( isEmpty() )
             return bucket + 1;
 
-        final Entry entry = remove( bucket );
+        final int prevRemoved = remove( bucket );
         --this.size;
 
         if( size <= capacity() >> 2 )
-            resizeTable( table.length >>> 1 );
+            resizeTable( buckets.length >>> 1 );
 
-        return entry.prevRemoved;
+        return prevRemoved;
         
     }
 
+    /**
+     * Returns the replacers indexed by the related removed buckets.
+     * <p>
+     * The working buckets are mapped to {@code -1}, therefore
+     * {@code replacers[b]} is the same as {@link #replacer(int) replacer(b)}
+     * for every bucket {@code b} in {@code [0,length)}.
+     * 
+     * @param length the length of the array, must be greater than any removed bucket
+     * @return the replacers indexed by bucket
+     */
+    int[] flatten( int length )
+    {
+
+        final int[] flat = new int[length];
+        Arrays.fill( flat, -1 );
+
+        for( int i = 0; i < buckets.length; ++i )
+            if( buckets[i] != EMPTY )
+                flat[buckets[i]] = replacers[i];
+
+        return flat;
+
+    }
+
     /**
      * Returns {@code true} if the replacement set is empty.
      * 
@@ -154,7 +306,7 @@ class Memento
          * We want to keep a load factor of 0.75 to have an average access time of O(1).
          * For this reason, the declared capacity is 75% of the actual capacity.
          */
-        return (table.length >>> 2) * 3;
+        return (buckets.length >>> 2) * 3;
 
     }
 
@@ -165,200 +317,148 @@ class Memento
 
 
     /**
-     * Adds a new entry to the given table.
-     * <p>
-     * This method is used to add entries to the lookup table
-     * during common operations and to add entries to the new
-     * lookup table during resize.
-     * <p>
-     * We assume the algorithm to be used properly.
-     * Therefore, we do not handle the case of the same entry
-     * being added twice.
+     * Allocates an empty lookup table of the given size.
      * 
-     * @param entry the entry to add
-     * @param table the table to be modified
+     * @param tableSize the size of the table, must be a power of 2
      */
-    private void add( Entry entry, Entry[] table )
+    private void allocate( int tableSize )
     {
 
-        /*
-         * We used the same approach adopted by java.util.HashMap
-         * to compute the index. It is proven to be efficient
-         * in the majority of the cases.
-         */
-        final int bucket = entry.bucket;
-        final int hash   = bucket ^ bucket >>> 16;
-        final int index  = (table.length - 1) & hash;
+        this.buckets = new int[tableSize];
+        this.replacers = new int[tableSize];
+        this.prevRemoved = new int[tableSize];
+        this.shift = Integer.numberOfLeadingZeros( tableSize ) + 1;
+
+        Arrays.fill( buckets, EMPTY );
 
-        entry.next = table[index];
-        table[index] = entry;
-        
     }
 
     /**
-     * Returns the entry related to the given bucket if any.
+     * Returns the first slot where to look for the given bucket.
+     * <p>
+     * The removed buckets are often clustered, the multiplicative
+     * hashing spreads them over the table to keep the probe
+     * sequences short.
      * 
      * @param bucket the bucket to search for
-     * @param entry  the resalted entry if any, {@code null} otherwise
+     * @return the first slot to probe
      */
-    private Entry get( int bucket )
+    private int index( int bucket )
     {
 
-        /*
-         * We used the same approach adopted by java.util.HashMap
-         * to compute the index. It is proven to be efficient
-         * in the majority of the cases.
-         */
-        final int hash   = bucket ^ bucket >>> 16;
-        final int index  = (table.length - 1) & hash;
-
-        Entry entry = table[index];
-        while( entry != null )
-        {
-            if( entry.bucket == bucket )
-                return entry;
+        return (bucket * GOLDEN_RATIO) >>> shift;
 
-            entry = entry.next;
-        }
-
-        return null;
-        
     }
 
     /**
-     * Removes the given bucket from the lookup table.
+     * Adds a new entry to the lookup table.
+     * <p>
+     * We assume the algorithm to be used properly.
+     * Therefore, we do not handle the case of the same entry
+     * being added twice, and we expect the table to have
+     * at least one empty slot.
      * 
-     * @param bucket the bucket to remove
-     * @return the related entry in the table
+     * @param bucket      the removed bucket
+     * @param replacer    the replacing bucket
+     * @param prevRemoved the previous removed bucket
      */
-    private Entry remove( int bucket )
+    private void add( int bucket, int replacer, int prevRemoved )
     {
 
-        final int hash   = bucket ^ bucket >>> 16;
-        final int index  = (table.length - 1) & hash;
-
-        Entry entry = table[index];
-        if( entry == null )
-            return null;
-        
-        Entry prev = null;
-        while( entry != null && entry.bucket != bucket )
-        {
-            prev = entry;
-            entry = entry.next;
-        }
-
-        if( entry == null )
-            return null;
-        
-        if( prev == null )
-            table[index] = entry.next;
-        else
-            prev.next = entry.next;
+        final int mask = buckets.length - 1;
 
-        entry.next = null;
+        int i = index( bucket );
+        while( buckets[i] != EMPTY )
+            i = (i + 1) & mask;
 
-        return entry;
+        this.buckets[i] = bucket;
+        this.replacers[i] = replacer;
+        this.prevRemoved[i] = prevRemoved;
         
     }
 
     /**
-     * Resizes the lookup table by creating a new table and cloning
-     * the entries in the old table into the new one.
+     * Removes the given bucket from the lookup table.
+     * <p>
+     * The following entries of the same cluster are shifted
+     * backwards to fill the hole, therefore the table never
+     * contains deleted markers.
      * 
-     * @param newTableSize the size of the new lookup table
+     * @param bucket the bucket to remove
+     * @return the bucket removed before the given one
      */
-    private void resizeTable( int newTableSize )
+    private int remove( int bucket )
     {
 
-        if( newTableSize < table.length && table.length <= MIN_TABLE_SIZE )
-            return;
+        final int mask = buckets.length - 1;
 
-        if( newTableSize > table.length && table.length >= MAX_TABLE_SIZE )
-            return;
+        int hole = index( bucket );
+        while( buckets[hole] != bucket )
+            hole = (hole + 1) & mask;
 
-        final Entry[] newTable = new Entry[ newTableSize ];
-        for( int i = 0; i < table.length; ++i )
+        final int removed = prevRemoved[hole];
+
+        int i = hole;
+        while( true )
         {
-            Entry entry = table[i];
-            while( entry != null )
-            {                
-                
-                final Entry newEntry = new Entry( entry.bucket, entry.replacer, entry.prevRemoved );
-                add( newEntry, newTable );
 
-                entry = entry.next;
+            i = (i + 1) & mask;
+
+            final int b = buckets[i];
+            if( b == EMPTY )
+                break;
+
+            /*
+             * The entry can fill the hole only if its first slot
+             * does not fall (cyclically) between the hole and
+             * the current slot.
+             */
+            final int home = index( b );
+            final boolean reachable = hole <= i
+                ? hole < home && home <= i
+                : hole < home || home <= i;
+
+            if( ! reachable )
+            {
+
+                buckets[hole] = b;
+                replacers[hole] = replacers[i];
+                prevRemoved[hole] = prevRemoved[i];
+                hole = i;
 
             }
 
         }
 
-        this.table = newTable;
+        buckets[hole] = EMPTY;
 
+        return removed;
+        
     }
 
-    
-    /* *************** */
-    /*  INNER CLASSES  */
-    /* *************** */
-
-
     /**
-     * Represents an entry in the lookup table.
+     * Resizes the lookup table by creating a new table
+     * and adding the entries of the old table.
      * 
-     * @author Massimo Coluzzi
+     * @param newTableSize the size of the new lookup table
      */
-    private static class Entry implements Cloneable
+    private void resizeTable( int newTableSize )
     {
 
-        /** The removed bucket. */
-        private int bucket;
-
-        /**
-         * Represents the bucket that will replace the current one.
-         * This value also represents the size of the working set
-         * after the removal of the current bucket.
-         */
-        private int replacer;
-
-        /** Keep track of the bucket removed before the current one. */
-        private int prevRemoved;
-
-        /** Used if multiple entries have the same hashcode. */
-        private Entry next;
-
-
-        /**
-         * Constructor with parameters.
-         * 
-         * @param bucket      the removed bucket
-         * @param replacer    the replacing bucket
-         * @param prevRemoved the previous removed bucket
-         */
-        private Entry( int bucket, int replacer, int prevRemoved )
-        {
-            
-            super();
-
-            this.next        = null;
-            this.bucket      = bucket;
-            this.replacer    = replacer;
-            this.prevRemoved = prevRemoved;
-
-        }
+        if( newTableSize < buckets.length && buckets.length <= MIN_TABLE_SIZE )
+            return;
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public String toString()
-        {
+        if( newTableSize > buckets.length && buckets.length >= MAX_TABLE_SIZE )
+            return;
 
-            return ToString.of( this )
-                .print( bucket, replacer, prevRemoved )
-                .likeTuple();
+        final int[] oldBuckets = buckets;
+        final int[] oldReplacers = replacers;
+        final int[] oldPrevRemoved = prevRemoved;
 
-        }
+        allocate( newTableSize );
+        for( int i = 0; i < oldBuckets.length; ++i )
+            if( oldBuckets[i] != EMPTY )
+                add( oldBuckets[i], oldReplacers[i], oldPrevRemoved[i] );
 
     }
 
@@ -3,6 +3,7 @@ package ch.supsi.dti.isin.consistenthash.memento;
 import com.google.common.hash.Hashing;
 
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -56,63 +57,92 @@ public class MementoEngine implements BucketBasedEngine
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the engine to copy
+     */
+    private MementoEngine( MementoEngine other )
+    {
+
+        super();
+
+        this.lastRemoved  = other.lastRemoved;
+        this.bArraySize   = other.bArraySize;
+
+        this.hashFunction = other.hashFunction;
+        this.memento      = other.memento.copy();
+
+    }
+
 
     /**
      * Returns the bucket where the given key should be mapped.
+     * <p>
+     * The key is mapped as its hash value, therefore
+     * {@code getBucket(key)} and {@code getBucket(hash(key))}
+     * always return the same bucket.
      * 
      * @param key the key to map
      * @return the related bucket
      */
     @Override
     public int getBucket( String key )
+    {
+
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+
+    /**
+     * Returns the bucket where the key with the given hash should be mapped.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related bucket
+     */
+    @Override
+    public int getBucket( long keyHash )
     {
 
         /*
-         * We invoke JumpHash to get a bucket
-         * in the range [0,bArraySize-1].
-         */
-        int b = Hashing.consistentHash( hashFunction.hash( key ), bArraySize );
-        
-        /*
-         * We check if the bucket was removed, if not we are done.
-         * If the bucket was removed the replacing bucket is >= 0,
-         * otherwise it is -1.
+         * We invoke JumpHash to get a bucket in the range [0,bArraySize-1]
+         * and follow the replacements until a working bucket is found.
          */
-        int replacer = memento.replacer( b );
-        while( replacer >= 0 )
+        return memento.replace( keyHash, Hashing.consistentHash(keyHash, bArraySize), hashFunction );
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first replica is the bucket returned by {@link #getBucket(String)},
+     * the following ones are taken from the rehash chain of the hash of the key.
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        out[0] = getBucket( key );
+
+        final long keyHash = hashFunction.hash( key );
+        int found = 1;
+        for( int probe = 1; found < out.length; ++probe )
         {
 
-            /*
-             * If the bucket was removed, we must re-hash and find
-             * a new bucket in the remaining slots. To know the
-             * remaining slots, we look at 'replacer' that also
-             * represents the size of the working set when the bucket
-             * was removed and get a new bucket in [0,replacer-1].
-             */
-            final long h = Math.abs( hashFunction.hash(key,b) );
-            b = (int)( h % replacer );
-
-            /*
-             * If we hit a removed bucket we follow the replacements
-             * until we get a working bucket or a bucket in the range
-             * [0,replacer-1]
-             */
-            int r = memento.replacer( b );
-            while( r >= replacer )
-            {
-                b = r;
-                r = memento.replacer( b );
-            }
-                
-            /* Finally we update the entry of the external loop. */
-            replacer = r;
-                        
-        }
+            final int bucket = getBucket( ConsistentHash.rehash(keyHash, probe) );
 
-        return b;
+            int i = 0;
+            while( i < found && out[i] != bucket )
+                ++i;
 
-    }
+            if( i == found )
+                out[found++] = bucket;
 
+        }
+
+    }
 
     /**
      * Adds a new bucket to the engine.
@@ -172,6 +202,37 @@ public class MementoEngine implements BucketBasedEngine
     }
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    public MementoEngine copy()
+    {
+
+        return new MementoEngine( this );
+
+    }
+
+
+    /**
+     * Returns a read-only copy of the current engine
+     * where the replacement set is flattened into an array.
+     * <p>
+     * Changes to the current engine do not affect the returned one.
+     * 
+     * @return a read-only copy of the current engine
+     */
+    public FrozenMementoEngine freeze()
+    {
+
+        return new FrozenMementoEngine( memento.flatten(bArraySize), size(), hashFunction );
+
+    }
+
+
     /**
      * Returns the size of the working set.
      * 
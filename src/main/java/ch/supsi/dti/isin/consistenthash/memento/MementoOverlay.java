@@ -0,0 +1,255 @@
+package ch.supsi.dti.isin.consistenthash.memento;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Adds arbitrary removals to any engine supporting only LIFO removals
+ * using the replacement set of the {@code MementoHash} algorithm
+ * as described in the related paper:
+ * {@code https://arxiv.org/pdf/2306.09783.pdf}
+ *
+ * <p>
+ * The wrapped engine plays the role of {@code JumpHash} in {@link MementoEngine}:
+ * it maps the keys to the b-array and only its last bucket is ever removed.
+ * The other removed buckets are remembered in the replacement set and
+ * the keys mapped to them are rehashed into the remaining buckets,
+ * therefore the keys mapped to the working buckets never move.
+ * When no bucket is remembered, the lookups cost the same as
+ * the wrapped engine plus a probe of the replacement set.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class MementoOverlay implements BucketBasedEngine
+{
+
+    /** The engine mapping the keys to the b-array. */
+    private final BucketBasedEngine engine;
+
+    /** The hash function used to rehash the keys mapped to removed buckets. */
+    private final HashFunction hashFunction;
+
+    /** The memory of the removed nodes, also addressed as replacement set. */
+    private final Memento memento;
+
+    /** The last removed bucket. */
+    private int lastRemoved;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The size of the b-array is the size of the given engine.
+     *
+     * @param engine        the engine supporting only LIFO removals to wrap
+     * @param hashFunction  hash function to use
+     */
+    public MementoOverlay( BucketBasedEngine engine, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.engine       = engine;
+        this.hashFunction = hashFunction;
+        this.memento      = new Memento();
+        this.lastRemoved  = engine.size();
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private MementoOverlay( MementoOverlay other )
+    {
+
+        super();
+
+        this.engine       = other.engine.copy();
+        this.hashFunction = other.hashFunction;
+        this.memento      = other.memento.copy();
+        this.lastRemoved  = other.lastRemoved;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( String key )
+    {
+
+        return getBucket( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBucket( long keyHash )
+    {
+
+        return memento.replace( keyHash, engine.getBucket(keyHash), hashFunction );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is resolved by the wrapped engine, then
+     * the buckets removed in arbitrary order are replaced.
+     */
+    @Override
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        engine.getBuckets( keyHashes, out );
+        if( memento.isEmpty() )
+            return;
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = memento.replace( keyHashes[i], out[i], hashFunction );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first replica is the bucket returned by {@link #getBucket(String)},
+     * the following ones are taken from the rehash chain of the hash of the key.
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        out[0] = getBucket( key );
+
+        final long keyHash = hashFunction.hash( key );
+        int found = 1;
+        for( int probe = 1; found < out.length; ++probe )
+        {
+
+            final int bucket = getBucket( ConsistentHash.rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && out[i] != bucket )
+                ++i;
+
+            if( i == found )
+                out[found++] = bucket;
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int addBucket()
+    {
+
+        /* The new bucket to add is the last removed one. */
+        final int bucket = lastRemoved;
+        this.lastRemoved = memento.restore( bucket );
+
+        /* If the restored bucket is out of the b-array, the wrapped engine grows. */
+        if( bucket == engine.size() )
+            engine.addBucket();
+
+        return bucket;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeBucket( int bucket )
+    {
+
+        /*
+         * If the replacement set is empty and the bucket to remove is the last one,
+         * the removal is LIFO and the wrapped engine can handle it by itself.
+         */
+        if( memento.isEmpty() && bucket == engine.size() - 1 )
+        {
+            engine.removeBucket( bucket );
+            lastRemoved = bucket;
+            return bucket;
+        }
+
+        this.lastRemoved = memento.remember( bucket, size() - 1, lastRemoved );
+
+        return bucket;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+
+        return engine.size() - memento.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MementoOverlay copy()
+    {
+
+        return new MementoOverlay( this );
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the size of the b-array.
+     *
+     * @return the size of the b-array.
+     */
+    public int bArraySize()
+    {
+
+        return engine.size();
+
+    }
+
+    /**
+     * Returns the wrapped engine.
+     *
+     * @return the wrapped engine
+     */
+    public BucketBasedEngine engine()
+    {
+
+        return engine;
+
+    }
+
+}
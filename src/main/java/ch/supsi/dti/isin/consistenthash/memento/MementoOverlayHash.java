@@ -0,0 +1,268 @@
+package ch.supsi.dti.isin.consistenthash.memento;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Indirection;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.BucketBuffer;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Wrapper to adapt any {@link BucketBasedEngine} supporting only LIFO removals
+ * to the {@link ConsistentHash} interface through a {@link MementoOverlay}.
+ * <p>
+ * The overlay remembers the buckets removed in arbitrary order,
+ * therefore the nodes can be removed in any order.
+ *
+ * This wrapper performs all the consistency checks.
+ *
+ *
+ * @author Massimo Coluzzi
+ */
+public class MementoOverlayHash implements ConsistentHash
+{
+
+    /** The overlay adding arbitrary removals to the wrapped engine. */
+    private final MementoOverlay engine;
+
+    /** One-to-one mapping between a node and the related bucket. */
+    private final Indirection indirection;
+
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * The engine factory receives the number of initial nodes
+     * and must return an engine with the same number of buckets.
+     *
+     * @param initNodes     nodes used to initialize the cluster
+     * @param newEngine     factory creating an engine with the given number of buckets
+     * @param hashFunction  hash function to use
+     */
+    public MementoOverlayHash( Collection<? extends Node> initNodes,
+        IntFunction<? extends BucketBasedEngine> newEngine, HashFunction hashFunction )
+    {
+
+        super();
+
+        final int size = Require.nonEmpty( initNodes, "The cluster must have at least one node" ).size();
+        Require.nonNull( newEngine, "The engine factory is mandatory" );
+
+        this.engine = new MementoOverlay(
+            Require.nonNull( newEngine.apply(size), "The engine to use is mandatory" ),
+            Require.nonNull( hashFunction, "The hash function to use is mandatory" )
+        );
+
+        this.indirection = new Indirection( size );
+
+        int bucket = 0;
+        for( Node node : initNodes )
+            indirection.put( node, bucket++ );
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the instance to copy
+     */
+    private MementoOverlayHash( MementoOverlayHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.indirection = other.indirection.copy();
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        final int bucket = engine.getBucket(
+            Require.nonEmpty( key, "The key to evaluate is mandatory" )
+        );
+
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final int bucket = engine.getBucket( keyHash );
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> toAdd )
+    {
+
+        Require.nonEmpty( toAdd, "The resources to add are mandatory" );
+        for( Node node : toAdd )
+        {
+
+            final int bucket = engine.addBucket();
+
+            try{
+
+                indirection.put( node, bucket );
+
+            }catch( RuntimeException ex )
+            {
+
+                engine.removeBucket( bucket );
+                throw ex;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> toRemove )
+    {
+
+        Require.nonEmpty( toRemove, "The resources to remove are mandatory" );
+        Require.toHold( engine.size() > toRemove.size(), "Trying to remove more resources than available" );
+
+        for( Node node : toRemove )
+        {
+
+            final int bucket = indirection.remove( node );
+            engine.removeBucket( bucket );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return engine.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MementoOverlayHash copy()
+    {
+
+        return new MementoOverlayHash( this );
+
+    }
+
+}
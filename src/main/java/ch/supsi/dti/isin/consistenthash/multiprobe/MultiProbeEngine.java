@@ -1,10 +1,14 @@
 package ch.supsi.dti.isin.consistenthash.multiprobe;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.stream.LongStream;
 
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -13,10 +17,27 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
  * {@code https://arxiv.org/pdf/1505.00062.pdf}
  *
  * <p>
+ * The positions of the resources are stored in a sorted {@code long[]}
+ * with a parallel {@code int[]} containing the slot of the related resource.
+ * The lookup is a branch-free binary search for each probe, therefore it
+ * does not create any object and does not chase any pointer.
+ * <p>
+ * The key is hashed only once: the probes are derived from the hash of the key
+ * by a {@code SplitMix64} sequence. The positions of the resources are mixed
+ * in the same way, therefore both of them cover the whole {@code 64} bits ring
+ * even with {@code 32} bits hash functions. The distance between a probe and
+ * its successor is measured clockwise along the ring, including the probes
+ * falling after the last resource.
+ * <p>
+ * Resources are added and removed in bulk: the new positions are sorted and
+ * merged with the existing ones in a single pass, and the removed positions
+ * are discarded by compacting the arrays in a single pass.
+ *
+ * <p>
  * <b>IMPORTANT:</b>
  * This class is not performing any consistency check
  * to avoid the performance tests to be falsified.
- * 
+ *
  * @author Massimo Coluzzi
  * @author Davide Bertacco
  */
@@ -26,10 +47,44 @@ public class MultiProbeEngine
     /** Common default seed to use during hashing of the nodes. */
     private static final int  SEED = 0xDEADBEEF;
 
-    /** Internal representation of the consistent hashing key ring. */
-    private final List<Point> ring;
+    /** Increment of the {@code SplitMix64} sequence used to derive the probes. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+
+    /**
+     * Sorted positions of the resources in the ring.
+     * <p>
+     * The positions are stored with the sign bit flipped,
+     * therefore the signed order of the stored values is
+     * the unsigned order of the positions.
+     */
+    private long[] positions;
+
+    /** Slot of the resource in the same position. */
+    private int[] owners;
+
+    /** Number of positions in the ring. */
+    private int size;
+
+    /** The resources indexed by slot, {@code null} if the slot is free. */
+    private String[] resources;
+
+    /** Maps each resource to the related slot. */
+    private final Map<String,Integer> slots;
+
+    /** Stack of the slots released by the removed resources. */
+    private int[] freeSlots;
+
+    /** Number of elements in the stack of released slots. */
+    private int freeCount;
 
-    /** The number of probes, by default {@link MultiProbeHash#DEFAULT_NUM_PROBES} */
+    /** Number of slots used so far. */
+    private int slotCount;
+
+    /** The number of probes, by default {@link MultiProbeHash#DEFAULT_PROBES} */
     private final int probes;
 
     /** The hashing function to use. */
@@ -51,7 +106,40 @@ public class MultiProbeEngine
         this.probes = probes;
         this.hashFunction = hashFunction;
 
-        this.ring = new ArrayList<>();
+        this.positions = new long[INITIAL_CAPACITY];
+        this.owners    = new int[INITIAL_CAPACITY];
+        this.size      = 0;
+
+        this.resources = new String[INITIAL_CAPACITY];
+        this.slots     = new HashMap<>();
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.slotCount = 0;
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private MultiProbeEngine( MultiProbeEngine other )
+    {
+
+        super();
+
+        this.probes = other.probes;
+        this.hashFunction = other.hashFunction;
+
+        this.positions = other.positions.clone();
+        this.owners    = other.owners.clone();
+        this.size      = other.size;
+
+        this.resources = other.resources.clone();
+        this.slots     = new HashMap<>( other.slots );
+        this.freeSlots = other.freeSlots.clone();
+        this.freeCount = other.freeCount;
+        this.slotCount = other.slotCount;
 
     }
 
@@ -61,73 +149,328 @@ public class MultiProbeEngine
     /* **************** */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     *
+     * @return a deep copy of the current engine
+     */
+    public MultiProbeEngine copy()
+    {
+
+        return new MultiProbeEngine( this );
+
+    }
+
     /**
      * Returns the resource related to the given key.
-     * 
+     *
      * @param key the key to map
      * @return the related resource
      */
     public String getResource( String key )
     {
 
-        final int index = getIndex( key );
-        return ring.get( index ).resource;
+        return resources[getSlot( key )];
+
+    }
+
+    /**
+     * Returns the resource related to the key with the given hash.
+     * <p>
+     * The probes are derived from the given value, therefore
+     * {@code getResource(key)} and {@code getResource(hash(key))}
+     * return the same resource.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the related resource
+     */
+    public String getResource( long keyHash )
+    {
+
+        return resources[getSlot( keyHash )];
 
     }
 
     /**
-     * Adds the given resource to the ring.
-     * 
+     * Stores into {@code out[i]} the resource related
+     * to the key with hash {@code keyHashes[i]}.
+     *
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related resources
+     */
+    public void getResources( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = resources[getSlot( keyHashes[i] )];
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the given key.
+     *
+     * @param key the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( String key )
+    {
+
+        return getSlot( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the key with the given hash.
+     * <p>
+     * Each probe is mapped to the first resource in clockwise
+     * order and the closest of such resources is returned.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( long keyHash )
+    {
+
+        final long[] positions = this.positions;
+        final int size = this.size;
+
+        int index = 0;
+        long minDistance = -1L;
+        long state = keyHash;
+        for( int i = 0; i < probes; ++i )
+        {
+
+            state += GOLDEN_GAMMA;
+            final long probe = ConsistentHash.mix( state ) ^ Long.MIN_VALUE;
+
+            int successor = ceilingIndex( probe, size );
+            if( successor == size )
+                successor = 0;
+
+            final long distance = distance( positions[successor], probe );
+            if( Long.compareUnsigned(distance, minDistance) < 0 )
+            {
+                minDistance = distance;
+                index = successor;
+            }
+
+        }
+
+        return owners[index];
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the given key should be replicated.
+     *
+     * @param key the key to map
+     * @param out the array where to store the slots of the related resources
+     */
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the resources met walking the rehash chain
+     * of the key (see {@link ConsistentHash#rehash(long, int)}),
+     * the resources already found are skipped.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     *
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the slots of the related resources
+     */
+    public void getReplicas( long keyHash, int[] out )
+    {
+
+        int found = 0;
+        for( int probe = 0; found < out.length; ++probe )
+        {
+
+            final int slot = getSlot( ConsistentHash.rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && out[i] != slot )
+                ++i;
+
+            if( i == found )
+                out[found++] = slot;
+
+        }
+
+    }
+
+    /**
+     * Adds the given resource to the ring
+     * and returns the slot associated to the resource.
+     *
      * @param resource the resource to add
+     * @return the slot of the resource
      */
-    public void addResource( String resource )
+    public int addResource( String resource )
     {
 
-        final Point bucket = wrap( resource );
-        final int pos = Collections.binarySearch( ring, bucket );
-            
-        final int index = -(pos + 1);
-        ring.add( index, bucket );
+        return addResources( Collections.singletonList(resource) )[0];
+
+    }
+
+    /**
+     * Adds the given resources to the ring and returns
+     * the slots associated to the resources in the same order.
+     * <p>
+     * The new positions are sorted and merged
+     * with the existing ones in a single pass.
+     *
+     * @param toAdd the resources to add
+     * @return the slots of the resources
+     */
+    public int[] addResources( List<String> toAdd )
+    {
+
+        final int count = toAdd.size();
+        final long[] newPositions = new long[count];
+
+        /*
+         * Maps each new position to the related owner.
+         * It is used to detect the collisions between the new
+         * positions and to retrieve the owners after sorting.
+         */
+        final int tableSize = Integer.highestOneBit( Math.max(count, 1) ) << 2;
+        final long[] tableKeys = new long[tableSize];
+        final int[] tableValues = new int[tableSize];
+
+        final int[] added = new int[count];
+        for( int i = 0; i < count; ++i )
+        {
+
+            final String resource = toAdd.get( i );
+            final int slot = acquireSlot( resource );
+            added[i] = slot;
+
+            long position = ConsistentHash.mix( hashFunction.hash(resource, SEED) ) ^ Long.MIN_VALUE;
+            while( contains(position) || ! put(tableKeys, tableValues, position, slot) )
+                position = ConsistentHash.mix( position );
+
+            newPositions[i] = position;
+
+        }
+
+        Arrays.sort( newPositions );
+        ensureCapacity( size + count );
+
+        /*
+         * Merges the two sorted runs starting from the end to avoid a temporary copy.
+         * The existing positions greater than each new position are moved as a block.
+         */
+        int end = size;
+        for( int j = count - 1; j >= 0; --j )
+        {
+
+            final long position = newPositions[j];
+            final int from = ceilingIndex( position, end );
+
+            System.arraycopy( positions, from, positions, from + j + 1, end - from );
+            System.arraycopy( owners, from, owners, from + j + 1, end - from );
+
+            positions[from + j] = position;
+            owners[from + j] = get( tableKeys, tableValues, position );
+
+            end = from;
+
+        }
+
+        size += count;
+        return added;
 
     }
 
     /**
      * Removes the given resource from the ring.
-     * 
+     *
      * @param resource the resource to remove
      */
     public void removeResource( String resource )
     {
 
-        final Point bucket = wrap( resource );
-        final int pos = Collections.binarySearch( ring, bucket );
-            
-        ring.remove( pos );
-        
+        removeResources( Collections.singleton(resource) );
+
+    }
+
+    /**
+     * Removes the given resources from the ring.
+     * <p>
+     * The positions of all the given resources
+     * are discarded in a single pass.
+     *
+     * @param toRemove the resources to remove
+     */
+    public void removeResources( Collection<String> toRemove )
+    {
+
+        final boolean[] removed = new boolean[slotCount];
+        for( String resource : toRemove )
+            removed[releaseSlot( resource )] = true;
+
+        int k = 0;
+        for( int i = 0; i < size; ++i )
+        {
+
+            final int owner = owners[i];
+            if( removed[owner] )
+                continue;
+
+            positions[k] = positions[i];
+            owners[k++] = owner;
+
+        }
+
+        size = k;
+
+    }
+
+    /**
+     * Returns the slot associated to the given resource.
+     *
+     * @param resource the resource to check
+     * @return the related slot
+     */
+    public int slotOf( String resource )
+    {
+
+        return slots.get( resource );
+
     }
 
     /**
      * Returns the number of probes.
-     * 
+     *
      * @return the number of probes
      */
     public int probes()
     {
 
         return probes;
-        
+
     }
 
     /**
      * Returns the size of the ring.
-     * 
+     *
      * @return the size of the ring
      */
     public int size()
     {
 
-        return ring.size();
-        
+        return size;
+
     }
 
 
@@ -137,14 +480,34 @@ public class MultiProbeEngine
 
 
     /**
-     * Streams the points in the ring.
-     * 
-     * @return stream of the poins in the ring
+     * Streams the positions of the resources in the ring.
+     * <p>
+     * The positions are returned in ring order,
+     * that is the unsigned order of the values.
+     *
+     * @return stream of the positions in the ring
+     */
+    LongStream streamPositions()
+    {
+
+        return Arrays.stream( positions, 0, size ).map( position -> position ^ Long.MIN_VALUE );
+
+    }
+
+    /**
+     * Returns the clockwise distance from the given probe
+     * to the given position along the {@code 64} bits ring.
+     * <p>
+     * The distance is an unsigned value.
+     *
+     * @param position the position of the resource
+     * @param probe    the position of the probe
+     * @return the related distance
      */
-    Stream<Point> streamRing()
+    static long distance( long position, long probe )
     {
 
-        return ring.stream();
+        return position - probe;
 
     }
 
@@ -155,66 +518,183 @@ public class MultiProbeEngine
 
 
     /**
-     * Wraps the given resource into a point in the ring.
-     * 
-     * @param node the resource to wrap
-     * @return the related point in the ring
+     * Returns the index of the first position in the range {@code [0,to)}
+     * greater or equal to the given one, or {@code to} if none.
+     * <p>
+     * The loop does not depend on the result of the comparisons,
+     * therefore the JIT can replace the branch with a conditional move.
+     *
+     * @param position the position to search
+     * @param to       the last index of the range (exclusive)
+     * @return index of the successor position
      */
-    private Point wrap( String resource )
+    private int ceilingIndex( long position, int to )
     {
 
-        final long hash = hashFunction.hash( resource, SEED );
-        return new Point( resource, hash );
+        if( to == 0 )
+            return 0;
+
+        final long[] positions = this.positions;
+
+        int base = 0;
+        int length = to;
+        while( length > 1 )
+        {
+
+            final int half = length >>> 1;
+            base = positions[base + half] < position ? base + half : base;
+            length -= half;
+
+        }
+
+        return positions[base] < position ? base + 1 : base;
 
     }
 
     /**
-     * Computes the index of the point related to the given key.
-     * 
-     * @param key key to search
-     * @return index of the related point
+     * Tells if the ring contains a resource in the given position.
+     *
+     * @param position the position to check
+     * @return {@code true} if the position is taken
      */
-    private int getIndex( String key )
+    private boolean contains( long position )
     {
 
-        int index = 0;
-        long minDistance = Long.MAX_VALUE;
-        for( int i = 0; i < probes; i++ )
-        {
+        final int index = ceilingIndex( position, size );
+        return index < size && positions[index] == position;
 
-            final long hash = hashFunction.hash( key, i );
+    }
 
-            int low = 0;
-            int high = ring.size();
-            while( low < high )
-            {
+    /**
+     * Ensures the arrays of the ring can contain the given number of positions.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity( int capacity )
+    {
 
-                final int mid = (low + high) >>> 1;
-                if( ring.get(mid).hash > hash )
-                    high = mid;
-                else
-                    low = mid + 1;
+        if( positions.length >= capacity )
+            return;
 
-            }
+        final int newCapacity = Math.max( capacity, positions.length + (positions.length >>> 1) );
+        positions = Arrays.copyOf( positions, newCapacity );
+        owners = Arrays.copyOf( owners, newCapacity );
+
+    }
+
+    /**
+     * Associates the given resource to a slot.
+     * <p>
+     * The slots released by the removed resources are reused.
+     *
+     * @param resource the resource to add
+     * @return the slot associated to the resource
+     */
+    private int acquireSlot( String resource )
+    {
 
-            /*
-             * This check implements the concept of ring.
-             * If we exceed the last we start over.
-             */
-            if (low >= ring.size())
-                low = 0;
+        final int slot;
+        if( freeCount > 0 )
+            slot = freeSlots[--freeCount];
+        else
+        {
 
-            final long distance = ring.get( low ).distance( hash );
-            if( distance < minDistance )
+            if( slotCount == resources.length )
             {
-                minDistance = distance;
-                index = low;
+                resources = Arrays.copyOf( resources, resources.length << 1 );
+                freeSlots = Arrays.copyOf( freeSlots, freeSlots.length << 1 );
             }
+            slot = slotCount++;
 
         }
 
-        return index;
-        
+        resources[slot] = resource;
+        slots.put( resource, slot );
+
+        return slot;
+
+    }
+
+    /**
+     * Releases the slot of the given resource.
+     *
+     * @param resource the resource to remove
+     * @return the released slot
+     */
+    private int releaseSlot( String resource )
+    {
+
+        final int slot = slots.remove( resource );
+        resources[slot] = null;
+        freeSlots[freeCount++] = slot;
+
+        return slot;
+
+    }
+
+    /**
+     * Returns the position in the given open addressing table where
+     * the given hash is stored or where it should be stored.
+     * <p>
+     * The values are stored incremented by {@code 1}
+     * so that {@code 0} denotes an empty position.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to search
+     * @return the related position
+     */
+    private static int position( long[] keys, int[] values, long hash )
+    {
+
+        final int mask = keys.length - 1;
+
+        long mix = hash * GOLDEN_GAMMA;
+        int pos = (int)(mix ^ (mix >>> 32)) & mask;
+        while( values[pos] != 0 && keys[pos] != hash )
+            pos = (pos + 1) & mask;
+
+        return pos;
+
+    }
+
+    /**
+     * Stores the given entry in the given open addressing table
+     * if the hash is not already present.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to store
+     * @param owner  the owner of the hash
+     * @return {@code true} if the entry has been stored
+     */
+    private static boolean put( long[] keys, int[] values, long hash, int owner )
+    {
+
+        final int pos = position( keys, values, hash );
+        if( values[pos] != 0 )
+            return false;
+
+        keys[pos] = hash;
+        values[pos] = owner + 1;
+
+        return true;
+
+    }
+
+    /**
+     * Returns the owner of the given hash stored in the given open addressing table.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to search
+     * @return the related owner
+     */
+    private static int get( long[] keys, int[] values, long hash )
+    {
+
+        return values[position( keys, values, hash )] - 1;
+
     }
 
 }
@@ -1,8 +1,11 @@
 package ch.supsi.dti.isin.consistenthash.multiprobe;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.nerd4j.utils.lang.Require;
 
@@ -15,6 +18,8 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
  * Wrapper to adapt the {@link MultiProbeEngine} to the {@link ConsistentHash} interface.
  * 
  * This wrapper performs all the consistency checks.
+ * The nodes are stored by the slot of the related resource,
+ * therefore a lookup does not need to resolve any name.
  *
  *
  * @author Massimo Coluzzi
@@ -38,6 +43,9 @@ public class MultiProbeHash implements ConsistentHash
     /** The nodes of the cluster. */
     private final Map<String,Node> nodeMap;
 
+    /** The nodes of the cluster indexed by the slot of the related resource. */
+    private Node[] nodes;
+
 
     /**
      * Constructor with parameters.
@@ -90,11 +98,28 @@ public class MultiProbeHash implements ConsistentHash
 
             Require.nonNull( node, "The resource to add cannot be null" );
             Require.toHold( nodeMap.put(node.name(),node) == null, "Duplicated resource " + node );
-            
-            this.engine.addResource( node.name() );
 
         }
 
+        this.nodes = new Node[nodes.size()];
+        this.storeNodes( nodes );
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private MultiProbeHash( MultiProbeHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+        this.nodes = other.nodes.clone();
+
     }
 
 
@@ -110,14 +135,70 @@ public class MultiProbeHash implements ConsistentHash
     public Node getNode( String key )
     {
 
-        final String resource = engine.getResource(
-            Require.nonEmpty( key, "The key to evaluate is mandatory" )
-        );
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        return getNodeBySlot( engine.getSlot(key) );
 
-        return Require.nonNull(
-            nodeMap.get( resource ),
-            () -> "Expected node with name " + resource + " but it does not exist"
-        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return getNodeBySlot( engine.getSlot(keyHash) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNodeBySlot( engine.getSlot(keyHashes[i]) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( key, slots );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( keyHash, slots );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
 
     }
 
@@ -136,10 +217,10 @@ public class MultiProbeHash implements ConsistentHash
             final String resource = Require.nonNull( node, "The resource to add cannot be null" ).name();
             Require.toHold( nodeMap.putIfAbsent(resource,node) == null, () -> "Resource '" + node + "' already exists" );
 
-            engine.addResource( resource );
-
         }
 
+        storeNodes( toAdd );
+
     }
 
     /**
@@ -152,16 +233,21 @@ public class MultiProbeHash implements ConsistentHash
         Require.nonEmpty( toRemove, "The resources to remove are mandatory" );
         Require.toHold( engine.size() > toRemove.size(), "Trying to remove more resources than available" );
 
-        for( Node node : toRemove )
+        toRemove.forEach( node ->
         {
 
-            final String resource = Require.nonNull( node, "The resource to remove cannot be null" ).name();
-            Require.toHold( nodeMap.remove(resource) != null, () -> "Resource '" + node + "' does not exist" );
+            Require.nonNull( node, "The resource to remove cannot be null" );
+            Require.toHold( nodeMap.containsKey(node.name()), () -> "Resource '" + node + "' does not exist" );
 
-            engine.removeResource( resource );
+        });
 
-            
-        }
+        final List<String> resources = toRemove.stream()
+            .map( Node::name )
+            .peek( nodeMap::remove )
+            .peek( resource -> nodes[engine.slotOf(resource)] = null )
+            .collect( Collectors.toList() );
+
+        engine.removeResources( resources );
 
     }
 
@@ -198,4 +284,65 @@ public class MultiProbeHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MultiProbeHash copy()
+    {
+
+        return new MultiProbeHash( this );
+
+    }
+
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Adds the given nodes to the engine and stores
+     * them by the slot of the related resource.
+     * 
+     * @param toStore the nodes to store
+     */
+    private void storeNodes( Collection<? extends Node> toStore )
+    {
+
+        final List<String> resources = toStore.stream()
+            .map( Node::name )
+            .collect( Collectors.toList() );
+
+        final int[] slots = engine.addResources( resources );
+        for( int i = 0; i < slots.length; ++i )
+        {
+
+            final int slot = slots[i];
+            if( slot >= nodes.length )
+                nodes = Arrays.copyOf( nodes, Math.max(slot + 1, nodes.length << 1) );
+
+            nodes[slot] = nodeMap.get( resources.get(i) );
+
+        }
+
+    }
+
+    /**
+     * Returns the node associated to the given slot.
+     * 
+     * @param slot the slot of the related resource
+     * @return the related node
+     */
+    private Node getNodeBySlot( int slot )
+    {
+
+        return Require.nonNull(
+            nodes[slot],
+            () -> "Expected node in slot " + slot + " but it does not exist"
+        );
+
+    }
+
 }
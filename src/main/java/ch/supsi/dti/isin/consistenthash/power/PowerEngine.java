@@ -1,8 +1,7 @@
 package ch.supsi.dti.isin.consistenthash.power;
 
-import java.util.Random;
-
 import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 
@@ -20,6 +19,9 @@ import ch.supsi.dti.isin.hashfunction.HashFunction;
 public class PowerEngine implements BucketBasedEngine
 {
 
+    /** Multiplier of the linear congruential generator used by {@code g}. */
+    private static final long LCG_MULTIPLIER = 2862933555777941757L;
+
 
     /** Number of nodes in the cluster. */
     private int size;
@@ -36,20 +38,50 @@ public class PowerEngine implements BucketBasedEngine
     /** Hashing function to use. */
     private final HashFunction hashFunction;
 
+    /**
+     * Tells if the levels are rehashed with the hash function
+     * to reproduce the placements of the original implementation.
+     */
+    private final boolean compatibility;
+
 
     /**
      * Constructor with parameters.
+     * <p>
+     * The levels are rehashed with the given hash function to reproduce
+     * the placements of the original implementation. Use the constructor
+     * with {@code compatibility} set to {@code false} to rehash them with
+     * the allocation-free {@code SplitMix64} finalizer.
      * 
      * @param size         the number of working nodes
      * @param hashFunction the hash function to use
      */
     public PowerEngine( int size, HashFunction hashFunction )
+    {
+
+        this( size, hashFunction, true );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * In compatibility mode the levels are rehashed with the given
+     * hash function as in the original implementation, otherwise
+     * an inlined {@code SplitMix64} finalizer is used.
+     * 
+     * @param size          the number of working nodes
+     * @param hashFunction  the hash function to use
+     * @param compatibility tells if the placements of the original implementation should be reproduced
+     */
+    public PowerEngine( int size, HashFunction hashFunction, boolean compatibility )
     {
 
         super();
 
         this.size = size;
         this.hashFunction = hashFunction;
+        this.compatibility = compatibility;
         
         this.m = Integer.highestOneBit( size );
         if( size > m )
@@ -75,18 +107,39 @@ public class PowerEngine implements BucketBasedEngine
     public int getBucket( String key )
     {
 
-        final long hash = hashFunction.hash( key );
-        final Random random = new Random( hash );
+        return getBucket( hashFunction.hash(key) );
+
+    }
 
-        final int r1 = f( hash, this.m1, random );
+    /**
+     * Returns the index of the bucket where the key with the given hash should be mapped.
+     * 
+     * @param hash the hash of the key to map
+     * @return the related bucket
+     */
+    public int getBucket( long hash )
+    {
+
+        final int r1 = f( hash, this.m1 );
         if( r1 < size )
             return r1;
         
-        final int r2 = g( hash, random );
+        final int r2 = g( hash );
         if( r2 > this.m2 )
             return r2;
 
-        return f( hash, this.m2, random );
+        return f( hash, this.m2 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
 
     }
 
@@ -128,6 +181,21 @@ public class PowerEngine implements BucketBasedEngine
         
     }
    
+    /**
+     * Returns a copy of the current engine.
+     * <p>
+     * The state of the engine depends only on its size,
+     * therefore the copy is a new engine of the same size.
+     * 
+     * @return a copy of the current engine
+     */
+    public PowerEngine copy()
+    {
+
+        return new PowerEngine( size, hashFunction, compatibility );
+
+    }
+
     /**
      * Returns the size of the cluster.
      * 
@@ -182,31 +250,14 @@ public class PowerEngine implements BucketBasedEngine
     /* ***************** */
 
 
-    /**
-     * Linear congruential generator to create uniformly
-     * distributed values.
-     * 
-     * @param value the value to rehash
-     * @param seed the seed to use
-     * @return the rehashed value
-     */
-    public long rehash( long value, int seed )
-    {
-        
-        final long hash = 2862933555777941757L * value + 1;
-        return (hash * hash * seed) >>> 32;
-
-    }
-
     /**
      * The function {@code f} as described in the paper.
      * 
-     * @param hash   the hash of the key.
-     * @param mx     one of {@link #m1} or {@link #m2}.
-     * @param random the pseudo-random generator to use.
+     * @param hash the hash of the key.
+     * @param mx   one of {@link #m1} or {@link #m2}.
      * @return the intermediate bucket.
      */
-    private int f( long hash, int mx, Random random )
+    private int f( long hash, int mx )
     {
 
         final int kBits = (int)(hash & mx);
@@ -215,8 +266,7 @@ public class PowerEngine implements BucketBasedEngine
 
         final int h = Integer.highestOneBit( kBits );
 
-        // final long h2 = rehash( hash, h );
-        final long h2 = hashFunction.hash( hash, h );
+        final long h2 = compatibility ? hashFunction.hash( hash, h ) : ConsistentHash.rehash( hash, h );
 
         final int h3 = (int) h2 & (h-1);
 
@@ -226,22 +276,26 @@ public class PowerEngine implements BucketBasedEngine
 
     /**
      * The function {@code g} as described in the paper.
+     * <p>
+     * The jumps are driven by the linear congruential generator
+     * of {@link com.google.common.hash.Hashing} with the state
+     * kept in a local variable.
      * 
-     * @param hash   the hash of the key.
-     * @param random the pseudo-random generator to use.
+     * @param hash the hash of the key.
      * @return the intermediate bucket.
      */
-    private int g( long hash, Random random )
+    private int g( long hash )
     {
 
-        final LinearCongruentialGenerator generator = new LinearCongruentialGenerator( hash );
+        long state = hash;
 
         int candidate = m2;
         int next;
 
         /* Jump from bucket to bucket until we go out of range */
         while( true ){
-            next = (int) ((candidate + 1) / generator.nextDouble());
+            state = LCG_MULTIPLIER * state + 1;
+            next = (int) ((candidate + 1) / (((double) ((int) (state >>> 33) + 1)) / 0x1.0p31));
             if (next >= 0 && next < size) {
                 candidate = next;
             } else {
@@ -251,51 +305,4 @@ public class PowerEngine implements BucketBasedEngine
 
     }
 
-
-    /* *************** */
-    /*  INNER CLASSES  */
-    /* *************** */
-
-
-    /**
-     * Random value generator copied from {@link com.google.common.hash.Hashing}.
-     * 
-     * @author Massimo Coluzzi
-     */
-    private static final class LinearCongruentialGenerator
-    {
-
-        /** Internal state. */
-        private long state;
-    
-        /**
-         * Constructor with paramenters.
-         * 
-         * @param seed initial seed.
-         */
-        public LinearCongruentialGenerator( long seed )
-        {
-
-            super();
-
-            this.state = seed;
-
-        }
-    
-        /**
-         * Returns the next value in the pseudo-random sequence.
-         * 
-         * @return the next value in the pseudo-random sequence.
-         */
-        public double nextDouble()
-        {
-
-          state = 2862933555777941757L * state + 1;
-          
-          return ((double) ((int) (state >>> 33) + 1)) / 0x1.0p31;
-
-        }
-
-    }
-
 }
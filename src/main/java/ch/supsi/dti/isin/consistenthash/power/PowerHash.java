@@ -1,11 +1,14 @@
 package ch.supsi.dti.isin.consistenthash.power;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.nerd4j.utils.lang.Require;
 
 import ch.supsi.dti.isin.cluster.Indirection;
 import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.BucketBuffer;
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.hashfunction.HashFunction;
 
@@ -47,10 +50,32 @@ public class PowerHash implements ConsistentHash
     /**
      * Constructor with parameters.
      * 
+     * <p>
+     * The placements of the original implementation are reproduced.
+     * Use the constructor with {@code compatibility} set to {@code false}
+     * to rehash the levels with the allocation-free {@code SplitMix64} finalizer.
+     * 
      * @param initNodes    initial cluster nodes
      * @param hashFunction the hash function to use
      */
     public PowerHash( Collection<? extends Node> initNodes, HashFunction hashFunction )
+    {
+
+        this( initNodes, hashFunction, true );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * In compatibility mode the placements of the original
+     * implementation are reproduced.
+     * 
+     * @param initNodes     initial cluster nodes
+     * @param hashFunction  the hash function to use
+     * @param compatibility tells if the placements of the original implementation should be reproduced
+     */
+    public PowerHash( Collection<? extends Node> initNodes, HashFunction hashFunction, boolean compatibility )
     {
 
         super();
@@ -71,11 +96,27 @@ public class PowerHash implements ConsistentHash
 
         this.engine = new PowerEngine(
             size,
-            Require.nonNull( hashFunction, "The hash function to use is mandatory" )
+            Require.nonNull( hashFunction, "The hash function to use is mandatory" ),
+            compatibility
         );
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private PowerHash( PowerHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.indirection = other.indirection.copy();
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -97,6 +138,94 @@ public class PowerHash implements ConsistentHash
         
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final int bucket = engine.getBucket( keyHash );
+        return indirection.get( bucket );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( String[] keys, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keys, out );
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            final int bucket = engine.getBucket(
+                Require.nonEmpty( keys[i], "The key to evaluate is mandatory" )
+            );
+
+            out[i] = indirection.get( bucket );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        
+        final int[] buckets = BucketBuffer.get( keyHashes.length );
+        engine.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( key, buckets );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] buckets = new int[replicas];
+        engine.getReplicas( keyHash, buckets );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = indirection.get( buckets[i] );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,4 +300,15 @@ public class PowerHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PowerHash copy()
+    {
+
+        return new PowerHash( this );
+
+    }
+
 }
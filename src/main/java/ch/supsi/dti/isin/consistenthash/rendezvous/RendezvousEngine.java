@@ -43,12 +43,41 @@ public class RendezvousEngine
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the engine to copy
+     */
+    private RendezvousEngine( RendezvousEngine other )
+    {
+
+        super();
+
+        this.hashFunction = other.hashFunction;
+        this.resources    = new HashSet<>( other.resources );
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
     /* ******************* */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    public RendezvousEngine copy()
+    {
+
+        return new RendezvousEngine( this );
+
+    }
+
     /**
      * Returns the resource related to the given key.
      * 
@@ -77,6 +106,94 @@ public class RendezvousEngine
 
     }
 
+    /**
+     * Returns the resource related to the key with the given hash.
+     * <p>
+     * The score of each resource is computed by hashing the given
+     * value seeded with the resource hash code, therefore the result
+     * is consistent across calls but may differ from {@link #getResource(String)}.
+     * 
+     * @param keyHash the hash of the key to map
+     * @return the related resource
+     */
+    public String getResource( long keyHash )
+    {
+
+        String selected = null;
+        long maxHash = Long.MIN_VALUE;
+        for( String resource : resources )
+        {
+
+            final long hash = hashFunction.hash( keyHash, resource.hashCode() );
+            if( hash > maxHash )
+            {
+                selected = resource;
+                maxHash = hash;
+            }
+
+        }
+
+        return selected;
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the resource related
+     * to the key with hash {@code keyHashes[i]}.
+     * 
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related resources
+     */
+    public void getResources( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getResource( keyHashes[i] );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct
+     * resources where the given key should be replicated.
+     * <p>
+     * The replicas are the resources with the highest scores
+     * sorted by decreasing score.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     * 
+     * @param key the key to map
+     * @param out the array where to store the related resources
+     */
+    public void getReplicas( String key, String[] out )
+    {
+
+        final long[] scores = new long[out.length];
+        int found = 0;
+        for( String resource : resources )
+            found = insert( resource, hashFunction.hash(key + resource), out, scores, found );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct resources
+     * where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the resources with the highest scores
+     * sorted by decreasing score.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     * 
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the related resources
+     */
+    public void getReplicas( long keyHash, String[] out )
+    {
+
+        final long[] scores = new long[out.length];
+        int found = 0;
+        for( String resource : resources )
+            found = insert( resource, hashFunction.hash(keyHash, resource.hashCode()), out, scores, found );
+
+    }
+
     /**
      * Adds the given resource to the ring.
      * 
@@ -115,4 +232,43 @@ public class RendezvousEngine
         
     }
     
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Inserts the given resource into the resources sorted by decreasing
+     * score if its score is among the {@code out.length} highest ones.
+     * 
+     * @param resource the resource to insert
+     * @param score    the score of the resource
+     * @param out      the resources sorted by decreasing score
+     * @param scores   the scores of the resources
+     * @param found    the number of resources already inserted
+     * @return the number of inserted resources
+     */
+    private static int insert( String resource, long score, String[] out, long[] scores, int found )
+    {
+
+        if( found == out.length && score <= scores[found - 1] )
+            return found;
+
+        int i = found < out.length ? found++ : found - 1;
+        while( i > 0 && scores[i - 1] < score )
+        {
+            out[i] = out[i - 1];
+            scores[i] = scores[i - 1];
+            --i;
+        }
+
+        out[i] = resource;
+        scores[i] = score;
+
+        return found;
+
+    }
+
 }
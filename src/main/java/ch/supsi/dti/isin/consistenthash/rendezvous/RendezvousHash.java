@@ -1,7 +1,9 @@
 package ch.supsi.dti.isin.consistenthash.rendezvous;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.nerd4j.utils.lang.Require;
@@ -68,6 +70,21 @@ public class RendezvousHash implements ConsistentHash
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private RendezvousHash( RendezvousHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -93,6 +110,60 @@ public class RendezvousHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final String resource = engine.getResource( keyHash );
+        final Node node = nodeMap.get(
+          Require.nonNull( resource, "The given key was mapped to an unexisting resource" )  
+        );
+
+        return Require.nonNull( node, "The given key was mapped to an unexisting node" );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final String[] resources = new String[replicas];
+        engine.getReplicas( key, resources );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = Require.nonNull( nodeMap.get(resources[i]), "The given key was mapped to an unexisting node" );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final String[] resources = new String[replicas];
+        engine.getReplicas( keyHash, resources );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = Require.nonNull( nodeMap.get(resources[i]), "The given key was mapped to an unexisting node" );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -168,5 +239,16 @@ public class RendezvousHash implements ConsistentHash
         return engine;
 
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RendezvousHash copy()
+    {
+
+        return new RendezvousHash( this );
+
+    }
     
 }
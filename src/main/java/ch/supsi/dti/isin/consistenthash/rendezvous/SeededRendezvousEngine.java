@@ -0,0 +1,636 @@
+package ch.supsi.dti.isin.consistenthash.rendezvous;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Implementation of the {@code RendezvousHash} algorithm as described in the related paper:
+ * {@code https://ieeexplore.ieee.org/abstract/document/663936}
+ * using a precomputed seed for each resource.
+ *
+ * <p>
+ * When a resource is added, its name is hashed once into a {@code 64} bits
+ * seed. During a lookup, the key is hashed once and the score of each
+ * resource is computed by mixing the hash of the key with the seed of the
+ * resource. The seeds are stored in a dense {@code long[]}, therefore a
+ * lookup scans a primitive array and does not create any object.
+ * <p>
+ * The score depends only on the key and on the resource, therefore the
+ * properties of the algorithm are preserved: when a resource is removed
+ * only its keys are moved, and when a resource is added only the keys
+ * moving to the new resource change their placement.
+ * <p>
+ * Each resource can have a weight. If all the weights are {@code 1}
+ * the resource with the highest score is selected. Otherwise, the
+ * logarithmic method is used: the score is mapped into a value
+ * {@code u} in {@code (0,1]} and the resource with the lowest
+ * {@code -ln(u)/weight} is selected. In this way, each resource
+ * gets a share of the keys proportional to its weight.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class SeededRendezvousEngine
+{
+
+    /** Seed used to compute the high half of the seed of a resource. */
+    private static final int HIGH_SEED = 0xDEADBEEF;
+
+    /** Seed used to compute the low half of the seed of a resource. */
+    private static final int LOW_SEED = 0xCAFEBABE;
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+
+    /** The hashing function to use. */
+    private final HashFunction hashFunction;
+
+    /** The seeds of the resources, the first {@link #size} entries are used. */
+    private long[] seeds;
+
+    /** The slot of the resource with the seed in the same position. */
+    private int[] owners;
+
+    /** The weight of the resource with the seed in the same position. */
+    private int[] weights;
+
+    /** Number of resources with a weight different from {@code 1}. */
+    private int weightedCount;
+
+    /** Number of resources. */
+    private int size;
+
+    /** The resources indexed by slot, {@code null} if the slot is free. */
+    private String[] resources;
+
+    /** The position in {@link #seeds} of each slot. */
+    private int[] positions;
+
+    /** Maps each resource to the related slot. */
+    private final Map<String,Integer> slots;
+
+    /** Stack of the slots released by the removed resources. */
+    private int[] freeSlots;
+
+    /** Number of elements in the stack of released slots. */
+    private int freeCount;
+
+    /** Number of slots used so far. */
+    private int slotCount;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param hashFunction the hashing function to use
+     */
+    public SeededRendezvousEngine( HashFunction hashFunction )
+    {
+
+        super();
+
+        this.hashFunction = hashFunction;
+
+        this.seeds     = new long[INITIAL_CAPACITY];
+        this.owners    = new int[INITIAL_CAPACITY];
+        this.weights   = new int[INITIAL_CAPACITY];
+        this.size      = 0;
+
+        this.weightedCount = 0;
+
+        this.resources = new String[INITIAL_CAPACITY];
+        this.positions = new int[INITIAL_CAPACITY];
+        this.slots     = new HashMap<>();
+        this.freeSlots = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.slotCount = 0;
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private SeededRendezvousEngine( SeededRendezvousEngine other )
+    {
+
+        super();
+
+        this.hashFunction = other.hashFunction;
+
+        this.seeds     = other.seeds.clone();
+        this.owners    = other.owners.clone();
+        this.weights   = other.weights.clone();
+        this.size      = other.size;
+
+        this.weightedCount = other.weightedCount;
+
+        this.resources = other.resources.clone();
+        this.positions = other.positions.clone();
+        this.slots     = new HashMap<>( other.slots );
+        this.freeSlots = other.freeSlots.clone();
+        this.freeCount = other.freeCount;
+        this.slotCount = other.slotCount;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     *
+     * @return a deep copy of the current engine
+     */
+    public SeededRendezvousEngine copy()
+    {
+
+        return new SeededRendezvousEngine( this );
+
+    }
+
+    /**
+     * Returns the resource related to the given key.
+     *
+     * @param key the key to map
+     * @return the related resource
+     */
+    public String getResource( String key )
+    {
+
+        return resources[getSlot( key )];
+
+    }
+
+    /**
+     * Returns the resource related to the key with the given hash.
+     * <p>
+     * The key is hashed only once, therefore {@code getResource(key)}
+     * and {@code getResource(hash(key))} return the same resource.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the related resource
+     */
+    public String getResource( long keyHash )
+    {
+
+        return resources[getSlot( keyHash )];
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the resource related
+     * to the key with hash {@code keyHashes[i]}.
+     *
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related resources
+     */
+    public void getResources( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = resources[getSlot( keyHashes[i] )];
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the given key.
+     *
+     * @param key the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( String key )
+    {
+
+        return getSlot( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the key with the given hash.
+     * <p>
+     * The selected resource is the one with the highest score,
+     * or the one with the lowest weighted distance if some
+     * resource has a weight different from {@code 1}.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( long keyHash )
+    {
+
+        if( weightedCount > 0 )
+            return getWeightedSlot( keyHash );
+
+        final long[] seeds = this.seeds;
+        final int size = this.size;
+
+        int selected = 0;
+        long maxScore = score( keyHash, seeds[0] );
+        for( int i = 1; i < size; ++i )
+        {
+
+            final long score = score( keyHash, seeds[i] );
+            if( score > maxScore )
+            {
+                selected = i;
+                maxScore = score;
+            }
+
+        }
+
+        return owners[selected];
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length}
+     * distinct resources where the given key should be replicated.
+     *
+     * @param key the key to map
+     * @param out the array where to store the slots of the related resources
+     */
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the resources with the highest scores
+     * (or weighted scores) sorted by decreasing score, therefore
+     * the first replica is the one returned by {@link #getSlot(long)}.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     *
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the slots of the related resources
+     */
+    public void getReplicas( long keyHash, int[] out )
+    {
+
+        if( weightedCount > 0 )
+        {
+            getWeightedReplicas( keyHash, out );
+            return;
+        }
+
+        final long[] seeds = this.seeds;
+        final int size = this.size;
+
+        final long[] scores = new long[out.length];
+        int found = 0;
+        for( int i = 0; i < size; ++i )
+        {
+
+            final long score = score( keyHash, seeds[i] );
+            if( found == out.length && score <= scores[found - 1] )
+                continue;
+
+            int j = found < out.length ? found++ : found - 1;
+            while( j > 0 && scores[j - 1] < score )
+            {
+                out[j] = out[j - 1];
+                scores[j] = scores[j - 1];
+                --j;
+            }
+
+            out[j] = owners[i];
+            scores[j] = score;
+
+        }
+
+    }
+
+    /**
+     * Adds the given resources and returns the slots
+     * associated to the resources in the same order.
+     *
+     * @param toAdd the resources to add
+     * @return the slots of the resources
+     */
+    public int[] addResources( Collection<String> toAdd )
+    {
+
+        return addResources( toAdd, null );
+
+    }
+
+    /**
+     * Adds the given resources with the given weights and returns
+     * the slots associated to the resources in the same order.
+     * <p>
+     * If the weights are {@code null}, each resource gets weight {@code 1}.
+     *
+     * @param toAdd   the resources to add
+     * @param weights the weights of the resources in the same order
+     * @return the slots of the resources
+     */
+    public int[] addResources( Collection<String> toAdd, int[] weights )
+    {
+
+        ensureCapacity( size + toAdd.size() );
+
+        final int[] added = new int[toAdd.size()];
+
+        int i = 0;
+        for( String resource : toAdd )
+        {
+
+            final int weight = weights != null ? weights[i] : 1;
+            final int slot = acquireSlot( resource );
+            added[i++] = slot;
+
+            if( weight != 1 )
+                ++weightedCount;
+
+            seeds[size] = seed( resource, hashFunction );
+            owners[size] = slot;
+            this.weights[size] = weight;
+            positions[slot] = size++;
+
+        }
+
+        return added;
+
+    }
+
+    /**
+     * Removes the given resources.
+     * <p>
+     * The seed of each removed resource is replaced by the last one,
+     * therefore each removal takes constant time.
+     *
+     * @param toRemove the resources to remove
+     */
+    public void removeResources( Collection<String> toRemove )
+    {
+
+        for( String resource : toRemove )
+        {
+
+            final int slot = releaseSlot( resource );
+            final int position = positions[slot];
+
+            if( weights[position] != 1 )
+                --weightedCount;
+
+            final int last = --size;
+            seeds[position] = seeds[last];
+            owners[position] = owners[last];
+            weights[position] = weights[last];
+            positions[owners[position]] = position;
+
+        }
+
+    }
+
+    /**
+     * Returns the slot associated to the given resource.
+     *
+     * @param resource the resource to check
+     * @return the related slot
+     */
+    public int slotOf( String resource )
+    {
+
+        return slots.get( resource );
+
+    }
+
+    /**
+     * Returns the number of resources.
+     *
+     * @return the number of resources
+     */
+    public int size()
+    {
+
+        return size;
+
+    }
+
+    /**
+     * Computes the seed of the given resource.
+     * <p>
+     * The seed combines two hashes with different seeds,
+     * therefore it has {@code 64} bits of entropy even if
+     * the hash function produces {@code 32} bits values.
+     *
+     * @param resource     the resource to hash
+     * @param hashFunction the hash function to use
+     * @return the seed of the resource
+     */
+    public static long seed( String resource, HashFunction hashFunction )
+    {
+
+        final long high = hashFunction.hash( resource, HIGH_SEED );
+        final long low  = hashFunction.hash( resource, LOW_SEED );
+
+        return ConsistentHash.mix( (high << 32) ^ low );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the slot of the resource related to the key with the given hash
+     * taking into account the weights of the resources.
+     * <p>
+     * Each score is mapped into a value {@code u} in {@code (0,1]} and
+     * the resource with the highest {@code ln(u)/weight} is selected.
+     * The mapping preserves the order of the scores, therefore if all
+     * the weights are equal the selected resource is the same.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the slot of the related resource
+     */
+    private int getWeightedSlot( long keyHash )
+    {
+
+        final long[] seeds = this.seeds;
+        final int[] weights = this.weights;
+        final int size = this.size;
+
+        int selected = 0;
+        double maxScore = Math.log( unit(score(keyHash, seeds[0])) ) / weights[0];
+        for( int i = 1; i < size; ++i )
+        {
+
+            final double score = Math.log( unit(score(keyHash, seeds[i])) ) / weights[i];
+            if( score > maxScore )
+            {
+                selected = i;
+                maxScore = score;
+            }
+
+        }
+
+        return owners[selected];
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the key with the given hash should be replicated
+     * taking into account the weights of the resources.
+     *
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the slots of the related resources
+     */
+    private void getWeightedReplicas( long keyHash, int[] out )
+    {
+
+        final long[] seeds = this.seeds;
+        final int[] weights = this.weights;
+        final int size = this.size;
+
+        final double[] scores = new double[out.length];
+        int found = 0;
+        for( int i = 0; i < size; ++i )
+        {
+
+            final double score = Math.log( unit(score(keyHash, seeds[i])) ) / weights[i];
+            if( found == out.length && score <= scores[found - 1] )
+                continue;
+
+            int j = found < out.length ? found++ : found - 1;
+            while( j > 0 && scores[j - 1] < score )
+            {
+                out[j] = out[j - 1];
+                scores[j] = scores[j - 1];
+                --j;
+            }
+
+            out[j] = owners[i];
+            scores[j] = score;
+
+        }
+
+    }
+
+    /**
+     * Maps the given score into a value in {@code (0,1]}.
+     * <p>
+     * The sign bit is flipped so that the order of the
+     * signed scores is the order of the returned values.
+     *
+     * @param score the score to map
+     * @return the related value in {@code (0,1]}
+     */
+    private static double unit( long score )
+    {
+
+        return (((score ^ Long.MIN_VALUE) >>> 11) + 1) * 0x1.0p-53;
+
+    }
+
+    /**
+     * Computes the score of the resource with the given seed for the key with the given hash.
+     *
+     * @param keyHash the hash of the key
+     * @param seed    the seed of the resource
+     * @return the related score
+     */
+    private static long score( long keyHash, long seed )
+    {
+
+        return ConsistentHash.mix( keyHash ^ seed );
+
+    }
+
+    /**
+     * Ensures the arrays of the seeds can contain the given number of resources.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity( int capacity )
+    {
+
+        if( seeds.length >= capacity )
+            return;
+
+        final int newCapacity = Math.max( capacity, seeds.length + (seeds.length >>> 1) );
+        seeds = Arrays.copyOf( seeds, newCapacity );
+        owners = Arrays.copyOf( owners, newCapacity );
+        weights = Arrays.copyOf( weights, newCapacity );
+
+    }
+
+    /**
+     * Associates the given resource to a slot.
+     * <p>
+     * The slots released by the removed resources are reused.
+     *
+     * @param resource the resource to add
+     * @return the slot associated to the resource
+     */
+    private int acquireSlot( String resource )
+    {
+
+        final int slot;
+        if( freeCount > 0 )
+            slot = freeSlots[--freeCount];
+        else
+        {
+
+            if( slotCount == resources.length )
+            {
+                final int capacity = resources.length << 1;
+                resources = Arrays.copyOf( resources, capacity );
+                positions = Arrays.copyOf( positions, capacity );
+                freeSlots = Arrays.copyOf( freeSlots, capacity );
+            }
+            slot = slotCount++;
+
+        }
+
+        resources[slot] = resource;
+        slots.put( resource, slot );
+
+        return slot;
+
+    }
+
+    /**
+     * Releases the slot of the given resource.
+     *
+     * @param resource the resource to remove
+     * @return the released slot
+     */
+    private int releaseSlot( String resource )
+    {
+
+        final int slot = slots.remove( resource );
+        resources[slot] = null;
+        freeSlots[freeCount++] = slot;
+
+        return slot;
+
+    }
+
+}
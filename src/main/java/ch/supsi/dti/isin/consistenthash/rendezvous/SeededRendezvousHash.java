@@ -0,0 +1,320 @@
+package ch.supsi.dti.isin.consistenthash.rendezvous;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Wrapper to adapt the {@link SeededRendezvousEngine} to the {@link ConsistentHash} interface.
+ * 
+ * This wrapper performs all the consistency checks.
+ * The nodes are stored by the slot of the related resource,
+ * therefore a lookup does not need to resolve any name.
+ * The weights of the nodes are passed to the engine.
+ *
+ *
+ * @author Massimo Coluzzi
+ */
+public class SeededRendezvousHash implements ConsistentHash
+{
+
+    /**
+     * The {@code RendezvousHash} algorithm engine as described in:
+     * {@code https://ieeexplore.ieee.org/abstract/document/663936}
+     */
+    private final SeededRendezvousEngine engine;
+
+    /** The nodes of the cluster. */
+    private final Map<String,Node> nodeMap;
+
+    /** The nodes of the cluster indexed by the slot of the related resource. */
+    private Node[] nodes;
+
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param initNodes collection of initial nodes
+     */
+    public SeededRendezvousHash( Collection<? extends Node> initNodes )
+    {
+
+        this( initNodes, DEFAULT_HASH_FUNCTION );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * 
+     * @param initNodes    collection of initial nodes
+     * @param hashFunction the hashing function to use
+     */
+    public SeededRendezvousHash( Collection<? extends Node> initNodes, HashFunction hashFunction )
+    {
+
+        super();
+        
+        this.nodeMap = new HashMap<>(
+            Require.nonEmpty( initNodes, "The cluster must have at least one node" ).size()
+        );
+
+        this.engine = new SeededRendezvousEngine(
+            Require.nonNull( hashFunction, "The hash function to use cannot be null" )
+        );
+
+        this.nodes = new Node[initNodes.size()];
+        this.addNodes( initNodes );
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private SeededRendezvousHash( SeededRendezvousHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+        this.nodes = other.nodes.clone();
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        return getNodeBySlot( engine.getSlot(key) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return getNodeBySlot( engine.getSlot(keyHash) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long[] keyHashes, Node[] out )
+    {
+
+        ConsistentHash.checkBatch( keyHashes, out );
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNodeBySlot( engine.getSlot(keyHashes[i]) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( key, slots );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final int[] slots = new int[replicas];
+        engine.getReplicas( keyHash, slots );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeBySlot( slots[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> toAdd )
+    {
+
+        Require.nonEmpty( toAdd, "The resources to add are mandatory" );
+
+        toAdd.forEach( node ->
+        {
+
+            Require.nonNull( node, "The resource to add cannot be null" );
+            Require.toHold( nodeMap.putIfAbsent(node.name(),node) == null, () -> "Resource '" + node + "' already exists" );
+
+        });
+
+        final List<String> resources = toAdd.stream()
+            .map( Node::name )
+            .collect( Collectors.toList() );
+
+        final int[] weights = toAdd.stream()
+            .mapToInt( Node::weight )
+            .toArray();
+
+        final int[] slots = engine.addResources( resources, weights );
+        for( int i = 0; i < slots.length; ++i )
+        {
+
+            final int slot = slots[i];
+            if( slot >= nodes.length )
+                nodes = Arrays.copyOf( nodes, Math.max(slot + 1, nodes.length << 1) );
+
+            nodes[slot] = nodeMap.get( resources.get(i) );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> toRemove )
+    {
+
+        Require.nonEmpty( toRemove, "The resources to remove are mandatory" );
+        Require.toHold( nodeMap.size() > toRemove.size(), "Trying to remove more resources than available" );
+
+        toRemove.forEach( node ->
+        {
+
+            Require.nonNull( node, "The resource to remove cannot be null" );
+            Require.toHold( nodeMap.containsKey(node.name()), () -> "Resource '" + node + "' does not exist" );
+
+        });
+
+        final List<String> resources = toRemove.stream()
+            .map( Node::name )
+            .peek( nodeMap::remove )
+            .peek( resource -> nodes[engine.slotOf(resource)] = null )
+            .collect( Collectors.toList() );
+
+        engine.removeResources( resources );
+
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return engine.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SeededRendezvousHash copy()
+    {
+
+        return new SeededRendezvousHash( this );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the node associated to the given slot.
+     * 
+     * @param slot the slot of the related resource
+     * @return the related node
+     */
+    private Node getNodeBySlot( int slot )
+    {
+
+        return Require.nonNull(
+            nodes[slot],
+            () -> "Expected node in slot " + slot + " but it does not exist"
+        );
+
+    }
+    
+}
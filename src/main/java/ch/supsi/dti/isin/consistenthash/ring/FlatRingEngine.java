@@ -0,0 +1,855 @@
+package ch.supsi.dti.isin.consistenthash.ring;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Implementation of the {@code RingHash} algorithm backed by flat primitive arrays.
+ * <p>
+ * The positions of the virtual nodes are stored in a sorted {@code long[]}
+ * with a parallel {@code int[]} containing the index of the related physical node.
+ * The lookup is a branch-free binary search over the sorted positions,
+ * therefore it does not create any object and does not chase any pointer.
+ * <p>
+ * Nodes are added and removed in bulk: the new virtual nodes are sorted and
+ * merged with the existing ones in a single pass, and the removed virtual nodes
+ * are discarded by compacting the arrays in a single pass.
+ * <p>
+ * Optionally, the engine keeps a prefix index: a table with an entry for
+ * each value of the top {@code k} bits of the hash, holding the position of
+ * the first virtual node with that prefix. A lookup reads the index and
+ * searches only the virtual nodes sharing the prefix of the key. With about
+ * {@code 2^k} virtual nodes the search range contains few elements and the
+ * lookup takes constant time, at the cost of {@code 4 * 2^k} bytes.
+ * The index is updated incrementally when nodes are added or removed.
+ * The prefix is taken from the bits returned by the hash function
+ * (see {@link HashFunction#bits()}), therefore the index spreads
+ * the virtual nodes also with the 32 bits hash functions.
+ * <p>
+ * Given the same sequence of additions, this engine places the virtual
+ * nodes in the same positions as {@link RingEngine}, therefore the two
+ * engines map the keys to the same nodes.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FlatRingEngine
+{
+
+    /** Default number of virtual nodes to use for any physical node. */
+    private static final int DEFAULT_VIRTUAL_NODE_COUNT = 1000;
+
+    /** Initial capacity of the arrays containing the physical nodes. */
+    private static final int INITIAL_NODE_CAPACITY = 16;
+
+
+    /** Maximum number of bits usable by the prefix index. */
+    public static final int MAX_INDEX_BITS = 30;
+
+
+    /** Sorted positions of the virtual nodes in the ring. */
+    private long[] hashes;
+
+    /** Index of the physical node owning the virtual node in the same position. */
+    private int[] owners;
+
+    /** Number of virtual nodes in the ring. */
+    private int size;
+
+    /** Names of the physical nodes indexed by their index. */
+    private String[] nodes;
+
+    /** Number of physical node indexes used so far. */
+    private int nodeSlots;
+
+    /** Stack of the indexes released by the removed physical nodes. */
+    private int[] freeSlots;
+
+    /** Number of elements in the stack of released indexes. */
+    private int freeCount;
+
+    /**
+     * Position of the first virtual node for each prefix of the hash.
+     * The last entry is always equal to {@link #size}.
+     * It is {@code null} if the index is not used.
+     */
+    private final int[] index;
+
+    /** Shift to apply to a hash to get its prefix. */
+    private final int indexShift;
+
+    /** Tells if the hash values use the whole range of {@code long}. */
+    private final boolean fullRange;
+
+    /** The number of virtual node, by default {@link FlatRingEngine#DEFAULT_VIRTUAL_NODE_COUNT} */
+    private final int vNodeCount;
+
+    /** Hashing function to use. */
+    private final HashFunction hashFunction;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingEngine( HashFunction hashFunction )
+    {
+
+        this( DEFAULT_VIRTUAL_NODE_COUNT, hashFunction );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param vNodeCount   number of virtual nodes for any physical node
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingEngine( int vNodeCount, HashFunction hashFunction )
+    {
+
+        this( vNodeCount, 0, hashFunction );
+
+    }
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param vNodeCount   number of virtual nodes for any physical node
+     * @param indexBits    number of bits of the prefix index, {@code 0} to disable it
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingEngine( int vNodeCount, int indexBits, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.size = 0;
+        this.hashes = new long[0];
+        this.owners = new int[0];
+
+        this.nodeSlots = 0;
+        this.freeCount = 0;
+        this.nodes = new String[INITIAL_NODE_CAPACITY];
+        this.freeSlots = new int[INITIAL_NODE_CAPACITY];
+
+        this.index = indexBits > 0 ? new int[(1 << indexBits) + 1] : null;
+        this.fullRange = hashFunction.bits() >= Long.SIZE;
+        this.indexShift = Math.max( hashFunction.bits() - indexBits, 0 );
+
+        this.vNodeCount = vNodeCount;
+        this.hashFunction = hashFunction;
+
+    }
+
+    /**
+     * Constructor with parameters.
+     * <p>
+     * Copies the virtual nodes of the given {@link RingEngine}, therefore
+     * the two engines map the keys to the same nodes. The physical nodes
+     * get their indexes in the order they are met walking the ring.
+     *
+     * @param engine the engine to copy
+     */
+    FlatRingEngine( RingEngine engine )
+    {
+
+        this( engine.vNodeCount(), engine.hashFunction() );
+
+        ensureCapacity( engine.virtualNodesCount() );
+
+        /* The ring is visited in ascending order of position. */
+        final Map<String,Integer> slots = new HashMap<>();
+        engine.forEach( (position, vNode) ->
+        {
+
+            hashes[size] = position;
+            owners[size++] = slots.computeIfAbsent( vNode.physicalNode, this::acquireSlot );
+
+        });
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private FlatRingEngine( FlatRingEngine other )
+    {
+
+        super();
+
+        this.size = other.size;
+        this.hashes = Arrays.copyOf( other.hashes, other.size );
+        this.owners = Arrays.copyOf( other.owners, other.size );
+
+        this.nodeSlots = other.nodeSlots;
+        this.freeCount = other.freeCount;
+        this.nodes = other.nodes.clone();
+        this.freeSlots = other.freeSlots.clone();
+
+        this.index = other.index != null ? other.index.clone() : null;
+        this.indexShift = other.indexShift;
+        this.fullRange = other.fullRange;
+
+        this.vNodeCount = other.vNodeCount;
+        this.hashFunction = other.hashFunction;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     *
+     * @return a deep copy of the current engine
+     */
+    public FlatRingEngine copy()
+    {
+
+        return new FlatRingEngine( this );
+
+    }
+
+    /**
+     * Returns the physical node associated to the given key.
+     *
+     * @param key the key to check
+     * @return the related node
+     */
+    public String getNode( String key )
+    {
+
+        return getNode( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the physical node associated to the key with the given hash.
+     *
+     * @param keyHash the hash of the key to check
+     * @return the related node
+     */
+    public String getNode( long keyHash )
+    {
+
+        return nodes[getOwner( keyHash )];
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the physical node associated
+     * to the key with hash {@code keyHashes[i]}.
+     *
+     * @param keyHashes the hash values of the keys to check
+     * @param out       the array where to store the related nodes
+     */
+    public void getNodes( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNode( keyHashes[i] );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct physical
+     * nodes where the given key should be replicated.
+     *
+     * @param key the key to check
+     * @param out the array where to store the related nodes
+     */
+    public void getReplicas( String key, String[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct physical
+     * nodes where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the physical nodes met walking the ring clockwise
+     * from the position of the key, the virtual nodes belonging to a
+     * physical node already found are skipped.
+     * The array {@code out} cannot be longer than the number of physical nodes.
+     *
+     * @param keyHash the hash of the key to check
+     * @param out     the array where to store the related nodes
+     */
+    public void getReplicas( long keyHash, String[] out )
+    {
+
+        final int[] replicas = new int[out.length];
+        final int found = getReplicaOwners( keyHash, replicas, out.length );
+
+        for( int i = 0; i < found; ++i )
+            out[i] = nodes[replicas[i]];
+
+    }
+
+    /**
+     * Adds a new physical node to the cluster and
+     * returns the index associated to the node.
+     *
+     * @param pNode the physical node to add
+     * @return the index of the physical node
+     */
+    public int addNode( String pNode )
+    {
+
+        return addNodes( Collections.singletonList(pNode) )[0];
+
+    }
+
+    /**
+     * Adds the given physical nodes to the cluster and returns
+     * the indexes associated to the nodes in the same order.
+     * <p>
+     * The virtual nodes of all the given physical nodes are
+     * sorted and merged with the existing ones in a single pass.
+     *
+     * @param pNodes the physical nodes to add
+     * @return the indexes of the physical nodes
+     */
+    public int[] addNodes( List<String> pNodes )
+    {
+
+        return addNodes( pNodes, null );
+
+    }
+
+    /**
+     * Adds the given physical nodes with the given weights to the cluster
+     * and returns the indexes associated to the nodes in the same order.
+     * <p>
+     * The number of virtual nodes of each physical node is proportional
+     * to its weight. If the weights are {@code null}, each physical node
+     * gets weight {@code 1}.
+     *
+     * @param pNodes  the physical nodes to add
+     * @param weights the weights of the physical nodes in the same order
+     * @return the indexes of the physical nodes
+     */
+    public int[] addNodes( List<String> pNodes, int[] weights )
+    {
+
+        int count = 0;
+        for( int node = 0; node < pNodes.size(); ++node )
+            count += vNodeCount * (weights != null ? weights[node] : 1);
+
+        final long[] newHashes = new long[count];
+
+        /*
+         * Maps each new position to the related owner.
+         * It is used to detect the collisions between the new
+         * virtual nodes and to retrieve the owners after sorting.
+         */
+        final int tableSize = Integer.highestOneBit( Math.max(count, 1) ) << 2;
+        final long[] tableKeys = new long[tableSize];
+        final int[] tableValues = new int[tableSize];
+
+        final int[] slots = new int[pNodes.size()];
+        int n = 0;
+        for( int node = 0; node < slots.length; ++node )
+        {
+
+            final String pNode = pNodes.get( node );
+            final int slot = acquireSlot( pNode );
+            slots[node] = slot;
+
+            final int vNodes = vNodeCount * (weights != null ? weights[node] : 1);
+            for( int i = 0; i < vNodes; i++ )
+            {
+
+                long hash = hashFunction.hash( pNode, i );
+                while( contains(hash) || ! put(tableKeys, tableValues, hash, slot) )
+                    hash = hashFunction.hash( hash, i );
+
+                newHashes[n++] = hash;
+
+            }
+
+        }
+
+        Arrays.sort( newHashes );
+        ensureCapacity( size + count );
+
+        /* Merges the two sorted runs starting from the end to avoid a temporary copy. */
+        int i = size - 1;
+        int j = count - 1;
+        int k = size + count - 1;
+        while( j >= 0 )
+        {
+
+            if( i >= 0 && hashes[i] > newHashes[j] )
+            {
+                hashes[k] = hashes[i];
+                owners[k--] = owners[i--];
+            }
+            else
+            {
+                hashes[k] = newHashes[j];
+                owners[k--] = get( tableKeys, tableValues, newHashes[j--] );
+            }
+
+        }
+
+        size += count;
+        if( index != null )
+            addToIndex( newHashes );
+
+        return slots;
+
+    }
+
+    /**
+     * Removes the physical node with the given index from the ring.
+     *
+     * @param node the index of the physical node to remove
+     */
+    public void removeNode( int node )
+    {
+
+        removeNodes( new int[] { node } );
+
+    }
+
+    /**
+     * Removes the physical nodes with the given indexes from the ring.
+     * <p>
+     * The virtual nodes of all the given physical nodes
+     * are discarded in a single pass.
+     *
+     * @param toRemove the indexes of the physical nodes to remove
+     */
+    public void removeNodes( int[] toRemove )
+    {
+
+        final boolean[] removed = new boolean[nodeSlots];
+        for( int node : toRemove )
+        {
+            removed[node] = true;
+            releaseSlot( node );
+        }
+
+        /* The prefix index is updated while compacting by moving each entry to the new position. */
+        int prefix = 0;
+        final int prefixes = index != null ? index.length : 0;
+
+        int k = 0;
+        for( int i = 0; i < size; ++i )
+        {
+
+            while( prefix < prefixes && index[prefix] <= i )
+                index[prefix++] = k;
+
+            final int owner = owners[i];
+            if( removed[owner] )
+                continue;
+
+            hashes[k] = hashes[i];
+            owners[k++] = owner;
+
+        }
+
+        while( prefix < prefixes )
+            index[prefix++] = k;
+
+        size = k;
+
+    }
+
+    /**
+     * Returns the number of virtual nodes.
+     *
+     * @return number of virtual nodes.
+     */
+    public int virtualNodesCount()
+    {
+
+        return size;
+
+    }
+
+    /**
+     * Returns the index of the physical node
+     * associated to the key with the given hash.
+     *
+     * @param keyHash the hash of the key to check
+     * @return the index of the related node
+     */
+    int getOwner( long keyHash )
+    {
+
+        final int position = ceilingIndex( keyHash );
+        return owners[position < size ? position : 0];
+
+    }
+
+    /**
+     * Stores into {@code out} the indexes of the distinct physical nodes
+     * met walking the ring clockwise from the position of the key.
+     * <p>
+     * The virtual nodes belonging to a physical node already found are
+     * skipped. The walk stops after {@code replicas} physical nodes
+     * or after a whole turn of the ring.
+     *
+     * @param keyHash  the hash of the key to check
+     * @param out      the array where to store the indexes of the nodes
+     * @param replicas the number of nodes to find
+     * @return the number of nodes found
+     */
+    int getReplicaOwners( long keyHash, int[] out, int replicas )
+    {
+
+        int position = ceilingIndex( keyHash );
+        int found = 0;
+        for( int visited = 0; found < replicas && visited < size; ++visited )
+        {
+
+            if( position >= size )
+                position = 0;
+
+            final int owner = owners[position++];
+
+            int i = 0;
+            while( i < found && out[i] != owner )
+                ++i;
+
+            if( i == found )
+                out[found++] = owner;
+
+        }
+
+        return found;
+
+    }
+
+    /**
+     * Returns the name of the physical node with the given index.
+     *
+     * @param node the index of the physical node
+     * @return the name of the node, {@code null} if the index is free
+     */
+    String getNodeName( int node )
+    {
+
+        return nodes[node];
+
+    }
+
+    /**
+     * Returns the number of virtual nodes for any physical node.
+     *
+     * @return the number of virtual nodes for any physical node.
+     */
+    int vNodeCount()
+    {
+
+        return vNodeCount;
+
+    }
+
+    /**
+     * Returns the number of indexes used by the physical nodes,
+     * including the ones released by the removed nodes.
+     *
+     * @return the number of indexes used so far
+     */
+    int nodeSlots()
+    {
+
+        return nodeSlots;
+
+    }
+
+    /**
+     * Returns the number of virtual nodes searched
+     * to find the position of the given hash.
+     * <p>
+     * Without the prefix index every virtual node is searched.
+     *
+     * @param hash the hash to search
+     * @return the number of virtual nodes searched
+     */
+    int searchLength( long hash )
+    {
+
+        if( index == null )
+            return size;
+
+        final int prefix = prefix( hash );
+        return index[prefix + 1] - index[prefix];
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the index of the first virtual node with a position
+     * greater or equal to the given hash, or {@link #size} if none.
+     * <p>
+     * If the prefix index is used, only the virtual nodes
+     * sharing the prefix of the given hash are searched.
+     *
+     * @param hash the hash to search
+     * @return the index of the first position greater or equal to the given hash
+     */
+    private int ceilingIndex( long hash )
+    {
+
+        if( index == null )
+            return ceilingIndex( hash, 0, size );
+
+        final int prefix = prefix( hash );
+        return ceilingIndex( hash, index[prefix], index[prefix + 1] );
+
+    }
+
+    /**
+     * Returns the index of the first virtual node in the given range with a
+     * position greater or equal to the given hash, or {@code to} if none.
+     * <p>
+     * The loop does not depend on the result of the comparisons,
+     * therefore the JIT can replace the branch with a conditional move.
+     *
+     * @param hash the hash to search
+     * @param from the first index of the range (inclusive)
+     * @param to   the last index of the range (exclusive)
+     * @return the index of the first position greater or equal to the given hash
+     */
+    private int ceilingIndex( long hash, int from, int to )
+    {
+
+        if( from == to )
+            return to;
+
+        int base = from;
+        int length = to - from;
+        while( length > 1 )
+        {
+
+            final int half = length >>> 1;
+            base = hashes[base + half] < hash ? base + half : base;
+            length -= half;
+
+        }
+
+        return hashes[base] < hash ? base + 1 : base;
+
+    }
+
+    /**
+     * Tells if the ring contains a virtual node in the given position.
+     *
+     * @param hash the position to check
+     * @return {@code true} if the position is taken
+     */
+    private boolean contains( long hash )
+    {
+
+        final int position = ceilingIndex( hash );
+        return position < size && hashes[position] == hash;
+
+    }
+
+    /**
+     * Returns the prefix of the given hash used by the index.
+     * <p>
+     * If the hash values use the whole range of {@code long}, the sign bit
+     * is flipped so that the order of the prefixes is the same as the
+     * signed order of the hashes. Otherwise, the prefix is taken from the
+     * bits of the hash function and the key hashes outside its range are
+     * clamped to the first or the last prefix, that keeps the order.
+     *
+     * @param hash the hash to check
+     * @return the related prefix
+     */
+    private int prefix( long hash )
+    {
+
+        if( fullRange )
+            return (int)((hash ^ Long.MIN_VALUE) >>> indexShift);
+
+        if( hash < 0 )
+            return 0;
+
+        return (int) Math.min( hash >>> indexShift, index.length - 2 );
+
+    }
+
+    /**
+     * Updates the prefix index after merging the given virtual nodes.
+     * <p>
+     * Each entry is moved forward by the number of new
+     * virtual nodes with a lower prefix.
+     *
+     * @param newHashes the sorted positions of the new virtual nodes
+     */
+    private void addToIndex( long[] newHashes )
+    {
+
+        int j = 0;
+        for( int prefix = 0; prefix < index.length; ++prefix )
+        {
+
+            while( j < newHashes.length && prefix(newHashes[j]) < prefix )
+                ++j;
+
+            index[prefix] += j;
+
+        }
+
+    }
+
+    /**
+     * Ensures the arrays of the virtual nodes can contain the given number of elements.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity( int capacity )
+    {
+
+        if( hashes.length >= capacity )
+            return;
+
+        final int newCapacity = Math.max( capacity, hashes.length + (hashes.length >>> 1) );
+        hashes = Arrays.copyOf( hashes, newCapacity );
+        owners = Arrays.copyOf( owners, newCapacity );
+
+    }
+
+    /**
+     * Associates the given physical node to an index.
+     * <p>
+     * The indexes released by the removed nodes are reused.
+     *
+     * @param pNode the physical node to add
+     * @return the index associated to the node
+     */
+    private int acquireSlot( String pNode )
+    {
+
+        final int slot;
+        if( freeCount > 0 )
+            slot = freeSlots[--freeCount];
+        else
+        {
+
+            if( nodeSlots == nodes.length )
+            {
+                nodes = Arrays.copyOf( nodes, nodes.length << 1 );
+                freeSlots = Arrays.copyOf( freeSlots, freeSlots.length << 1 );
+            }
+            slot = nodeSlots++;
+
+        }
+
+        nodes[slot] = pNode;
+        return slot;
+
+    }
+
+    /**
+     * Releases the index of the given physical node.
+     *
+     * @param slot the index to release
+     */
+    private void releaseSlot( int slot )
+    {
+
+        nodes[slot] = null;
+        freeSlots[freeCount++] = slot;
+
+    }
+
+    /**
+     * Returns the position in the given open addressing table where
+     * the given hash is stored or where it should be stored.
+     * <p>
+     * The values are stored incremented by {@code 1}
+     * so that {@code 0} denotes an empty position.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to search
+     * @return the related position
+     */
+    private static int position( long[] keys, int[] values, long hash )
+    {
+
+        final int mask = keys.length - 1;
+
+        long mix = hash * 0x9E3779B97F4A7C15L;
+        int pos = (int)(mix ^ (mix >>> 32)) & mask;
+        while( values[pos] != 0 && keys[pos] != hash )
+            pos = (pos + 1) & mask;
+
+        return pos;
+
+    }
+
+    /**
+     * Stores the given entry in the given open addressing table
+     * if the hash is not already present.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to store
+     * @param owner  the owner of the hash
+     * @return {@code true} if the entry has been stored
+     */
+    private static boolean put( long[] keys, int[] values, long hash, int owner )
+    {
+
+        final int pos = position( keys, values, hash );
+        if( values[pos] != 0 )
+            return false;
+
+        keys[pos] = hash;
+        values[pos] = owner + 1;
+
+        return true;
+
+    }
+
+    /**
+     * Returns the owner of the given hash stored in the given open addressing table.
+     *
+     * @param keys   the keys of the table
+     * @param values the values of the table
+     * @param hash   the hash to search
+     * @return the related owner
+     */
+    private static int get( long[] keys, int[] values, long hash )
+    {
+
+        return values[position( keys, values, hash )] - 1;
+
+    }
+
+}
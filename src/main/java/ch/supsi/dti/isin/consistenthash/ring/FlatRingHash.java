@@ -0,0 +1,367 @@
+package ch.supsi.dti.isin.consistenthash.ring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.nerd4j.utils.lang.Require;
+import org.nerd4j.utils.tuple.Pair;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Wrapper to adapt the {@link FlatRingEngine} to the {@link ConsistentHash} interface.
+ * 
+ * This wrapper performs all the consistency checks.
+ * The nodes to add or to remove are validated before
+ * passing them to the engine in a single bulk operation.
+ *
+ *
+ * @author Massimo Coluzzi
+ */
+public class FlatRingHash implements ConsistentHash
+{
+    
+    
+    /**
+     * The {@code RingHash} algorithm engine as described in:
+     * {@code https://www.cs.princeton.edu/courses/archive/fall09/cos518/papers/chash.pdf}
+     */
+    private final FlatRingEngine engine;
+
+    /** The nodes of the cluster with the related index in the engine. */
+    private final Map<String,Pair<Node,Integer>> nodeMap;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param nodes collection of physical nodes
+     */
+    public FlatRingHash( Collection<? extends Node> nodes )
+    {
+
+        this( nodes, DEFAULT_HASH_FUNCTION );
+
+    }
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param nodes        collection of physical nodes
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingHash( Collection<? extends Node> nodes, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.nodeMap = new HashMap<>();
+        this.engine  = new FlatRingEngine( hashFunction );
+
+        this.addNodes( nodes );
+
+    }
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param nodes        collection of physical nodes
+     * @param vNodeCount   number of virtual nodes for any physical node
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingHash( Collection<? extends Node> nodes, int vNodeCount, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.nodeMap = new HashMap<>();
+        this.engine  = new FlatRingEngine( vNodeCount, hashFunction );
+
+        this.addNodes( nodes );
+
+    }
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param nodes        collection of physical nodes
+     * @param vNodeCount   number of virtual nodes for any physical node
+     * @param indexBits    number of bits of the prefix index, {@code 0} to disable it
+     * @param hashFunction hash Function to hash Node instances
+     */
+    public FlatRingHash( Collection<? extends Node> nodes, int vNodeCount, int indexBits, HashFunction hashFunction )
+    {
+
+        super();
+
+        Require.toHold(
+            indexBits >= 0 && indexBits <= FlatRingEngine.MAX_INDEX_BITS,
+            () -> "The number of bits of the prefix index must be in range [0," + FlatRingEngine.MAX_INDEX_BITS + "]"
+        );
+
+        this.nodeMap = new HashMap<>();
+        this.engine  = new FlatRingEngine( vNodeCount, indexBits, hashFunction );
+
+        this.addNodes( nodes );
+
+    }
+
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private FlatRingHash( FlatRingHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        final String node = engine.getNode(
+            Require.nonEmpty( key, "The key to evaluate is mandatory" )
+        );
+
+        final Pair<Node,?> pair = Require.nonNull(
+            nodeMap.get(node),
+            () -> "Expected physical node with name " + node + " but it does not exist"
+        );
+
+        return pair.getLeft();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final String node = engine.getNode( keyHash );
+        final Pair<Node,?> pair = Require.nonNull(
+            nodeMap.get(node),
+            () -> "Expected physical node with name " + node + " but it does not exist"
+        );
+
+        return pair.getLeft();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final String[] pNodes = new String[replicas];
+        engine.getReplicas( key, pNodes );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeByName( pNodes[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the physical nodes met walking
+     * the ring clockwise from the position of the key.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final String[] pNodes = new String[replicas];
+        engine.getReplicas( keyHash, pNodes );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeByName( pNodes[i] );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> toAdd )
+    {
+
+        Require.nonEmpty( toAdd, "The resources to add are mandatory" );
+
+        final Map<String,Node> nodes = new LinkedHashMap<>();
+        long vNodes = engine.virtualNodesCount();
+        for( Node node : toAdd )
+        {
+
+            final String pNode = Require.nonNull( node, "The resource to add cannot be null" ).name();
+            Require.toHold(
+                ! nodeMap.containsKey(pNode) && ! nodes.containsKey(pNode),
+                () -> "Resource '" + node + "' already exists"
+            );
+
+            vNodes += (long) engine.vNodeCount() * node.weight();
+            Require.toHold( vNodes <= Integer.MAX_VALUE, () -> "The weight of resource '" + node + "' is too large" );
+
+            nodes.put( pNode, node );
+
+        }
+
+        final List<String> pNodes = new ArrayList<>( nodes.keySet() );
+        final int[] weights = nodes.values().stream().mapToInt( Node::weight ).toArray();
+        final int[] indexes = engine.addNodes( pNodes, weights );
+        for( int i = 0; i < indexes.length; ++i )
+        {
+
+            final String pNode = pNodes.get( i );
+            nodeMap.put( pNode, Pair.of(nodes.get(pNode), indexes[i]) );
+
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> toRemove )
+    {
+
+        Require.nonEmpty( toRemove, "The resources to remove are mandatory" );
+        Require.toHold( nodeCount() > toRemove.size(), "Trying to remove more resources than available" );
+
+        final Map<String,Integer> indexes = new LinkedHashMap<>();
+        for( Node node : toRemove )
+        {
+
+            final String pNode = Require.nonNull( node, "The resource to remove is mandatory" ).name();
+            final Pair<?,Integer> pair = Require.nonNull(
+                ! indexes.containsKey(pNode) ? nodeMap.get( pNode ) : null,
+                () -> "Resource '" + node + "' does not exist"
+            );
+
+            indexes.put( pNode, pair.getRight() );
+
+        }
+
+        engine.removeNodes( indexes.values().stream().mapToInt(Integer::intValue).toArray() );
+        nodeMap.keySet().removeAll( indexes.keySet() );
+
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return nodeMap.size();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FlatRingHash copy()
+    {
+
+        return new FlatRingHash( this );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the node with the given name.
+     * 
+     * @param pNode the name of the physical node
+     * @return the related node
+     */
+    private Node getNodeByName( String pNode )
+    {
+
+        final Pair<Node,?> pair = Require.nonNull(
+            nodeMap.get(pNode),
+            () -> "Expected physical node with name " + pNode + " but it does not exist"
+        );
+
+        return pair.getLeft();
+
+    }
+
+}
@@ -0,0 +1,250 @@
+package ch.supsi.dti.isin.consistenthash.ring;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Read-only implementation of the {@code RingHash} algorithm backed by a {@link FlatRingEngine}.
+ * <p>
+ * The ring is copied from a {@link RingEngine} into a {@link FlatRingEngine},
+ * see {@link RingHash#freeze()}, and maps every key to the same node.
+ * The lookup is the search of the flat engine followed by an array access
+ * from the index of the physical node to the node, therefore it does not
+ * create any object and does not walk the nodes of a tree.
+ * Adding or removing nodes throws an {@link UnsupportedOperationException}.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FrozenRingHash implements ConsistentHash
+{
+
+    /** The flat copy of the ring. */
+    private final FlatRingEngine engine;
+
+    /** The physical nodes of the cluster indexed as in the engine. */
+    private final Node[] nodes;
+
+    /** Hashing function to use. */
+    private final HashFunction hashFunction;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine  the engine to freeze
+     * @param resolve function returning the node with the given name
+     */
+    FrozenRingHash( RingEngine engine, Function<String,Node> resolve )
+    {
+
+        super();
+
+        this.hashFunction = engine.hashFunction();
+        this.engine = new FlatRingEngine( engine );
+
+        this.nodes = new Node[this.engine.nodeSlots()];
+        for( int i = 0; i < nodes.length; ++i )
+            nodes[i] = resolve.apply( this.engine.getNodeName(i) );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( String key )
+    {
+
+        final long keyHash = hashFunction.hash(
+            Require.nonEmpty( key, "The key to evaluate is mandatory" )
+        );
+
+        return nodes[engine.getOwner(keyHash)];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        return nodes[engine.getOwner(keyHash)];
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        final long keyHash = hashFunction.hash(
+            Require.nonEmpty( key, "The key to evaluate is mandatory" )
+        );
+
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final Node[] out = new Node[replicas];
+        collectReplicas( keyHash, replicas, out );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the physical nodes met walking
+     * the ring clockwise from the position of the key.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+        collectReplicas( keyHash, replicas, out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void addNodes( Collection<? extends Node> toAdd )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed.
+     */
+    @Override
+    public void removeNodes( Collection<? extends Node> toRemove )
+    {
+
+        throw ConsistentHash.frozen();
+
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean supportsOnlyLifoRemovals()
+    {
+
+        return false;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodeCount()
+    {
+
+        return nodes.length;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The flat copy of the ring, it is shared
+     * by the frozen instance and must not be changed.
+     */
+    @Override
+    public FlatRingEngine engine()
+    {
+
+        return engine;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A frozen instance cannot be changed,
+     * therefore the copy is the instance itself.
+     */
+    @Override
+    public FrozenRingHash copy()
+    {
+
+        return this;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FrozenRingHash freeze()
+    {
+
+        return this;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Stores into {@code out} the distinct physical nodes met
+     * walking the ring clockwise from the position of the key.
+     *
+     * @param keyHash  the hash of the key to check
+     * @param replicas the number of nodes to find
+     * @param out      the array where to store the related nodes
+     */
+    private void collectReplicas( long keyHash, int replicas, Node[] out )
+    {
+
+        final int[] found = new int[replicas];
+        engine.getReplicaOwners( keyHash, found, replicas );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = nodes[found[i]];
+
+    }
+
+}
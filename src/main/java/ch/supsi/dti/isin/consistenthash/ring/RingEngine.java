@@ -69,12 +69,42 @@ public class RingEngine
         
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the engine to copy
+     */
+    private RingEngine( RingEngine other )
+    {
+
+        super();
+
+        this.ring = new TreeMap<>( other.ring );
+        this.vNodeCount = other.vNodeCount;
+        this.hashFunction = other.hashFunction;
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
     /* ******************* */
 
 
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     * 
+     * @return a deep copy of the current engine
+     */
+    public RingEngine copy()
+    {
+
+        return new RingEngine( this );
+
+    }
+
     /**
      * Returns the physical node associated to the given key.
      * 
@@ -84,7 +114,19 @@ public class RingEngine
     public String getNode( String key )
     {
 
-        final long keyHash = hashFunction.hash( key );
+        return getNode( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the physical node associated to the key with the given hash.
+     * 
+     * @param keyHash the hash of the key to check
+     * @return the related node
+     */
+    public String getNode( long keyHash )
+    {
+
         final SortedMap<Long, VirtualNode> tailMap = ring.tailMap( keyHash );
 
         final Long nodeHash
@@ -96,6 +138,56 @@ public class RingEngine
 
     }
 
+    /**
+     * Stores into {@code out[i]} the physical node associated
+     * to the key with hash {@code keyHashes[i]}.
+     * 
+     * @param keyHashes the hash values of the keys to check
+     * @param out       the array where to store the related nodes
+     */
+    public void getNodes( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = getNode( keyHashes[i] );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct physical
+     * nodes where the given key should be replicated.
+     * 
+     * @param key the key to check
+     * @param out the array where to store the related nodes
+     */
+    public void getReplicas( String key, String[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the {@code out.length} distinct physical
+     * nodes where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the physical nodes met walking the ring clockwise
+     * from the position of the key, the virtual nodes belonging to a
+     * physical node already found are skipped.
+     * The array {@code out} cannot be longer than the number of physical nodes.
+     * 
+     * @param keyHash the hash of the key to check
+     * @param out     the array where to store the related nodes
+     */
+    public void getReplicas( long keyHash, String[] out )
+    {
+
+        final int found = collectReplicas( ring.tailMap(keyHash).values(), out, 0 );
+        if( found < out.length )
+            collectReplicas( ring.headMap(keyHash).values(), out, found );
+
+    }
+
     /**
      * Adds a new physical node to the cluster and returns the list
      * of virtual nodes associated with the given phisical node.
@@ -106,8 +198,29 @@ public class RingEngine
     public Collection<VirtualNode> addNode( String pNode )
     {
 
+        return addNode( pNode, 1 );
+
+    }
+
+    /**
+     * Adds a new physical node with the given weight to the cluster and
+     * returns the list of virtual nodes associated with the given phisical node.
+     * <p>
+     * The number of virtual nodes is proportional to the weight.
+     * The first virtual nodes are the same created with weight {@code 1},
+     * therefore changing the weight of a node moves only the keys
+     * of the added or removed virtual nodes.
+     * 
+     * @param node   the physical node to add
+     * @param weight the weight of the node
+     * @return the collection of related virtual nodes
+     */
+    public Collection<VirtualNode> addNode( String pNode, int weight )
+    {
+
+        final int count = vNodeCount * weight;
         final List<VirtualNode> vNodes = new LinkedList<>();
-        for( int i = 0; i < vNodeCount; i++ )
+        for( int i = 0; i < count; i++ )
         {
 
             
@@ -150,6 +263,30 @@ public class RingEngine
 
     }
 
+    /**
+     * Returns the hash function used by the engine.
+     * 
+     * @return the hash function used by the engine.
+     */
+    public HashFunction hashFunction()
+    {
+
+        return hashFunction;
+
+    }
+
+    /**
+     * Returns the number of virtual nodes for any physical node.
+     * 
+     * @return the number of virtual nodes for any physical node.
+     */
+    int vNodeCount()
+    {
+
+        return vNodeCount;
+
+    }
+
     /**
      * Applies the given anction for each pair
      * {@code <hash,virtual-node>} in the ring.
@@ -162,4 +299,42 @@ public class RingEngine
 
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Stores into {@code out} the distinct physical nodes of
+     * the given virtual nodes until the array is full.
+     * 
+     * @param vNodes the virtual nodes to visit in ring order
+     * @param out    the array where to store the physical nodes
+     * @param found  the number of physical nodes already stored
+     * @return the number of physical nodes stored
+     */
+    private static int collectReplicas( Collection<VirtualNode> vNodes, String[] out, int found )
+    {
+
+        for( VirtualNode vNode : vNodes )
+        {
+
+            int i = 0;
+            while( i < found && ! out[i].equals(vNode.physicalNode) )
+                ++i;
+
+            if( i < found )
+                continue;
+
+            out[found++] = vNode.physicalNode;
+            if( found == out.length )
+                break;
+
+        }
+
+        return found;
+
+    }
+
 }
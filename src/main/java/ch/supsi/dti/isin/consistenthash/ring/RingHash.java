@@ -1,7 +1,9 @@
 package ch.supsi.dti.isin.consistenthash.ring;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.nerd4j.utils.lang.Require;
@@ -85,6 +87,21 @@ public class RingHash implements ConsistentHash
 
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the instance to copy
+     */
+    private RingHash( RingHash other )
+    {
+
+        super();
+
+        this.engine = other.engine.copy();
+        this.nodeMap = new HashMap<>( other.nodeMap );
+
+    }
+
 
     /* ******************* */
     /*  INTERFACE METHODS  */
@@ -111,6 +128,64 @@ public class RingHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getNode( long keyHash )
+    {
+
+        final String node = engine.getNode( keyHash );
+        final Pair<Node,?> pair = Require.nonNull(
+            nodeMap.get(node),
+            () -> "Expected physical node with name " + node + " but it does not exist"
+        );
+
+        return pair.getLeft();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Node> getNodes( String key, int replicas )
+    {
+
+        Require.nonEmpty( key, "The key to evaluate is mandatory" );
+        ConsistentHash.checkReplicas( replicas, nodeCount() );
+
+        final String[] pNodes = new String[replicas];
+        engine.getReplicas( key, pNodes );
+
+        final Node[] out = new Node[replicas];
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeByName( pNodes[i] );
+
+        return Arrays.asList( out );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The replicas are the physical nodes met walking
+     * the ring clockwise from the position of the key.
+     */
+    @Override
+    public void getNodes( long keyHash, int replicas, Node[] out )
+    {
+
+        ConsistentHash.checkReplicas( replicas, nodeCount(), out );
+
+        final String[] pNodes = new String[replicas];
+        engine.getReplicas( keyHash, pNodes );
+
+        for( int i = 0; i < replicas; ++i )
+            out[i] = getNodeByName( pNodes[i] );
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -124,8 +199,12 @@ public class RingHash implements ConsistentHash
 
             final String pNode = Require.nonNull( node, "The resource to add cannot be null" ).name();
             Require.toHold( ! nodeMap.containsKey(pNode), () -> "Resource '" + node + "' already exists" );
+            Require.toHold(
+                (long) engine.vNodeCount() * node.weight() <= Integer.MAX_VALUE,
+                () -> "The weight of resource '" + node + "' is too large"
+            );
 
-            final Collection<VirtualNode> vNodes = engine.addNode( pNode );
+            final Collection<VirtualNode> vNodes = engine.addNode( pNode, node.weight() );
             final Pair<Node,Collection<VirtualNode>> pair = Pair.of( node, vNodes );
 
             nodeMap.put( pNode, pair );
@@ -171,6 +250,17 @@ public class RingHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsWeights()
+    {
+
+        return true;
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -193,4 +283,52 @@ public class RingHash implements ConsistentHash
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RingHash copy()
+    {
+
+        return new RingHash( this );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The ring is copied into a {@link FlatRingEngine}, see {@link FrozenRingHash}.
+     */
+    @Override
+    public FrozenRingHash freeze()
+    {
+
+        return new FrozenRingHash( engine, this::getNodeByName );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the node with the given name.
+     * 
+     * @param pNode the name of the physical node
+     * @return the related node
+     */
+    private Node getNodeByName( String pNode )
+    {
+
+        final Pair<Node,?> pair = Require.nonNull(
+            nodeMap.get(pNode),
+            () -> "Expected physical node with name " + pNode + " but it does not exist"
+        );
+
+        return pair.getLeft();
+
+    }
+
 }
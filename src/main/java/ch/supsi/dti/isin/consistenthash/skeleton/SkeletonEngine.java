@@ -0,0 +1,687 @@
+package ch.supsi.dti.isin.consistenthash.skeleton;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousEngine;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+
+/**
+ * Implementation of the skeleton-based hierarchical variant
+ * of the {@code RendezvousHash} algorithm.
+ *
+ * <p>
+ * The resources are stored in slots and the slots are the leaves of a virtual
+ * tree with fixed fan-out (the skeleton). Each group of {@code fanout} slots
+ * forms a cluster, each group of {@code fanout} clusters forms a cluster of the
+ * next level and so on up to the root. A key is mapped by running the rendezvous
+ * algorithm among the children of the root, then among the children of the
+ * selected node, and so on down to a slot. A lookup computes
+ * {@code fanout * log_fanout(n)} scores instead of {@code n}.
+ *
+ * <p>
+ * The score of a child is computed by mixing the hash of the key with the
+ * seed of the child. The seed of a slot is computed from the name of its
+ * resource, the seed of an inner node depends only on its level and index.
+ * The children of an inner node are weighted by the number of slots they
+ * contain, therefore the keys are evenly spread even if the last clusters
+ * are not full.
+ *
+ * <p>
+ * The subtrees without resources are skipped during the lookup. When a resource
+ * is removed its slot becomes empty, but the weights of the subtrees do not
+ * change, therefore only the keys of the removed resource are moved, and they
+ * are moved to the other resources of the same cluster. The slots released by
+ * the removed resources are reused by the added resources, and only the keys
+ * of the new resource are moved. If no slot is free, a new slot is appended and,
+ * when the tree is full, a new root is added on top of the current one.
+ *
+ * <p>
+ * <b>NOTE:</b>
+ * appending a slot is not minimally disruptive. The new slot increases the
+ * weight of each of its ancestors, therefore the keys entering those subtrees
+ * are spread among all their slots and some keys are moved between existing
+ * resources. The keys are moved only when the resource is added past the free
+ * slots, and the number of moved keys is in the order of {@code depth / n}
+ * instead of {@code 1 / n}. Weighting the children by their fixed span would
+ * avoid such movements, but the resources in the last partial clusters would
+ * receive several times their share of keys.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class SkeletonEngine
+{
+
+    /** Seed used to compute the seeds of the inner nodes. */
+    private static final long INNER_SEED = 0x9E3779B97F4A7C15L;
+
+    /** Scale to convert the top {@code 53} bits of a score into a {@code double}. */
+    private static final double UNIT = 0x1.0p-53;
+
+
+    /** The hashing function to use. */
+    private final HashFunction hashFunction;
+
+    /** Number of children of each inner node of the tree. */
+    private final int fanout;
+
+    /** The seeds of the nodes of each level, the level {@code 0} contains the slots. */
+    private long[][] seeds;
+
+    /** The number of resources in the subtree of each node of each level. */
+    private int[][] counts;
+
+    /** The number of slots in the subtree of a node of each level. */
+    private long[] spans;
+
+    /** Number of levels below the root. */
+    private int depth;
+
+    /** Number of resources. */
+    private int size;
+
+    /** The resources indexed by slot, {@code null} if the slot is free. */
+    private String[] resources;
+
+    /** Maps each resource to the related slot. */
+    private final Map<String,Integer> slots;
+
+    /** Stack of the slots released by the removed resources. */
+    private int[] freeSlots;
+
+    /** Number of elements in the stack of released slots. */
+    private int freeCount;
+
+    /** Number of slots used so far. */
+    private int slotCount;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param fanout       number of children of each inner node
+     * @param hashFunction the hashing function to use
+     */
+    public SkeletonEngine( int fanout, HashFunction hashFunction )
+    {
+
+        super();
+
+        this.hashFunction = hashFunction;
+        this.fanout = fanout;
+
+        this.depth  = 1;
+        this.spans  = new long[] { 1, fanout };
+        this.seeds  = new long[][] { new long[fanout] };
+        this.counts = new int[][] { new int[fanout] };
+        this.size   = 0;
+
+        this.resources = new String[fanout];
+        this.slots     = new HashMap<>();
+        this.freeSlots = new int[fanout];
+        this.freeCount = 0;
+        this.slotCount = 0;
+
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the engine to copy
+     */
+    private SkeletonEngine( SkeletonEngine other )
+    {
+
+        super();
+
+        this.hashFunction = other.hashFunction;
+        this.fanout = other.fanout;
+
+        this.depth  = other.depth;
+        this.spans  = other.spans.clone();
+        this.seeds  = new long[depth][];
+        this.counts = new int[depth][];
+        for( int level = 0; level < depth; ++level )
+        {
+            this.seeds[level]  = other.seeds[level].clone();
+            this.counts[level] = other.counts[level].clone();
+        }
+        this.size   = other.size;
+
+        this.resources = other.resources.clone();
+        this.slots     = new HashMap<>( other.slots );
+        this.freeSlots = other.freeSlots.clone();
+        this.freeCount = other.freeCount;
+        this.slotCount = other.slotCount;
+
+    }
+
+
+    /* **************** */
+    /*  PUBLIC METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns a deep copy of the current engine.
+     * <p>
+     * Changes to the copy do not affect the current engine.
+     *
+     * @return a deep copy of the current engine
+     */
+    public SkeletonEngine copy()
+    {
+
+        return new SkeletonEngine( this );
+
+    }
+
+    /**
+     * Returns the resource related to the given key.
+     *
+     * @param key the key to map
+     * @return the related resource
+     */
+    public String getResource( String key )
+    {
+
+        return resources[getSlot( key )];
+
+    }
+
+    /**
+     * Returns the resource related to the key with the given hash.
+     * <p>
+     * The key is hashed only once, therefore {@code getResource(key)}
+     * and {@code getResource(hash(key))} return the same resource.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the related resource
+     */
+    public String getResource( long keyHash )
+    {
+
+        return resources[getSlot( keyHash )];
+
+    }
+
+    /**
+     * Stores into {@code out[i]} the resource related
+     * to the key with hash {@code keyHashes[i]}.
+     *
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related resources
+     */
+    public void getResources( long[] keyHashes, String[] out )
+    {
+
+        for( int i = 0; i < keyHashes.length; ++i )
+            out[i] = resources[getSlot( keyHashes[i] )];
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the given key.
+     *
+     * @param key the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( String key )
+    {
+
+        return getSlot( hashFunction.hash(key) );
+
+    }
+
+    /**
+     * Returns the slot of the resource related to the key with the given hash.
+     * <p>
+     * Starting from the root, the child with the highest score
+     * is selected among the ones containing at least one resource
+     * until a slot is reached.
+     *
+     * @param keyHash the hash of the key to map
+     * @return the slot of the related resource
+     */
+    public int getSlot( long keyHash )
+    {
+
+        int index = 0;
+        for( int level = depth - 1; level >= 0; --level )
+        {
+
+            final int first = index * fanout;
+            final long span = spans[level];
+            final boolean full = slotCount >= (first + fanout) * span;
+
+            index = full
+            ? selectAmongEqual( keyHash, level, first )
+            : selectAmongWeighted( keyHash, level, first, span );
+
+        }
+
+        return index;
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the given key should be replicated.
+     *
+     * @param key the key to map
+     * @param out the array where to store the slots of the related resources
+     */
+    public void getReplicas( String key, int[] out )
+    {
+
+        getReplicas( hashFunction.hash(key), out );
+
+    }
+
+    /**
+     * Stores into {@code out} the slots of the {@code out.length} distinct
+     * resources where the key with the given hash should be replicated.
+     * <p>
+     * The replicas are the resources met walking the rehash chain
+     * of the key (see {@link ConsistentHash#rehash(long, int)}),
+     * the resources already found are skipped.
+     * The array {@code out} cannot be longer than {@link #size()}.
+     *
+     * @param keyHash the hash of the key to map
+     * @param out     the array where to store the slots of the related resources
+     */
+    public void getReplicas( long keyHash, int[] out )
+    {
+
+        int found = 0;
+        for( int probe = 0; found < out.length; ++probe )
+        {
+
+            final int slot = getSlot( ConsistentHash.rehash(keyHash, probe) );
+
+            int i = 0;
+            while( i < found && out[i] != slot )
+                ++i;
+
+            if( i == found )
+                out[found++] = slot;
+
+        }
+
+    }
+
+    /**
+     * Adds the given resources and returns the slots
+     * associated to the resources in the same order.
+     *
+     * @param toAdd the resources to add
+     * @return the slots of the resources
+     */
+    public int[] addResources( Collection<String> toAdd )
+    {
+
+        final int[] added = new int[toAdd.size()];
+
+        int i = 0;
+        for( String resource : toAdd )
+        {
+
+            final int slot = acquireSlot( resource );
+            added[i++] = slot;
+
+            seeds[0][slot] = SeededRendezvousEngine.seed( resource, hashFunction );
+            updateCounts( slot, 1 );
+            ++size;
+
+        }
+
+        return added;
+
+    }
+
+    /**
+     * Removes the given resources.
+     * <p>
+     * The slots of the removed resources are left empty
+     * and the tree structure does not change.
+     *
+     * @param toRemove the resources to remove
+     */
+    public void removeResources( Collection<String> toRemove )
+    {
+
+        for( String resource : toRemove )
+        {
+
+            final int slot = releaseSlot( resource );
+            updateCounts( slot, -1 );
+            --size;
+
+        }
+
+    }
+
+    /**
+     * Returns the slot associated to the given resource.
+     *
+     * @param resource the resource to check
+     * @return the related slot
+     */
+    public int slotOf( String resource )
+    {
+
+        return slots.get( resource );
+
+    }
+
+    /**
+     * Returns the number of resources.
+     *
+     * @return the number of resources
+     */
+    public int size()
+    {
+
+        return size;
+
+    }
+
+    /**
+     * Returns the number of children of each inner node.
+     *
+     * @return the fan-out of the tree
+     */
+    public int fanout()
+    {
+
+        return fanout;
+
+    }
+
+    /**
+     * Returns the number of levels of the tree below the root.
+     * <p>
+     * A lookup computes at most {@code fanout} scores per level.
+     *
+     * @return the depth of the tree
+     */
+    public int depth()
+    {
+
+        return depth;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Selects the child with the highest score among the
+     * non empty children starting at the given index.
+     * <p>
+     * Used when all the children contain the same number of slots.
+     *
+     * @param keyHash the hash of the key to map
+     * @param level   the level of the children
+     * @param first   the index of the first child
+     * @return the index of the selected child
+     */
+    private int selectAmongEqual( long keyHash, int level, int first )
+    {
+
+        final long[] seeds = this.seeds[level];
+        final int[] counts = this.counts[level];
+
+        int selected = -1;
+        long maxScore = -1;
+        for( int i = first; i < first + fanout; ++i )
+        {
+
+            if( counts[i] == 0 )
+                continue;
+
+            final long score = score( keyHash, seeds[i] );
+            if( score > maxScore )
+            {
+                selected = i;
+                maxScore = score;
+            }
+
+        }
+
+        return selected;
+
+    }
+
+    /**
+     * Selects the child with the highest weighted score among
+     * the non empty children starting at the given index.
+     * <p>
+     * Each child is weighted by the number of slots it contains.
+     * If all the weights are equal, the selected child is the same
+     * selected by {@link #selectAmongEqual(long, int, int)}.
+     *
+     * @param keyHash the hash of the key to map
+     * @param level   the level of the children
+     * @param first   the index of the first child
+     * @param span    the number of slots in a full child
+     * @return the index of the selected child
+     */
+    private int selectAmongWeighted( long keyHash, int level, int first, long span )
+    {
+
+        final long[] seeds = this.seeds[level];
+        final int[] counts = this.counts[level];
+
+        int selected = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for( int i = first; i < first + fanout; ++i )
+        {
+
+            if( counts[i] == 0 )
+                continue;
+
+            final long weight = Math.min( span, slotCount - i * span );
+            final double unit = (score( keyHash, seeds[i] ) + 1) * UNIT;
+            final double distance = -Math.log( unit ) / weight;
+            if( distance < minDistance )
+            {
+                selected = i;
+                minDistance = distance;
+            }
+
+        }
+
+        return selected;
+
+    }
+
+    /**
+     * Computes the score of the node with the given seed for the key with the given hash.
+     * <p>
+     * The score is a non negative value with {@code 53} significant bits.
+     *
+     * @param keyHash the hash of the key
+     * @param seed    the seed of the node
+     * @return the related score
+     */
+    private static long score( long keyHash, long seed )
+    {
+
+        return ConsistentHash.mix( keyHash ^ seed ) >>> 11;
+
+    }
+
+    /**
+     * Computes the seed of the inner node with the given level and index.
+     *
+     * @param level the level of the node
+     * @param index the index of the node in the level
+     * @return the seed of the node
+     */
+    private static long seed( int level, int index )
+    {
+
+        return ConsistentHash.mix( ((long) level << 32 | index) + INNER_SEED );
+
+    }
+
+    /**
+     * Adds the given delta to the number of resources
+     * of each node in the path from the given slot to the root.
+     *
+     * @param slot  the slot of the changed resource
+     * @param delta the number of resources to add
+     */
+    private void updateCounts( int slot, int delta )
+    {
+
+        int index = slot;
+        for( int level = 0; level < depth; ++level )
+        {
+
+            counts[level][index] += delta;
+            index /= fanout;
+
+        }
+
+    }
+
+    /**
+     * Appends a new slot to the tree.
+     * <p>
+     * The arrays of each level are extended to contain the
+     * children of the nodes containing the new slot and,
+     * if the tree is full, a new root is added.
+     * <p>
+     * The weights of the ancestors of the new slot grow,
+     * therefore some keys are moved between the existing
+     * resources of such subtrees.
+     *
+     * @return the appended slot
+     */
+    private int appendSlot()
+    {
+
+        final int slot = slotCount++;
+        if( slotCount > spans[depth] )
+            addLevel();
+
+        long span = 1;
+        for( int level = 0; level < depth; ++level, span *= fanout )
+        {
+
+            final int required = (int) (slot / (span * fanout) + 1) * fanout;
+            if( required > counts[level].length )
+                growLevel( level, Math.max(required, counts[level].length << 1) );
+
+        }
+
+        if( slot == resources.length )
+        {
+            resources = Arrays.copyOf( resources, resources.length << 1 );
+            freeSlots = Arrays.copyOf( freeSlots, freeSlots.length << 1 );
+        }
+
+        return slot;
+
+    }
+
+    /**
+     * Adds a new root on top of the current one.
+     * <p>
+     * The current root becomes the first child of the new root,
+     * therefore the seeds of the existing nodes do not change.
+     */
+    private void addLevel()
+    {
+
+        final int level = depth++;
+
+        spans = Arrays.copyOf( spans, depth + 1 );
+        spans[depth] = spans[level] * fanout;
+
+        seeds = Arrays.copyOf( seeds, depth );
+        counts = Arrays.copyOf( counts, depth );
+
+        seeds[level] = new long[fanout];
+        counts[level] = new int[fanout];
+        for( int i = 0; i < fanout; ++i )
+            seeds[level][i] = seed( level, i );
+
+        counts[level][0] = size;
+
+    }
+
+    /**
+     * Extends the arrays of the given level to the given length.
+     *
+     * @param level  the level to extend
+     * @param length the new length of the arrays
+     */
+    private void growLevel( int level, int length )
+    {
+
+        final int from = counts[level].length;
+
+        counts[level] = Arrays.copyOf( counts[level], length );
+        seeds[level] = Arrays.copyOf( seeds[level], length );
+
+        if( level > 0 )
+            for( int i = from; i < length; ++i )
+                seeds[level][i] = seed( level, i );
+
+    }
+
+    /**
+     * Associates the given resource to a slot.
+     * <p>
+     * The slots released by the removed resources are reused.
+     *
+     * @param resource the resource to add
+     * @return the slot associated to the resource
+     */
+    private int acquireSlot( String resource )
+    {
+
+        final int slot = freeCount > 0
+        ? freeSlots[--freeCount]
+        : appendSlot();
+
+        resources[slot] = resource;
+        slots.put( resource, slot );
+
+        return slot;
+
+    }
+
+    /**
+     * Releases the slot of the given resource.
+     *
+     * @param resource the resource to remove
+     * @return the released slot
+     */
+    private int releaseSlot( String resource )
+    {
+
+        final int slot = slots.remove( resource );
+        resources[slot] = null;
+        freeSlots[freeCount++] = slot;
+
+        return slot;
+
+    }
+
+}
@@ -0,0 +1,161 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.LENGTH;
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.LONGS;
+
+import java.util.Arrays;
+
+import ch.supsi.dti.isin.consistenthash.binomial.BinomialEngine;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+
+
+/**
+ * Vectorized lookup for the {@link BinomialEngine}.
+ * <p>
+ * The lanes compute the first step of the scalar algorithm: the relocation
+ * within the enclosing tree. Since the buckets are smaller than {@code 2^31}
+ * the highest one bit is computed by smearing the bits to the right.
+ * The lanes falling outside the cluster are resolved one by one by the
+ * engine. Keeping the vector path free of branches lets the compiler
+ * keep the lanes in registers, while the mapped buckets are the same
+ * as the scalar algorithm.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class BinomialVectorLookup implements VectorLookup
+{
+
+    /** Multiplier of the linear congruential generator used to rehash. */
+    private static final long LCG_MULTIPLIER = 2862933555777941757L;
+
+
+    /** The engine to evaluate. */
+    private final BinomialEngine engine;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the engine to evaluate
+     */
+    public BinomialVectorLookup( BinomialEngine engine )
+    {
+
+        super();
+
+        this.engine = engine;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = engine.size();
+
+        /* If the cluster counts only one node we return such a node. */
+        if( size < 2 )
+        {
+            Arrays.fill( out, 0, keyHashes.length, 0 );
+            return;
+        }
+
+        final long enclosingTreeFilter = engine.enclosingTreeFilter();
+
+        final int bound = LONGS.loopBound( keyHashes.length );
+        final long[] lanes = new long[LENGTH];
+
+        int i = 0;
+        for( ; i < bound; i += LENGTH )
+        {
+
+            final LongVector hash = LongVector.fromArray( LONGS, keyHashes, i );
+            relocateWithinLevel( hash.and(enclosingTreeFilter), hash ).intoArray( lanes, 0 );
+
+            for( int j = 0; j < LENGTH; ++j )
+                out[i + j] = lanes[j] < size ? (int) lanes[j] : engine.getBucket( keyHashes[i + j] );
+
+        }
+
+        for( ; i < keyHashes.length; ++i )
+            out[i] = engine.getBucket( keyHashes[i] );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns random positions inside the same tree levels of the provided buckets.
+     * <p>
+     * The buckets {@code 0} and {@code 1} have an empty level filter,
+     * therefore they are left unchanged as in the scalar algorithm.
+     *
+     * @param bucket the buckets to relocate
+     * @param hash   the hashes of the keys mapped to the buckets
+     * @return random positions inside the same tree levels
+     */
+    private static LongVector relocateWithinLevel( LongVector bucket, LongVector hash )
+    {
+
+        final LongVector smeared = smear( bucket );
+        final LongVector levelFilter = smeared.lanewise( VectorOperators.LSHR, 1 );
+        final LongVector levelBaseIndex = smeared.sub( levelFilter );
+
+        final LongVector levelHash = rehash( hash, levelFilter );
+        return levelBaseIndex.add( levelHash.and(levelFilter) );
+
+    }
+
+    /**
+     * Sets all the bits to the right of the highest one bit.
+     *
+     * @param value values smaller than {@code 2^32}
+     * @return the smeared values
+     */
+    private static LongVector smear( LongVector value )
+    {
+
+        value = value.or( value.lanewise(VectorOperators.LSHR, 1) );
+        value = value.or( value.lanewise(VectorOperators.LSHR, 2) );
+        value = value.or( value.lanewise(VectorOperators.LSHR, 4) );
+        value = value.or( value.lanewise(VectorOperators.LSHR, 8) );
+        return value.or( value.lanewise(VectorOperators.LSHR, 16) );
+
+    }
+
+    /**
+     * Linear congruential generator to create uniformly
+     * distributed values with a different seed for each lane.
+     *
+     * @param value the values to rehash
+     * @param seed  the seeds to use
+     * @return the rehashed values
+     */
+    private static LongVector rehash( LongVector value, LongVector seed )
+    {
+
+        final LongVector hash = value.mul( LCG_MULTIPLIER ).add( 1 );
+        return hash.mul( hash ).mul( seed ).lanewise( VectorOperators.LSHR, 32 );
+
+    }
+
+}
@@ -0,0 +1,193 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.INTS;
+
+import java.util.Arrays;
+
+import ch.supsi.dti.isin.consistenthash.flip.FlipEngine;
+import ch.supsi.dti.isin.hashfunction.XXHash;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+
+
+/**
+ * Vectorized lookup for the {@link FlipEngine}.
+ * <p>
+ * The rehashes of {@code FlipHash} are computed with the seeded variants
+ * of the hash function, therefore they can be evaluated in the lanes only
+ * if the hash function is known. This class computes the seeded {@code XX32}
+ * hashes of {@link XXHash} in {@code int} lanes, the engines using any other
+ * hash function are delegated to {@link FlipEngine#getBuckets(long[], int[])}.
+ * <p>
+ * The lanes compute the rehash of the function used when the size is
+ * a power of two, the lanes falling outside the cluster are resolved
+ * one by one by the engine. The mapped buckets are smaller than
+ * {@code 2^31}, therefore they fit into {@code int} lanes.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class FlipVectorLookup implements VectorLookup
+{
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME2 = 0x85EBCA77;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME3 = 0xC2B2AE3D;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME4 = 0x27D4EB2F;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME5 = 0x165667B1;
+
+
+    /** Number of keys evaluated together. */
+    private static final int LENGTH = INTS.length();
+
+
+    /** The engine to evaluate. */
+    private final FlipEngine engine;
+
+    /** Tells if the hash function of the engine can be evaluated in the lanes. */
+    private final boolean vectorizable;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the engine to evaluate
+     */
+    public FlipVectorLookup( FlipEngine engine )
+    {
+
+        super();
+
+        this.engine = engine;
+        this.vectorizable = engine.hashFunction().getClass() == XXHash.class;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        if( ! vectorizable )
+        {
+            engine.getBuckets( keyHashes, out );
+            return;
+        }
+
+        final int size = engine.size();
+        if( size == 0 )
+        {
+            Arrays.fill( out, 0, keyHashes.length, 0 );
+            return;
+        }
+
+        final long pow2Mask = ~0L >>> Long.numberOfLeadingZeros( size );
+        final int bound = INTS.loopBound( keyHashes.length );
+
+        final int[] maskedHashes = new int[LENGTH];
+        final int[] filters = new int[LENGTH];
+        final int[] inputs = new int[3 * LENGTH];
+        final int[] lanes = new int[LENGTH];
+
+        int i = 0;
+        for( ; i < bound; i += LENGTH )
+        {
+
+            /*
+             * The leading zeros are counted by the scalar instruction and
+             * the seeded hashes are evaluated in the lanes. The hashed
+             * bytes are little endian, the seed is smaller than 256.
+             * A shift by 64 bits is a no-op, therefore the filter
+             * of an empty masked hash is set explicitly.
+             */
+            for( int j = 0; j < LENGTH; ++j )
+            {
+
+                final long hash = keyHashes[i + j];
+                final long maskedHash = hash & pow2Mask;
+                final int leadingZeros = Long.numberOfLeadingZeros( maskedHash );
+
+                maskedHashes[j] = (int) maskedHash;
+                filters[j] = maskedHash == 0 ? 0 : (int) (~0L >>> leadingZeros >>> 1);
+
+                inputs[j] = Integer.reverseBytes( (int) (hash >>> 32) );
+                inputs[j + LENGTH] = Integer.reverseBytes( (int) hash );
+                inputs[j + 2 * LENGTH] = leadingZeros << 24;
+
+            }
+
+            /* Seeded XX32 hash of the 12 bytes: key hash and leading zeros. */
+            IntVector rehash = IntVector.broadcast( INTS, PRIME5 + 12 );
+            rehash = lane( rehash, IntVector.fromArray(INTS, inputs, 0) );
+            rehash = lane( rehash, IntVector.fromArray(INTS, inputs, LENGTH) );
+            rehash = lane( rehash, IntVector.fromArray(INTS, inputs, 2 * LENGTH) );
+            rehash = avalanche( rehash );
+
+            IntVector.fromArray( INTS, maskedHashes, 0 )
+                .lanewise( VectorOperators.XOR, rehash.and(IntVector.fromArray(INTS, filters, 0)) )
+                .intoArray( lanes, 0 );
+
+            for( int j = 0; j < LENGTH; ++j )
+                out[i + j] = lanes[j] < size ? lanes[j] : engine.getBucket( keyHashes[i + j] );
+
+        }
+
+        for( ; i < keyHashes.length; ++i )
+            out[i] = engine.getBucket( keyHashes[i] );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Mixes a 4 bytes lane that does not belong to a full stripe.
+     *
+     * @param hash  the current hash values
+     * @param input the input lanes
+     * @return the updated hash values
+     */
+    private static IntVector lane( IntVector hash, IntVector input )
+    {
+
+        return hash.add( input.mul(PRIME3) ).lanewise( VectorOperators.ROL, 17 ).mul( PRIME4 );
+
+    }
+
+    /**
+     * Applies the final avalanche to the given hashes.
+     *
+     * @param hash the hash values to finalize
+     * @return the final hash values
+     */
+    private static IntVector avalanche( IntVector hash )
+    {
+
+        hash = hash.lanewise( VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 15) ).mul( PRIME2 );
+        hash = hash.lanewise( VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 13) ).mul( PRIME3 );
+        return hash.lanewise( VectorOperators.XOR, hash.lanewise(VectorOperators.LSHR, 16) );
+
+    }
+
+}
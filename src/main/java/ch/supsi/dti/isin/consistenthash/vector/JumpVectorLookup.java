@@ -0,0 +1,167 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.DOUBLES;
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.LENGTH;
+import static ch.supsi.dti.isin.consistenthash.vector.Lanes.LONGS;
+
+import ch.supsi.dti.isin.consistenthash.jump.JumpEngine;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+
+
+/**
+ * Vectorized lookup for the {@link JumpEngine}.
+ * <p>
+ * Each lane runs the linear congruential generator used by
+ * {@link com.google.common.hash.Hashing#consistentHash(long, int)}
+ * and keeps jumping until it goes out of range. The loop ends when
+ * all the lanes are out of range, therefore the cost of a batch
+ * depends on the longest chain of jumps in each group of lanes.
+ *
+ * <p>
+ * <b>IMPORTANT:</b>
+ * This class is not performing any consistency check
+ * to avoid the performance tests to be falsified.
+ *
+ * @author Massimo Coluzzi
+ */
+public class JumpVectorLookup implements VectorLookup
+{
+
+    /** Multiplier of the linear congruential generator. */
+    private static final long LCG_MULTIPLIER = 2862933555777941757L;
+
+    /** Adding this value to a double in {@code [0,2^52)} rounds it to an integer. */
+    private static final double TWO_POW_52 = 0x1.0p52;
+
+
+
+    /** The engine to evaluate. */
+    private final JumpEngine engine;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param engine the engine to evaluate
+     */
+    public JumpVectorLookup( JumpEngine engine )
+    {
+
+        super();
+
+        this.engine = engine;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getBuckets( long[] keyHashes, int[] out )
+    {
+
+        final int size = engine.size();
+        final int bound = LONGS.loopBound( keyHashes.length );
+        final double[] lanes = new double[LENGTH];
+
+        int i = 0;
+        for( ; i < bound; i += LENGTH )
+        {
+
+            final LongVector hash = LongVector.fromArray( LONGS, keyHashes, i );
+            consistentHash( hash, size ).intoArray( lanes, 0 );
+
+            for( int j = 0; j < LENGTH; ++j )
+                out[i + j] = (int) lanes[j];
+
+        }
+
+        for( ; i < keyHashes.length; ++i )
+            out[i] = engine.getBucket( keyHashes[i] );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the buckets where the keys with the given hashes should be mapped.
+     * <p>
+     * The buckets are smaller than {@code 2^31} and are kept
+     * as exact integers in {@code double} lanes.
+     *
+     * @param hash the hashes of the keys to map
+     * @param size the size of the cluster
+     * @return the related buckets
+     */
+    private static DoubleVector consistentHash( LongVector hash, int size )
+    {
+
+        LongVector state = hash;
+        DoubleVector candidate = DoubleVector.zero( DOUBLES );
+
+        /* Jump from bucket to bucket until all the lanes go out of range */
+        VectorMask<Double> active = DOUBLES.maskAll( true );
+        do{
+
+            state = state.mul( LCG_MULTIPLIER ).add( 1 );
+
+            /*
+             * The scalar generator computes (int)(state >>> 33) + 1 that
+             * overflows to Integer.MIN_VALUE, we sign extend the low 32 bits
+             * to get the same value. Dividing by 2^31 is the same as
+             * multiplying by 2^-31 because both are exact.
+             */
+            final LongVector draw = state
+                .lanewise( VectorOperators.LSHR, 33 ).add( 1 )
+                .lanewise( VectorOperators.LSHL, 32 )
+                .lanewise( VectorOperators.ASHR, 32 );
+
+            final DoubleVector nextDouble = ((DoubleVector) draw.convertShape( VectorOperators.L2D, DOUBLES, 0 )).mul( 0x1.0p-31 );
+            final DoubleVector jump = candidate.add( 1 ).div( nextDouble );
+
+            /* Truncating the jump to an int gives a bucket in [0,size) only if jump is in (-1,size). */
+            active = active
+                .and( jump.compare(VectorOperators.GT, -1) )
+                .and( jump.compare(VectorOperators.LT, size) );
+
+            candidate = candidate.blend( floor(jump), active );
+
+        }while( active.anyTrue() );
+
+        return candidate;
+
+    }
+
+    /**
+     * Rounds the given values down to the nearest integer.
+     * <p>
+     * Adding {@code 2^52} to a value in {@code [0,2^52)} rounds it to the
+     * nearest integer, the values rounded up are then decreased by one.
+     * The Vector API has no floor operation and the conversion from
+     * {@code double} to {@code long} lanes is not intrinsified by every JDK.
+     *
+     * @param value the values to round, the lanes outside {@code [0,2^52)} are undefined
+     * @return the rounded values
+     */
+    private static DoubleVector floor( DoubleVector value )
+    {
+
+        final DoubleVector rounded = value.add( TWO_POW_52 ).sub( TWO_POW_52 );
+        return rounded.sub( 1, rounded.compare(VectorOperators.GT, value) );
+
+    }
+
+}
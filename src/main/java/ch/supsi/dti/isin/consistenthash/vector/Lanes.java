@@ -0,0 +1,45 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Vector species shared by the vectorized lookups.
+ * <p>
+ * The species are the preferred ones of the platform, so they are
+ * constants for the compiler. Conversions between species of different
+ * shapes are not intrinsified by every JDK, therefore the lanes are
+ * narrowed to {@code int} one by one when the buckets are stored.
+ *
+ * @author Massimo Coluzzi
+ */
+final class Lanes
+{
+
+    /** Species used to load the key hashes. */
+    static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /** Species used to compute 32 bits hashes. */
+    static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /** Species with the same shape as {@link #LONGS}. */
+    static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Number of lanes of {@link #LONGS} and {@link #DOUBLES}. */
+    static final int LENGTH = LONGS.length();
+
+
+    /**
+     * This class is not instantiable.
+     */
+    private Lanes()
+    {
+
+        super();
+
+    }
+
+}
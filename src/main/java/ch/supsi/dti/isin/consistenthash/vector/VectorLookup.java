@@ -0,0 +1,89 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import org.nerd4j.utils.lang.Require;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.binomial.BinomialEngine;
+import ch.supsi.dti.isin.consistenthash.flip.FlipEngine;
+import ch.supsi.dti.isin.consistenthash.jump.JumpEngine;
+
+
+/**
+ * Represents a batch lookup that evaluates many key hashes in parallel
+ * using the lanes of the {@code jdk.incubator.vector} API.
+ * <p>
+ * Each implementation wraps an engine and returns exactly the same
+ * buckets as {@link BucketBasedEngine#getBuckets(long[], int[])}.
+ * The state of the engine is read on each call, therefore the lookup
+ * follows the additions and removals of buckets.
+ * <p>
+ * The Vector API is still incubating, therefore these classes are
+ * compiled only by the {@code vector} build profile and need the
+ * module {@code jdk.incubator.vector} to be added at runtime.
+ *
+ * @author Massimo Coluzzi
+ */
+public interface VectorLookup
+{
+
+
+    /* ***************** */
+    /*  FACTORY METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Tells if the given engine has a vectorized lookup.
+     *
+     * @param engine the engine to check
+     * @return {@code true} if the engine has a vectorized lookup
+     */
+    static boolean supports( Object engine )
+    {
+
+        return engine instanceof BinomialEngine
+            || engine instanceof FlipEngine
+            || engine instanceof JumpEngine;
+
+    }
+
+    /**
+     * Returns the vectorized lookup for the given engine.
+     *
+     * @param engine the engine to wrap
+     * @return the related vectorized lookup
+     * @throws org.nerd4j.utils.lang.RequirementFailure if the engine has no vectorized lookup
+     */
+    static VectorLookup of( Object engine )
+    {
+
+        Require.toHold( supports(engine), "The engine has no vectorized lookup" );
+
+        if( engine instanceof BinomialEngine )
+            return new BinomialVectorLookup( (BinomialEngine) engine );
+
+        if( engine instanceof FlipEngine )
+            return new FlipVectorLookup( (FlipEngine) engine );
+
+        return new JumpVectorLookup( (JumpEngine) engine );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * Stores into {@code out[i]} the index of the bucket where
+     * the key with hash {@code keyHashes[i]} should be mapped.
+     * <p>
+     * The array {@code out} must be at least as long as {@code keyHashes}.
+     *
+     * @param keyHashes the hash values of the keys to map
+     * @param out       the array where to store the related buckets
+     */
+    void getBuckets( long[] keyHashes, int[] out );
+
+}
@@ -7,14 +7,23 @@ import org.nerd4j.utils.lang.Require;
 
 /**
  * {@code CRC32} implementation of the {@link HashFunction} interface.
+ * <p>
+ * Each thread uses its own {@link CRC32} instance,
+ * therefore this class is thread-safe and does not
+ * need any synchronization.
+ * <p>
+ * The seeded variants lay out the key and the seed
+ * in a per-thread buffer, therefore they do not allocate
+ * and produce the same values as the default methods
+ * defined in {@link HashFunction}.
  * 
  * @author Massimo Coluzzi
  */
 public class CRC32Hash implements HashFunction
 {
 
-    /** Internal implementation of the {@code CRC32} algorithm. */
-    private final CRC32 crc32;
+    /** Internal implementation of the {@code CRC32} algorithm, one for each thread. */
+    private final ThreadLocal<CRC32> crc32;
 
 
     /**
@@ -26,7 +35,7 @@ public class CRC32Hash implements HashFunction
 
         super();
 
-        this.crc32 = new CRC32();
+        this.crc32 = ThreadLocal.withInitial( CRC32::new );
 
     }
 
@@ -51,13 +60,84 @@ public class CRC32Hash implements HashFunction
      * {@inheritDoc}
      */
     @Override
-    public synchronized long hash( byte[] bytes )
+    public int bits()
+    {
+
+        return Integer.SIZE;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( byte[] bytes )
     {
 
         Require.nonEmpty( bytes, "The byte array to hash cannot be null or empty" );
 
+        return hash( bytes, bytes.length );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key, int seed )
+    {
+
+        if( seed == 0 )
+            return hash( key );
+
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+
+        final int length = HashBuffer.utf8Length( key );
+        return hash( HashBuffer.utf8(key,length,seed), length + 4 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int seed )
+    {
+
+        return hash( HashBuffer.of(key,seed), 12 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int index, int seed )
+    {
+
+        return hash( HashBuffer.of(key,index,seed), 16 );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Computes the {@code CRC32} of the first bytes of the given array.
+     * 
+     * @param bytes  the bytes to hash
+     * @param length the number of bytes to hash
+     * @return the related hash value
+     */
+    private long hash( byte[] bytes, int length )
+    {
+
+        final CRC32 crc32 = this.crc32.get();
         crc32.reset();
-        crc32.update( bytes );
+        crc32.update( bytes, 0, length );
 
         return crc32.getValue();
 
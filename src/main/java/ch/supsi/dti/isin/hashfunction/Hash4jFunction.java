@@ -0,0 +1,110 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import org.nerd4j.utils.lang.Require;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+
+
+/**
+ * Base class for the {@link HashFunction} implementations
+ * backed by the 64 bits hash functions of {@code hash4j}.
+ * <p>
+ * Unlike the other implementations, the keys are hashed as
+ * {@link CharSequence} without being encoded into a byte array.
+ * Therefore, the hash of a {@link String} is the hash of its
+ * characters in {@code UTF-16LE} encoding.
+ * <p>
+ * The {@code hash4j} functions are stateless, therefore these
+ * implementations are thread-safe and do not allocate memory.
+ *
+ * @author Massimo Coluzzi
+ */
+abstract class Hash4jFunction implements HashFunction
+{
+
+    /** The {@code hash4j} function to use. */
+    private final Hasher64 hasher;
+
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param hasher the {@code hash4j} function to use
+     */
+    Hash4jFunction( Hasher64 hasher )
+    {
+
+        super();
+
+        this.hasher = hasher;
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( byte[] bytes )
+    {
+
+        Require.nonEmpty( bytes, "The byte array to hash cannot be null or empty" );
+        return hasher.hashBytesToLong( bytes );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key )
+    {
+
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+        return hasher.hashCharsToLong( key );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key, int seed )
+    {
+
+        if( seed == 0 )
+            return hash( key );
+
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+        return hasher.hashBytesToLong( HashBuffer.of((CharSequence) key, seed), 0, (key.length() << 1) + 4 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int seed )
+    {
+
+        return hasher.hashBytesToLong( HashBuffer.of(key,seed), 0, 12 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int index, int seed )
+    {
+
+        return hasher.hashBytesToLong( HashBuffer.of(key,index,seed), 0, 16 );
+
+    }
+
+}
@@ -0,0 +1,275 @@
+package ch.supsi.dti.isin.hashfunction;
+
+
+/**
+ * Per-thread byte buffer used to lay out seeded keys
+ * without allocating a new array on each call.
+ * <p>
+ * The layout is the one defined by the default methods of
+ * {@link HashFunction}: the key bytes followed by the index
+ * and the seed in big-endian order. Using the same layout
+ * ensures that the seeded hashes do not change.
+ *
+ * @author Massimo Coluzzi
+ */
+final class HashBuffer
+{
+
+    /** The initial size of the buffer. */
+    private static final int INITIAL_SIZE = 64;
+
+    /** One buffer for each thread. */
+    private static final ThreadLocal<HashBuffer> buffers = ThreadLocal.withInitial( HashBuffer::new );
+
+
+    /** The bytes of the buffer. */
+    private byte[] bytes;
+
+
+    /**
+     * Default constructor.
+     *
+     */
+    private HashBuffer()
+    {
+
+        super();
+
+        this.bytes = new byte[INITIAL_SIZE];
+
+    }
+
+
+    /* ***************** */
+    /*  DEFAULT METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the buffer of the current thread
+     * with at least the given length.
+     * <p>
+     * The content of the returned buffer is undefined
+     * and it is reused by the next call on the same thread.
+     *
+     * @param length the minimum length of the buffer
+     * @return the buffer of the current thread
+     */
+    static byte[] get( int length )
+    {
+
+        final HashBuffer buffer = buffers.get();
+        if( buffer.bytes.length < length )
+            buffer.bytes = new byte[Integer.highestOneBit(length) << 1];
+
+        return buffer.bytes;
+
+    }
+
+    /**
+     * Writes the {@code UTF-8} encoding of the given key followed
+     * by the given seed into the buffer of the current thread.
+     * <p>
+     * The bytes are the same returned by {@code key.getBytes(UTF_8)},
+     * including the {@code '?'} written for the unpaired surrogates,
+     * but no intermediate array is created.
+     *
+     * @param key    the key to write
+     * @param length the length of the encoded key, see {@link #utf8Length(String)}
+     * @param seed   the seed to append
+     * @return the buffer of the current thread
+     */
+    static byte[] utf8( String key, int length, int seed )
+    {
+
+        final byte[] buffer = get( length + 4 );
+
+        int pos = 0;
+        final int chars = key.length();
+        for( int i = 0; i < chars; ++i )
+        {
+
+            final char c = key.charAt( i );
+            if( c < 0x80 )
+                buffer[pos++] = (byte) c;
+
+            else if( c < 0x800 )
+            {
+                buffer[pos++] = (byte)(0xC0 | c >>> 6);
+                buffer[pos++] = (byte)(0x80 | c & 0x3F);
+            }
+
+            else if( Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(key.charAt(i + 1)) )
+            {
+                final int cp = Character.toCodePoint( c, key.charAt(++i) );
+                buffer[pos++] = (byte)(0xF0 | cp >>> 18);
+                buffer[pos++] = (byte)(0x80 | cp >>> 12 & 0x3F);
+                buffer[pos++] = (byte)(0x80 | cp >>> 6 & 0x3F);
+                buffer[pos++] = (byte)(0x80 | cp & 0x3F);
+            }
+
+            else if( Character.isSurrogate(c) )
+                buffer[pos++] = '?';
+
+            else
+            {
+                buffer[pos++] = (byte)(0xE0 | c >>> 12);
+                buffer[pos++] = (byte)(0x80 | c >>> 6 & 0x3F);
+                buffer[pos++] = (byte)(0x80 | c & 0x3F);
+            }
+
+        }
+        putInt( buffer, pos, seed );
+
+        return buffer;
+
+    }
+
+    /**
+     * Returns the length of the {@code UTF-8} encoding of the given key,
+     * that is the length of the array returned by {@code key.getBytes(UTF_8)}.
+     *
+     * @param key the key to measure
+     * @return the length of the encoded key
+     */
+    static int utf8Length( String key )
+    {
+
+        int length = 0;
+        final int chars = key.length();
+        for( int i = 0; i < chars; ++i )
+        {
+
+            final char c = key.charAt( i );
+            if( c < 0x80 )
+                length += 1;
+
+            else if( c < 0x800 )
+                length += 2;
+
+            else if( Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(key.charAt(i + 1)) )
+            {
+                length += 4;
+                ++i;
+            }
+
+            else if( Character.isSurrogate(c) )
+                length += 1;
+
+            else
+                length += 3;
+
+        }
+
+        return length;
+
+    }
+
+    /**
+     * Writes the characters of the given key followed
+     * by the given seed into the buffer of the current thread.
+     * <p>
+     * Each character is written as two bytes in little-endian
+     * order, that is the layout used by the {@code hash4j}
+     * functions to hash a {@link CharSequence} directly.
+     *
+     * @param key  the characters of the key
+     * @param seed the seed to append
+     * @return the buffer of the current thread
+     */
+    static byte[] of( CharSequence key, int seed )
+    {
+
+        final int length = key.length();
+        final byte[] buffer = get( (length << 1) + 4 );
+        for( int i = 0; i < length; ++i )
+        {
+            final char c = key.charAt( i );
+            buffer[i << 1] = (byte) c;
+            buffer[(i << 1) + 1] = (byte)(c >>> 8);
+        }
+        putInt( buffer, length << 1, seed );
+
+        return buffer;
+
+    }
+
+    /**
+     * Writes the given key followed by the given
+     * seed into the buffer of the current thread.
+     *
+     * @param key  the key to write
+     * @param seed the seed to append
+     * @return the buffer of the current thread
+     */
+    static byte[] of( long key, int seed )
+    {
+
+        final byte[] buffer = get( 12 );
+        putLong( buffer, 0, key );
+        putInt( buffer, 8, seed );
+
+        return buffer;
+
+    }
+
+    /**
+     * Writes the given key followed by the given index
+     * and seed into the buffer of the current thread.
+     *
+     * @param key   the key to write
+     * @param index the index to append
+     * @param seed  the seed to append
+     * @return the buffer of the current thread
+     */
+    static byte[] of( long key, int index, int seed )
+    {
+
+        final byte[] buffer = get( 16 );
+        putLong( buffer, 0, key );
+        putInt( buffer, 8, index );
+        putInt( buffer, 12, seed );
+
+        return buffer;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Writes the given value in big-endian order.
+     *
+     * @param buffer the buffer to write
+     * @param pos    the position where to start
+     * @param value  the value to write
+     */
+    private static void putLong( byte[] buffer, int pos, long value )
+    {
+
+        putInt( buffer, pos, (int)(value >>> 32) );
+        putInt( buffer, pos + 4, (int) value );
+
+    }
+
+    /**
+     * Writes the given value in big-endian order.
+     *
+     * @param buffer the buffer to write
+     * @param pos    the position where to start
+     * @param value  the value to write
+     */
+    private static void putInt( byte[] buffer, int pos, int value )
+    {
+
+        buffer[pos]     = (byte)(value >>> 24);
+        buffer[pos + 1] = (byte)(value >>> 16);
+        buffer[pos + 2] = (byte)(value >>> 8);
+        buffer[pos + 3] = (byte) value;
+
+    }
+
+}
@@ -9,6 +9,14 @@ import org.nerd4j.utils.lang.Require;
 /**
  * Represents an hashing function to be used inside
  * a consistent hashing altorithm.
+ * <p>
+ * The values returned by the seeded methods are defined
+ * by their default implementations: the key bytes followed
+ * by the index and the seed in big-endian order.
+ * The default implementations allocate a new array on each call,
+ * the provided implementations override them with allocation-free
+ * variants that return the same values, therefore the placements
+ * computed by the consistent hashing algorithms do not change.
  * 
  * @author Massimo Coluzzi
  */
@@ -27,6 +35,22 @@ public interface HashFunction
      */
     String name();
 
+    /**
+     * Returns the number of bits of the hash values.
+     * <p>
+     * A function with less than {@code 64} bits returns values
+     * in the range {@code [0,2^bits)}, the other functions
+     * return values in the whole range of {@code long}.
+     * 
+     * @return the number of bits of the hash values
+     */
+    default int bits()
+    {
+
+        return Long.SIZE;
+
+    }
+
     /**
      * Performs the hashing of the given byte array.
      * 
@@ -156,6 +180,14 @@ public interface HashFunction
 
             case MURMUR3: return new Murmur3Hash();
 
+            case XXH3: return new XXH3Hash();
+
+            case WYHASH: return new WyHash();
+
+            case KOMIHASH: return new KomiHash();
+
+            case MURMUR3_128: return new Murmur3_128Hash();
+
             default:
                 throw new IllegalArgumentException( "Unknown algorithm " + algorithm );
 
@@ -187,7 +219,19 @@ public interface HashFunction
         MD5,
         
         /** {@code http://cyan4973.github.io/xxHash/} */
-        XX;        
+        XX,
+
+        /** {@code https://github.com/Cyan4973/xxHash} 64 bits variant. */
+        XXH3,
+
+        /** {@code https://github.com/wangyi-fudan/wyhash} */
+        WYHASH,
+
+        /** {@code https://github.com/avaneev/komihash} */
+        KOMIHASH,
+
+        /** {@code https://en.wikipedia.org/wiki/MurmurHash} 128 bits variant. */
+        MURMUR3_128;
 
     }
     
@@ -0,0 +1,44 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import com.dynatrace.hash4j.hashing.Hashing;
+
+
+/**
+ * {@code Komihash version 5.0} implementation of the {@link HashFunction} interface
+ * backed by {@code hash4j}: {@code https://github.com/avaneev/komihash}
+ *
+ * @author Massimo Coluzzi
+ */
+public class KomiHash extends Hash4jFunction
+{
+
+
+    /**
+     * Default constructor.
+     *
+     */
+    public KomiHash()
+    {
+
+        super( Hashing.komihash5_0() );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name()
+    {
+
+        return "Komihash";
+
+    }
+
+}
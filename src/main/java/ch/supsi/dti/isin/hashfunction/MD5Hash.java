@@ -1,27 +1,43 @@
 package ch.supsi.dti.isin.hashfunction;
 
+import java.security.DigestException;
+import java.security.MessageDigest;
+
 import org.apache.commons.codec.digest.DigestUtils;
 import org.nerd4j.utils.lang.Require;
 
 
 /**
  * {@code MD5} implementation of the {@link HashFunction} interface.
- * 
+ * <p>
+ * Each thread uses its own {@link MessageDigest} and digest buffer,
+ * therefore this class is thread-safe, does not need any
+ * synchronization and does not allocate memory on each call.
+ * <p>
+ * The seeded variants lay out the key and the seed
+ * in a per-thread buffer and produce the same values
+ * as the default methods defined in {@link HashFunction}.
+ *
  * @author Massimo Coluzzi
  */
 public class MD5Hash implements HashFunction
 {
 
-    
+    /** Internal implementation of the {@code MD5} algorithm, one for each thread. */
+    private final ThreadLocal<Digester> digester;
+
+
     /**
      * Default constructor.
-     * 
+     *
      */
     public MD5Hash()
     {
 
         super();
 
+        this.digester = ThreadLocal.withInitial( Digester::new );
+
     }
 
 
@@ -45,12 +61,83 @@ public class MD5Hash implements HashFunction
      * {@inheritDoc}
      */
     @Override
-    public synchronized long hash( byte[] bytes )
+    public int bits()
+    {
+
+        return Integer.SIZE;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( byte[] bytes )
     {
 
         Require.nonEmpty( bytes, "The byte array to hash cannot be null or empty" );
 
-        final byte[] digest = DigestUtils.md5( bytes );
+        return hash( bytes, bytes.length );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key, int seed )
+    {
+
+        if( seed == 0 )
+            return hash( key );
+
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+
+        final int length = HashBuffer.utf8Length( key );
+        return hash( HashBuffer.utf8(key,length,seed), length + 4 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int seed )
+    {
+
+        return hash( HashBuffer.of(key,seed), 12 );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int index, int seed )
+    {
+
+        return hash( HashBuffer.of(key,index,seed), 16 );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Computes the {@code MD5} of the first bytes of the given array
+     * and returns the first 4 bytes of the digest.
+     * 
+     * @param bytes  the bytes to hash
+     * @param length the number of bytes to hash
+     * @return the related hash value
+     */
+    private long hash( byte[] bytes, int length )
+    {
+
+        final byte[] digest = digester.get().digest( bytes, length );
 
         long hash = 0;
         for( int i = 0; i < 4; i++ )
@@ -63,4 +150,70 @@ public class MD5Hash implements HashFunction
 
     }
 
-}
\ No newline at end of file
+
+    /* *************** */
+    /*  INNER CLASSES  */
+    /* *************** */
+
+
+    /**
+     * Per-thread {@code MD5} state.
+     *
+     * @author Massimo Coluzzi
+     */
+    private static class Digester
+    {
+
+        /** The message digest to use. */
+        private final MessageDigest md5;
+
+        /** The buffer where to store the digest. */
+        private final byte[] digest;
+
+
+        /**
+         * Default constructor.
+         *
+         */
+        private Digester()
+        {
+
+            super();
+
+            this.md5 = DigestUtils.getMd5Digest();
+            this.digest = new byte[md5.getDigestLength()];
+
+        }
+
+
+        /**
+         * Computes the digest of the given bytes.
+         * <p>
+         * The returned buffer is reused by the next call.
+         *
+         * @param bytes  the bytes to digest
+         * @param length the number of bytes to digest
+         * @return the buffer containing the digest
+         */
+        private byte[] digest( byte[] bytes, int length )
+        {
+
+            md5.update( bytes, 0, length );
+            try{
+
+                md5.digest( digest, 0, digest.length );
+                return digest;
+
+            }catch( DigestException ex )
+            {
+
+                /* This should never happen because the buffer has the digest length. */
+                throw new IllegalStateException( ex );
+
+            }
+
+        }
+
+    }
+
+}
@@ -6,12 +6,24 @@ import org.nerd4j.utils.lang.Require;
 
 /**
  * {@code Murmur3} implementation of the {@link HashFunction} interface.
+ * <p>
+ * The seeded variants on {@code long} keys mix the primitive
+ * values directly without laying them out in a byte array.
+ * They produce the same values as the default methods defined
+ * in {@link HashFunction}, therefore the existing placements
+ * are preserved.
  * 
  * @author Massimo Coluzzi
  */
 public class Murmur3Hash implements HashFunction
 {
 
+    /** Constant used by the {@code Murmur3} mixing function. */
+    private static final int C1 = 0xcc9e2d51;
+
+    /** Constant used by the {@code Murmur3} mixing function. */
+    private static final int C2 = 0x1b873593;
+
 
     /**
      * Default constructor.
@@ -41,6 +53,21 @@ public class Murmur3Hash implements HashFunction
 
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The 32 bits hash is made positive by {@link Math#abs(int)}
+     * and the only value without a positive counterpart,
+     * {@link Integer#MIN_VALUE}, is mapped to {@code 0}.
+     */
+    @Override
+    public int bits()
+    {
+
+        return Integer.SIZE - 1;
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -49,7 +76,126 @@ public class Murmur3Hash implements HashFunction
     {
 
         Require.nonEmpty( bytes, "The byte array to hash cannot be null or empty" );
-        return Math.abs( MurmurHash3.hash32x86(bytes) );
+        return positive( MurmurHash3.hash32x86(bytes) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key, int seed )
+    {
+
+        if( seed == 0 )
+            return hash( key );
+
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+
+        final int length = HashBuffer.utf8Length( key );
+        return positive( MurmurHash3.hash32x86(HashBuffer.utf8(key,length,seed), 0, length + 4, 0) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int seed )
+    {
+
+        /*
+         * The default implementation hashes the key and the seed
+         * in big-endian order while Murmur3 reads the blocks in
+         * little-endian order, therefore we reverse the bytes.
+         */
+        int hash = 0;
+        hash = mix( hash, Integer.reverseBytes((int)(key >>> 32)) );
+        hash = mix( hash, Integer.reverseBytes((int) key) );
+        hash = mix( hash, Integer.reverseBytes(seed) );
+
+        return positive( fmix(hash ^ 12) );
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int index, int seed )
+    {
+
+        int hash = 0;
+        hash = mix( hash, Integer.reverseBytes((int)(key >>> 32)) );
+        hash = mix( hash, Integer.reverseBytes((int) key) );
+        hash = mix( hash, Integer.reverseBytes(index) );
+        hash = mix( hash, Integer.reverseBytes(seed) );
+
+        return positive( fmix(hash ^ 16) );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the absolute value of the given hash.
+     * <p>
+     * {@link Math#abs(int)} returns {@link Integer#MIN_VALUE} for itself,
+     * therefore the sign bit is also cleared to keep the values in the
+     * range declared by {@link #bits()}. All the other values are
+     * the same returned by {@link Math#abs(int)}.
+     *
+     * @param hash the hash value to make positive
+     * @return a value in the range {@code [0,2^31)}
+     */
+    private static long positive( int hash )
+    {
+
+        return Math.abs( hash ) & 0x7FFFFFFF;
+
+    }
+
+    /**
+     * Mixes a 4 bytes block into the given hash.
+     * 
+     * @param hash  the current hash value
+     * @param block the block to mix
+     * @return the updated hash value
+     */
+    private static int mix( int hash, int block )
+    {
+
+        int k = block * C1;
+        k = Integer.rotateLeft( k, 15 );
+        k *= C2;
+
+        hash ^= k;
+        hash = Integer.rotateLeft( hash, 13 );
+
+        return hash * 5 + 0xe6546b64;
+
+    }
+
+    /**
+     * Applies the final avalanche to the given hash.
+     * 
+     * @param hash the hash value to finalize
+     * @return the final hash value
+     */
+    private static int fmix( int hash )
+    {
+
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+
+        return hash;
 
     }
 
@@ -0,0 +1,46 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import com.dynatrace.hash4j.hashing.Hashing;
+
+
+/**
+ * {@code Murmur3 128 bits} implementation of the {@link HashFunction} interface
+ * backed by {@code hash4j}: {@code https://en.wikipedia.org/wiki/MurmurHash}
+ * <p>
+ * Only the lower 64 bits of the 128 bits hash are used.
+ *
+ * @author Massimo Coluzzi
+ */
+public class Murmur3_128Hash extends Hash4jFunction
+{
+
+
+    /**
+     * Default constructor.
+     *
+     */
+    public Murmur3_128Hash()
+    {
+
+        super( Hashing.murmur3_128() );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name()
+    {
+
+        return "Murmur3-128";
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import com.dynatrace.hash4j.hashing.Hashing;
+
+
+/**
+ * {@code Wyhash final version 4} implementation of the {@link HashFunction} interface
+ * backed by {@code hash4j}: {@code https://github.com/wangyi-fudan/wyhash}
+ *
+ * @author Massimo Coluzzi
+ */
+public class WyHash extends Hash4jFunction
+{
+
+
+    /**
+     * Default constructor.
+     *
+     */
+    public WyHash()
+    {
+
+        super( Hashing.wyhashFinal4() );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name()
+    {
+
+        return "Wyhash";
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import com.dynatrace.hash4j.hashing.Hashing;
+
+
+/**
+ * {@code XXH3 64 bits} implementation of the {@link HashFunction} interface
+ * backed by {@code hash4j}: {@code https://github.com/Cyan4973/xxHash}
+ *
+ * @author Massimo Coluzzi
+ */
+public class XXH3Hash extends Hash4jFunction
+{
+
+
+    /**
+     * Default constructor.
+     *
+     */
+    public XXH3Hash()
+    {
+
+        super( Hashing.xxh3_64() );
+
+    }
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name()
+    {
+
+        return "XXH3";
+
+    }
+
+}
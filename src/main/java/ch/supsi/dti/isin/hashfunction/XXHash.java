@@ -1,33 +1,56 @@
 package ch.supsi.dti.isin.hashfunction;
 
-import org.apache.commons.codec.digest.XXHash32;
 import org.nerd4j.utils.lang.Require;
 
 
 /**
  * {@code XX32} implementation of the {@link HashFunction} interface.
- * 
+ * <p>
+ * The algorithm is implemented without any internal state,
+ * therefore this class is thread-safe and does not need
+ * any synchronization. The produced values are the same
+ * as the ones produced by the {@code commons-codec}
+ * {@code XXHash32} implementation with seed {@code 0}.
+ * <p>
+ * The seeded variants on {@code long} keys mix the primitive
+ * values directly without laying them out in a byte array.
+ * They produce the same values as the default methods defined
+ * in {@link HashFunction}, therefore the existing placements
+ * are preserved.
+ *
  * @author Massimo Coluzzi
  */
 public class XXHash implements HashFunction
 {
 
-    
-    /** Internal implementation of the {@code XX32} algorithm. */
-    private XXHash32 xxHash32;
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME1 = 0x9E3779B1;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME2 = 0x85EBCA77;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME3 = 0xC2B2AE3D;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME4 = 0x27D4EB2F;
+
+    /** Prime number used by the {@code XX32} algorithm. */
+    private static final int PRIME5 = 0x165667B1;
+
+    /** The seed used by the {@code XX32} algorithm. */
+    private static final int SEED = 0;
 
 
     /**
      * Default constructor.
-     * 
+     *
      */
     public XXHash()
     {
 
         super();
 
-        this.xxHash32 = new XXHash32();
-
     }
 
 
@@ -37,7 +60,7 @@ public class XXHash implements HashFunction
 
 
     /**
-     * {@inheritDoc}}
+     * {@inheritDoc}
      */
     @Override
     public String name()
@@ -51,16 +74,215 @@ public class XXHash implements HashFunction
      * {@inheritDoc}
      */
     @Override
-    public synchronized long hash( byte[] bytes )
+    public int bits()
+    {
+
+        return Integer.SIZE;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( byte[] bytes )
     {
 
         Require.nonEmpty( bytes, "The byte array to hash cannot be null or empty" );
-        
-        xxHash32.reset();
-        xxHash32.update( bytes );
+        return xx32( bytes, bytes.length ) & 0xFFFFFFFFL;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( String key, int seed )
+    {
+
+        if( seed == 0 )
+            return hash( key );
 
-        return xxHash32.getValue();
+        Require.nonEmpty( key, "The key to hash cannot be null or empty" );
+
+        final int length = HashBuffer.utf8Length( key );
+        return xx32( HashBuffer.utf8(key,length,seed), length + 4 ) & 0xFFFFFFFFL;
 
     }
-    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int seed )
+    {
+
+        /*
+         * The default implementation hashes the key and the seed
+         * in big-endian order while XX32 reads the lanes in
+         * little-endian order, therefore we reverse the bytes.
+         * With 12 bytes there is no full stripe.
+         */
+        int hash = SEED + PRIME5 + 12;
+        hash = lane( hash, Integer.reverseBytes((int)(key >>> 32)) );
+        hash = lane( hash, Integer.reverseBytes((int) key) );
+        hash = lane( hash, Integer.reverseBytes(seed) );
+
+        return avalanche( hash ) & 0xFFFFFFFFL;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long hash( long key, int index, int seed )
+    {
+
+        /* With 16 bytes there is exactly one full stripe. */
+        final int v1 = round( SEED + PRIME1 + PRIME2, Integer.reverseBytes((int)(key >>> 32)) );
+        final int v2 = round( SEED + PRIME2, Integer.reverseBytes((int) key) );
+        final int v3 = round( SEED, Integer.reverseBytes(index) );
+        final int v4 = round( SEED - PRIME1, Integer.reverseBytes(seed) );
+
+        final int hash = Integer.rotateLeft( v1, 1 )
+                       + Integer.rotateLeft( v2, 7 )
+                       + Integer.rotateLeft( v3, 12 )
+                       + Integer.rotateLeft( v4, 18 )
+                       + 16;
+
+        return avalanche( hash ) & 0xFFFFFFFFL;
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Computes the {@code XX32} hash of the first bytes of the given array.
+     *
+     * @param bytes  the bytes to hash
+     * @param length the number of bytes to hash
+     * @return the related 32 bits hash
+     */
+    private static int xx32( byte[] bytes, int length )
+    {
+
+        int pos = 0;
+        int hash;
+
+        if( length >= 16 )
+        {
+
+            int v1 = SEED + PRIME1 + PRIME2;
+            int v2 = SEED + PRIME2;
+            int v3 = SEED;
+            int v4 = SEED - PRIME1;
+
+            final int limit = length - 16;
+            do{
+
+                v1 = round( v1, getInt(bytes, pos) );
+                v2 = round( v2, getInt(bytes, pos + 4) );
+                v3 = round( v3, getInt(bytes, pos + 8) );
+                v4 = round( v4, getInt(bytes, pos + 12) );
+
+                pos += 16;
+
+            }while( pos <= limit );
+
+            hash = Integer.rotateLeft( v1, 1 )
+                 + Integer.rotateLeft( v2, 7 )
+                 + Integer.rotateLeft( v3, 12 )
+                 + Integer.rotateLeft( v4, 18 );
+
+        }
+        else
+            hash = SEED + PRIME5;
+
+        hash += length;
+
+        while( pos <= length - 4 )
+        {
+            hash = lane( hash, getInt(bytes, pos) );
+            pos += 4;
+        }
+
+        while( pos < length )
+        {
+            hash = Integer.rotateLeft( hash + (bytes[pos] & 0xFF) * PRIME5, 11 ) * PRIME1;
+            ++pos;
+        }
+
+        return avalanche( hash );
+
+    }
+
+    /**
+     * Performs a round of the {@code XX32} algorithm.
+     *
+     * @param acc   the accumulator to update
+     * @param input the input lane
+     * @return the updated accumulator
+     */
+    private static int round( int acc, int input )
+    {
+
+        return Integer.rotateLeft( acc + input * PRIME2, 13 ) * PRIME1;
+
+    }
+
+    /**
+     * Mixes a 4 bytes lane that does not belong to a full stripe.
+     *
+     * @param hash  the current hash value
+     * @param input the input lane
+     * @return the updated hash value
+     */
+    private static int lane( int hash, int input )
+    {
+
+        return Integer.rotateLeft( hash + input * PRIME3, 17 ) * PRIME4;
+
+    }
+
+    /**
+     * Applies the final avalanche to the given hash.
+     *
+     * @param hash the hash value to finalize
+     * @return the final hash value
+     */
+    private static int avalanche( int hash )
+    {
+
+        hash ^= hash >>> 15;
+        hash *= PRIME2;
+        hash ^= hash >>> 13;
+        hash *= PRIME3;
+        hash ^= hash >>> 16;
+
+        return hash;
+
+    }
+
+    /**
+     * Reads a little-endian integer from the given position.
+     *
+     * @param bytes the bytes to read
+     * @param pos   the position where to start
+     * @return the related integer
+     */
+    private static int getInt( byte[] bytes, int pos )
+    {
+
+        return (bytes[pos] & 0xFF)
+            | (bytes[pos + 1] & 0xFF) << 8
+            | (bytes[pos + 2] & 0xFF) << 16
+            | (bytes[pos + 3] & 0xFF) << 24;
+
+    }
+
 }
@@ -61,6 +61,20 @@ public class BucketBasedEnginePilotTests
 
     }
 
+    @Test
+    public void the_getBucket_by_hash_method_should_forward_the_call_to_the_engine()
+    {
+
+        final MockEngine engine = new MockEngine();
+        final BucketBasedEnginePilot pilot = new BucketBasedEnginePilot( engine ) {};
+        
+        pilot.getNode( 42L );
+        assertEquals( 0, engine.callsToAddBucket() );
+        assertEquals( 1, engine.callsToGetBucket() );
+        assertEquals( 0, engine.callsToRemoveBucket() );
+
+    }
+
     @Test
     public void the_removeBucket_method_should_forward_the_call_to_the_engine()
     {
@@ -100,6 +114,19 @@ public class BucketBasedEnginePilotTests
             return 0;
         }
 
+        @Override
+        public int getBucket( long keyHash )
+        {
+            calls[1]++;
+            return 0;
+        }
+
+        @Override
+        public void getReplicas( String key, int[] out )
+        {
+            calls[1]++;
+        }
+
         @Override
         public int removeBucket( int b )
         {
@@ -107,6 +134,18 @@ public class BucketBasedEnginePilotTests
             return 0;
         }
 
+        @Override
+        public int size()
+        {
+            return 0;
+        }
+
+        @Override
+        public MockEngine copy()
+        {
+            return this;
+        }
+
         public int callsToAddBucket()
         {
             return calls[0];
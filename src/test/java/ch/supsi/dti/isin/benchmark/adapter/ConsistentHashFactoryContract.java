@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -211,6 +212,18 @@ public interface ConsistentHashFactoryContract<F extends ConsistentHashFactory>
             throw new UnsupportedOperationException("Unimplemented method 'getNode'");
         }
 
+        @Override
+        public Node getNode( long keyHash )
+        {
+            throw new UnsupportedOperationException("Unimplemented method 'getNode'");
+        }
+
+        @Override
+        public List<Node> getNodes( String key, int replicas )
+        {
+            throw new UnsupportedOperationException("Unimplemented method 'getNodes'");
+        }
+
         @Override
         public void addNodes( Collection<? extends Node> nodes )
         {
@@ -239,6 +252,12 @@ public interface ConsistentHashFactoryContract<F extends ConsistentHashFactory>
         public Object engine()
         {
             return new Object();
+        }
+
+        @Override
+        public ConsistentHash copy()
+        {
+            throw new UnsupportedOperationException("Unimplemented method 'copy'");
         }}
     
 
@@ -20,6 +20,7 @@ import ch.supsi.dti.isin.benchmark.adapter.consistenthash.maglev.MaglevFactory;
 import ch.supsi.dti.isin.benchmark.adapter.consistenthash.multiprobe.MultiProbeFactory;
 import ch.supsi.dti.isin.benchmark.adapter.consistenthash.rendezvous.RendezvousFactory;
 import ch.supsi.dti.isin.benchmark.adapter.consistenthash.ring.RingFactory;
+import ch.supsi.dti.isin.benchmark.adapter.consistenthash.skeleton.SkeletonFactory;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
 
@@ -50,6 +51,7 @@ public class ConsistentHashFactoryLoaderTests
         expected.put( "multiprobe", MultiProbeFactory.class );
         expected.put( "rendezvous", RendezvousFactory.class );
         expected.put( "ring", RingFactory.class );
+        expected.put( "skeleton", SkeletonFactory.class );
         expected.put( "jumpback", JumpBackFactory.class );
         
         final ConsistentHashFactoryLoader loader = ConsistentHashFactoryLoader.getInstance();
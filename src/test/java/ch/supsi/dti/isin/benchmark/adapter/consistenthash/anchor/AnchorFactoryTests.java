@@ -3,7 +3,9 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.anchor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Random;
 import java.util.function.Supplier;
 
@@ -16,6 +18,10 @@ import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.anchor.AnchorEngine;
 
 /**
@@ -130,4 +136,41 @@ public class AnchorFactoryTests implements ConsistentHashFactoryContract<AnchorF
 
     }
 
+    @Test
+    public void if_the_weighted_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_weighted_option_is_set_each_node_should_own_as_many_buckets_as_its_weight()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", true )
+        );
+
+        final List<Node> nodes = List.of( SimpleNode.of(0, 2), SimpleNode.of(1, 3) );
+        final AnchorFactory factory = sampleValue( config );
+
+        final ConsistentHash consistentHash = factory.createConsistentHash( FUNCTION, nodes );
+        assertTrue( consistentHash instanceof WeightedBucketHash );
+        assertTrue( consistentHash.engine() instanceof AnchorEngine );
+        assertEquals( 5, ((AnchorEngine) consistentHash.engine()).size() );
+        assertNotNull( factory.createEnginePilot(consistentHash) );
+
+        final AnchorEngine engine = factory.createEngineInitializer( FUNCTION, nodes ).get();
+        assertEquals( 5, engine.size() );
+        assertEquals( 50, engine.capacity() );
+
+    }
+
 }
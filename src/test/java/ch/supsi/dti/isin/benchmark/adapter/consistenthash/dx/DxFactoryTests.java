@@ -3,7 +3,9 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.dx;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Random;
 import java.util.function.Supplier;
 
@@ -16,6 +18,10 @@ import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.dx.DxEngine;
 
 /**
@@ -130,4 +136,78 @@ public class DxFactoryTests implements ConsistentHashFactoryContract<DxFactory>
 
     }
 
+    @Test
+    public void if_the_weighted_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_weighted_option_is_set_each_node_should_own_as_many_buckets_as_its_weight()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", true )
+        );
+
+        final List<Node> nodes = List.of( SimpleNode.of(0, 2), SimpleNode.of(1, 3) );
+        final DxFactory factory = sampleValue( config );
+
+        final ConsistentHash consistentHash = factory.createConsistentHash( FUNCTION, nodes );
+        assertTrue( consistentHash instanceof WeightedBucketHash );
+        assertTrue( consistentHash.engine() instanceof DxEngine );
+        assertEquals( 5, ((DxEngine) consistentHash.engine()).size() );
+        assertNotNull( factory.createEnginePilot(consistentHash) );
+
+        final DxEngine engine = factory.createEngineInitializer( FUNCTION, nodes ).get();
+        assertEquals( 5, engine.size() );
+        assertEquals( 50, engine.capacity() );
+
+    }
+
+    @Test
+    public void if_the_compatibility_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "compatibility", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_compatibility_option_is_set_the_original_placements_should_be_reproduced()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "compatibility", true )
+        );
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final DxFactory factory = sampleValue( config );
+
+        final DxEngine expected = new DxEngine( 10, 100, FUNCTION, true );
+        final DxEngine engine = factory.createEngineInitializer( FUNCTION, nodes ).get();
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( expected.getBucket(keyHash), engine.getBucket(keyHash) );
+
+        }
+
+    }
+
 }
@@ -2,14 +2,26 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.jumpback;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.consistenthash.jumpback.JumpBackEngine;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlay;
+import ch.supsi.dti.isin.consistenthash.memento.MementoOverlayHash;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Suite to test the {@link JumpBackFactory} class.
@@ -57,4 +69,41 @@ public class JumpBackFactoryTests implements ConsistentHashFactoryContract<JumpB
 
     }
 
+    @Test
+    public void if_the_memento_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "memento", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_memento_option_is_set_the_nodes_should_be_removable_in_any_order()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "memento", true )
+        );
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final JumpBackFactory factory = sampleValue( config );
+
+        final ConsistentHash consistentHash = factory.createConsistentHash( FUNCTION, nodes );
+        assertTrue( consistentHash instanceof MementoOverlayHash );
+        assertTrue( consistentHash.engine() instanceof MementoOverlay );
+        assertFalse( consistentHash.supportsOnlyLifoRemovals() );
+        assertNotNull( factory.createEnginePilot(consistentHash) );
+
+        consistentHash.removeNodes( List.of(nodes.get(3)) );
+        assertEquals( 9, consistentHash.nodeCount() );
+        assertEquals( 10, ((MementoOverlay) consistentHash.engine()).bArraySize() );
+
+    }
+
 }
@@ -1,8 +1,10 @@
 package ch.supsi.dti.isin.benchmark.adapter.consistenthash.maglev;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
 import java.util.function.Supplier;
@@ -133,4 +135,35 @@ public class MaglevFactoryTests implements ConsistentHashFactoryContract<MaglevF
 
     }
 
+    @Test
+    public void if_the_incremental_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "incremental", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_incremental_option_is_set_the_engine_should_be_incremental()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "incremental", true )
+        );
+        
+        final MaglevFactory factory = sampleValue( config );
+        final MaglevHash maglev = factory.createConsistentHash( FUNCTION, NODES );
+        assertTrue( ((MaglevEngine) maglev.engine()).isIncremental() );
+        assertTrue( factory.createEngineInitializer(FUNCTION, NODES).get().isIncremental() );
+
+        assertFalse( sampleValue(CONFIG).createEngineInitializer(FUNCTION, NODES).get().isIncremental() );
+
+    }
+
 }
@@ -1,8 +1,12 @@
 package ch.supsi.dti.isin.benchmark.adapter.consistenthash.memento;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -11,6 +15,12 @@ import org.junit.jupiter.api.Test;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.WeightedBucketHash;
 import ch.supsi.dti.isin.consistenthash.memento.MementoEngine;
 
 /**
@@ -59,4 +69,40 @@ public class MementoFactoryTests implements ConsistentHashFactoryContract<Mement
 
     }
 
+    @Test
+    public void if_the_weighted_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_weighted_option_is_set_each_node_should_own_as_many_buckets_as_its_weight()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "weighted", true )
+        );
+
+        final List<Node> nodes = List.of( SimpleNode.of(0, 2), SimpleNode.of(1, 3) );
+        final MementoFactory factory = sampleValue( config );
+
+        final ConsistentHash consistentHash = factory.createConsistentHash( FUNCTION, nodes );
+        assertTrue( consistentHash instanceof WeightedBucketHash );
+        assertTrue( consistentHash.engine() instanceof MementoEngine );
+        assertEquals( 5, ((MementoEngine) consistentHash.engine()).size() );
+        assertNotNull( factory.createEnginePilot(consistentHash) );
+
+        final MementoEngine engine = factory.createEngineInitializer( FUNCTION, nodes ).get();
+        assertEquals( 5, engine.size() );
+
+    }
+
 }
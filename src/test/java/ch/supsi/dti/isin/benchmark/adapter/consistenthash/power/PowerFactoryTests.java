@@ -1,7 +1,11 @@
 package ch.supsi.dti.isin.benchmark.adapter.consistenthash.power;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.List;
+import java.util.Random;
 import java.util.function.Supplier;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -10,6 +14,10 @@ import org.junit.jupiter.api.Test;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
 import ch.supsi.dti.isin.consistenthash.power.PowerEngine;
 
 /**
@@ -22,6 +30,9 @@ public class PowerFactoryTests implements ConsistentHashFactoryContract<PowerFac
 {
 
 
+    private static final Random random = new Random();
+
+
     /* ******************* */
     /*  INTERFACE METHODS  */
     /* ******************* */
@@ -58,4 +69,41 @@ public class PowerFactoryTests implements ConsistentHashFactoryContract<PowerFac
 
     }
 
+    @Test
+    public void if_the_compatibility_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "compatibility", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_compatibility_option_is_set_the_original_placements_should_be_reproduced()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "compatibility", true )
+        );
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final PowerFactory factory = sampleValue( config );
+
+        final PowerEngine expected = new PowerEngine( 10, FUNCTION, true );
+        final PowerEngine engine = factory.createEngineInitializer( FUNCTION, nodes ).get();
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( expected.getBucket(keyHash), engine.getBucket(keyHash) );
+
+        }
+
+    }
+
 }
@@ -1,6 +1,8 @@
 package ch.supsi.dti.isin.benchmark.adapter.consistenthash.rendezvous;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.function.Supplier;
 
@@ -10,7 +12,13 @@ import org.junit.jupiter.api.Test;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 import ch.supsi.dti.isin.consistenthash.rendezvous.RendezvousEngine;
+import ch.supsi.dti.isin.consistenthash.rendezvous.RendezvousHash;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousEngine;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousHash;
 
 
 /**
@@ -51,11 +59,46 @@ public class RendezvousFactoryTests implements ConsistentHashFactoryContract<Ren
 
         final RendezvousFactory factory = sampleValue( CONFIG );
         
-        final Supplier<RendezvousEngine> supplier = factory.createEngineInitializer( FUNCTION, NODES );
+        final Supplier<?> supplier = factory.createEngineInitializer( FUNCTION, NODES );
         assertNotNull( supplier );
 
-        final RendezvousEngine engine = supplier.get();
+        final Object engine = supplier.get();
         assertNotNull( engine );
+        assertTrue( engine instanceof RendezvousEngine );
+
+        assertTrue( factory.createConsistentHash(FUNCTION, NODES) instanceof RendezvousHash );
+
+    }
+
+    @Test
+    public void if_the_seeded_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "seeded", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_seeded_option_is_set_the_seeded_engine_should_be_used()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "seeded", true )
+        );
+            
+        final RendezvousFactory factory = sampleValue( config );
+        final ConsistentHash rendezvous = factory.createConsistentHash( FUNCTION, NODES );
+        assertTrue( rendezvous instanceof SeededRendezvousHash );
+        assertTrue( rendezvous.engine() instanceof SeededRendezvousEngine );
+
+        assertTrue( factory.createEngineInitializer(FUNCTION, NODES).get() instanceof SeededRendezvousEngine );
+        assertTrue( factory.createEnginePilot(rendezvous) instanceof SeededRendezvousEnginePilot );
 
     }
 
@@ -3,6 +3,7 @@ package ch.supsi.dti.isin.benchmark.adapter.consistenthash.ring;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
 import java.util.function.Supplier;
@@ -10,12 +11,17 @@ import java.util.function.Supplier;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
 import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
 import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
 import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
 import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingEngine;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingHash;
 import ch.supsi.dti.isin.consistenthash.ring.RingEngine;
 import ch.supsi.dti.isin.consistenthash.ring.RingHash;
 
@@ -89,10 +95,10 @@ public class RingFactoryTests implements ConsistentHashFactoryContract<RingFacto
 
         final RingFactory factory = sampleValue( CONFIG );
         
-        final Supplier<RingEngine> supplier = factory.createEngineInitializer( FUNCTION, NODES );
+        final Supplier<?> supplier = factory.createEngineInitializer( FUNCTION, NODES );
         assertNotNull( supplier );
 
-        final RingEngine engine = supplier.get();
+        final RingEngine engine = (RingEngine) supplier.get();
         assertNotNull( engine );
 
     }
@@ -122,7 +128,7 @@ public class RingFactoryTests implements ConsistentHashFactoryContract<RingFacto
         );
             
         final RingFactory factory = sampleValue( config );
-        final RingHash ring = factory.createConsistentHash( FUNCTION, NODES );
+        final RingHash ring = (RingHash) factory.createConsistentHash( FUNCTION, NODES );
         assertNotNull( ring );
 
         final RingEngine engine = (RingEngine) ring.engine();
@@ -130,4 +136,69 @@ public class RingFactoryTests implements ConsistentHashFactoryContract<RingFacto
 
     }
 
+    @Test
+    public void if_the_flat_option_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "flat", "true" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void if_the_flat_option_is_set_the_flat_engine_should_be_used()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "flat", true )
+        );
+            
+        final RingFactory factory = sampleValue( config );
+        final ConsistentHash ring = factory.createConsistentHash( FUNCTION, NODES );
+        assertTrue( ring instanceof FlatRingHash );
+        assertTrue( ring.engine() instanceof FlatRingEngine );
+
+        final FlatRingEngine engine = (FlatRingEngine) ring.engine();
+        assertEquals( 1000 * NODES.size(), engine.virtualNodesCount() );
+
+        assertTrue( factory.createEngineInitializer(FUNCTION, NODES).get() instanceof FlatRingEngine );
+        assertTrue( factory.createEnginePilot(ring) instanceof FlatRingEnginePilot );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={-1,31})
+    public void if_the_index_bits_are_out_of_range_validation_should_fail( int indexBits )
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "index-bits", indexBits )
+        );
+        
+        assertThrows( InconsistentValueException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void setting_the_index_bits_should_imply_the_flat_engine()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "index-bits", 8 )
+        );
+            
+        final RingFactory factory = sampleValue( config );
+        final ConsistentHash ring = factory.createConsistentHash( FUNCTION, NODES );
+        assertTrue( ring instanceof FlatRingHash );
+        assertTrue( factory.createEngineInitializer(FUNCTION, NODES).get() instanceof FlatRingEngine );
+
+    }
+
 }
@@ -0,0 +1,63 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.skeleton;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.consistenthash.skeleton.SkeletonEngine;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+/**
+ * Suite to test the {@link SkeletonEnginePilot} class.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class SkeletonEnginePilotTests
+{
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void the_engine_to_test_is_mandatory()
+    {
+
+        assertThrows( RequirementFailure.class, () -> new SkeletonEnginePilot(null) );
+
+    }
+
+    @Test
+    public void the_added_node_should_have_the_expected_name()
+    {
+
+        final SkeletonEngine engine = new SkeletonEngine( 8, HashFunction.create(HashFunction.Algorithm.XX) );
+        final SkeletonEnginePilot pilot = new SkeletonEnginePilot( engine );
+
+        final String resource = pilot.addNode();
+        assertEquals( "resource_0", resource );
+
+    }
+
+    @Test
+    public void the_added_node_should_be_retrieved_using_get()
+    {
+
+        final SkeletonEngine engine = new SkeletonEngine( 8, HashFunction.create(HashFunction.Algorithm.XX) );
+        final SkeletonEnginePilot pilot = new SkeletonEnginePilot( engine );
+
+        final String addedNode = pilot.addNode();
+        final String retrievedNode = pilot.getNode( "any_string" );
+
+        assertEquals( addedNode, retrievedNode );
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package ch.supsi.dti.isin.benchmark.adapter.consistenthash.skeleton;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryContract;
+import ch.supsi.dti.isin.benchmark.config.AlgorithmConfig;
+import ch.supsi.dti.isin.benchmark.config.InconsistentValueException;
+import ch.supsi.dti.isin.benchmark.config.InvalidTypeException;
+import ch.supsi.dti.isin.benchmark.config.ValuePath;
+import ch.supsi.dti.isin.consistenthash.skeleton.SkeletonEngine;
+import ch.supsi.dti.isin.consistenthash.skeleton.SkeletonHash;
+
+/**
+ * Suite to test the {@link SkeletonFactory} class.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class SkeletonFactoryTests implements ConsistentHashFactoryContract<SkeletonFactory>
+{
+
+
+    private static final Random random = new Random();
+
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SkeletonFactory sampleValue( AlgorithmConfig config )
+    {
+
+        return new SkeletonFactory( config );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void if_the_provided_fanout_has_invalid_type_validation_should_fail()
+    {
+
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "fanout", "8" )
+        );
+        
+        assertThrows( InvalidTypeException.class, () -> sampleValue(config) );
+        
+    }
+
+    @Test
+    public void provided_fanout_must_be_at_least_2()
+    {
+
+        final int fanout = 1 - random.nextInt( 100 );
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "fanout", fanout )
+        );
+        
+        assertThrows( InconsistentValueException.class, () -> sampleValue(config) );
+                
+    }
+
+    @Test
+    public void passing_empty_configuration_should_have_default_fanout()
+    {
+
+        final SkeletonFactory factory = sampleValue( CONFIG );
+        
+        final Supplier<SkeletonEngine> supplier = factory.createEngineInitializer( FUNCTION, NODES );
+        assertNotNull( supplier );
+
+        final SkeletonEngine engine = supplier.get();
+        assertNotNull( engine );
+        assertEquals( SkeletonHash.DEFAULT_FANOUT, engine.fanout() );
+        assertEquals( NODES.size(), engine.size() );
+
+    }
+
+    @Test
+    public void passing_custom_configuration_should_take_custom_fanout()
+    {
+
+        final int fanout = random.nextInt( 30 ) + 2;
+        final AlgorithmConfig config = AlgorithmConfig.of(
+            ValuePath.root(), 
+            algorithmConfig( "fanout", fanout )
+        );
+            
+        final SkeletonFactory factory = sampleValue( config );
+        final SkeletonHash skeleton = factory.createConsistentHash( FUNCTION, NODES );
+        assertNotNull( skeleton );
+
+        final SkeletonEngine engine = (SkeletonEngine) skeleton.engine();
+        assertEquals( fanout, engine.fanout() );
+        assertEquals( fanout, factory.createEngineInitializer(FUNCTION, NODES).get().fanout() );
+
+    }
+
+}
@@ -83,6 +83,7 @@ public class AlgorithmConfigTests
         final Map<String,Object> source = Collections.singletonMap( "name", "my-algorithm" );
         final AlgorithmConfig config = sampleValue( source );
         assertEquals( "myalgorithm", config.getName());
+        assertEquals( "myalgorithm", config.getLabel());
         
         assertNotNull( config.getArgs() );
         assertTrue( config.getArgs().isEmpty() );
@@ -131,4 +132,18 @@ public class AlgorithmConfigTests
         
     }
 
+    @Test
+    public void the_label_should_not_be_normalized()
+    {
+
+        final Map<String,Object> source = new HashMap<>();
+        source.put( "name", "my-algorithm" );
+        source.put( "label", "My Algorithm" );
+
+        final AlgorithmConfig config = sampleValue( source );
+        assertEquals( "myalgorithm", config.getName());
+        assertEquals( "My Algorithm", config.getLabel());
+        
+    }
+
 }
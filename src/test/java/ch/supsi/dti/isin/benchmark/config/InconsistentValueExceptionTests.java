@@ -62,6 +62,20 @@ public class InconsistentValueExceptionTests
         
     }
 
+    @ParameterizedTest
+    @ValueSource(ints={101,1000})
+    public void factory_method_greaterThan_should_return_proper_messages( int value )
+    {
+
+        final int limit = random.nextInt( 100 );
+        final String expectedMessage = "Expected property my-property to be less or equal to " + limit + " but was " + value;
+        final InconsistentValueException greaterThan = InconsistentValueException.greaterThan( PATH, limit, value );
+        
+        assertNotNull( greaterThan );
+        assertEquals( expectedMessage, greaterThan.getMessage() );
+        
+    }
+
     @ParameterizedTest
     @ValueSource(floats={-1,100,101})
     public void factory_method_notAPercentage_should_return_proper_messages( float value )
@@ -25,6 +25,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactory;
 import ch.supsi.dti.isin.benchmark.adapter.ConsistentHashFactoryLoader;
@@ -163,6 +165,25 @@ public class BenchmarkExecutionUtilsTests
 
     }
 
+    @Test
+    public void getAlgorithms_should_return_the_labels_if_defined()
+    {
+        
+        final List<AlgorithmConfig> configs = List.of(
+            AlgorithmConfig.of( ValuePath.root(), Map.of("name","ring") ),
+            AlgorithmConfig.of( ValuePath.root(), Map.of("name","ring","label","ring-indexed","args",Map.of("index-bits",16)) )
+        );
+        final List<ConsistentHashFactory> factories = configs.stream()
+            .map( config -> ConsistentHashFactoryLoader.getInstance().load(config.getName(),config) )
+            .toList();
+        final String[] algorithms = assertDoesNotThrow(
+            () -> BenchmarkExecutionUtils.getAlgorithms( factories )
+        );
+
+        assertArrayEquals( new String[] { "ring", "ring-indexed" }, algorithms );
+
+    }
+
     @Test
     public void getKeyDistributions_should_return_the_expected_names()
     {
@@ -301,5 +322,161 @@ public class BenchmarkExecutionUtilsTests
         assertArrayEquals( expected, BenchmarkExecutionUtils.getIncrementalRates(benchmark) );
 
     }
+
+    @Test
+    public void if_not_configured_getBatchSizes_should_return_the_default_values()
+    {
+        
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, Map.of("name","test") );
+
+        final String[] expected = { "64", "256", "1024", "4096" };
+        final String[] sizes = BenchmarkExecutionUtils.getBatchSizes( benchmark );
+
+        assertArrayEquals( expected, sizes );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={-1,0,3,100,8192})
+    public void getBatchSizes_should_fail_if_values_are_not_allowed_powers_of_2( int badValue )
+    {
+
+        final Map<String,Object> conf = Map.of(
+            "name", "test",
+            "args", Map.of( "batch-sizes", List.of(64,badValue) )
+        );
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+
+        assertThrows(
+            InvalidConfigException.class,
+            () -> BenchmarkExecutionUtils.getBatchSizes( benchmark )
+        );
+
+    }
+
+    @Test
+    public void getBatchSizes_should_return_as_expected_if_properly_configured()
+    {
+
+        final Map<String,Object> conf = Map.of(
+            "name", "test",
+            "args", Map.of( "batch-sizes", List.of(1,128,4096) )
+        );
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+
+        final String[] expected = { "1", "128", "4096" };
+        assertArrayEquals( expected, BenchmarkExecutionUtils.getBatchSizes(benchmark) );
+
+    }
+
+    @Test
+    public void if_not_configured_getThreadCounts_should_return_the_default_values()
+    {
+        
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, Map.of("name","test") );
+
+        final int[] expected = { 1, 2, 4 };
+        assertArrayEquals( expected, BenchmarkExecutionUtils.getThreadCounts(benchmark) );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={-1,0})
+    public void getThreadCounts_should_fail_if_values_are_not_positive( int badValue )
+    {
+
+        final Map<String,Object> conf = Map.of(
+            "name", "test",
+            "args", Map.of( "threads", List.of(1,badValue) )
+        );
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+
+        assertThrows(
+            InvalidConfigException.class,
+            () -> BenchmarkExecutionUtils.getThreadCounts( benchmark )
+        );
+
+    }
+
+    @Test
+    public void getResizeInterval_should_return_as_expected_if_properly_configured()
+    {
+
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig notConfigured = BenchmarkConfig.of( ValuePath.root(), common, Map.of("name","test") );
+        assertEquals( 1, BenchmarkExecutionUtils.getResizeInterval(notConfigured) );
+
+        final Map<String,Object> conf = Map.of(
+            "name", "test",
+            "args", Map.of( "resize-interval", 10 )
+        );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+        assertEquals( 10, BenchmarkExecutionUtils.getResizeInterval(benchmark) );
+
+    }
+
+    @Test
+    public void getResizeNodes_should_return_as_expected_if_properly_configured()
+    {
+
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig notConfigured = BenchmarkConfig.of( ValuePath.root(), common, Map.of("name","test") );
+        assertEquals( 1, BenchmarkExecutionUtils.getResizeNodes(notConfigured) );
+
+        final Map<String,Object> conf = Map.of(
+            "name", "test",
+            "args", Map.of( "resize-nodes", 8 )
+        );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+        assertEquals( 8, BenchmarkExecutionUtils.getResizeNodes(benchmark) );
+
+        final Map<String,Object> bad = Map.of(
+            "name", "test",
+            "args", Map.of( "resize-nodes", 0 )
+        );
+        final BenchmarkConfig badBenchmark = BenchmarkConfig.of( ValuePath.root(), common, bad );
+        assertThrows( InvalidConfigException.class, () -> BenchmarkExecutionUtils.getResizeNodes(badBenchmark) );
+
+    }
+
+    @Test
+    public void addProfilersIfNeeded_should_add_the_gc_profiler_only_if_enabled()
+    {
+
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final Options options = new OptionsBuilder().build();
+
+        final BenchmarkConfig notConfigured = BenchmarkConfig.of( ValuePath.root(), common, Map.of("name","test") );
+        assertTrue( BenchmarkExecutionUtils.addProfilersIfNeeded(notConfigured, options).getProfilers().isEmpty() );
+
+        final Map<String,Object> disabled = Map.of( "name", "test", "args", Map.of("gc-profiler", false) );
+        final BenchmarkConfig disabledConfig = BenchmarkConfig.of( ValuePath.root(), common, disabled );
+        assertTrue( BenchmarkExecutionUtils.addProfilersIfNeeded(disabledConfig, options).getProfilers().isEmpty() );
+
+        final Map<String,Object> enabled = Map.of( "name", "test", "args", Map.of("gc-profiler", true) );
+        final BenchmarkConfig enabledConfig = BenchmarkConfig.of( ValuePath.root(), common, enabled );
+        assertEquals( 1, BenchmarkExecutionUtils.addProfilersIfNeeded(enabledConfig, options).getProfilers().size() );
+
+    }
+
+    @Test
+    public void addProfilersIfNeeded_should_fail_if_the_value_is_not_a_boolean()
+    {
+
+        final Map<String,Object> conf = Map.of( "name", "test", "args", Map.of("gc-profiler", "yes") );
+        final CommonConfig common = CommonConfig.of( ValuePath.root(), null );
+        final BenchmarkConfig benchmark = BenchmarkConfig.of( ValuePath.root(), common, conf );
+
+        assertThrows(
+            InvalidConfigException.class,
+            () -> BenchmarkExecutionUtils.addProfilersIfNeeded( benchmark, new OptionsBuilder().build() )
+        );
+
+    }
    
 }
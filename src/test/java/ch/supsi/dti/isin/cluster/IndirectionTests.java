@@ -3,8 +3,12 @@ package ch.supsi.dti.isin.cluster;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -281,4 +285,48 @@ public class IndirectionTests
 
     }
 
+    @Test
+    public void after_many_changes_the_mappings_should_be_found_both_ways()
+    {
+
+        final int size = 1000;
+        final Indirection indirection = new Indirection( 10 );
+
+        final List<Node> nodes = new ArrayList<>( SimpleNode.create(size) );
+        for( int i = 0; i < size; ++i )
+            indirection.put( nodes.get(i), i );
+
+        /* Removes half of the nodes in random order. */
+        Collections.shuffle( nodes, random );
+        final List<Node> removed = nodes.subList( 0, size >> 1 );
+        final List<Node> mapped  = nodes.subList( size >> 1, size );
+        for( Node node : removed )
+            indirection.remove( node );
+
+        assertEquals( size >> 1, indirection.size() );
+        for( Node node : mapped )
+            assertSame( node, indirection.get(indirection.get(node)) );
+
+        for( Node node : removed )
+            assertThrows( RequirementFailure.class, () -> indirection.get(node) );
+
+    }
+
+    @Test
+    public void changes_to_a_copy_should_not_affect_the_original()
+    {
+
+        final Node node = SimpleNode.of( "node" );
+        final Indirection indirection = new Indirection( 10 );
+        indirection.put( node, 0 );
+
+        final Indirection copy = indirection.copy();
+        copy.remove( node );
+
+        assertEquals( 0, indirection.get(node) );
+        assertEquals( node, indirection.get(0) );
+        assertThrows( RequirementFailure.class, () -> copy.get(node) );
+
+    }
+
 }
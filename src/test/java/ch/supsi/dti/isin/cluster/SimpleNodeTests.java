@@ -128,6 +128,35 @@ public class SimpleNodeTests implements NodeContract<SimpleNode>
         
     }
 
+    @Test
+    public void the_default_weight_should_be_1()
+    {
+
+        assertEquals( 1, SimpleNode.of(random.nextInt(100)).weight() );
+        assertEquals( 1, SimpleNode.of("node").weight() );
+
+    }
+
+    @Test
+    public void the_node_weight_should_be_as_expected()
+    {
+
+        final int weight = random.nextInt( 100 ) + 1;
+
+        assertEquals( weight, SimpleNode.of(random.nextInt(100), weight).weight() );
+        assertEquals( weight, SimpleNode.of("node", weight).weight() );
+
+    }
+
+    @Test
+    public void the_node_weight_must_be_strictly_positive()
+    {
+
+        assertThrows( RequirementFailure.class, () -> SimpleNode.of(1, 0) );
+        assertThrows( RequirementFailure.class, () -> SimpleNode.of("node", -1) );
+        
+    }
+
     @CsvSource({
         "10,20,<",
         "15,15,=",
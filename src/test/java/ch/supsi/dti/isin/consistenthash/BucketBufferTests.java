@@ -0,0 +1,60 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite for the class {@link BucketBuffer}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class BucketBufferTests
+{
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void the_same_thread_should_reuse_the_same_array()
+    {
+
+        final int[] buffer = BucketBuffer.get( 10 );
+        assertTrue( buffer.length >= 10 );
+        assertSame( buffer, BucketBuffer.get(5) );
+
+    }
+
+    @Test
+    public void a_longer_batch_should_grow_the_array()
+    {
+
+        final int[] buffer = BucketBuffer.get( 1 );
+        final int[] grown = BucketBuffer.get( buffer.length + 1 );
+
+        assertTrue( grown.length > buffer.length );
+        assertSame( grown, BucketBuffer.get(buffer.length + 1) );
+
+    }
+
+    @Test
+    public void different_threads_should_not_share_the_array()
+    {
+
+        final int[] buffer = BucketBuffer.get( 10 );
+        final int[] other = CompletableFuture.supplyAsync( () -> BucketBuffer.get(10) ).join();
+
+        assertNotSame( buffer, other );
+
+    }
+
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Collection;
@@ -18,6 +19,7 @@ import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.nerd4j.utils.lang.RequirementFailure;
 
 import ch.supsi.dti.isin.Contract;
@@ -153,6 +155,92 @@ public interface ConsistentHashContract<CH extends ConsistentHash> extends Contr
 
     }
 
+    @Test
+    default void every_key_hash_should_be_associated_to_a_node()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        for( int i = 0; i < 100; ++i )
+            assertNotNull( ch.getNode(randomKeyHash()) );
+
+    }
+
+    @Test
+    default void every_64_bit_key_hash_should_be_associated_to_a_node()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        for( long keyHash : new long[] { Long.MIN_VALUE, Long.MAX_VALUE, -1L, 0L } )
+        {
+
+            assertNotNull( ch.getNode(keyHash) );
+            assertEquals( 3, ch.getNodes(keyHash, 3).size() );
+
+        }
+
+    }
+
+    @Test
+    default void keys_with_the_same_hash_should_be_sent_to_the_same_node()
+    {
+
+        final long keyHash = randomKeyHash();
+        final ConsistentHash ch = sampleValue( 10 );
+
+        assertEquals( ch.getNode(keyHash), ch.getNode(keyHash) );
+
+    }
+
+    @Test
+    default void all_the_key_hashes_should_not_be_sent_to_the_same_node()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        final Node node = ch.getNode( randomKeyHash() );
+        for( int i = 0; i < 100; ++i )
+            if( ! node.equals( ch.getNode(randomKeyHash())) )
+                return;
+
+        fail( "Every key hash lands to the same node out of 10" );
+
+    }
+
+    @Test
+    default void batch_lookups_should_return_the_same_nodes_as_single_lookups()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        final String[] keys = new String[100];
+        final long[] keyHashes = new long[100];
+        for( int i = 0; i < keys.length; ++i )
+        {
+            keys[i] = "key_" + Math.abs( random.nextInt() );
+            keyHashes[i] = randomKeyHash();
+        }
+
+        final Node[] byKey = new Node[keys.length];
+        final Node[] byHash = new Node[keyHashes.length];
+        ch.getNodes( keys, byKey );
+        ch.getNodes( keyHashes, byHash );
+
+        for( int i = 0; i < keys.length; ++i )
+        {
+            assertEquals( ch.getNode(keys[i]), byKey[i] );
+            assertEquals( ch.getNode(keyHashes[i]), byHash[i] );
+        }
+
+    }
+
+    @Test
+    default void batch_lookups_should_not_accept_an_output_array_too_small()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(new String[] {"a","b"}, new Node[1]) );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(new long[2], new Node[1]) );
+
+    }
+
     @ParameterizedTest
     @NullAndEmptySource
     default void method_addNodes_should_not_accept_null_or_empty( List<Node> nodes )
@@ -257,5 +345,188 @@ public interface ConsistentHashContract<CH extends ConsistentHash> extends Contr
 
     }
 
+    @Test
+    default void a_copy_should_map_the_keys_to_the_same_nodes()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        final ConsistentHash copy = ch.copy();
+
+        assertEquals( ch.nodeCount(), copy.nodeCount() );
+        for( int i = 0; i < 100; ++i )
+        {
+            final String key = "key_" + Math.abs( random.nextInt() );
+            assertEquals( ch.getNode(key), copy.getNode(key) );
+        }
+
+    }
+
+    @Test
+    default void changes_to_a_copy_should_not_affect_the_original()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        final String[] keys = new String[100];
+        final Node[] expected = new Node[keys.length];
+        for( int i = 0; i < keys.length; ++i )
+        {
+            keys[i] = "key_" + Math.abs( random.nextInt() );
+            expected[i] = ch.getNode( keys[i] );
+        }
+
+        final ConsistentHash copy = ch.copy();
+        copy.removeNodes( Collections.singleton(SimpleNode.of(9)) );
+        copy.addNodes( List.of(SimpleNode.of(9), SimpleNode.of(10)) );
+
+        assertEquals( 10, ch.nodeCount() );
+        for( int i = 0; i < keys.length; ++i )
+            assertEquals( expected[i], ch.getNode(keys[i]) );
+
+    }
+
+    @Test
+    default void if_weights_are_supported_each_node_should_get_a_share_proportional_to_its_weight()
+    {
+
+        final int[] weights = { 1, 1, 2, 4 };
+        final List<Node> nodes = IntStream.range( 0, weights.length )
+            .mapToObj( i -> SimpleNode.of(i, weights[i]) )
+            .collect( Collectors.toList() );
+
+        final ConsistentHash ch = sampleValue( nodes );
+        if( ! ch.supportsWeights() )
+            return;
+
+        final int keys = 80000;
+        final int[] counts = new int[weights.length];
+        for( int i = 0; i < keys; ++i )
+            ++counts[nodes.indexOf( ch.getNode(randomKeyHash()) )];
+
+        for( int i = 0; i < weights.length; ++i )
+        {
+
+            final int expected = keys * weights[i] / 8;
+            final int load = counts[i];
+            assertTrue( load > expected * 0.8 && load < expected * 1.2, () -> "Unexpected load " + load + " expected " + expected );
+
+        }
+
+    }
+
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+
+    @Test
+    default void the_replicas_of_a_key_should_be_distinct_nodes()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        for( int replicas = 1; replicas <= 10; ++replicas )
+        {
+
+            final String key = "key_" + Math.abs( random.nextInt() );
+            final List<Node> byKey = ch.getNodes( key, replicas );
+            assertEquals( replicas, byKey.size() );
+            assertEquals( replicas, byKey.stream().distinct().count() );
+
+            final List<Node> byHash = ch.getNodes( randomKeyHash(), replicas );
+            assertEquals( replicas, byHash.size() );
+            assertEquals( replicas, byHash.stream().distinct().count() );
+
+        }
+
+    }
+
+    @Test
+    default void the_first_replica_should_be_the_node_of_the_key()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = "key_" + Math.abs( random.nextInt() );
+            assertEquals( ch.getNode(key), ch.getNodes(key, 3).get(0) );
+
+            final long keyHash = randomKeyHash();
+            assertEquals( ch.getNode(keyHash), ch.getNodes(keyHash, 3).get(0) );
+
+        }
+
+    }
+
+    @Test
+    default void fewer_replicas_should_be_a_prefix_of_more_replicas()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = "key_" + Math.abs( random.nextInt() );
+            assertEquals( ch.getNodes(key, 2), ch.getNodes(key, 5).subList(0, 2) );
+
+            final long keyHash = randomKeyHash();
+            assertEquals( ch.getNodes(keyHash, 2), ch.getNodes(keyHash, 5).subList(0, 2) );
+
+        }
+
+    }
+
+    @Test
+    default void replica_lookups_into_an_array_should_return_the_same_nodes()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        final Node[] out = new Node[4];
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final long keyHash = randomKeyHash();
+            ch.getNodes( keyHash, out.length, out );
+            assertEquals( ch.getNodes(keyHash, out.length), List.of(out) );
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={0,-1,11})
+    default void the_number_of_replicas_should_be_between_one_and_the_node_count( int replicas )
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes("key", replicas) );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(randomKeyHash(), replicas) );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(randomKeyHash(), replicas, new Node[11]) );
+
+    }
+
+    @Test
+    default void replica_lookups_should_not_accept_an_output_array_too_small()
+    {
+
+        final ConsistentHash ch = sampleValue( 10 );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(randomKeyHash(), 3, new Node[2]) );
+        assertThrows( RequirementFailure.class, () -> ch.getNodes(randomKeyHash(), 3, null) );
+
+    }
+
+    /**
+     * Returns the hash of a random key computed
+     * with the default hash function.
+     * 
+     * @return hash of a random key
+     */
+    default long randomKeyHash()
+    {
+
+        return ConsistentHash.DEFAULT_HASH_FUNCTION.hash( "key_" + Math.abs(random.nextInt()) );
+
+    }
 
 }
@@ -0,0 +1,231 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.anchor.AnchorHash;
+import ch.supsi.dti.isin.consistenthash.anchor.FrozenAnchorEngine;
+import ch.supsi.dti.isin.consistenthash.jump.JumpHash;
+import ch.supsi.dti.isin.consistenthash.memento.FrozenMementoEngine;
+import ch.supsi.dti.isin.consistenthash.memento.MementoHash;
+import ch.supsi.dti.isin.consistenthash.rendezvous.RendezvousHash;
+import ch.supsi.dti.isin.consistenthash.ring.FlatRingEngine;
+import ch.supsi.dti.isin.consistenthash.ring.FrozenRingHash;
+import ch.supsi.dti.isin.consistenthash.ring.RingHash;
+
+/**
+ * Test suite for the implementations of {@link ConsistentHash#freeze()}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class FrozenHashTests
+{
+
+    private static final Random random = new Random();
+
+    /** Number of keys to check in each test. */
+    private static final int KEYS = 10000;
+
+    /** Number of replicas to check for each key. */
+    private static final int REPLICAS = 3;
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @MethodSource("algorithms")
+    public void the_frozen_form_should_map_the_keys_to_the_same_nodes( String name, Function<List<Node>,ConsistentHash> factory )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 100 );
+        final ConsistentHash live = factory.apply( nodes );
+        assertSameMapping( name, live, live.freeze() );
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("algorithms")
+    public void the_frozen_form_should_map_the_keys_to_the_same_nodes_after_random_changes( String name, Function<List<Node>,ConsistentHash> factory )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 100 );
+        final ConsistentHash live = factory.apply( nodes );
+
+        final List<Node> working = new ArrayList<>( nodes );
+        Collections.shuffle( working, random );
+
+        final List<Node> removed = new ArrayList<>( working.subList(0, 60) );
+        live.removeNodes( removed );
+        assertSameMapping( name, live, live.freeze() );
+
+        /* The removed nodes are added back in LIFO order as the bucket based algorithms expect. */
+        Collections.reverse( removed );
+        live.addNodes( removed.subList(0, 20) );
+        assertSameMapping( name, live, live.freeze() );
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("algorithms")
+    public void the_frozen_form_should_not_change_with_the_live_instance( String name, Function<List<Node>,ConsistentHash> factory )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 100 );
+        final ConsistentHash live = factory.apply( nodes );
+        final ConsistentHash frozen = live.freeze();
+
+        final ConsistentHash expected = live.copy();
+        live.removeNodes( nodes.subList(10, 60) );
+
+        assertEquals( 100, frozen.nodeCount(), name );
+        assertSameMapping( name, expected, frozen );
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("algorithms")
+    public void the_frozen_form_cannot_be_changed( String name, Function<List<Node>,ConsistentHash> factory )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final ConsistentHash frozen = factory.apply( nodes ).freeze();
+
+        assertThrows( UnsupportedOperationException.class, () -> frozen.addNodes(List.of(SimpleNode.of(10))), name );
+        assertThrows( UnsupportedOperationException.class, () -> frozen.removeNodes(nodes.subList(9, 10)), name );
+
+        assertSame( frozen, frozen.freeze(), name );
+        assertSame( frozen, frozen.copy(), name );
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("algorithms")
+    public void the_frozen_form_should_map_every_64_bit_key_hash_as_the_live_instance( String name, Function<List<Node>,ConsistentHash> factory )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 100 );
+        final ConsistentHash live = factory.apply( nodes );
+
+        /* The removals make the replacement loops rehash the key hashes. */
+        live.removeNodes( nodes.subList(10, 90) );
+        final ConsistentHash frozen = live.freeze();
+
+        for( long keyHash : new long[] { Long.MIN_VALUE, Long.MAX_VALUE, -1L, 0L } )
+        {
+
+            assertEquals( live.getNode(keyHash), frozen.getNode(keyHash), name );
+            assertEquals( live.getNodes(keyHash, REPLICAS), frozen.getNodes(keyHash, REPLICAS), name );
+
+        }
+
+    }
+
+    @Test
+    public void the_algorithms_with_a_compiled_form_should_not_use_the_default_snapshot()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+
+        assertTrue( new AnchorHash(nodes, 20).freeze().engine() instanceof FrozenAnchorEngine );
+        assertTrue( new MementoHash(nodes).freeze().engine() instanceof FrozenMementoEngine );
+        assertTrue( new RingHash(nodes).freeze() instanceof FrozenRingHash );
+        assertTrue( new RingHash(nodes).freeze().engine() instanceof FlatRingEngine );
+        assertTrue( new JumpHash(nodes).freeze() instanceof FrozenHash );
+
+    }
+
+    @Test
+    public void the_anchor_chains_should_be_compressed_without_changing_the_mapping()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 1000 );
+        final AnchorHash live = new AnchorHash( nodes, 4000 );
+
+        /* Long replacement chains are built by removing most of the nodes. */
+        final List<Node> removed = new ArrayList<>( nodes );
+        Collections.shuffle( removed, random );
+        live.removeNodes( removed.subList(0, 990) );
+
+        assertSameMapping( "anchor", live, live.freeze() );
+
+    }
+
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the algorithms to test.
+     *
+     * @return the algorithms to test
+     */
+    private static Stream<Arguments> algorithms()
+    {
+
+        return Stream.of(
+            Arguments.of( "anchor", (Function<List<Node>,ConsistentHash>) nodes -> new AnchorHash(nodes, nodes.size() << 1) ),
+            Arguments.of( "memento", (Function<List<Node>,ConsistentHash>) MementoHash::new ),
+            Arguments.of( "ring", (Function<List<Node>,ConsistentHash>) nodes -> new RingHash(nodes, 100, ConsistentHash.DEFAULT_HASH_FUNCTION) ),
+            Arguments.of( "rendezvous", (Function<List<Node>,ConsistentHash>) RendezvousHash::new )
+        );
+
+    }
+
+    /**
+     * Checks that the given instances map random keys to the same nodes.
+     *
+     * @param name     name of the algorithm
+     * @param expected the instance to compare with
+     * @param actual   the instance to check
+     */
+    private static void assertSameMapping( String name, ConsistentHash expected, ConsistentHash actual )
+    {
+
+        assertEquals( expected.nodeCount(), actual.nodeCount(), name );
+
+        final long[] keyHashes = random.longs( KEYS ).toArray();
+        final Node[] expectedBatch = new Node[KEYS];
+        final Node[] actualBatch = new Node[KEYS];
+        expected.getNodes( keyHashes, expectedBatch );
+        actual.getNodes( keyHashes, actualBatch );
+        assertArrayEquals( expectedBatch, actualBatch, name );
+
+        for( int i = 0; i < KEYS; ++i )
+        {
+
+            final String key = Long.toString( keyHashes[i] );
+            assertEquals( expected.getNode(key), actual.getNode(key), name );
+            assertEquals( expected.getNode(keyHashes[i]), actual.getNode(keyHashes[i]), name );
+            assertEquals( expected.getNodes(key, REPLICAS), actual.getNodes(key, REPLICAS), name );
+            assertEquals( expected.getNodes(keyHashes[i], REPLICAS), actual.getNodes(keyHashes[i], REPLICAS), name );
+
+        }
+
+    }
+
+}
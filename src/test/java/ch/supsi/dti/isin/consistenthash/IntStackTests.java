@@ -0,0 +1,76 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite for the class {@link IntStack}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class IntStackTests
+{
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void a_new_stack_should_be_empty()
+    {
+
+        final IntStack stack = new IntStack();
+        assertTrue( stack.isEmpty() );
+        assertEquals( 0, stack.size() );
+
+    }
+
+    @Test
+    public void values_should_be_popped_in_reverse_order_of_push()
+    {
+
+        final IntStack stack = new IntStack();
+        for( int i = 0; i < 100; ++i )
+            stack.push( i );
+
+        assertFalse( stack.isEmpty() );
+        assertEquals( 100, stack.size() );
+
+        for( int i = 99; i >= 0; --i )
+            assertEquals( i, stack.pop() );
+
+        assertTrue( stack.isEmpty() );
+
+    }
+
+    @Test
+    public void changes_to_a_copy_should_not_affect_the_original()
+    {
+
+        final IntStack stack = new IntStack();
+        stack.push( 1 );
+        stack.push( 2 );
+
+        final IntStack copy = stack.copy();
+        assertEquals( 2, copy.pop() );
+        copy.push( 3 );
+        copy.push( 4 );
+
+        assertEquals( 2, stack.size() );
+        assertEquals( 2, stack.pop() );
+        assertEquals( 1, stack.pop() );
+
+        assertEquals( 4, copy.pop() );
+        assertEquals( 3, copy.pop() );
+        assertEquals( 1, copy.pop() );
+
+    }
+
+}
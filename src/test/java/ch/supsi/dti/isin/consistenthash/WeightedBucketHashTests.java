@@ -0,0 +1,200 @@
+package ch.supsi.dti.isin.consistenthash;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.anchor.AnchorEngine;
+import ch.supsi.dti.isin.consistenthash.memento.MementoEngine;
+
+/**
+ * Test suite for the class {@link WeightedBucketHash}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class WeightedBucketHashTests implements ConsistentHashContract<WeightedBucketHash>
+{
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WeightedBucketHash sampleValue( Collection<? extends Node> nodes )
+    {
+
+        final int totalWeight = nodes.stream().mapToInt( Node::weight ).sum();
+        return sampleValue( nodes, totalWeight << 1 );
+
+    }
+
+
+    /**
+     * Creates a new {@link WeightedBucketHash} backed by
+     * an {@link AnchorEngine} with the given capacity.
+     *
+     * @param nodes the initial nodes
+     * @param capacity the overall capacity
+     */
+    public WeightedBucketHash sampleValue( Collection<? extends Node> nodes, int capacity )
+    {
+
+        return new WeightedBucketHash(
+            nodes, capacity,
+            size -> new AnchorEngine( size, capacity, ConsistentHash.DEFAULT_HASH_FUNCTION )
+        );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    public void the_cluster_must_have_at_least_one_node( List<Node> nodes )
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( nodes, 10 )
+        );
+
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_null()
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( Collections.singletonList(null), 10 )
+        );
+
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_duplicated()
+    {
+
+        final List<Node> nodes = IntStream.of( 1, 1 )
+            .mapToObj( SimpleNode::of )
+            .collect( toList() );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( nodes, 10 )
+        );
+
+    }
+
+    @Test
+    public void the_total_weight_cannot_be_greater_than_the_overall_capacity()
+    {
+
+        final List<Node> nodes = List.of( SimpleNode.of(1, 2), SimpleNode.of(2, 3) );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( nodes, 4 )
+        );
+
+    }
+
+    @Test
+    public void adding_nodes_cannot_exceed_capacity()
+    {
+
+        final WeightedBucketHash hash = sampleValue( List.of(SimpleNode.of(1, 2), SimpleNode.of(2, 2)), 7 );
+
+        assertThrows( RequirementFailure.class, () -> hash.addNodes(Collections.singleton(SimpleNode.of(3, 4))) );
+        assertDoesNotThrow( () -> hash.addNodes( Collections.singleton(SimpleNode.of(3, 3))) );
+
+    }
+
+    @Test
+    public void each_node_should_own_as_many_buckets_as_its_weight()
+    {
+
+        final WeightedBucketHash hash = sampleValue( List.of(SimpleNode.of(1, 2), SimpleNode.of(2, 3)), 20 );
+        final BucketBasedEngine engine = (BucketBasedEngine) hash.engine();
+        assertEquals( 2, hash.nodeCount() );
+        assertEquals( 5, engine.size() );
+
+        hash.addNodes( Collections.singleton(SimpleNode.of(3, 4)) );
+        assertEquals( 3, hash.nodeCount() );
+        assertEquals( 9, engine.size() );
+
+        hash.removeNodes( Collections.singleton(SimpleNode.of(2)) );
+        assertEquals( 2, hash.nodeCount() );
+        assertEquals( 6, engine.size() );
+
+    }
+
+    @Test
+    public void removing_a_node_should_move_only_its_keys()
+    {
+
+        final List<Node> nodes = IntStream.range( 0, 10 )
+            .mapToObj( i -> SimpleNode.of(i, 1 + i % 3) )
+            .collect( toList() );
+
+        final WeightedBucketHash hash = new WeightedBucketHash(
+            nodes, Integer.MAX_VALUE,
+            size -> new MementoEngine( size, ConsistentHash.DEFAULT_HASH_FUNCTION )
+        );
+
+        final long[] keys = IntStream.range( 0, 2000 ).mapToLong( i -> randomKeyHash() ).toArray();
+        final Node[] before = new Node[keys.length];
+        hash.getNodes( keys, before );
+
+        final Node removed = nodes.get( 5 );
+        hash.removeNodes( Collections.singleton(removed) );
+
+        final Node[] after = new Node[keys.length];
+        hash.getNodes( keys, after );
+
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            if( removed.equals(before[i]) )
+                assertNotEquals( removed, after[i] );
+            else
+                assertEquals( before[i], after[i] );
+
+        }
+
+    }
+
+    @Test
+    public void the_weights_should_be_supported()
+    {
+
+        assertTrue( sampleValue(5).supportsWeights() );
+
+    }
+
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
 
 /**
  * Test suite for the class {@link AnchorEngine}.
@@ -201,4 +203,57 @@ public class AnchorEngineTests
         
     }
 
+
+    @Test
+    public void a_grown_engine_should_behave_as_if_created_with_the_new_capacity()
+    {
+
+        final AnchorEngine grown = new AnchorEngine( 10, 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final AnchorEngine created = new AnchorEngine( 10, 20, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        for( AnchorEngine engine : List.of(grown, created) )
+        {
+            engine.removeBucket( 3 );
+            engine.removeBucket( 7 );
+        }
+
+        grown.grow( 20 );
+        assertEquals( 20, grown.capacity() );
+        assertEquals( 8, grown.size() );
+
+        for( int i = 0; i < 5; ++i )
+            assertEquals( created.addBucket(), grown.addBucket() );
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( created.getBucket(keyHash), grown.getBucket(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void negative_key_hashes_should_be_mapped_to_working_buckets()
+    {
+
+        for( HashFunction.Algorithm algorithm : HashFunction.Algorithm.values() )
+        {
+
+            final AnchorEngine engine = new AnchorEngine( 10, 20, HashFunction.create(algorithm) );
+            engine.removeBucket( 3 );
+            engine.removeBucket( 7 );
+
+            for( long keyHash : new long[] { Long.MIN_VALUE, -1L } )
+            {
+
+                final int bucket = engine.getBucket( keyHash );
+                assertTrue( bucket >= 0 && bucket < 10 && bucket != 3 && bucket != 7, algorithm.name() );
+
+            }
+
+        }
+
+    }
+
 }
@@ -2,8 +2,10 @@ package ch.supsi.dti.isin.consistenthash.anchor;
 
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -119,7 +121,7 @@ public class AnchorHashTests implements ConsistentHashContract<AnchorHash>
     }
 
     @Test
-    public void adding_nodes_cannot_exceed_capacity()
+    public void adding_nodes_beyond_the_capacity_should_double_the_capacity()
     {
 
         final List<Node> nodes = IntStream.of( 1, 2, 3, 4, 5 )
@@ -128,8 +130,49 @@ public class AnchorHashTests implements ConsistentHashContract<AnchorHash>
 
         final AnchorHash anchorHash = sampleValue( nodes, 6 );
         
-        assertDoesNotThrow( () -> anchorHash.addNodes( Collections.singleton(SimpleNode.of(100))) );
-        assertThrows( RequirementFailure.class, () -> anchorHash.addNodes(Collections.singleton(SimpleNode.of(101))) );
+        anchorHash.addNodes( Collections.singleton(SimpleNode.of(100)) );
+        assertEquals( 6, anchorHash.capacity() );
+
+        anchorHash.addNodes( Collections.singleton(SimpleNode.of(101)) );
+        assertEquals( 12, anchorHash.capacity() );
+        assertEquals( 7, anchorHash.nodeCount() );
+
+    }
+
+    @Test
+    public void a_rejected_add_should_leave_the_capacity_and_the_placements_unchanged()
+    {
+
+        final AnchorHash anchorHash = sampleValue( SimpleNode.create(6), 6 );
+        final Node[] before = IntStream.range( 0, 1000 )
+            .mapToObj( i -> anchorHash.getNode("key_" + i) )
+            .toArray( Node[]::new );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> anchorHash.addNodes( Arrays.asList(SimpleNode.of(100), SimpleNode.of(0)) )
+        );
+        assertThrows(
+            RequirementFailure.class,
+            () -> anchorHash.addNodes( Arrays.asList(SimpleNode.of(100), null) )
+        );
+
+        assertEquals( 6, anchorHash.capacity() );
+        assertEquals( 6, anchorHash.nodeCount() );
+        for( int i = 0; i < before.length; ++i )
+            assertEquals( before[i], anchorHash.getNode("key_" + i) );
+
+    }
+
+    @Test
+    public void the_capacity_can_only_grow()
+    {
+
+        final AnchorHash anchorHash = sampleValue( SimpleNode.create(5), 6 );
+
+        assertThrows( RequirementFailure.class, () -> anchorHash.grow(6) );
+        assertDoesNotThrow( () -> anchorHash.grow(7) );
+        assertEquals( 7, anchorHash.capacity() );
 
     }
 
@@ -337,4 +337,18 @@ public class BinomialEngineTests implements Contract<BinomialEngine>
 
     }
 
+    @Test
+    public void method_getBuckets_should_return_the_same_buckets_as_getBucket()
+    {
+
+        final BinomialEngine engine = new BinomialEngine( 13, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final long[] keyHashes = random.longs( 1000 ).toArray();
+        final int[] buckets = new int[keyHashes.length];
+
+        engine.getBuckets( keyHashes, buckets );
+        for( int i = 0; i < keyHashes.length; ++i )
+            assertEquals( engine.getBucket(keyHashes[i]), buckets[i] );
+
+    }
+
 }
\ No newline at end of file
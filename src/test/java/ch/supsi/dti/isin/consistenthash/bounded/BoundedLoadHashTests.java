@@ -0,0 +1,250 @@
+package ch.supsi.dti.isin.consistenthash.bounded;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHashContract;
+import ch.supsi.dti.isin.consistenthash.anchor.AnchorHash;
+import ch.supsi.dti.isin.consistenthash.rendezvous.SeededRendezvousHash;
+
+/**
+ * Test suite for the class {@link BoundedLoadHash}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class BoundedLoadHashTests implements ConsistentHashContract<BoundedLoadHash>
+{
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundedLoadHash sampleValue( Collection<? extends Node> nodes )
+    {
+
+        return new BoundedLoadHash( new SeededRendezvousHash(nodes), nodes );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @ValueSource(doubles={0,-0.5})
+    public void epsilon_must_be_strictly_positive( double epsilon )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 5 );
+        assertThrows(
+            RequirementFailure.class,
+            () -> new BoundedLoadHash( new SeededRendezvousHash(nodes), nodes, epsilon )
+        );
+
+    }
+
+    @Test
+    public void the_nodes_must_be_the_ones_of_the_wrapped_instance()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 5 );
+        assertThrows(
+            RequirementFailure.class,
+            () -> new BoundedLoadHash( new SeededRendezvousHash(nodes), SimpleNode.create(4) )
+        );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles={0.1,0.25,1})
+    public void no_node_should_exceed_the_bound_even_if_the_keys_are_skewed( double epsilon )
+    {
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final BoundedLoadHash hash = new BoundedLoadHash(
+            new SeededRendezvousHash(nodes), nodes, epsilon
+        );
+
+        /* Half of the requests are for the same key. */
+        final int requests = 10000;
+        final long hotKey = randomKeyHash();
+        for( int i = 0; i < requests; ++i )
+            hash.acquire( i % 2 == 0 ? hotKey : randomKeyHash() );
+
+        assertEquals( requests, hash.totalLoad() );
+
+        final double bound = Math.ceil( (1 + epsilon) * requests / nodes.size() );
+        for( Node node : nodes )
+            assertTrue( hash.load(node) <= bound, () -> "Unexpected load " + hash.load(node) + " bound " + bound );
+
+    }
+
+    @Test
+    public void if_all_the_nodes_are_probed_the_bound_should_always_hold()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 8 );
+        final BoundedLoadHash hash = new BoundedLoadHash( new AnchorHash(nodes, 16), nodes, 0.1, nodes.size() );
+
+        /* Every request is for the same key, the bound can be respected only by probing every node. */
+        final long hotKey = randomKeyHash();
+        for( int requests = 1; requests <= 1000; ++requests )
+        {
+
+            hash.acquire( hotKey );
+
+            final double bound = Math.ceil( 1.1 * requests / nodes.size() );
+            for( Node node : nodes )
+                assertTrue( hash.load(node) <= bound, () -> "Unexpected load " + hash.load(node) + " bound " + bound );
+
+        }
+
+    }
+
+    @Test
+    public void keys_below_the_bound_should_go_to_the_node_of_the_wrapped_instance()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final AnchorHash anchor = new AnchorHash( nodes, 20 );
+        final BoundedLoadHash hash = new BoundedLoadHash( anchor.copy(), nodes );
+
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = "key_" + i;
+            assertEquals( anchor.getNode(key), hash.getNode(key) );
+
+            final long keyHash = randomKeyHash();
+            assertEquals( anchor.getNode(keyHash), hash.getNode(keyHash) );
+
+        }
+
+        assertEquals( anchor.getNode("key"), hash.acquire("key") );
+        assertEquals( 0, hash.extraProbes() );
+
+    }
+
+    @Test
+    public void the_fallback_should_count_all_the_probes()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 10 );
+        final BoundedLoadHash hash = new BoundedLoadHash( new SeededRendezvousHash(nodes), nodes, 0.1, 2 );
+
+        /* The first two candidates of the key get full, then the least loaded of them is used. */
+        final long key = randomKeyHash();
+        final List<Node> candidates = hash.getNodes( key, 2 );
+        while( hash.load(candidates.get(0)) < hash.bound(candidates.get(0)) || hash.load(candidates.get(1)) < hash.bound(candidates.get(1)) )
+            hash.acquire( key );
+
+        final long before = hash.extraProbes();
+        assertTrue( candidates.contains(hash.acquire(key)) );
+        assertEquals( before + 2, hash.extraProbes() );
+
+    }
+
+    @Test
+    public void the_bound_should_be_proportional_to_the_weight()
+    {
+
+        final List<Node> nodes = List.of( SimpleNode.of(0, 1), SimpleNode.of(1, 3) );
+        final BoundedLoadHash hash = new BoundedLoadHash( new SeededRendezvousHash(nodes), nodes );
+
+        for( int i = 0; i < 999; ++i )
+            hash.acquire( randomKeyHash() );
+
+        assertEquals( 313, hash.bound(nodes.get(0)) );
+        assertEquals( 938, hash.bound(nodes.get(1)) );
+
+    }
+
+    @Test
+    public void the_extra_probes_should_be_counted()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 4 );
+        final BoundedLoadHash hash = sampleValue( nodes );
+
+        final long key = randomKeyHash();
+        final Node first = hash.acquire( key );
+        assertEquals( 0, hash.extraProbes() );
+
+        /* The same key keeps going to the same node until the node is full. */
+        int requests = 1;
+        while( hash.getNode(key).equals(first) )
+        {
+            hash.acquire( key );
+            ++requests;
+        }
+
+        assertEquals( requests, hash.totalLoad() );
+        assertEquals( 0, hash.extraProbes() );
+
+        hash.acquire( key );
+        assertTrue( hash.extraProbes() > 0 );
+
+    }
+
+    @Test
+    public void releasing_a_node_should_decrease_its_load()
+    {
+
+        final BoundedLoadHash hash = sampleValue( 5 );
+        final Node node = hash.acquire( "key" );
+        assertEquals( 1, hash.load(node) );
+        assertEquals( 1, hash.totalLoad() );
+
+        hash.release( node );
+        assertEquals( 0, hash.load(node) );
+        assertEquals( 0, hash.totalLoad() );
+
+        hash.release( node );
+        assertEquals( 0, hash.load(node) );
+        assertEquals( 0, hash.totalLoad() );
+
+    }
+
+    @Test
+    public void removing_a_node_should_discard_its_load()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 5 );
+        final BoundedLoadHash hash = sampleValue( nodes );
+        for( int i = 0; i < 1000; ++i )
+            hash.acquire( randomKeyHash() );
+
+        final Node removed = nodes.get( 2 );
+        final int load = hash.load( removed );
+        hash.removeNodes( Collections.singleton(removed) );
+
+        assertEquals( 0, hash.load(removed) );
+        assertEquals( 1000 - load, hash.totalLoad() );
+
+        for( int i = 0; i < 1000; ++i )
+            assertTrue( ! removed.equals(hash.acquire(randomKeyHash())) );
+
+    }
+
+}
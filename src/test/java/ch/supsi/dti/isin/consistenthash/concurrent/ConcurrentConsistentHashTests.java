@@ -0,0 +1,182 @@
+package ch.supsi.dti.isin.consistenthash.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.ConsistentHashContract;
+import ch.supsi.dti.isin.consistenthash.anchor.AnchorHash;
+
+/**
+ * Test suite for the class {@link ConcurrentConsistentHash}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class ConcurrentConsistentHashTests implements ConsistentHashContract<ConcurrentConsistentHash>
+{
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConcurrentConsistentHash sampleValue( Collection<? extends Node> nodes )
+    {
+
+        return new ConcurrentConsistentHash( new AnchorHash(nodes, nodes.size() << 1) );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void the_consistent_hash_to_wrap_is_mandatory()
+    {
+
+        assertThrows( RequirementFailure.class, () -> new ConcurrentConsistentHash(null) );
+
+    }
+
+    @Test
+    public void changes_to_the_wrapped_instance_should_not_affect_the_wrapper()
+    {
+
+        final ConsistentHash ch = new AnchorHash( SimpleNode.create(10), 20 );
+        final ConcurrentConsistentHash concurrent = new ConcurrentConsistentHash( ch );
+
+        ch.addNodes( Collections.singleton(SimpleNode.of(10)) );
+        assertEquals( 10, concurrent.nodeCount() );
+
+    }
+
+    @Test
+    public void a_failed_update_should_leave_the_snapshot_untouched()
+    {
+
+        final ConcurrentConsistentHash concurrent = sampleValue( 10 );
+        final ConsistentHash snapshot = concurrent.snapshot();
+
+        final List<Node> nodes = List.of( SimpleNode.of(10), SimpleNode.of(0) );
+        assertThrows( RequirementFailure.class, () -> concurrent.addNodes(nodes) );
+
+        assertEquals( snapshot, concurrent.snapshot() );
+        assertEquals( 10, concurrent.nodeCount() );
+
+    }
+
+    @Test
+    public void an_update_should_publish_a_new_snapshot()
+    {
+
+        final ConcurrentConsistentHash concurrent = sampleValue( 10 );
+        final ConsistentHash snapshot = concurrent.snapshot();
+
+        concurrent.addNodes( Collections.singleton(SimpleNode.of(10)) );
+
+        assertTrue( snapshot != concurrent.snapshot() );
+        assertEquals( 10, snapshot.nodeCount() );
+        assertEquals( 11, concurrent.nodeCount() );
+
+    }
+
+    @Test
+    public void a_frozen_wrapper_should_publish_frozen_snapshots()
+    {
+
+        final ConsistentHash ch = new AnchorHash( SimpleNode.create(10), 20 );
+        final ConcurrentConsistentHash concurrent = new ConcurrentConsistentHash( ch, true );
+
+        final ConsistentHash snapshot = concurrent.snapshot();
+        assertThrows( UnsupportedOperationException.class, () -> snapshot.addNodes(Collections.singleton(SimpleNode.of(10))) );
+        for( int i = 0; i < 1000; ++i )
+            assertEquals( ch.getNode("key-" + i), concurrent.getNode("key-" + i) );
+
+        concurrent.addNodes( Collections.singleton(SimpleNode.of(10)) );
+        ch.addNodes( Collections.singleton(SimpleNode.of(10)) );
+
+        assertTrue( snapshot != concurrent.snapshot() );
+        assertEquals( 10, snapshot.nodeCount() );
+        assertEquals( 11, concurrent.snapshot().nodeCount() );
+        for( int i = 0; i < 1000; ++i )
+            assertEquals( ch.getNode("key-" + i), concurrent.getNode("key-" + i) );
+
+    }
+
+    @Test
+    public void readers_should_always_find_a_node_while_the_cluster_is_resized() throws Exception
+    {
+
+        final ConcurrentConsistentHash concurrent = sampleValue( 10 );
+        final Collection<Node> toResize = Collections.singleton( SimpleNode.of(10) );
+        final AtomicBoolean stopped = new AtomicBoolean( false );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try{
+
+            final Future<?> writer = executor.submit( () ->
+            {
+                for( int i = 0; i < 1000; ++i )
+                {
+                    concurrent.addNodes( toResize );
+                    concurrent.removeNodes( toResize );
+                }
+                stopped.set( true );
+            });
+
+            final Runnable reader = () ->
+            {
+                while( ! stopped.get() )
+                {
+                    final int nodeCount = concurrent.nodeCount();
+                    assertTrue( nodeCount == 10 || nodeCount == 11 );
+                    assertNotNull( concurrent.getNode(randomKeyHash()) );
+                }
+            };
+
+            final Future<?> reader1 = executor.submit( reader );
+            final Future<?> reader2 = executor.submit( reader );
+            final Future<?> reader3 = executor.submit( reader );
+
+            writer.get( 1, TimeUnit.MINUTES );
+            reader1.get( 1, TimeUnit.MINUTES );
+            reader2.get( 1, TimeUnit.MINUTES );
+            reader3.get( 1, TimeUnit.MINUTES );
+
+        }finally
+        {
+
+            executor.shutdownNow();
+
+        }
+
+        assertEquals( 10, concurrent.nodeCount() );
+
+    }
+
+}
@@ -291,6 +291,91 @@ public class DxEngineTests
         
     }
 
+    @Test
+    public void a_grown_engine_should_behave_as_if_created_with_the_new_capacity()
+    {
+
+        final DxEngine grown = new DxEngine( 10, 10, ConsistentHash.DEFAULT_HASH_FUNCTION, false );
+        final DxEngine created = new DxEngine( 10, 20, ConsistentHash.DEFAULT_HASH_FUNCTION, false );
+        for( DxEngine engine : List.of(grown, created) )
+        {
+            engine.removeBucket( 3 );
+            engine.removeBucket( 7 );
+        }
+
+        grown.grow( 20 );
+        assertEquals( 20, grown.capacity() );
+        assertEquals( 8, grown.size() );
+
+        for( int i = 0; i < 5; ++i )
+            assertEquals( created.addBucket(), grown.addBucket() );
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( created.getBucket(keyHash), grown.getBucket(keyHash) );
+
+        }
+
+    }
+
+
+    @Test
+    public void in_compatibility_mode_the_original_placements_should_be_reproduced()
+    {
+
+        final DxEngine engine = new DxEngine( 10, 20, ConsistentHash.DEFAULT_HASH_FUNCTION, true );
+        engine.removeBucket( 4 );
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            final Random generator = new Random( keyHash );
+
+            int expected = generator.nextInt( 20 );
+            while( expected >= 10 || expected == 4 )
+                expected = generator.nextInt( 20 );
+
+            assertEquals( expected, engine.getBucket(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void the_compatibility_mode_should_be_enabled_by_default()
+    {
+
+        final DxEngine legacy = new DxEngine( 10, 20, ConsistentHash.DEFAULT_HASH_FUNCTION, true );
+        final DxEngine engine = new DxEngine( 10, 20, ConsistentHash.DEFAULT_HASH_FUNCTION );
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( legacy.getBucket(keyHash), engine.getBucket(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void the_keys_should_be_spread_evenly_over_the_working_buckets()
+    {
+
+        final DxEngine engine = new DxEngine( 10, 100, ConsistentHash.DEFAULT_HASH_FUNCTION, false );
+        final int[] counts = new int[10];
+        for( int i = 0; i < 100000; ++i )
+            ++counts[engine.getBucket( random.nextLong() )];
+
+        for( int count : counts )
+            assertTrue( count > 9000 && count < 11000, () -> "Unexpected count " + count );
+
+    }
+
+
     /* **************** */
     /*  HELPER METHODS  */
     /* **************** */
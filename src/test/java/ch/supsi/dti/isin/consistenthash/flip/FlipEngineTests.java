@@ -239,6 +239,20 @@ public class FlipEngineTests implements Contract<FlipEngine>
         
     }
 
+    @Test
+    public void method_getBuckets_should_return_the_same_buckets_as_getBucket()
+    {
+
+        final FlipEngine engine = new FlipEngine( 13, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final long[] keyHashes = random.longs( 1000 ).toArray();
+        final int[] buckets = new int[keyHashes.length];
+
+        engine.getBuckets( keyHashes, buckets );
+        for( int i = 0; i < keyHashes.length; ++i )
+            assertEquals( engine.getBucket(keyHashes[i]), buckets[i] );
+
+    }
+
     public Map<Integer,Integer> getKeyMapping( BucketBasedEngine engine, int keys )
     {
 
@@ -254,5 +268,4 @@ public class FlipEngineTests implements Contract<FlipEngine>
 
     }
 
-
 }
\ No newline at end of file
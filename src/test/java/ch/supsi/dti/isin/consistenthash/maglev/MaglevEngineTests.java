@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +66,58 @@ public class MaglevEngineTests
 
     }
 
+    @Test
+    public void the_lookup_table_should_not_depend_on_the_order_of_the_additions()
+    {
+
+        final int size = random.nextInt( 100 ) + 5;
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( size << 7 );
+        final List<String> backends = IntStream.range( 0, size ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+
+        final MaglevEngine engine = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addBackends( backends );
+
+        final List<String> shuffled = new ArrayList<>( backends );
+        Collections.shuffle( shuffled, random );
+
+        final MaglevEngine other = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        other.addBackends( shuffled.subList(0, size >> 1) );
+        other.addBackends( shuffled.subList(size >> 1, size) );
+
+        assertEquals(
+            engine.streamLookupEntries().collect( Collectors.toList() ),
+            other.streamLookupEntries().collect( Collectors.toList() )
+        );
+
+    }
+
+    @Test
+    public void the_slots_of_removed_backends_should_be_reused()
+    {
+
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( 10 << 7 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final List<String> backends = IntStream.range( 0, 10 ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+
+        final int[] slots = engine.addBackends( backends );
+        for( int i = 0; i < slots.length; ++i )
+            assertEquals( slots[i], engine.slotOf(backends.get(i)) );
+
+        engine.removeBackends( Collections.singleton("node_3") );
+        final int[] added = engine.addBackends( Collections.singleton("node_10") );
+
+        assertEquals( slots[3], added[0] );
+        assertEquals( 10, engine.size() );
+        assertFalse( engine.streamLookupEntries().anyMatch("node_3"::equals) );
+
+        for( int i = 0; i < 100; ++i )
+        {
+            final long keyHash = random.nextLong();
+            assertEquals( engine.getBackend(keyHash), engine.streamLookupEntries().skip(Math.floorMod(keyHash, lookupSize)).findFirst().get() );
+        }
+
+    }
+
     @Test
     public void the_lookup_table_should_be_complete()
     {
@@ -191,6 +245,201 @@ public class MaglevEngineTests
     }
 
 
+    @Test
+    public void in_incremental_mode_adding_backends_should_move_only_the_claimed_entries()
+    {
+
+        final int size = random.nextInt( 100 ) + 5;
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( size << 8 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, true, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final Set<String> backends = IntStream.range( 0, size ).mapToObj( i -> "node_" + i ).collect( Collectors.toSet() );
+        engine.addBackends( backends );
+
+        final List<String> prev = engine.streamLookupEntries().collect( Collectors.toList() );
+        final List<String> added = IntStream.range( size, size << 1 ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+        engine.addBackends( added );
+
+        final List<String> post = engine.streamLookupEntries().collect( Collectors.toList() );
+        for( int i = 0; i < lookupSize; ++ i )
+            if( ! prev.get(i).equals(post.get(i)) )
+                assertTrue( added.contains(post.get(i)) );
+
+        final Map<String,Long> counts = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        assertEquals( size << 1, counts.size() );
+        final int floor = lookupSize / (size << 1);
+        counts.values().forEach( count -> assertTrue(count >= floor) );
+
+    }
+
+    @Test
+    public void in_incremental_mode_removing_backends_should_move_only_the_released_entries()
+    {
+
+        final int size = random.nextInt( 100 ) + 5;
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( size << 8 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, true, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final Set<String> backends = IntStream.range( 0, size << 1 ).mapToObj( i -> "node_" + i ).collect( Collectors.toSet() );
+        engine.addBackends( backends );
+
+        final List<String> prev = engine.streamLookupEntries().collect( Collectors.toList() );
+        final List<String> removed = IntStream.range( 0, size ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+        engine.removeBackends( removed );
+
+        final List<String> post = engine.streamLookupEntries().collect( Collectors.toList() );
+        for( int i = 0; i < lookupSize; ++ i )
+        {
+            assertFalse( removed.contains(post.get(i)) );
+            if( ! removed.contains(prev.get(i)) )
+                assertEquals( prev.get(i), post.get(i) );
+        }
+
+        final Map<String,Long> counts = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        assertEquals( size, counts.size() );
+        final int ceil = (lookupSize + size - 1) / size;
+        counts.values().forEach( count -> assertTrue(count <= ceil) );
+
+    }
+
+    @Test
+    public void in_incremental_mode_repeated_removals_should_keep_the_table_balanced()
+    {
+
+        final int size = 100;
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( size << 8 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, true, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final List<String> backends = IntStream.range( 0, size ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+        engine.addBackends( backends );
+
+        Collections.shuffle( backends, random );
+        long[] previous = minMaxEntries( engine );
+        for( int round = 1; round <= 10; ++round )
+        {
+
+            engine.removeBackends( backends.subList((round - 1) * 5, round * 5) );
+
+            final int remaining = size - round * 5;
+
+            final MaglevEngine rebuilt = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+            rebuilt.addBackends( backends.subList(round * 5, size) );
+
+            final long[] incremental = minMaxEntries( engine );
+            final long[] full = minMaxEntries( rebuilt );
+
+            /* The released entries go to the less loaded backends, the most loaded ones take none. */
+            assertTrue( incremental[0] > previous[0] );
+            assertTrue( incremental[1] <= Math.max(previous[1], (lookupSize + remaining - 1) / remaining) );
+
+            /* The table stays at least as balanced as a new one. */
+            assertTrue( incremental[1] - incremental[0] <= full[1] - full[0],
+                () -> "Unbalanced table " + Arrays.toString(incremental) + " vs " + Arrays.toString(full) );
+
+            previous = incremental;
+
+        }
+
+    }
+
+    @Test
+    public void in_incremental_mode_a_copy_should_not_be_affected_by_the_changes()
+    {
+
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( 10 << 7 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, true, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addBackends( IntStream.range( 0, 10 ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() ) );
+
+        final MaglevEngine copy = engine.copy();
+        final List<String> entries = copy.streamLookupEntries().collect( Collectors.toList() );
+
+        engine.removeBackends( Collections.singleton("node_3") );
+        engine.addBackends( Collections.singleton("node_10") );
+
+        assertTrue( copy.isIncremental() );
+        assertEquals( entries, copy.streamLookupEntries().collect(Collectors.toList()) );
+
+    }
+
+
+    @Test
+    public void each_backend_should_own_a_share_of_the_table_proportional_to_its_weight()
+    {
+
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( 4 << 10 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addBackends( List.of("node_0", "node_1", "node_2", "node_3"), new int[] { 1, 1, 2, 4 } );
+
+        final Map<String,Long> counts = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        final int[] weights = { 1, 1, 2, 4 };
+        for( int i = 0; i < weights.length; ++i )
+        {
+
+            final double expected = lookupSize * weights[i] / 8.0;
+            final long count = counts.get( "node_" + i );
+            assertTrue( count > expected * 0.9 && count < expected * 1.1, () -> "Unexpected count " + count );
+
+        }
+
+    }
+
+    @Test
+    public void weights_equal_to_one_should_not_change_the_lookup_table()
+    {
+
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( 10 << 7 );
+        final List<String> backends = IntStream.range( 0, 10 ).mapToObj( i -> "node_" + i ).collect( Collectors.toList() );
+
+        final MaglevEngine unweighted = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        unweighted.addBackends( backends );
+
+        final MaglevEngine weighted = new MaglevEngine( lookupSize, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final int[] weights = new int[backends.size()];
+        Arrays.fill( weights, 1 );
+        weighted.addBackends( backends, weights );
+
+        assertEquals(
+            unweighted.streamLookupEntries().collect( Collectors.toList() ),
+            weighted.streamLookupEntries().collect( Collectors.toList() )
+        );
+
+    }
+
+    @Test
+    public void in_incremental_mode_the_shares_should_follow_the_weights()
+    {
+
+        final int lookupSize = (int) primes.getSmallestPrimeGreaterEqual( 8 << 8 );
+        final MaglevEngine engine = new MaglevEngine( lookupSize, true, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addBackends( List.of("node_0", "node_1", "node_2"), new int[] { 1, 1, 2 } );
+
+        final List<String> prev = engine.streamLookupEntries().collect( Collectors.toList() );
+        engine.addBackends( Collections.singleton("node_3"), new int[] { 4 } );
+
+        final List<String> post = engine.streamLookupEntries().collect( Collectors.toList() );
+        for( int i = 0; i < lookupSize; ++ i )
+            if( ! prev.get(i).equals(post.get(i)) )
+                assertEquals( "node_3", post.get(i) );
+
+        final Map<String,Long> counts = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        assertTrue( counts.get("node_3") >= lookupSize * 4 / 8 );
+
+        engine.removeBackends( Collections.singleton("node_0") );
+        final Map<String,Long> after = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        assertTrue( after.get("node_1") <= (lookupSize * 1 + 6) / 7 );
+        assertTrue( after.get("node_2") <= (lookupSize * 2 + 6) / 7 );
+        assertTrue( after.get("node_3") <= (lookupSize * 4 + 6) / 7 );
+
+    }
+
+
     @Test
     public void if_the_cluster_has_one_node_all_the_keys_should_land_to_such_a_node()
     {
@@ -244,4 +493,31 @@ public class MaglevEngineTests
         
     }
 
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Returns the minimum and the maximum number
+     * of entries owned by the backends of the engine.
+     *
+     * @param engine the engine to check
+     * @return the minimum and the maximum number of entries
+     */
+    private long[] minMaxEntries( MaglevEngine engine )
+    {
+
+        final Map<String,Long> counts = engine.streamLookupEntries()
+            .collect( Collectors.groupingBy(Function.identity(), Collectors.counting()) );
+
+        assertEquals( engine.size(), counts.size() );
+        return new long[] {
+            counts.values().stream().mapToLong( Long::longValue ).min().getAsLong(),
+            counts.values().stream().mapToLong( Long::longValue ).max().getAsLong()
+        };
+
+    }
+
 }
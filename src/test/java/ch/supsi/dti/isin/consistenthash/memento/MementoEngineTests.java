@@ -391,6 +391,27 @@ public class MementoEngineTests implements Contract<MementoEngine> {
 
     }
 
+    @Test
+    public void a_key_and_its_hash_should_be_mapped_to_the_same_bucket_after_removals() {
+
+        final int size = 100;
+        final MementoEngine engine = sampleValue(size);
+
+        for (int bucket = 0; bucket < size; bucket += 2)
+            engine.removeBucket(bucket);
+
+        for (int i = 0; i < 1000; ++i) {
+
+            final String key = String.valueOf(random.nextInt());
+            final long keyHash = ConsistentHash.DEFAULT_HASH_FUNCTION.hash(key);
+
+            assertEquals(engine.getBucket(keyHash), engine.getBucket(key));
+            assertEquals(engine.freeze().getBucket(keyHash), engine.freeze().getBucket(key));
+
+        }
+
+    }
+
     /* **************** */
     /*  HELPER METHODS  */
     /* **************** */
@@ -0,0 +1,140 @@
+package ch.supsi.dti.isin.consistenthash.memento;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.ConsistentHashContract;
+import ch.supsi.dti.isin.consistenthash.jumpback.JumpBackEngine;
+
+/**
+ * Test suite for the class {@link MementoOverlayHash}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class MementoOverlayHashTests implements ConsistentHashContract<MementoOverlayHash>
+{
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MementoOverlayHash sampleValue( Collection<? extends Node> nodes )
+    {
+
+        return new MementoOverlayHash(
+            nodes, size -> new JumpBackEngine( size, ConsistentHash.DEFAULT_HASH_FUNCTION ), ConsistentHash.DEFAULT_HASH_FUNCTION
+        );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    public void the_cluster_must_have_at_least_one_node( List<Node> nodes )
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( nodes )
+        );
+
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_null()
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( Collections.singletonList(null) )
+        );
+
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_duplicated()
+    {
+
+        final List<Node> nodes = Stream.of( 1, 1 )
+            .map( SimpleNode::of )
+            .collect( toList() );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> sampleValue( nodes )
+        );
+
+    }
+
+    @Test
+    public void the_engine_factory_is_mandatory()
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> new MementoOverlayHash( SimpleNode.create(10), null, ConsistentHash.DEFAULT_HASH_FUNCTION )
+        );
+
+    }
+
+    @Test
+    public void removing_a_node_in_any_order_should_move_only_its_keys()
+    {
+
+        final List<Node> nodes = SimpleNode.create( 100 );
+        final MementoOverlayHash consistentHash = sampleValue( nodes );
+        assertFalse( consistentHash.supportsOnlyLifoRemovals() );
+
+        final String[] keys = Stream.iterate( 0, i -> i + 1 ).limit( 10000 ).map( i -> "key_" + i ).toArray( String[]::new );
+        for( int i = 0; i < 50; i += 7 )
+        {
+
+            final Node removed = nodes.get( i );
+            final Node[] before = new Node[keys.length];
+            consistentHash.getNodes( keys, before );
+
+            consistentHash.removeNodes( List.of(removed) );
+            for( int k = 0; k < keys.length; ++k )
+            {
+
+                final Node after = consistentHash.getNode( keys[k] );
+                if( removed.equals(before[k]) )
+                    assertNotEquals( removed, after );
+                else
+                    assertEquals( before[k], after );
+
+            }
+
+        }
+
+    }
+
+}
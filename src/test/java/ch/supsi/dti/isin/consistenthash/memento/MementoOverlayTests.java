@@ -0,0 +1,295 @@
+package ch.supsi.dti.isin.consistenthash.memento;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.binomial.BinomialEngine;
+import ch.supsi.dti.isin.consistenthash.flip.FlipEngine;
+import ch.supsi.dti.isin.consistenthash.jump.JumpEngine;
+import ch.supsi.dti.isin.consistenthash.jumpback.JumpBackEngine;
+import ch.supsi.dti.isin.consistenthash.power.PowerEngine;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+/**
+ * Test suite for the class {@link MementoOverlay}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class MementoOverlayTests
+{
+
+    private static final Random random = new Random();
+
+    private static final HashFunction FUNCTION = ConsistentHash.DEFAULT_HASH_FUNCTION;
+
+    /** Number of keys to check in each test. */
+    private static final int KEYS = 10000;
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void the_keys_mapped_to_working_buckets_should_not_move_after_random_removals( String name, BucketBasedEngine engine )
+    {
+
+        final MementoOverlay overlay = new MementoOverlay( engine, FUNCTION );
+        final int size = overlay.size();
+
+        final String[] keys = keys();
+        final int[] before = lookup( overlay, keys );
+
+        final Set<Integer> removed = removeRandomBuckets( overlay, size / 2 );
+        assertEquals( size - removed.size(), overlay.size() );
+
+        final int[] after = lookup( overlay, keys );
+        for( int i = 0; i < keys.length; ++i )
+        {
+
+            assertFalse( removed.contains(after[i]), name );
+            if( ! removed.contains(before[i]) )
+                assertEquals( before[i], after[i], name );
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void adding_back_the_removed_buckets_should_restore_the_original_mapping( String name, BucketBasedEngine engine )
+    {
+
+        final MementoOverlay overlay = new MementoOverlay( engine, FUNCTION );
+        final int size = overlay.size();
+
+        final String[] keys = keys();
+        final int[] expected = lookup( overlay, keys );
+
+        final Set<Integer> removed = removeRandomBuckets( overlay, size - 1 );
+        final Set<Integer> added = new HashSet<>();
+        while( overlay.size() < size )
+            added.add( overlay.addBucket() );
+
+        assertEquals( removed, added, name );
+        assertEquals( size, overlay.bArraySize(), name );
+        assertArrayEquals( expected, lookup(overlay, keys), name );
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void the_batch_lookup_should_return_the_buckets_of_the_single_lookups( String name, BucketBasedEngine engine )
+    {
+
+        final MementoOverlay overlay = new MementoOverlay( engine, FUNCTION );
+        final Set<Integer> removed = removeRandomBuckets( overlay, overlay.size() / 3 );
+
+        final long[] keyHashes = random.longs( KEYS ).toArray();
+        final int[] buckets = new int[KEYS];
+        overlay.getBuckets( keyHashes, buckets );
+
+        for( int i = 0; i < KEYS; ++i )
+        {
+
+            assertEquals( overlay.getBucket(keyHashes[i]), buckets[i], name );
+            assertFalse( removed.contains(buckets[i]), name );
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void the_replicas_should_be_distinct_working_buckets( String name, BucketBasedEngine engine )
+    {
+
+        final MementoOverlay overlay = new MementoOverlay( engine, FUNCTION );
+        final Set<Integer> removed = removeRandomBuckets( overlay, overlay.size() / 3 );
+
+        final int[] replicas = new int[5];
+        for( String key : keys() )
+        {
+
+            overlay.getReplicas( key, replicas );
+            assertEquals( overlay.getBucket(key), replicas[0], name );
+            assertEquals( replicas.length, IntStream.of(replicas).distinct().count(), name );
+            assertTrue( IntStream.of(replicas).noneMatch(removed::contains), name );
+
+        }
+
+    }
+
+    @Test
+    public void the_lifo_removals_should_be_delegated_to_the_wrapped_engine()
+    {
+
+        final BinomialEngine engine = new BinomialEngine( 100, FUNCTION );
+        final MementoOverlay overlay = new MementoOverlay( engine, FUNCTION );
+
+        final String[] keys = keys();
+        overlay.removeBucket( 99 );
+        overlay.removeBucket( 98 );
+
+        assertEquals( 98, overlay.size() );
+        assertEquals( 98, overlay.bArraySize() );
+        assertEquals( 98, engine.size() );
+
+        for( String key : keys )
+            assertEquals( engine.getBucket(key), overlay.getBucket(key) );
+
+        overlay.removeBucket( 10 );
+        assertEquals( 97, overlay.size() );
+        assertEquals( 98, overlay.bArraySize() );
+
+        assertEquals( 10, overlay.addBucket() );
+        assertEquals( 98, overlay.addBucket() );
+        assertEquals( 99, overlay.addBucket() );
+        assertEquals( 100, overlay.addBucket() );
+        assertEquals( 101, engine.size() );
+
+    }
+
+    @Test
+    public void changes_to_a_copy_should_not_affect_the_original()
+    {
+
+        final MementoOverlay overlay = new MementoOverlay( new FlipEngine(100, FUNCTION), FUNCTION );
+        final Set<Integer> removed = removeRandomBuckets( overlay, 10 );
+
+        final String[] keys = keys();
+        final int[] expected = lookup( overlay, keys );
+
+        final MementoOverlay copy = overlay.copy();
+        assertArrayEquals( expected, lookup(copy, keys) );
+
+        removeRandomBuckets( copy, 40, new HashSet<>(removed) );
+        copy.addBucket();
+        assertNotEquals( overlay.size(), copy.size() );
+
+        assertEquals( 90, overlay.size() );
+        assertArrayEquals( expected, lookup(overlay, keys) );
+
+    }
+
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Returns the engines supporting only LIFO removals to wrap.
+     *
+     * @return the engines to test
+     */
+    private static Stream<Arguments> engines()
+    {
+
+        final int size = random.nextInt( 100 ) + 50;
+        return Stream.of(
+            Arguments.of( "binomial", new BinomialEngine(size, FUNCTION) ),
+            Arguments.of( "flip", new FlipEngine(size, FUNCTION) ),
+            Arguments.of( "jump", new JumpEngine(size, FUNCTION) ),
+            Arguments.of( "jumpback", new JumpBackEngine(size, FUNCTION) ),
+            Arguments.of( "power", new PowerEngine(size, FUNCTION) )
+        );
+
+    }
+
+    /**
+     * Returns a set of random keys.
+     *
+     * @return the keys to lookup
+     */
+    private static String[] keys()
+    {
+
+        return random.ints( KEYS ).mapToObj( Integer::toString ).toArray( String[]::new );
+
+    }
+
+    /**
+     * Returns the buckets of the given keys.
+     *
+     * @param engine the engine to query
+     * @param keys   the keys to lookup
+     * @return the related buckets
+     */
+    private static int[] lookup( MementoOverlay engine, String[] keys )
+    {
+
+        final int[] buckets = new int[keys.length];
+        for( int i = 0; i < keys.length; ++i )
+            buckets[i] = engine.getBucket( keys[i] );
+
+        return buckets;
+
+    }
+
+    /**
+     * Removes the given number of working buckets in random order.
+     *
+     * @param engine the engine to update
+     * @param count  the number of buckets to remove
+     * @return the removed buckets
+     */
+    private static Set<Integer> removeRandomBuckets( MementoOverlay engine, int count )
+    {
+
+        return removeRandomBuckets( engine, count, new HashSet<>() );
+
+    }
+
+    /**
+     * Removes the given number of working buckets in random order.
+     *
+     * @param engine  the engine to update
+     * @param count   the number of buckets to remove
+     * @param removed the buckets already removed, will be updated
+     * @return the removed buckets
+     */
+    private static Set<Integer> removeRandomBuckets( MementoOverlay engine, int count, Set<Integer> removed )
+    {
+
+        final List<Integer> working = new ArrayList<>();
+        for( int b = 0; b < engine.bArraySize(); ++b )
+            if( ! removed.contains(b) )
+                working.add( b );
+
+        Collections.shuffle( working, random );
+        for( int b : working.subList(0, count) )
+        {
+            engine.removeBucket( b );
+            removed.add( b );
+        }
+
+        return removed;
+
+    }
+
+}
@@ -2,6 +2,8 @@ package ch.supsi.dti.isin.consistenthash.memento;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -164,4 +166,42 @@ public class MementoTests
 
     }
 
+
+
+    @Test
+    public void the_replacers_should_survive_removals_in_any_order_and_resizes()
+    {
+
+        final Memento memento = new Memento();
+        final Map<Integer,Integer> expected = new HashMap<>();
+
+        for( int i = 0; i < 10000; ++i )
+        {
+
+            final int bucket = random.nextInt( 1 << 16 );
+            if( expected.containsKey(bucket) )
+            {
+
+                memento.restore( bucket );
+                expected.remove( bucket );
+
+            }else
+            {
+
+                final int replacer = random.nextInt( 1 << 16 );
+                memento.remember( bucket, replacer, -1 );
+                expected.put( bucket, replacer );
+
+            }
+
+            if( i % 100 == 0 )
+                for( int b = 0; b < 1 << 16; ++b )
+                    assertEquals( expected.getOrDefault(b, -1), memento.replacer(b) );
+
+        }
+
+        assertEquals( expected.size(), memento.size() );
+
+    }
+
 }
@@ -5,14 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 import ch.supsi.dti.isin.consistenthash.ConsistentHash;
 
@@ -73,18 +77,9 @@ public class MultiProbeEngineTests
         for( int i = 0; i < resources; ++ i )
             engine.addResource( "resource_" + i );
             
-        final Iterator<Point> iter = engine.streamRing().iterator();
-        Point prev, current = iter.next();
-        while( iter.hasNext() )
-        {
-
-            prev = current;
-            current = iter.next();
-
-            assertTrue( prev.hash <= current.hash );
-            assertTrue( prev.compareTo(current) < 1 );
-
-        }
+        final long[] positions = engine.streamPositions().toArray();
+        for( int i = 1; i < positions.length; ++i )
+            assertTrue( Long.compareUnsigned(positions[i-1], positions[i]) <= 0 );
 
     }
 
@@ -124,18 +119,9 @@ public class MultiProbeEngineTests
         for( int i = 0; i < resources; ++ i )
             engine.removeResource( "resource_" + i );
             
-        final Iterator<Point> iter = engine.streamRing().iterator();
-        Point prev, current = iter.next();
-        while( iter.hasNext() )
-        {
-
-            prev = current;
-            current = iter.next();
-
-            assertTrue( prev.hash <= current.hash );
-            assertTrue( prev.compareTo(current) < 1 );
-
-        }
+        final long[] positions = engine.streamPositions().toArray();
+        for( int i = 1; i < positions.length; ++i )
+            assertTrue( Long.compareUnsigned(positions[i-1], positions[i]) <= 0 );
 
     }
 
@@ -197,4 +183,89 @@ public class MultiProbeEngineTests
         
     }
 
+
+    @CsvSource({
+        "1000,100,900",
+        "100,100,0",
+        "100,1000,-900",
+        "0,-1,1",
+        "5,-5,10"
+    })
+    @ParameterizedTest(name="distance({1} -> {0}) = {2}")
+    public void the_distance_should_be_measured_clockwise_along_the_ring( long position, long probe, long expected )
+    {
+
+        assertEquals( expected, MultiProbeEngine.distance(position, probe) );
+
+    }
+
+    @Test
+    public void looking_up_a_key_or_its_hash_should_return_the_same_resource()
+    {
+
+        final MultiProbeEngine engine = new MultiProbeEngine( 21, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        for( int i = 0; i < 100; ++i )
+            engine.addResource( "resource_" + i );
+
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final long keyHash = ConsistentHash.DEFAULT_HASH_FUNCTION.hash( key );
+            assertEquals( engine.getResource(key), engine.getResource(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void bulk_operations_should_map_the_keys_as_single_operations()
+    {
+
+        final List<String> resources = IntStream.range( 0, 100 )
+            .mapToObj( i -> "resource_" + i )
+            .collect( Collectors.toList() );
+
+        final MultiProbeEngine bulk = new MultiProbeEngine( 21, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        bulk.addResources( resources );
+        bulk.removeResources( resources.subList(20, 60) );
+
+        final MultiProbeEngine single = new MultiProbeEngine( 21, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        resources.forEach( single::addResource );
+        resources.subList( 20, 60 ).forEach( single::removeResource );
+
+        assertEquals( 60, bulk.size() );
+        assertEquals( single.size(), bulk.size() );
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( single.getResource(keyHash), bulk.getResource(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void the_slots_of_removed_resources_should_be_reused()
+    {
+
+        final MultiProbeEngine engine = new MultiProbeEngine( 21, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final int[] slots = engine.addResources( List.of("resource_0", "resource_1", "resource_2") );
+        for( int i = 0; i < slots.length; ++i )
+            assertEquals( slots[i], engine.slotOf("resource_" + i) );
+
+        engine.removeResource( "resource_1" );
+        assertEquals( slots[1], engine.addResource("resource_3") );
+
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String resource = engine.getResource( random.nextLong() );
+            assertTrue( ! "resource_1".equals(resource) );
+
+        }
+
+    }
+
 }
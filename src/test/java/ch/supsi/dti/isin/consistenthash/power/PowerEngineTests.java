@@ -212,4 +212,133 @@ public class PowerEngineTests implements Contract<PowerEngine>
         
     }
 
-}
\ No newline at end of file
+    @Test
+    public void in_compatibility_mode_the_original_placements_should_be_reproduced()
+    {
+
+        for( int size : new int[] {1, 7, 10, 16, 100, 1000} )
+        {
+
+            final PowerEngine engine = new PowerEngine( size, ConsistentHash.DEFAULT_HASH_FUNCTION, true );
+            for( int i = 0; i < 1000; ++i )
+            {
+
+                final long keyHash = random.nextLong();
+                assertEquals( originalBucket(size, keyHash), engine.getBucket(keyHash) );
+
+            }
+
+        }
+
+    }
+
+    @Test
+    public void the_compatibility_mode_should_be_enabled_by_default()
+    {
+
+        final PowerEngine engine = new PowerEngine( 100, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( originalBucket(100, keyHash), engine.getBucket(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void the_compatibility_mode_should_be_preserved_by_copies()
+    {
+
+        final PowerEngine engine = new PowerEngine( 100, ConsistentHash.DEFAULT_HASH_FUNCTION, true ).copy();
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long keyHash = random.nextLong();
+            assertEquals( originalBucket(100, keyHash), engine.getBucket(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void the_keys_should_be_spread_evenly_over_the_buckets()
+    {
+
+        final PowerEngine engine = new PowerEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION, false );
+        final int[] counts = new int[10];
+        for( int i = 0; i < 100000; ++i )
+            ++counts[engine.getBucket( random.nextLong() )];
+
+        for( int count : counts )
+            assertTrue( count > 9000 && count < 11000, () -> "Unexpected count " + count );
+
+    }
+
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Computes the bucket of the given key as the original implementation.
+     * 
+     * @param size    the number of buckets
+     * @param keyHash the hash of the key
+     * @return the expected bucket
+     */
+    private int originalBucket( int size, long keyHash )
+    {
+
+        int m = Integer.highestOneBit( size );
+        if( size > m )
+            m = m << 1;
+
+        final int r1 = originalF( keyHash, m - 1 );
+        if( r1 < size )
+            return r1;
+
+        long state = keyHash;
+        int candidate = (m >> 1) - 1;
+        while( true )
+        {
+
+            state = 2862933555777941757L * state + 1;
+            final double nextDouble = ((double) ((int) (state >>> 33) + 1)) / 0x1.0p31;
+            final int next = (int) ((candidate + 1) / nextDouble);
+            if( next < 0 || next >= size )
+                break;
+
+            candidate = next;
+
+        }
+
+        if( candidate > (m >> 1) - 1 )
+            return candidate;
+
+        return originalF( keyHash, (m >> 1) - 1 );
+
+    }
+
+    /**
+     * The function {@code f} of the original implementation.
+     * 
+     * @param keyHash the hash of the key
+     * @param mx      the mask to apply
+     * @return the intermediate bucket
+     */
+    private int originalF( long keyHash, int mx )
+    {
+
+        final int kBits = (int) (keyHash & mx);
+        if( kBits == 0 )
+            return 0;
+
+        final int h = Integer.highestOneBit( kBits );
+        return h + ((int) ConsistentHash.DEFAULT_HASH_FUNCTION.hash(keyHash, h) & (h - 1));
+
+    }
+
+}
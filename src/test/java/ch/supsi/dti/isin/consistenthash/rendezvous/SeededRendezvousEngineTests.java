@@ -0,0 +1,364 @@
+package ch.supsi.dti.isin.consistenthash.rendezvous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+
+/**
+ * Test suite for the class {@link SeededRendezvousEngine}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class SeededRendezvousEngineTests
+{
+
+
+    /** Random values generator */
+    private static final Random random = new Random();
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void adding_a_resource_should_change_the_size()
+    {
+
+        final SeededRendezvousEngine engine = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        assertEquals( 0, engine.size() );
+
+        final int resources = random.nextInt( 90 ) + 10;
+        for( int i = 0; i < resources; ++ i )
+        {
+
+            engine.addResources( Collections.singleton("resource_" + i) );
+            assertEquals( i + 1, engine.size() );
+
+        }
+
+    }
+
+    @Test
+    public void removing_a_resource_should_change_the_size()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 100 );
+        assertEquals( 100, engine.size() );
+
+        final int resources = random.nextInt( 90 ) + 10;
+        for( int i = 0; i < resources; ++ i )
+        {
+
+            engine.removeResources( Collections.singleton("resource_" + i) );
+            assertEquals( 99 - i, engine.size() );
+
+        }
+
+    }
+
+    @Test
+    public void if_the_cluster_has_one_node_all_the_keys_should_land_to_such_a_node()
+    {
+
+        final String expected = "resource";
+        final SeededRendezvousEngine engine = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addResources( Collections.singleton(expected) );
+
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final String resource = engine.getResource( key );
+
+            assertNotNull( resource );
+            assertEquals( expected, resource );
+
+        }
+
+    }
+
+    @Test
+    public void if_the_cluster_has_multiple_nodes_each_node_should_get_some_key()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 10 );
+        final Map<String,AtomicInteger> resources = new HashMap<>();
+        for( int i = 0; i < 10; ++i )
+            resources.put( "resource_" + i, new AtomicInteger() );
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final String resource = engine.getResource( key );
+            assertNotNull( resource );
+
+            final AtomicInteger count = resources.get( resource );
+            assertNotNull( count );
+
+            count.incrementAndGet();
+
+        }
+
+        resources.values().stream().forEach( count ->
+        {
+            assertTrue( count.get() > 0 );
+        });
+
+    }
+
+    @Test
+    public void the_key_and_its_hash_should_be_mapped_to_the_same_resource()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 10 );
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final long keyHash = ConsistentHash.DEFAULT_HASH_FUNCTION.hash( key );
+
+            assertEquals( engine.getResource(key), engine.getResource(keyHash) );
+
+        }
+
+    }
+
+    @Test
+    public void removing_a_resource_should_move_only_its_keys()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 20 );
+        final List<String> keys = randomKeys( 2000 );
+        final List<String> before = mapAll( engine, keys );
+
+        final String removed = "resource_" + random.nextInt( 20 );
+        engine.removeResources( Collections.singleton(removed) );
+
+        final List<String> after = mapAll( engine, keys );
+        for( int i = 0; i < keys.size(); ++i )
+        {
+
+            if( removed.equals(before.get(i)) )
+                assertNotEquals( removed, after.get(i) );
+            else
+                assertEquals( before.get(i), after.get(i) );
+
+        }
+
+    }
+
+    @Test
+    public void adding_a_resource_should_move_keys_only_to_such_a_resource()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 20 );
+        final List<String> keys = randomKeys( 2000 );
+        final List<String> before = mapAll( engine, keys );
+
+        final String added = "resource_new";
+        engine.addResources( Collections.singleton(added) );
+
+        final List<String> after = mapAll( engine, keys );
+        for( int i = 0; i < keys.size(); ++i )
+        {
+
+            if( ! before.get(i).equals(after.get(i)) )
+                assertEquals( added, after.get(i) );
+
+        }
+
+    }
+
+    @Test
+    public void each_resource_should_get_a_share_of_the_keys_proportional_to_its_weight()
+    {
+
+        final int[] weights = { 1, 1, 2, 4 };
+        final SeededRendezvousEngine engine = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addResources( List.of("resource_0", "resource_1", "resource_2", "resource_3"), weights );
+
+        final int keys = 80000;
+        final Map<String,AtomicInteger> counts = new HashMap<>();
+        for( int i = 0; i < keys; ++i )
+            counts.computeIfAbsent( engine.getResource(random.nextLong()), r -> new AtomicInteger() ).incrementAndGet();
+
+        for( int i = 0; i < weights.length; ++i )
+        {
+
+            final int expected = keys * weights[i] / 8;
+            final int load = counts.get( "resource_" + i ).get();
+            assertTrue( load > expected * 0.9 && load < expected * 1.1, () -> "Unexpected load " + load );
+
+        }
+
+    }
+
+    @Test
+    public void equal_weights_should_map_the_keys_as_without_weights()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 20 );
+        final List<String> keys = randomKeys( 2000 );
+
+        final List<String> resources = new ArrayList<>( 20 );
+        for( int i = 0; i < 20; ++i )
+            resources.add( "resource_" + i );
+
+        final int[] weights = new int[20];
+        Arrays.fill( weights, 3 );
+
+        final SeededRendezvousEngine weighted = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        weighted.addResources( resources, weights );
+
+        assertEquals( mapAll(engine, keys), mapAll(weighted, keys) );
+
+    }
+
+    @Test
+    public void removing_a_weighted_resource_should_move_only_its_keys()
+    {
+
+        final SeededRendezvousEngine engine = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final List<String> resources = new ArrayList<>( 20 );
+        final int[] weights = new int[20];
+        for( int i = 0; i < 20; ++i )
+        {
+            resources.add( "resource_" + i );
+            weights[i] = 1 + i % 4;
+        }
+
+        engine.addResources( resources, weights );
+
+        final List<String> keys = randomKeys( 2000 );
+        final List<String> before = mapAll( engine, keys );
+
+        final String removed = "resource_" + random.nextInt( 20 );
+        engine.removeResources( Collections.singleton(removed) );
+
+        final List<String> after = mapAll( engine, keys );
+        for( int i = 0; i < keys.size(); ++i )
+        {
+
+            if( removed.equals(before.get(i)) )
+                assertNotEquals( removed, after.get(i) );
+            else
+                assertEquals( before.get(i), after.get(i) );
+
+        }
+
+    }
+
+    @Test
+    public void the_slots_of_the_removed_resources_should_be_reused()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 10 );
+        final int slot = engine.slotOf( "resource_3" );
+
+        engine.removeResources( Collections.singleton("resource_3") );
+        final int[] added = engine.addResources( Collections.singleton("resource_new") );
+
+        assertEquals( slot, added[0] );
+        assertEquals( slot, engine.slotOf("resource_new") );
+
+    }
+
+    @Test
+    public void changes_to_the_copy_should_not_affect_the_engine()
+    {
+
+        final SeededRendezvousEngine engine = newEngine( 10 );
+        final List<String> keys = randomKeys( 1000 );
+        final List<String> before = mapAll( engine, keys );
+
+        final SeededRendezvousEngine copy = engine.copy();
+        copy.removeResources( Collections.singleton("resource_0") );
+        copy.addResources( Collections.singleton("resource_new") );
+
+        assertEquals( 10, engine.size() );
+        assertEquals( before, mapAll(engine, keys) );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Creates an engine with the given number of resources.
+     *
+     * @param size number of resources
+     * @return a new engine
+     */
+    private SeededRendezvousEngine newEngine( int size )
+    {
+
+        final List<String> resources = new ArrayList<>( size );
+        for( int i = 0; i < size; ++i )
+            resources.add( "resource_" + i );
+
+        final SeededRendezvousEngine engine = new SeededRendezvousEngine( ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addResources( resources );
+
+        return engine;
+
+    }
+
+    /**
+     * Creates the given number of random keys.
+     *
+     * @param count number of keys
+     * @return the random keys
+     */
+    private List<String> randomKeys( int count )
+    {
+
+        final List<String> keys = new ArrayList<>( count );
+        for( int i = 0; i < count; ++i )
+            keys.add( String.valueOf(random.nextLong()) );
+
+        return keys;
+
+    }
+
+    /**
+     * Maps each key to the related resource.
+     *
+     * @param engine the engine to use
+     * @param keys   the keys to map
+     * @return the resources in the same order of the keys
+     */
+    private List<String> mapAll( SeededRendezvousEngine engine, List<String> keys )
+    {
+
+        final List<String> resources = new ArrayList<>( keys.size() );
+        for( String key : keys )
+            resources.add( engine.getResource(key) );
+
+        return resources;
+
+    }
+
+}
@@ -0,0 +1,354 @@
+package ch.supsi.dti.isin.consistenthash.ring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+/**
+ * Test suite for the class {@link FlatRingEngine}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class FlatRingEngineTests
+{
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @ValueSource(ints={1,10,100,1000})
+    public void adding_a_physical_node_should_add_the_related_virtual_nodes( int vNodesCount )
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( vNodesCount, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addNode( "physical-node-1" );
+        assertEquals( vNodesCount, engine.virtualNodesCount() );
+
+        engine.addNodes( List.of("physical-node-2", "physical-node-3") );
+        assertEquals( vNodesCount * 3, engine.virtualNodesCount() );
+
+    }
+
+    @Test
+    public void the_number_of_virtual_nodes_should_be_proportional_to_the_weight()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final int[] nodes = engine.addNodes( List.of("physical-node-1", "physical-node-2"), new int[] { 1, 3 } );
+        assertEquals( 40, engine.virtualNodesCount() );
+
+        engine.removeNode( nodes[1] );
+        assertEquals( 10, engine.virtualNodesCount() );
+
+    }
+
+    @Test
+    public void weighted_nodes_should_be_mapped_as_in_the_tree_based_engine()
+    {
+
+        final RingEngine tree = new RingEngine( 100, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        tree.addNode( "physical-node-1", 1 );
+        tree.addNode( "physical-node-2", 3 );
+
+        final FlatRingEngine flat = new FlatRingEngine( 100, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        flat.addNodes( List.of("physical-node-1", "physical-node-2"), new int[] { 1, 3 } );
+
+        assertSameMapping( tree, flat );
+
+    }
+
+    @Test
+    public void removing_physical_nodes_should_reduce_the_size_of_the_ring_accordingly()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final int[] nodes = engine.addNodes( List.of("physical-node-1", "physical-node-2", "physical-node-3") );
+        assertEquals( 30, engine.virtualNodesCount() );
+
+        engine.removeNodes( new int[] { nodes[0], nodes[2] } );
+        assertEquals( 10, engine.virtualNodesCount() );
+
+        final Random random = new Random();
+        for( int i = 0; i < 100; ++i )
+            assertEquals( "physical-node-2", engine.getNode(random.nextLong()) );
+
+    }
+
+    @Test
+    public void the_indexes_of_removed_nodes_should_be_reused()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addNode( "physical-node-1" );
+
+        final int removed = engine.addNode( "physical-node-2" );
+        engine.removeNode( removed );
+
+        assertEquals( removed, engine.addNode("physical-node-3") );
+        assertEquals( 20, engine.virtualNodesCount() );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"murmur3","xxh3"})
+    public void keys_should_be_mapped_to_the_same_nodes_as_the_tree_based_engine( String function )
+    {
+
+        final HashFunction hashFunction = HashFunction.create( HashFunction.Algorithm.valueOf(function.toUpperCase()) );
+        final RingEngine tree = new RingEngine( 100, hashFunction );
+        final FlatRingEngine flat = new FlatRingEngine( 100, hashFunction );
+
+        final Map<String,Collection<VirtualNode>> vNodes = new HashMap<>();
+        final Map<String,Integer> indexes = new HashMap<>();
+        final List<String> batch = new ArrayList<>();
+        for( int i = 0; i < 100; ++i )
+        {
+            final String pNode = "physical-node-" + i;
+            vNodes.put( pNode, tree.addNode(pNode) );
+            batch.add( pNode );
+        }
+
+        final int[] added = flat.addNodes( batch );
+        for( int i = 0; i < added.length; ++i )
+            indexes.put( batch.get(i), added[i] );
+
+        assertSameMapping( tree, flat );
+
+        for( int i = 0; i < 100; i += 3 )
+        {
+            final String pNode = "physical-node-" + i;
+            tree.removeNodes( vNodes.get(pNode) );
+            flat.removeNode( indexes.get(pNode) );
+        }
+
+        assertEquals( tree.virtualNodesCount(), flat.virtualNodesCount() );
+        assertSameMapping( tree, flat );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={1,8,12,16})
+    public void the_prefix_index_should_not_change_the_mapping( int indexBits )
+    {
+
+        final HashFunction hashFunction = HashFunction.create( HashFunction.Algorithm.XXH3 );
+        final FlatRingEngine plain = new FlatRingEngine( 100, hashFunction );
+        final FlatRingEngine indexed = new FlatRingEngine( 100, indexBits, hashFunction );
+
+        final List<String> batch = new ArrayList<>();
+        for( int i = 0; i < 50; ++i )
+            batch.add( "physical-node-" + i );
+
+        final int[] nodes = plain.addNodes( batch );
+        indexed.addNodes( batch );
+        assertSameMapping( plain, indexed );
+
+        for( int i = 0; i < 50; ++i )
+        {
+            final String pNode = "added-node-" + i;
+            plain.addNode( pNode );
+            indexed.addNode( pNode );
+        }
+        assertSameMapping( plain, indexed );
+
+        final int[] toRemove = Arrays.copyOf( nodes, 30 );
+        plain.removeNodes( toRemove );
+        indexed.removeNodes( toRemove );
+        assertSameMapping( plain, indexed );
+
+        final FlatRingEngine copy = indexed.copy();
+        copy.addNode( "copied-node" );
+        plain.addNode( "copied-node" );
+        assertSameMapping( plain, copy );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"MURMUR3","CRC32","MD5","XX"})
+    public void the_prefix_index_should_not_change_the_mapping_with_32_bits_hash_functions( String algorithm )
+    {
+
+        final HashFunction hashFunction = HashFunction.create( HashFunction.Algorithm.valueOf(algorithm) );
+        final FlatRingEngine plain = new FlatRingEngine( 100, hashFunction );
+        final FlatRingEngine indexed = new FlatRingEngine( 100, 12, hashFunction );
+
+        final List<String> batch = new ArrayList<>();
+        for( int i = 0; i < 50; ++i )
+            batch.add( "physical-node-" + i );
+
+        final int[] nodes = plain.addNodes( batch );
+        indexed.addNodes( batch );
+        assertSameMapping( plain, indexed );
+
+        plain.removeNodes( Arrays.copyOf(nodes, 30) );
+        indexed.removeNodes( Arrays.copyOf(nodes, 30) );
+        assertSameMapping( plain, indexed );
+
+        for( int i = 0; i < 10000; ++i )
+        {
+            final String key = "key-" + i;
+            assertEquals( plain.getNode(key), indexed.getNode(key) );
+        }
+
+    }
+
+    @Test
+    public void the_prefix_index_should_shorten_the_search_with_the_default_hash_function()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 100, 12, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        for( int i = 0; i < 100; ++i )
+            engine.addNode( "physical-node-" + i );
+
+        int longest = 0;
+        long total = 0;
+        for( int i = 0; i < 10000; ++i )
+        {
+            final int length = engine.searchLength( ConsistentHash.DEFAULT_HASH_FUNCTION.hash("key-" + i) );
+            longest = Math.max( longest, length );
+            total += length;
+        }
+
+        /* 10000 virtual nodes over 4096 prefixes, about 2.4 nodes each on average. */
+        assertTrue( total / 10000.0 < 10, "Average search length " + total / 10000.0 );
+        assertTrue( longest < 100, "Longest search length " + longest );
+
+    }
+
+    @Test
+    public void changes_to_a_copy_should_not_affect_the_original()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final int node = engine.addNode( "physical-node-1" );
+
+        final FlatRingEngine copy = engine.copy();
+        copy.addNode( "physical-node-2" );
+        copy.removeNode( node );
+
+        assertEquals( 10, engine.virtualNodesCount() );
+        assertEquals( 10, copy.virtualNodesCount() );
+
+        final Random random = new Random();
+        for( int i = 0; i < 100; ++i )
+        {
+            final long keyHash = random.nextLong();
+            assertEquals( "physical-node-1", engine.getNode(keyHash) );
+            assertEquals( "physical-node-2", copy.getNode(keyHash) );
+        }
+
+    }
+
+    @Test
+    public void if_the_cluster_has_multiple_nodes_each_node_should_get_some_key()
+    {
+
+        final FlatRingEngine engine = new FlatRingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+
+        final Map<String,AtomicInteger> pNodes = new HashMap<>();
+        for( int i = 0; i < 10; ++i )
+        {
+            final String pNode = "physical-node-" + i;
+            pNodes.put( pNode, new AtomicInteger() );
+            engine.addNode( pNode );
+        }
+
+        final Random random = new Random();
+        for( int i = 0; i < 1000; ++i )
+        {
+            
+            final String key = String.valueOf( random.nextInt() );
+            final String node = engine.getNode( key );
+            assertNotNull( node );
+
+            final AtomicInteger count = pNodes.get( node );
+            assertNotNull( count );
+
+            count.incrementAndGet();
+
+        }
+
+        pNodes.values().stream().forEach( count ->
+        {
+            assertTrue( count.get() > 0 );
+        });
+        
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Checks that the given engines map the keys to the same nodes.
+     * 
+     * @param expected the engine without prefix index
+     * @param actual   the engine with prefix index
+     */
+    private void assertSameMapping( FlatRingEngine expected, FlatRingEngine actual )
+    {
+
+        assertEquals( expected.virtualNodesCount(), actual.virtualNodesCount() );
+        assertEquals( expected.getNode(Long.MIN_VALUE), actual.getNode(Long.MIN_VALUE) );
+        assertEquals( expected.getNode(Long.MAX_VALUE), actual.getNode(Long.MAX_VALUE) );
+
+        final Random random = new Random();
+        for( int i = 0; i < 10000; ++i )
+        {
+            final long keyHash = random.nextLong();
+            assertEquals( expected.getNode(keyHash), actual.getNode(keyHash) );
+        }
+
+    }
+
+    /**
+     * Checks that the given engines map the keys to the same nodes.
+     * 
+     * @param tree the tree based engine
+     * @param flat the flat engine
+     */
+    private void assertSameMapping( RingEngine tree, FlatRingEngine flat )
+    {
+
+        tree.forEach( (hash,vNode) ->
+        {
+            assertEquals( vNode.physicalNode, flat.getNode(hash) );
+            assertEquals( tree.getNode(hash + 1), flat.getNode(hash + 1) );
+        });
+
+        assertEquals( tree.getNode(Long.MIN_VALUE), flat.getNode(Long.MIN_VALUE) );
+        assertEquals( tree.getNode(Long.MAX_VALUE), flat.getNode(Long.MAX_VALUE) );
+
+        final Random random = new Random();
+        for( int i = 0; i < 10000; ++i )
+        {
+            final long keyHash = random.nextLong();
+            assertEquals( tree.getNode(keyHash), flat.getNode(keyHash) );
+        }
+
+    }
+
+}
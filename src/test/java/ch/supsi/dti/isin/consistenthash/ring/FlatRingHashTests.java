@@ -0,0 +1,118 @@
+package ch.supsi.dti.isin.consistenthash.ring;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.cluster.Node;
+import ch.supsi.dti.isin.cluster.SimpleNode;
+import ch.supsi.dti.isin.consistenthash.ConsistentHashContract;
+
+/**
+ * Test suite for the class {@link FlatRingHash}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class FlatRingHashTests implements ConsistentHashContract<FlatRingHash>
+{
+
+    /* ******************* */
+    /*  INTERFACE METHODS  */
+    /* ******************* */
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FlatRingHash sampleValue( Collection<? extends Node> nodes )
+    {
+
+        return new FlatRingHash( nodes );
+
+    }
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    public void the_cluster_must_have_at_least_one_node( List<Node> nodes )
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> new FlatRingHash( nodes )
+        );
+        
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_null()
+    {
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> new FlatRingHash( Collections.singletonList(null) )
+        );
+        
+    }
+
+    @Test
+    public void initial_nodes_cannot_be_duplicated()
+    {
+
+        final List<Node> nodes =IntStream.of( 1, 1 )
+            .mapToObj( SimpleNode::of )
+            .collect( toList() );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> new FlatRingHash( nodes )
+        );
+        
+    }
+
+    @Test
+    public void a_weight_overflowing_the_virtual_nodes_should_be_rejected()
+    {
+
+        final FlatRingHash ring = sampleValue( 10 );
+        final Node heavy = SimpleNode.of( "heavy", Integer.MAX_VALUE );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> ring.addNodes( Collections.singletonList(heavy) )
+        );
+        assertEquals( 10, ring.nodeCount() );
+
+    }
+
+
+    @ValueSource(ints={10,100,1000,10000})
+    @ParameterizedTest(name="new FlatRingHash({0}) -> SUCCESS")
+    public void ring_should_be_created_for_any_cluster_size( int size )
+    {
+
+        assertDoesNotThrow( () -> sampleValue(size) );
+
+    }
+
+}
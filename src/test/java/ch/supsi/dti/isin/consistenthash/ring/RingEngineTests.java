@@ -118,6 +118,20 @@ public class RingEngineTests
     }
 
 
+    @Test
+    public void the_number_of_virtual_nodes_should_be_proportional_to_the_weight()
+    {
+
+        final RingEngine engine = new RingEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        final Collection<VirtualNode> light = engine.addNode( "physical-node-1", 1 );
+        final Collection<VirtualNode> heavy = engine.addNode( "physical-node-2", 3 );
+
+        assertEquals( 10, light.size() );
+        assertEquals( 30, heavy.size() );
+        assertEquals( 40, engine.virtualNodesCount() );
+
+    }
+
     @Test
     public void removing_virtual_nodes_should_reduce_the_size_of_the_ring_accordingly()
     {
@@ -2,6 +2,7 @@ package ch.supsi.dti.isin.consistenthash.ring;
 
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Collection;
@@ -89,6 +90,21 @@ public class RingHashTests implements ConsistentHashContract<RingHash>
         
     }
 
+    @Test
+    public void a_weight_overflowing_the_virtual_nodes_should_be_rejected()
+    {
+
+        final RingHash ring = sampleValue( 10 );
+        final Node heavy = SimpleNode.of( "heavy", Integer.MAX_VALUE );
+
+        assertThrows(
+            RequirementFailure.class,
+            () -> ring.addNodes( Collections.singletonList(heavy) )
+        );
+        assertEquals( 10, ring.nodeCount() );
+
+    }
+
 
     @ValueSource(ints={10,100,1000,10000})
     @ParameterizedTest(name="new RingHash({0} -> SUCCESS")
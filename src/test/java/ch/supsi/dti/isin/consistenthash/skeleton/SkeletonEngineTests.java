@@ -0,0 +1,386 @@
+package ch.supsi.dti.isin.consistenthash.skeleton;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+
+/**
+ * Test suite for the class {@link SkeletonEngine}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class SkeletonEngineTests
+{
+
+
+    /** Random values generator */
+    private static final Random random = new Random();
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void adding_a_resource_should_change_the_size()
+    {
+
+        final SkeletonEngine engine = new SkeletonEngine( 4, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        assertEquals( 0, engine.size() );
+
+        final int resources = random.nextInt( 90 ) + 10;
+        for( int i = 0; i < resources; ++ i )
+        {
+
+            engine.addResources( Collections.singleton("resource_" + i) );
+            assertEquals( i + 1, engine.size() );
+
+        }
+
+    }
+
+    @Test
+    public void removing_a_resource_should_change_the_size()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 100 );
+        assertEquals( 100, engine.size() );
+
+        final int resources = random.nextInt( 90 ) + 10;
+        for( int i = 0; i < resources; ++ i )
+        {
+
+            engine.removeResources( Collections.singleton("resource_" + i) );
+            assertEquals( 99 - i, engine.size() );
+
+        }
+
+    }
+
+    @Test
+    public void the_depth_should_grow_with_the_number_of_slots()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 4 );
+        assertEquals( 1, engine.depth() );
+
+        engine.addResources( Collections.singleton("resource_4") );
+        assertEquals( 2, engine.depth() );
+
+        engine.addResources( newResources(5, 65) );
+        assertEquals( 4, engine.depth() );
+
+    }
+
+    @Test
+    public void if_the_cluster_has_one_node_all_the_keys_should_land_to_such_a_node()
+    {
+
+        final String expected = "resource";
+        final SkeletonEngine engine = new SkeletonEngine( 8, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addResources( Collections.singleton(expected) );
+
+        for( int i = 0; i < 100; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final String resource = engine.getResource( key );
+
+            assertNotNull( resource );
+            assertEquals( expected, resource );
+
+        }
+
+    }
+
+    @Test
+    public void if_the_cluster_has_multiple_nodes_each_node_should_get_some_key()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 50 );
+        final Map<String,AtomicInteger> resources = new HashMap<>();
+        for( int i = 0; i < 50; ++i )
+            resources.put( "resource_" + i, new AtomicInteger() );
+
+        for( int i = 0; i < 10000; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final String resource = engine.getResource( key );
+            assertNotNull( resource );
+
+            final AtomicInteger count = resources.get( resource );
+            assertNotNull( count );
+
+            count.incrementAndGet();
+
+        }
+
+        resources.values().stream().forEach( count ->
+        {
+            assertTrue( count.get() > 0 );
+        });
+
+    }
+
+    @Test
+    public void the_nodes_in_a_partial_cluster_should_not_get_more_keys()
+    {
+
+        final SkeletonEngine engine = newEngine( 8, 9 );
+        final int keys = 90000;
+
+        int count = 0;
+        for( int i = 0; i < keys; ++i )
+            if( "resource_8".equals(engine.getResource(random.nextLong())) )
+                ++count;
+
+        final int expected = keys / 9;
+        final int load = count;
+        assertTrue( load > expected * 0.8 && load < expected * 1.2, () -> "Unexpected load " + load );
+
+    }
+
+    @Test
+    public void the_key_and_its_hash_should_be_mapped_to_the_same_resource()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 30 );
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final String key = String.valueOf( random.nextInt() );
+            final long keyHash = ConsistentHash.DEFAULT_HASH_FUNCTION.hash( key );
+
+            assertEquals( engine.getResource(key), engine.getResource(keyHash) );
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={2,4,8})
+    public void removing_a_resource_should_move_only_its_keys( int fanout )
+    {
+
+        final SkeletonEngine engine = newEngine( fanout, 100 );
+        final List<String> keys = randomKeys( 5000 );
+
+        for( int round = 0; round < 20; ++round )
+        {
+
+            final List<String> before = mapAll( engine, keys );
+
+            final String removed = "resource_" + random.nextInt( 100 );
+            if( engine.size() == 1 || ! before.contains(removed) )
+                continue;
+
+            engine.removeResources( Collections.singleton(removed) );
+
+            final List<String> after = mapAll( engine, keys );
+            for( int i = 0; i < keys.size(); ++i )
+            {
+
+                if( removed.equals(before.get(i)) )
+                    assertNotEquals( removed, after.get(i) );
+                else
+                    assertEquals( before.get(i), after.get(i) );
+
+            }
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={2,4,8})
+    public void adding_a_resource_in_a_free_slot_should_move_keys_only_to_such_a_resource( int fanout )
+    {
+
+        final SkeletonEngine engine = newEngine( fanout, 100 );
+        final List<String> keys = randomKeys( 5000 );
+
+        final List<String> toRemove = new ArrayList<>();
+        for( int i = 0; i < 100; i += 3 )
+            toRemove.add( "resource_" + i );
+
+        engine.removeResources( toRemove );
+        for( int i = 0; i < toRemove.size(); ++i )
+        {
+
+            final List<String> before = mapAll( engine, keys );
+
+            final String added = "resource_new_" + i;
+            engine.addResources( Collections.singleton(added) );
+
+            final List<String> after = mapAll( engine, keys );
+            for( int k = 0; k < keys.size(); ++k )
+            {
+
+                if( ! before.get(k).equals(after.get(k)) )
+                    assertEquals( added, after.get(k) );
+
+            }
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={2,4,8})
+    public void appending_a_slot_should_move_at_most_depth_shares_of_keys( int fanout )
+    {
+
+        final SkeletonEngine engine = newEngine( fanout, 100 );
+        final List<String> keys = randomKeys( 20000 );
+
+        for( int i = 0; i < 40; ++i )
+        {
+
+            final List<String> before = mapAll( engine, keys );
+
+            final String added = "resource_new_" + i;
+            engine.addResources( Collections.singleton(added) );
+
+            final List<String> after = mapAll( engine, keys );
+
+            int moved = 0;
+            for( int k = 0; k < keys.size(); ++k )
+                if( ! before.get(k).equals(after.get(k)) )
+                    ++moved;
+
+            assertTrue( after.contains(added) );
+            assertTrue( moved <= engine.depth() * keys.size() / engine.size() );
+
+        }
+
+    }
+
+    @Test
+    public void the_slots_of_the_removed_resources_should_be_reused()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 10 );
+        final int slot = engine.slotOf( "resource_3" );
+
+        engine.removeResources( Collections.singleton("resource_3") );
+        final int[] added = engine.addResources( Collections.singleton("resource_new") );
+
+        assertEquals( slot, added[0] );
+        assertEquals( slot, engine.slotOf("resource_new") );
+
+    }
+
+    @Test
+    public void changes_to_the_copy_should_not_affect_the_engine()
+    {
+
+        final SkeletonEngine engine = newEngine( 4, 10 );
+        final List<String> keys = randomKeys( 1000 );
+        final List<String> before = mapAll( engine, keys );
+
+        final SkeletonEngine copy = engine.copy();
+        copy.removeResources( Collections.singleton("resource_0") );
+        copy.addResources( newResources(10, 100) );
+
+        assertEquals( 10, engine.size() );
+        assertEquals( before, mapAll(engine, keys) );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Creates an engine with the given number of resources.
+     *
+     * @param fanout the fan-out of the engine
+     * @param size   number of resources
+     * @return a new engine
+     */
+    private SkeletonEngine newEngine( int fanout, int size )
+    {
+
+        final SkeletonEngine engine = new SkeletonEngine( fanout, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        engine.addResources( newResources(0, size) );
+
+        return engine;
+
+    }
+
+    /**
+     * Creates the resources with index in the given range.
+     *
+     * @param from the first index, inclusive
+     * @param to   the last index, exclusive
+     * @return the names of the resources
+     */
+    private List<String> newResources( int from, int to )
+    {
+
+        final List<String> resources = new ArrayList<>( to - from );
+        for( int i = from; i < to; ++i )
+            resources.add( "resource_" + i );
+
+        return resources;
+
+    }
+
+    /**
+     * Creates the given number of random keys.
+     *
+     * @param count number of keys
+     * @return the random keys
+     */
+    private List<String> randomKeys( int count )
+    {
+
+        final List<String> keys = new ArrayList<>( count );
+        for( int i = 0; i < count; ++i )
+            keys.add( String.valueOf(random.nextLong()) );
+
+        return keys;
+
+    }
+
+    /**
+     * Maps each key to the related resource.
+     *
+     * @param engine the engine to use
+     * @param keys   the keys to map
+     * @return the resources in the same order of the keys
+     */
+    private List<String> mapAll( SkeletonEngine engine, List<String> keys )
+    {
+
+        final List<String> resources = new ArrayList<>( keys.size() );
+        for( String key : keys )
+            resources.add( engine.getResource(key) );
+
+        return resources;
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package ch.supsi.dti.isin.consistenthash.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.nerd4j.utils.lang.RequirementFailure;
+
+import ch.supsi.dti.isin.consistenthash.BucketBasedEngine;
+import ch.supsi.dti.isin.consistenthash.ConsistentHash;
+import ch.supsi.dti.isin.consistenthash.binomial.BinomialEngine;
+import ch.supsi.dti.isin.consistenthash.flip.FlipEngine;
+import ch.supsi.dti.isin.consistenthash.jump.JumpEngine;
+import ch.supsi.dti.isin.consistenthash.power.PowerEngine;
+import ch.supsi.dti.isin.hashfunction.HashFunction;
+
+/**
+ * Test suite for the implementations of {@link VectorLookup}.
+ * <p>
+ * These tests are compiled and executed only by the {@code vector} build profile.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class VectorLookupTests
+{
+
+    private static final Random random = new Random();
+
+    /** The number of keys is not a multiple of the lanes to cover the scalar tail. */
+    private static final int KEYS = 1003;
+
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @ValueSource(ints={1,2,3,7,8,9,100,1000,12345,1<<20})
+    public void binomial_vector_lookup_should_return_the_scalar_buckets( int size )
+    {
+
+        final BinomialEngine engine = new BinomialEngine( size, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        assertSameBuckets( engine, VectorLookup.of(engine) );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={0,1,2,3,7,8,9,100,1000,12345,1<<20})
+    public void flip_vector_lookup_should_return_the_scalar_buckets( int size )
+    {
+
+        final FlipEngine engine = new FlipEngine( size, HashFunction.create(HashFunction.Algorithm.XX) );
+        assertSameBuckets( engine, VectorLookup.of(engine) );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={1,2,3,5,100,12345})
+    public void flip_vector_lookup_should_return_the_scalar_buckets_if_the_iterations_run_out( int size )
+    {
+
+        final FlipEngine engine = new FlipEngine( size, 1, HashFunction.create(HashFunction.Algorithm.XX) );
+        assertSameBuckets( engine, VectorLookup.of(engine) );
+
+    }
+
+    @Test
+    public void flip_vector_lookup_should_delegate_the_hash_functions_it_cannot_evaluate()
+    {
+
+        final FlipEngine engine = new FlipEngine( 100, HashFunction.create(HashFunction.Algorithm.MURMUR3) );
+        assertSameBuckets( engine, VectorLookup.of(engine) );
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={1,2,3,7,8,9,100,1000,12345,1<<20})
+    public void jump_vector_lookup_should_return_the_scalar_buckets( int size )
+    {
+
+        final JumpEngine engine = new JumpEngine( size, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        assertSameBuckets( engine, VectorLookup.of(engine) );
+
+    }
+
+    @Test
+    public void the_lookups_should_follow_the_changes_of_the_engine()
+    {
+
+        final BucketBasedEngine[] engines = {
+            new BinomialEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION ),
+            new FlipEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION ),
+            new JumpEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION )
+        };
+
+        for( BucketBasedEngine engine : engines )
+        {
+
+            final VectorLookup lookup = VectorLookup.of( engine );
+            for( int i = 0; i < 20; ++i )
+            {
+                engine.addBucket();
+                assertSameBuckets( engine, lookup );
+            }
+
+            for( int i = 0; i < 25; ++i )
+            {
+                engine.removeBucket( engine.size() - 1 );
+                assertSameBuckets( engine, lookup );
+            }
+
+        }
+
+    }
+
+    @Test
+    public void only_the_supported_engines_should_have_a_vector_lookup()
+    {
+
+        final PowerEngine engine = new PowerEngine( 10, ConsistentHash.DEFAULT_HASH_FUNCTION );
+        assertFalse( VectorLookup.supports(engine) );
+        assertThrows( RequirementFailure.class, () -> VectorLookup.of(engine) );
+
+        assertTrue( VectorLookup.supports(new JumpEngine(10, ConsistentHash.DEFAULT_HASH_FUNCTION)) );
+
+    }
+
+
+    /* **************** */
+    /*  HELPER METHODS  */
+    /* **************** */
+
+
+    /**
+     * Checks that the given lookup returns the same buckets as the engine.
+     *
+     * @param engine the engine to compare with
+     * @param lookup the lookup to check
+     */
+    private void assertSameBuckets( BucketBasedEngine engine, VectorLookup lookup )
+    {
+
+        final long[] keyHashes = new long[KEYS];
+        for( int i = 0; i < keyHashes.length; ++i )
+            keyHashes[i] = random.nextLong();
+
+        /* Extreme values are placed in the vectorized part of the batch. */
+        keyHashes[0] = 0;
+        keyHashes[1] = -1;
+        keyHashes[2] = Long.MIN_VALUE;
+        keyHashes[3] = Long.MAX_VALUE;
+
+        final int[] expected = new int[KEYS];
+        engine.getBuckets( keyHashes, expected );
+
+        final int[] actual = new int[KEYS];
+        lookup.getBuckets( keyHashes, actual );
+
+        assertArrayEquals( expected, actual );
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test suite for the class {@link HashBuffer}.
+ *
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class HashBufferTests
+{
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @ParameterizedTest
+    @ValueSource(strings={ "key", "citt\u00E0", "\u65E5\u672C\u8A9E", "smile \uD83D\uDE00", "a\uD800b", "\uDC00", "end\uD83D", "\uDE00\uD83D" })
+    public void the_utf8_layout_should_be_the_same_as_the_encoded_key_followed_by_the_seed( String key )
+    {
+
+        final int seed = 0xCAFEBABE;
+        final byte[] keyBytes = key.getBytes( StandardCharsets.UTF_8 );
+        final byte[] expected = ByteBuffer
+            .allocate( keyBytes.length + 4 )
+            .put( keyBytes )
+            .putInt( seed )
+            .array();
+
+        final int length = HashBuffer.utf8Length( key );
+        assertEquals( keyBytes.length, length );
+        assertArrayEquals( expected, Arrays.copyOf(HashBuffer.utf8(key, length, seed), length + 4) );
+
+    }
+
+}
@@ -1,22 +1,31 @@
 package ch.supsi.dti.isin.hashfunction;
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.nerd4j.utils.lang.Is;
 import org.nerd4j.utils.lang.RequirementFailure;
 
@@ -46,6 +55,22 @@ public interface HashFunctionContract<F extends HashFunction>extends Contract<F>
      */
     String expectedName();
 
+    /**
+     * Returns the bytes hashed by the tested function
+     * when hashing the given key.
+     * <p>
+     * By default, keys are encoded in {@code UTF-8}.
+     * 
+     * @param key the key to encode
+     * @return the bytes hashed by the tested function
+     */
+    default byte[] bytesOf( String key )
+    {
+
+        return key.getBytes( StandardCharsets.UTF_8 );
+
+    }
+
 
     /* ******************************************* */
     /*     TESTS FOR METHOD HashFunction.name()    */
@@ -70,6 +95,28 @@ public interface HashFunctionContract<F extends HashFunction>extends Contract<F>
     /* ******************************************* */
 
 
+    @Test
+    default void the_hash_values_should_fit_the_declared_bits()
+    {
+
+        final HashFunction function = sampleValue();
+        final int bits = function.bits();
+        if( bits >= Long.SIZE )
+            return;
+
+        for( int i = 0; i < 1000; ++i )
+        {
+
+            final long hash = function.hash( "key_" + i );
+            assertTrue( hash >= 0 && hash >>> bits == 0, "Hash " + hash + " exceeds " + bits + " bits" );
+
+            final long seeded = function.hash( hash, i, i );
+            assertTrue( seeded >= 0 && seeded >>> bits == 0, "Hash " + seeded + " exceeds " + bits + " bits" );
+
+        }
+
+    }
+
     @Test
     default void the_same_bytes_should_allways_produce_the_same_hash()
     {
@@ -148,7 +195,7 @@ public interface HashFunctionContract<F extends HashFunction>extends Contract<F>
 
         final HashFunction function = sampleValue();
         final String key = "key_" + Math.abs( random.nextInt() );
-        final byte[] bytes = key.getBytes( StandardCharsets.UTF_8 );
+        final byte[] bytes = bytesOf( key );
 
         assertEquals( function.hash(key), function.hash(bytes) );
 
@@ -235,6 +282,49 @@ public interface HashFunctionContract<F extends HashFunction>extends Contract<F>
 
     }
 
+    @Test
+    default void hashing_key_and_seed_should_be_the_same_as_hashing_the_related_byte_array()
+    {
+
+        final HashFunction function = sampleValue();
+        final StringBuilder key = new StringBuilder( "key_" );
+        for( int i = 0; i < 100; ++i )
+        {
+
+            key.append( (char)('a' + random.nextInt(26)) );
+            final int seed = random.nextInt();
+            final byte[] keyBytes = bytesOf( key.toString() );
+            final byte[] bytes = ByteBuffer
+                .allocate( keyBytes.length + 4 )
+                .put( keyBytes )
+                .putInt( seed )
+                .array();
+
+            final long expected = seed == 0 ? function.hash( keyBytes ) : function.hash( bytes );
+            assertEquals( expected, function.hash(key.toString(),seed) );
+
+        }
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={ "citt\u00E0", "\u65E5\u672C\u8A9E", "smile \uD83D\uDE00" })
+    default void hashing_a_non_ascii_key_and_seed_should_be_the_same_as_hashing_the_related_byte_array( String key )
+    {
+
+        final HashFunction function = sampleValue();
+        final int seed = random.nextInt() | 1;
+        final byte[] keyBytes = bytesOf( key );
+        final byte[] bytes = ByteBuffer
+            .allocate( keyBytes.length + 4 )
+            .put( keyBytes )
+            .putInt( seed )
+            .array();
+
+        assertEquals( function.hash(bytes), function.hash(key,seed) );
+
+    }
+
 
     /* ********************************************* */
     /*  TESTS FOR METHOD HashFunction.hash(long,int) */
@@ -339,4 +429,50 @@ public interface HashFunctionContract<F extends HashFunction>extends Contract<F>
 
     }
 
+
+    /* ******************************************* */
+    /*         TESTS FOR THREAD SAFETY             */
+    /* ******************************************* */
+
+
+    @Test
+    default void hashing_from_multiple_threads_should_produce_the_same_hashes() throws Exception
+    {
+
+        final HashFunction function = sampleValue();
+        final byte[][] inputs = new byte[1000][];
+        final long[] expected = new long[inputs.length];
+        for( int i = 0; i < inputs.length; ++i )
+        {
+            inputs[i] = new byte[random.nextInt(64) + 1];
+            random.nextBytes( inputs[i] );
+            expected[i] = function.hash( inputs[i] );
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try{
+
+            final List<Future<long[]>> results = new ArrayList<>();
+            for( int t = 0; t < 4; ++t )
+                results.add( executor.submit(() ->
+                {
+                    final long[] hashes = new long[inputs.length];
+                    for( int r = 0; r < 100; ++r )
+                        for( int i = 0; i < inputs.length; ++i )
+                            hashes[i] = function.hash( inputs[i] );
+                    return hashes;
+                }));
+
+            for( Future<long[]> result : results )
+                assertArrayEquals( expected, result.get(1, TimeUnit.MINUTES) );
+
+        }finally
+        {
+
+            executor.shutdownNow();
+
+        }
+
+    }
+
 }
@@ -42,6 +42,10 @@ public class HashFunctionTests
         map.put( Algorithm.CRC32, CRC32Hash.class );
         map.put( Algorithm.MD5, MD5Hash.class );
         map.put( Algorithm.XX, XXHash.class );
+        map.put( Algorithm.XXH3, XXH3Hash.class );
+        map.put( Algorithm.WYHASH, WyHash.class );
+        map.put( Algorithm.KOMIHASH, KomiHash.class );
+        map.put( Algorithm.MURMUR3_128, Murmur3_128Hash.class );
 
         map.forEach( (algorithm, expected) ->
         {
@@ -0,0 +1,51 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+
+/**
+ * Test suite for the class {@link KomiHash}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class KomiHashTests implements HashFunctionContract<KomiHash>
+{
+    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String expectedName()
+    {
+
+        return "Komihash";
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KomiHash sampleValue()
+    {
+
+        return new KomiHash();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] bytesOf( String key )
+    {
+
+        return key.getBytes( StandardCharsets.UTF_16LE );
+
+    }
+
+}
@@ -1,7 +1,11 @@
 package ch.supsi.dti.isin.hashfunction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 
 /**
  * Test suite for the class {@link MD5Hash}.
@@ -35,4 +39,25 @@ public class MD5HashTests implements HashFunctionContract<MD5Hash>
 
     }
 
+    @Test
+    public void the_hash_should_be_the_first_four_bytes_of_the_digest()
+    {
+
+        final MD5Hash function = sampleValue();
+        for( int length = 1; length <= 100; ++length )
+        {
+
+            final byte[] bytes = new byte[length];
+            random.nextBytes( bytes );
+
+            final byte[] digest = DigestUtils.md5( bytes );
+            final long expected = ((digest[0] & 0xFFL) << 24) | ((digest[1] & 0xFFL) << 16)
+                                | ((digest[2] & 0xFFL) << 8)  |  (digest[3] & 0xFFL);
+
+            assertEquals( expected, function.hash(bytes) );
+
+        }
+
+    }
+
 }
@@ -1,7 +1,10 @@
 package ch.supsi.dti.isin.hashfunction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 
 /**
  * Test suite for the class {@link Murmur3Hash}.
@@ -35,4 +38,84 @@ public class Murmur3HashTests implements HashFunctionContract<Murmur3Hash>
 
     }
 
+
+    /* ************** */
+    /*  TEST METHODS  */
+    /* ************** */
+
+
+    @Test
+    public void a_raw_hash_equal_to_integer_min_value_should_be_mapped_to_zero()
+    {
+
+        /*
+         * The steps of Murmur3 are invertible, therefore we can compute
+         * the seed that makes hash(0,seed) equal to Integer.MIN_VALUE
+         * before being made positive.
+         */
+        final int h = mix( mix(0, 0), 0 );
+        final int x = Integer.rotateRight( ((unfmix(Integer.MIN_VALUE) ^ 12) - 0xe6546b64) * inverse(5), 13 );
+        final int block = Integer.rotateRight( (x ^ h) * inverse(0x1b873593), 15 ) * inverse( 0xcc9e2d51 );
+
+        assertEquals( 0, sampleValue().hash(0L, Integer.reverseBytes(block)) );
+
+    }
+
+
+    /* ***************** */
+    /*  PRIVATE METHODS  */
+    /* ***************** */
+
+
+    /**
+     * Mixes a 4 bytes block into the given hash as {@code Murmur3} does.
+     *
+     * @param hash  the current hash value
+     * @param block the block to mix
+     * @return the updated hash value
+     */
+    private static int mix( int hash, int block )
+    {
+
+        final int k = Integer.rotateLeft( block * 0xcc9e2d51, 15 ) * 0x1b873593;
+        return Integer.rotateLeft( hash ^ k, 13 ) * 5 + 0xe6546b64;
+
+    }
+
+    /**
+     * Inverts the final avalanche of {@code Murmur3}.
+     *
+     * @param hash the final hash value
+     * @return the hash value before the avalanche
+     */
+    private static int unfmix( int hash )
+    {
+
+        hash ^= hash >>> 16;
+        hash *= inverse( 0xc2b2ae35 );
+        hash ^= hash >>> 13 ^ hash >>> 26;
+        hash *= inverse( 0x85ebca6b );
+        hash ^= hash >>> 16;
+
+        return hash;
+
+    }
+
+    /**
+     * Returns the multiplicative inverse modulo {@code 2^32} of the given odd value.
+     *
+     * @param value the odd value to invert
+     * @return the related inverse
+     */
+    private static int inverse( int value )
+    {
+
+        int inverse = value;
+        for( int i = 0; i < 5; ++i )
+            inverse *= 2 - value * inverse;
+
+        return inverse;
+
+    }
+
 }
@@ -0,0 +1,51 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+
+/**
+ * Test suite for the class {@link Murmur3_128Hash}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class Murmur3_128HashTests implements HashFunctionContract<Murmur3_128Hash>
+{
+    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String expectedName()
+    {
+
+        return "Murmur3-128";
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Murmur3_128Hash sampleValue()
+    {
+
+        return new Murmur3_128Hash();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] bytesOf( String key )
+    {
+
+        return key.getBytes( StandardCharsets.UTF_16LE );
+
+    }
+
+}
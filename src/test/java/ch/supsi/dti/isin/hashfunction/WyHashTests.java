@@ -0,0 +1,51 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+
+/**
+ * Test suite for the class {@link WyHash}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class WyHashTests implements HashFunctionContract<WyHash>
+{
+    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String expectedName()
+    {
+
+        return "Wyhash";
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WyHash sampleValue()
+    {
+
+        return new WyHash();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] bytesOf( String key )
+    {
+
+        return key.getBytes( StandardCharsets.UTF_16LE );
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package ch.supsi.dti.isin.hashfunction;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+
+/**
+ * Test suite for the class {@link XXH3Hash}.
+ * 
+ * @author Massimo Coluzzi
+ */
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+public class XXH3HashTests implements HashFunctionContract<XXH3Hash>
+{
+    
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String expectedName()
+    {
+
+        return "XXH3";
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public XXH3Hash sampleValue()
+    {
+
+        return new XXH3Hash();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] bytesOf( String key )
+    {
+
+        return key.getBytes( StandardCharsets.UTF_16LE );
+
+    }
+
+}
@@ -1,7 +1,11 @@
 package ch.supsi.dti.isin.hashfunction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.commons.codec.digest.XXHash32;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 
 /**
  * Test suite for the class {@link XXHash}.
@@ -35,4 +39,24 @@ public class XXHashTests implements HashFunctionContract<XXHash>
 
     }
 
+    @Test
+    public void the_hash_should_be_the_same_as_the_commons_codec_implementation()
+    {
+
+        final XXHash function = sampleValue();
+        for( int length = 1; length <= 100; ++length )
+        {
+
+            final byte[] bytes = new byte[length];
+            random.nextBytes( bytes );
+
+            final XXHash32 expected = new XXHash32();
+            expected.update( bytes );
+
+            assertEquals( expected.getValue(), function.hash(bytes) );
+
+        }
+
+    }
+
 }